@@ -0,0 +1,30 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.token")
+public class AuthTokenProperties {
+
+    // Klucz HMAC-SHA256 (min. 32 bajty); pusty = losowy przy starcie - tokeny nie przeżyją restartu
+    // i nie będą ważne na innych węzłach, więc w klastrze klucz musi być wspólny
+    private String secret = "";
+
+    // Profil prod: brak klucza zatrzymuje start zamiast po cichu generować losowy
+    private boolean requireSecret = false;
+
+    private String issuer = "booklovers";
+
+    // Zablokowany użytkownik nie odświeży tokena; wpis o unieważnieniu potrzebny jest tylko przez ten czas
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    // Blokada konta odrzuca tokeny dostępu na innych węzłach najpóźniej po tym czasie (lokalny cache token_revocations)
+    private Duration revocationCacheTtl = Duration.ofSeconds(10);
+
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+}
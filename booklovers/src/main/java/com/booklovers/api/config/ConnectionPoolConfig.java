@@ -0,0 +1,33 @@
+package com.booklovers.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Każda pula Hikari (główna i ewentualna replika) jest opakowana pomiarem czasu pobrania połączenia.
+ * Metryki hikaricp.connections.* (active, idle, pending, acquire) rejestruje Spring Boot Actuator.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static BeanPostProcessor slowAcquisitionDataSourcePostProcessor(
+            ObjectProvider<ConnectionPoolProperties> properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new SlowAcquisitionDataSource(pool,
+                            properties.getIfAvailable(ConnectionPoolProperties::new).getSlowAcquireThreshold(),
+                            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+                }
+                return bean;
+            }
+        };
+    }
+}
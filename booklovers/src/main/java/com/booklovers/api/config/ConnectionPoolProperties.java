@@ -0,0 +1,16 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.pool")
+public class ConnectionPoolProperties {
+
+    // Pobranie połączenia z puli dłuższe niż próg jest logowane razem z wywołującą metodą serwisu
+    private Duration slowAcquireThreshold = Duration.ofMillis(100);
+}
@@ -0,0 +1,46 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "cover.fetch")
+public class CoverFetchProperties {
+
+    private boolean enabled = true;
+
+    // Wątki pobierające okładki i kolejka zadań; przy pełnej kolejce okładka zostanie pobrana przy następnej edycji książki
+    // albo uzupełnianiu po starcie
+    private int threads = 2;
+
+    private int queueCapacity = 100;
+
+    // Po starcie pobiera okładki książek z adresem, ale bez pliku (dodanych przed pobieraniem albo pominiętych
+    // przy pełnej kolejce); w klastrze wystarczy jeden węzeł - powtórne pobranie tej samej okładki niczego nie zmienia
+    private boolean backfillOnStartup = true;
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration requestTimeout = Duration.ofSeconds(20);
+
+    private DataSize maxSize = DataSize.ofMegabytes(10);
+
+    private int maxRedirects = 3;
+
+    // Próby przy błędach sieci, 429 i 5xx; odstęp rośnie wykładniczo od initialBackoff do maxBackoff
+    private int maxAttempts = 4;
+
+    private Duration initialBackoff = Duration.ofSeconds(5);
+
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    // Adresy pętli zwrotnej i sieci prywatnych są odrzucane (URL okładki podaje użytkownik); true tylko w testach
+    private boolean allowPrivateAddresses = false;
+
+    private String userAgent = "BookLovers-CoverFetcher/1.0";
+}
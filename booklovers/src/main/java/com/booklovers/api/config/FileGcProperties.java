@@ -0,0 +1,22 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.gc")
+public class FileGcProperties {
+
+    private boolean enabled = true;
+
+    private Duration interval = Duration.ofMinutes(10);
+
+    // Plik bez referencji młodszy niż gracePeriod może jeszcze zostać użyty przez trwające żądanie (zapis -> retain)
+    private Duration gracePeriod = Duration.ofHours(1);
+
+    private int batchSize = 100;
+}
@@ -0,0 +1,35 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "http-cache")
+public class HttpCacheProperties {
+
+    private Map<String, Policy> policies = new HashMap<>();
+
+    public CacheControl cacheControlFor(String policyName) {
+        Policy policy = policies.getOrDefault(policyName, new Policy());
+        CacheControl cacheControl = policy.getMaxAge().isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(policy.getMaxAge());
+        cacheControl = policy.isPrivateCache() ? cacheControl.cachePrivate() : cacheControl.cachePublic();
+        return policy.isMustRevalidate() ? cacheControl.mustRevalidate() : cacheControl;
+    }
+
+    @Data
+    public static class Policy {
+        // max-age=0 oznacza "no-cache" - przeglądarka zawsze rewaliduje przez ETag
+        private Duration maxAge = Duration.ZERO;
+        private boolean privateCache = false;
+        private boolean mustRevalidate = true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.booklovers.api.config;
+
+import com.booklovers.dto.CacheValidatorDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class HttpCacheSupport {
+
+    private final HttpCacheProperties httpCacheProperties;
+
+    /**
+     * Obsługuje warunkowy GET: przy zgodnym If-None-Match / If-Modified-Since zwraca 304
+     * bez wywoływania handlera. Walidator null (np. brak zasobu) wyłącza rewalidację.
+     */
+    public <T> ResponseEntity<T> conditional(WebRequest request, String policyName,
+                                             CacheValidatorDto validator,
+                                             Supplier<ResponseEntity<T>> handler) {
+        CacheControl cacheControl = httpCacheProperties.cacheControlFor(policyName);
+        if (validator != null && request.checkNotModified(validator.getEtag(), validator.getLastModifiedMillis())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        ResponseEntity<T> response = handler.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .cacheControl(cacheControl)
+                .body(response.getBody());
+    }
+}
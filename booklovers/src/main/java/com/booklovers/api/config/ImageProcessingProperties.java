@@ -0,0 +1,32 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "image")
+public class ImageProcessingProperties {
+
+    // Formaty rozpoznane po zawartości pliku (nazwy czytników ImageIO), nie po nagłówku Content-Type
+    private Set<String> allowedFormats = Set.of("jpeg", "png", "gif", "bmp");
+
+    // Ochrona przed "bombami dekompresji" - wymiary sprawdzane przed dekodowaniem pikseli
+    private long maxSourcePixels = 40_000_000;
+
+    // Dłuższy bok obrazu głównego; warianty to kwadraty o boku z listy (obraz wpisany, bez powiększania)
+    private int maxDimension = 1024;
+    private List<Integer> variants = List.of(64, 256);
+
+    private float jpegQuality = 0.85f;
+
+    // Ograniczona pula: przy pełnej kolejce nowe przesłania są odrzucane zamiast zajmować wątki żądań
+    private int threads = 2;
+    private int queueCapacity = 16;
+    private Duration timeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,64 @@
+package com.booklovers.api.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ogranicza liczbę zdarzeń INFO i niższych na logger do maxPerSecond w każdej sekundzie.
+ * WARN i ERROR przechodzą zawsze. Nadmiarowe zdarzenia są odrzucane przed formatowaniem komunikatu;
+ * ich liczba trafia do logu WARN przy pierwszym zdarzeniu kolejnej sekundy.
+ * Konfigurowany w logback-spring.xml; maxPerSecond 0 wyłącza limit.
+ */
+public class LogRateLimitTurboFilter extends TurboFilter {
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    private int maxPerSecond;
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Poziom sprawdzany bez logger.isEnabledFor - ta metoda sama wywołuje turbo filtry
+        if (maxPerSecond <= 0 || level == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        long dropped = window.second == second ? 0 : window.rollTo(second);
+        if (dropped > 0) {
+            logger.warn("Odrzucono {} zdarzeń logu przekraczających limit {}/s", dropped, maxPerSecond);
+        }
+        if (window.count.incrementAndGet() <= maxPerSecond) {
+            return FilterReply.NEUTRAL;
+        }
+        window.dropped.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    private static final class Window {
+        private volatile long second;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        // Zwraca liczbę odrzuconych zdarzeń z zamkniętej sekundy
+        synchronized long rollTo(long now) {
+            if (now == second) {
+                return 0;
+            }
+            second = now;
+            count.set(0);
+            return dropped.getAndSet(0);
+        }
+    }
+}
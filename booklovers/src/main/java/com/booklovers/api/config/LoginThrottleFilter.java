@@ -0,0 +1,42 @@
+package com.booklovers.api.config;
+
+import com.booklovers.exception.TooManyRequestsException;
+import com.booklovers.service.user.LoginThrottleService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Limit prób logowania formularzem (POST /login) - przed UsernamePasswordAuthenticationFilter, więc odrzucona
+ * próba nie dochodzi do haszowania. Logowanie przez API sprawdza limit w AuthController.
+ */
+@RequiredArgsConstructor
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottleService loginThrottleService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + "/login");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            loginThrottleService.checkAllowed(request.getRemoteAddr(), request.getParameter("username"));
+        } catch (TooManyRequestsException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendRedirect(request.getContextPath() + "/login?throttled");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,31 @@
+package com.booklovers.api.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+
+    // Próby logowania z jednego adresu IP (także na różne konta - credential stuffing)
+    private Limit perIp = new Limit(20, Duration.ofMinutes(1));
+
+    // Próby logowania na jedno konto (z różnych adresów - zgadywanie hasła)
+    private Limit perUsername = new Limit(10, Duration.ofMinutes(5));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+        private int capacity;
+        private Duration refillPeriod;
+    }
+}
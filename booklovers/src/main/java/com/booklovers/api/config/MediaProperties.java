@@ -0,0 +1,23 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "media")
+public class MediaProperties {
+
+    // Podkatalogi file.upload-dir dostępne publicznie pod /media/{subdirectory}/{filename}
+    private List<String> subdirectories = List.of("avatars", "covers");
+
+    // Nazwa pliku zmienia się razem z treścią, więc odpowiedź może być cache'owana bez rewalidacji
+    private Duration maxAge = Duration.ofDays(365);
+
+    // Przekierowanie na podpisany URL magazynu obiektów - krótsze niż file.s3.presign-ttl, żeby przeglądarka nie trafiła na wygasły podpis
+    private Duration redirectMaxAge = Duration.ofMinutes(30);
+}
@@ -0,0 +1,23 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    // SqlStatementCounter rejestruje Hibernate (spring.jpa.properties.hibernate.session_factory.statement_inspector)
+    @Bean
+    public FilterRegistrationBean<SqlStatementMetricsFilter> sqlStatementMetricsFilter(
+            MeterRegistry meterRegistry, SqlBudgetProperties sqlBudgetProperties) {
+        FilterRegistrationBean<SqlStatementMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementMetricsFilter(meterRegistry, sqlBudgetProperties));
+        registration.addUrlPatterns("/*");
+        // Przed Spring Security - zapytania przy logowaniu też są liczone
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -38,6 +38,7 @@ public class OpenAPIConfig {
                                 .url("https://api.booklovers.com")
                                 .description("Production Server")))
                 .addSecurityItem(new SecurityRequirement().addList("cookieAuth"))
+                .addSecurityItem(new SecurityRequirement().addList("bearerAuth"))
                 .components(new io.swagger.v3.oas.models.Components()
                         .addSecuritySchemes("cookieAuth", new SecurityScheme()
                                 .type(SecurityScheme.Type.APIKEY)
@@ -45,6 +46,12 @@ public class OpenAPIConfig {
                                 .name("JSESSIONID")
                                 .description("Sesja użytkownika uzyskana po zalogowaniu przez endpoint /api/auth/login. " +
                                         "Po zalogowaniu, sesja jest przechowywana w cookie JSESSIONID. " +
-                                        "W Swaggerze użyj przycisku 'Authorize' i wprowadź wartość cookie JSESSIONID.")));
+                                        "W Swaggerze użyj przycisku 'Authorize' i wprowadź wartość cookie JSESSIONID."))
+                        .addSecuritySchemes("bearerAuth", new SecurityScheme()
+                                .type(SecurityScheme.Type.HTTP)
+                                .scheme("bearer")
+                                .bearerFormat("JWT")
+                                .description("Access token z /api/auth/token - uwierzytelnianie bez sesji. " +
+                                        "Po wygaśnięciu nowa para tokenów z /api/auth/refresh.")));
     }
 }
@@ -0,0 +1,23 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.password")
+public class PasswordHashingProperties {
+
+    // Koszt BCrypt (log2 rund); hasła ze słabszym kosztem są przeliczane przy następnym udanym logowaniu
+    private int bcryptStrength = 10;
+
+    // Haszowanie w osobnej puli - skok logowań nie zajmuje wszystkich wątków żądań; przy pełnej kolejce 503
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private int queueCapacity = 64;
+
+    private Duration timeout = Duration.ofSeconds(5);
+}
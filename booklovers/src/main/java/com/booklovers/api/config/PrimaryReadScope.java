@@ -0,0 +1,33 @@
+package com.booklovers.api.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Odczyty z bazy głównej w obrębie wywołania, także w transakcjach readOnly. Dla danych, które muszą być
+ * co najmniej tak świeże jak odczyt wykonany wcześniej na bazie głównej - np. modelu fragmentu zapisywanego
+ * w cache pod walidatorem z CacheValidatorService. Węzeł wybierany jest przy pobraniu połączenia na początku
+ * transakcji (ReplicaDataSourceConfig zwalnia je po każdej transakcji), więc zakres musi obejmować całe transakcje.
+ */
+public final class PrimaryReadScope {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private PrimaryReadScope() {
+    }
+
+    public static <T> T call(Supplier<T> action) {
+        if (isActive()) {
+            return action.get();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+}
@@ -0,0 +1,138 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Kontrola dopuszczenia dla kosztownych publicznych tras (rate-limit.routes): token bucket per klucz API,
+ * użytkownik albo adres IP (429 z Retry-After) i limit równoległych żądań na trasę (503 bez czekania
+ * w kolejce - pula połączeń zostaje dla reszty aplikacji). Odrzucenia liczone w booklovers.http.rate_limit.rejected.
+ * W łańcuchu bezpieczeństwa po uwierzytelnieniu, więc zalogowany użytkownik ma własny kubełek.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String REJECTED_METRIC = "booklovers.http.rate_limit.rejected";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<Route> routes;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.routes = properties.getRoutes().entrySet().stream()
+                .map(entry -> new Route(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (route.limiter != null && !route.limiter.tryAcquire(clientKey(request))) {
+            reject(response, route, "rate", HttpStatus.TOO_MANY_REQUESTS.value(), route.limiter.retryAfterSeconds());
+            return;
+        }
+        if (route.concurrency != null && !route.concurrency.tryAcquire()) {
+            reject(response, route, "concurrency", HttpStatus.SERVICE_UNAVAILABLE.value(), 1);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (route.concurrency != null) {
+                route.concurrency.release();
+            }
+        }
+    }
+
+    private Route match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Route route : routes) {
+            if (route.matches(path, request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null && properties.getApiKeys().containsKey(apiKey)) {
+            return "key:" + properties.getApiKeys().get(apiKey);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        // Za zaufanym proxy Tomcat podstawia adres z X-Forwarded-For (server.forward-headers-strategy)
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, Route route, String reason, int status, long retryAfterSeconds)
+            throws IOException {
+        meterRegistry.counter(REJECTED_METRIC, "route", route.name, "reason", reason).increment();
+        log.debug("Żądanie odrzucone przez limit: route={}, reason={}", route.name, reason);
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        String error = status == HttpStatus.TOO_MANY_REQUESTS.value() ? "Too Many Requests" : "Service Unavailable";
+        response.getWriter().write("{\"status\":" + status + ",\"error\":\"" + error
+                + "\",\"message\":\"Request limit exceeded, retry later\"}");
+    }
+
+    private static final class Route {
+
+        private final String name;
+        private final List<String> paths;
+        private final String requiredParam;
+        private final TokenBucketLimiter limiter;
+        private final Semaphore concurrency;
+
+        private Route(String name, RateLimitProperties.Route config) {
+            this.name = name;
+            this.paths = List.copyOf(config.getPaths());
+            this.requiredParam = config.getRequiredParam();
+            this.limiter = config.getCapacity() > 0
+                    ? new TokenBucketLimiter(config.getCapacity(), config.getRefillPeriod())
+                    : null;
+            this.concurrency = config.getMaxConcurrent() > 0 ? new Semaphore(config.getMaxConcurrent()) : null;
+        }
+
+        private boolean matches(String path, HttpServletRequest request) {
+            if (requiredParam != null && request.getParameter(requiredParam) == null) {
+                return false;
+            }
+            return paths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+        }
+    }
+}
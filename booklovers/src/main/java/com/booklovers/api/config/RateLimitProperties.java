@@ -0,0 +1,46 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Klucz API z tego nagłówka ma pierwszeństwo przed użytkownikiem i adresem IP. Tylko klucze z apiKeys
+    // (klucz -> nazwa klienta) - nieznany klucz liczy się jak adres IP, inaczej losowe klucze omijałyby limit
+    private String apiKeyHeader = "X-API-Key";
+
+    private Map<String, String> apiKeys = new HashMap<>();
+
+    // Nazwa trasy (tag metryki) -> ścieżki, limit per klucz i limit równoległych żądań
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        // Wzorce ścieżek (AntPathMatcher); pusta lista - trasa nieaktywna
+        private List<String> paths = new ArrayList<>();
+
+        // Trasa obejmuje tylko żądania z tym parametrem (np. search dla /books)
+        private String requiredParam;
+
+        // Token bucket per klucz: capacity żądań, uzupełniane w tempie capacity na refillPeriod; 0 = bez limitu
+        private int capacity = 0;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        // Równoległe żądania na trasę na węzeł - nadmiarowe od razu dostają 503; 0 = bez limitu
+        private int maxConcurrent = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rating.write-behind")
+public class RatingWriteBehindProperties {
+
+    private boolean enabled = false;
+
+    // Zapis do bazy co flushInterval albo od razu po zebraniu batchSize ocen
+    private Duration flushInterval = Duration.ofMillis(500);
+    private int batchSize = 200;
+
+    // Po przekroczeniu pojemności oceny są zapisywane synchronicznie (backpressure)
+    private int capacity = 10_000;
+
+    // Oceny, których nie udało się zapisać przy zamykaniu aplikacji - odtwarzane przy starcie
+    private Path spoolFile = Path.of("data", "rating-write-behind.spool");
+}
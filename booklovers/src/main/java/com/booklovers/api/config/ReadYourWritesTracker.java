@@ -0,0 +1,45 @@
+package com.booklovers.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Zapamiętuje użytkowników, którzy niedawno zapisali dane. Dopóki replika może nie mieć
+ * ich zmian (maxLag), ich odczyty trafiają na bazę główną.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int MAX_USERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration maxLag) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_USERS)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    public void recordWrite() {
+        currentUser().ifPresent(username -> recentWriters.put(username, Boolean.TRUE));
+    }
+
+    public boolean isStickyToPrimary() {
+        return currentUser().map(username -> recentWriters.getIfPresent(username) != null).orElse(false);
+    }
+
+    private static Optional<String> currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(authentication.getName());
+    }
+}
@@ -0,0 +1,26 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    // Maksymalne opóźnienie repliki - przez tyle czasu po własnym zapisie użytkownik czyta z bazy głównej
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Po błędzie połączenia z repliką odczyty idą na bazę główną przez retryAfter
+    private Duration retryAfter = Duration.ofSeconds(30);
+}
@@ -0,0 +1,118 @@
+package com.booklovers.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Kieruje transakcje readOnly na replikę, a pozostałe połączenia na bazę główną.
+ * Musi być opakowany w LazyConnectionDataSourceProxy - flaga readOnly transakcji
+ * jest znana dopiero po jej rozpoczęciu.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Duration retryAfter;
+    private final Clock clock;
+
+    // Klucz zasobu transakcji: zapis użytkownika zarejestrowany już w bieżącej transakcji
+    private final Object writeRecordedKey = new Object();
+
+    private volatile Instant replicaDownUntil = Instant.MIN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReadYourWritesTracker readYourWritesTracker, Duration retryAfter) {
+        this(primary, replica, readYourWritesTracker, retryAfter, Clock.systemUTC());
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                             ReadYourWritesTracker readYourWritesTracker, Duration retryAfter, Clock clock) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.retryAfter = retryAfter;
+        this.clock = clock;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteAfterCommit();
+            return Target.PRIMARY;
+        }
+        if (PrimaryReadScope.isActive() || readYourWritesTracker.isStickyToPrimary()
+                || clock.instant().isBefore(replicaDownUntil)) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.PRIMARY) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (determineCurrentLookupKey() == Target.PRIMARY) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            markReplicaDown(e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private void markReplicaDown(SQLException e) {
+        replicaDownUntil = clock.instant().plus(retryAfter);
+        log.warn("Replika niedostępna, odczyty kierowane na bazę główną przez {}: {}", retryAfter, e.getMessage());
+    }
+
+    // Zapis poza transakcją (autocommit) nie włącza odczytów z bazy głównej - nie wiadomo, czy coś zmienił
+    private void recordWriteAfterCommit() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeRecordedKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeRecordedKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeRecordedKey);
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.s3")
+public class S3StorageProperties {
+
+    // Puste = AWS; dla MinIO i innych zgodnych magazynów adres serwera, np. http://minio:9000
+    private String endpoint;
+
+    private String region = "us-east-1";
+
+    private String bucket = "booklovers";
+
+    // Puste = domyślny łańcuch poświadczeń AWS (zmienne środowiskowe, profil, rola instancji)
+    private String accessKey;
+
+    private String secretKey;
+
+    // MinIO wymaga adresów http://host/bucket/key zamiast http://bucket.host/key
+    private boolean pathStyleAccess = true;
+
+    // Ważność podpisanego URL do pobrania pliku; przekierowanie z /media jest cache'owane przez połowę tego czasu
+    private Duration presignTtl = Duration.ofHours(1);
+}
@@ -1,5 +1,8 @@
 package com.booklovers.api.config;
 
+import com.booklovers.service.token.TokenService;
+import com.booklovers.service.user.LoginThrottleService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,20 +13,35 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
     
+    private static final String PASSWORD_ENCODING_ID = "bcrypt";
+    
+    private final TokenService tokenService;
+    private final LoginThrottleService loginThrottleService;
+    
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(PASSWORD_ENCODING_ID, Map.of(PASSWORD_ENCODING_ID, bcrypt));
+        // Hashe bez prefiksu {bcrypt} (sprzed DelegatingPasswordEncoder) nadal pasują; przy logowaniu są przeliczane
+        // z prefiksem i bieżącym kosztem przez UserDetailsPasswordService
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(delegating, properties.getThreads(), properties.getQueueCapacity(), properties.getTimeout());
     }
     
     @Bean
@@ -37,13 +55,21 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimitProperties rateLimitProperties,
+                                           MeterRegistry meterRegistry) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .securityContext(securityContext -> securityContext
                 .securityContextRepository(securityContextRepository())
             )
+            // /api/** z nagłówkiem Bearer: bezstanowo, bez odczytu sesji i bez zapytań do bazy
+            .addFilterBefore(new BearerTokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+            // Limit prób logowania formularzem przed weryfikacją hasła
+            .addFilterBefore(new LoginThrottleFilter(loginThrottleService), UsernamePasswordAuthenticationFilter.class)
+            // Limity kosztownych tras po uwierzytelnieniu (kubełek per użytkownik), przed autoryzacją i kontrolerem
+            .addFilterBefore(new RateLimitFilter(rateLimitProperties, meterRegistry), AuthorizationFilter.class)
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/auth/logout").authenticated()
                 .requestMatchers("/api/auth/**", "/", "/login", "/register", "/css/**", "/js/**", "/images/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").authenticated() 
@@ -54,6 +80,9 @@ public class SecurityConfig {
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/my-books", "/profile", "/api/export/**").authenticated()
                 .requestMatchers("/profile/avatar", "/profile/avatar/**").permitAll() // Avatary dostępne publicznie
+                .requestMatchers("/media/**").permitAll() // Pliki adresowane hashem treści, bez danych użytkownika
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Tylko na porcie zarządzania (management.server.port), niepublikowanym na zewnątrz
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .headers(headers -> headers.frameOptions().sameOrigin())
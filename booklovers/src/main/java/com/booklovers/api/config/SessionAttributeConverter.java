@@ -0,0 +1,106 @@
+package com.booklovers.api.config;
+
+import com.booklovers.entity.User;
+import com.booklovers.service.user.AuthenticatedUser;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * (De)serializacja atrybutów sesji w magazynie JDBC. SecurityContext zalogowanego użytkownika zapisywany jest
+ * jako id, nazwa i rola (kilkadziesiąt bajtów) zamiast serializacji Javy tokena, principala i WebAuthenticationDetails;
+ * po odczycie rola daje te same uprawnienia. Pozostałe atrybuty (zapisane żądanie, flash attributes) - serializacja Javy.
+ */
+public class SessionAttributeConverter implements GenericConverter {
+
+    // Strumień serializacji Javy zaczyna się od 0xACED, więc znacznik nie koliduje z innymi wpisami
+    private static final byte MAGIC_1 = 'B';
+    private static final byte MAGIC_2 = 'L';
+    private static final byte VERSION = 1;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+
+    public SessionAttributeConverter(ClassLoader classLoader) {
+        this.deserializer = new DeserializingConverter(classLoader);
+    }
+
+    @Override
+    public Set<ConvertiblePair> getConvertibleTypes() {
+        return Set.of(new ConvertiblePair(Object.class, byte[].class), new ConvertiblePair(byte[].class, Object.class));
+    }
+
+    @Override
+    public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+        if (source == null) {
+            return null;
+        }
+        return byte[].class.equals(targetType.getType()) ? serialize(source) : deserialize((byte[]) source);
+    }
+
+    private byte[] serialize(Object source) {
+        AuthenticatedUser user = compactPrincipal(source);
+        if (user == null) {
+            return serializer.convert(source);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC_1);
+            out.writeByte(MAGIC_2);
+            out.writeByte(VERSION);
+            out.writeLong(user.getId());
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getRole().name());
+            out.writeBoolean(user.isBlocked());
+        } catch (IOException e) {
+            throw new SerializationFailedException("Failed to serialize security context", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] source) {
+        if (source.length < 3 || source[0] != MAGIC_1 || source[1] != MAGIC_2) {
+            return deserializer.convert(source);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(source))) {
+            in.skipBytes(2);
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new SerializationFailedException("Unsupported security context format: " + version);
+            }
+            AuthenticatedUser user = new AuthenticatedUser(in.readLong(), in.readUTF(),
+                    User.Role.valueOf(in.readUTF()), in.readBoolean(), null);
+            return new SecurityContextImpl(
+                    UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationFailedException("Failed to deserialize security context", e);
+        }
+    }
+
+    // Tylko kontekst, który da się dokładnie odtworzyć: token z logowania hasłem, uprawnienia wynikające z roli
+    private static AuthenticatedUser compactPrincipal(Object source) {
+        if (source instanceof SecurityContext context
+                && context.getAuthentication() instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+                && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && user.getId() != null
+                && new ArrayList<>(authentication.getAuthorities()).equals(user.getAuthorities())) {
+            return user;
+        }
+        return null;
+    }
+}
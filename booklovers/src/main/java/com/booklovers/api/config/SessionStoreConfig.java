@@ -0,0 +1,66 @@
+package com.booklovers.api.config;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+import org.springframework.session.web.http.CookieSerializer;
+import org.springframework.session.web.http.DefaultCookieSerializer;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+
+import java.time.Duration;
+import java.util.EnumSet;
+
+/**
+ * Sesje HTTP w tabelach SPRING_SESSION dla session.store.type=jdbc - każdy węzeł widzi sesje pozostałych,
+ * więc load balancer nie musi przypinać klienta. Domyślnie (memory) sesje zostają w pamięci kontenera.
+ * Auto-konfiguracja Spring Session jest wyłączona w application.yaml - magazyn wybiera tylko ta właściwość.
+ */
+@Configuration
+@ConditionalOnProperty(name = "session.store.type", havingValue = "jdbc")
+@EnableJdbcHttpSession
+public class SessionStoreConfig {
+
+    private static final String DEFAULT_COOKIE_NAME = "JSESSIONID";
+
+    // Nazwa beana, której JdbcHttpSessionConfiguration szuka dla (de)serializacji atrybutów
+    @Bean
+    public ConversionService springSessionConversionService() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(new SessionAttributeConverter(SessionStoreConfig.class.getClassLoader()));
+        return conversionService;
+    }
+
+    // Czas życia sesji jak dla sesji kontenera (server.servlet.session.timeout), a nie z adnotacji
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionTimeoutCustomizer(ServerProperties serverProperties) {
+        Duration timeout = serverProperties.getServlet().getSession().getTimeout();
+        return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+    }
+
+    // Ta sama nazwa ciasteczka co dla sesji kontenera (JSESSIONID) - klienci API i opis w OpenAPI bez zmian
+    @Bean
+    public CookieSerializer cookieSerializer(ServerProperties serverProperties) {
+        String name = serverProperties.getServlet().getSession().getCookie().getName();
+        DefaultCookieSerializer serializer = new DefaultCookieSerializer();
+        serializer.setCookieName(name != null ? name : DEFAULT_COOKIE_NAME);
+        return serializer;
+    }
+
+    // Filtr przed Spring Security, także dla dispatchy ERROR i ASYNC (strona błędu widzi zalogowanego użytkownika)
+    @Bean
+    public FilterRegistrationBean<SessionRepositoryFilter<?>> sessionRepositoryFilterRegistration(
+            SessionRepositoryFilter<?> sessionRepositoryFilter) {
+        FilterRegistrationBean<SessionRepositoryFilter<?>> registration = new FilterRegistrationBean<>(sessionRepositoryFilter);
+        registration.setDispatcherTypes(EnumSet.of(DispatcherType.REQUEST, DispatcherType.ERROR, DispatcherType.ASYNC));
+        registration.setOrder(SessionRepositoryFilter.DEFAULT_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,83 @@
+package com.booklovers.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Mierzy czas pobrania połączenia z puli Hikari. Wolne pobrania są liczone w metryce
+ * datasource.connections.slow.acquire i logowane z metodą serwisu, która o połączenie prosiła.
+ */
+@Slf4j
+public class SlowAcquisitionDataSource extends DelegatingDataSource implements Closeable {
+
+    static final String SLOW_ACQUIRE_METRIC = "datasource.connections.slow.acquire";
+
+    private static final String SERVICE_PACKAGE = "com.booklovers.service.";
+
+    private final HikariDataSource pool;
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+
+    public SlowAcquisitionDataSource(HikariDataSource pool, Duration threshold, MeterRegistry meterRegistry) {
+        super(pool);
+        this.pool = pool;
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = pool.getConnection();
+        checkAcquisitionTime(start);
+        return connection;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = pool.getConnection(username, password);
+        checkAcquisitionTime(start);
+        return connection;
+    }
+
+    private void checkAcquisitionTime(long start) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (elapsed.compareTo(threshold) < 0) {
+            return;
+        }
+        String caller = callingServiceMethod().orElse("unknown");
+        meterRegistry.counter(SLOW_ACQUIRE_METRIC, "pool", String.valueOf(pool.getPoolName()), "caller", caller).increment();
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        if (poolBean != null) {
+            log.warn("Wolne pobranie połączenia z puli {}: {} ms, caller={}, active={}, idle={}, waiting={}",
+                    pool.getPoolName(), elapsed.toMillis(), caller, poolBean.getActiveConnections(),
+                    poolBean.getIdleConnections(), poolBean.getThreadsAwaitingConnection());
+        } else {
+            log.warn("Wolne pobranie połączenia z puli {}: {} ms, caller={}", pool.getPoolName(), elapsed.toMillis(), caller);
+        }
+    }
+
+    // Pierwsza ramka z pakietu serwisów, z pominięciem proxy CGLIB
+    static Optional<String> callingServiceMethod() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(SERVICE_PACKAGE.length()) + "." + frame.getMethodName()));
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,11 @@
+package com.booklovers.api.config;
+
+/**
+ * Żądanie wykonało więcej zapytań SQL niż budżet endpointu (sql-budget.mode=FAIL).
+ */
+public class SqlBudgetExceededException extends IllegalStateException {
+
+    public SqlBudgetExceededException(String endpoint, long statements, int budget) {
+        super("SQL budget exceeded for " + endpoint + ": " + statements + " statements, budget " + budget);
+    }
+}
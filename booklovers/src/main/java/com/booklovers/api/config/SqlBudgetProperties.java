@@ -0,0 +1,29 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    // WARN na produkcji, FAIL w testach - przekroczenie budżetu przerywa żądanie
+    private Mode mode = Mode.WARN;
+
+    // Budżet dla endpointów bez wpisu w endpoints; null = bez limitu
+    private Integer defaultBudget;
+
+    // Klucz "METODA wzorzec", np. "[GET /books/{id}]": 3
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public Integer getBudget(String method, String uriPattern) {
+        return endpoints.getOrDefault(method + " " + uriPattern, defaultBudget);
+    }
+}
@@ -0,0 +1,23 @@
+package com.booklovers.api.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Liczy zapytania SQL wysyłane przez Hibernate w bieżącym wątku. Rejestrowany przez
+ * hibernate.session_factory.statement_inspector, więc działa także w testach @DataJpaTest.
+ * Licznik tylko rośnie - wywołujący porównują wartości current() przed i po operacji.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
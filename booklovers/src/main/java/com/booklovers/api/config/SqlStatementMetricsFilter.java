@@ -0,0 +1,70 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Rozkład liczby zapytań SQL na żądanie (booklovers.http.sql.statements), z tagiem wzorca URI -
+ * wzrost p95/max dla jednego endpointu to zwykle nowe N+1. Żądania ponad budżet z SqlBudgetProperties
+ * są liczone w booklovers.http.sql.budget.exceeded i logowane albo (tryb FAIL) kończą się wyjątkiem.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String SQL_STATEMENTS_METRIC = "booklovers.http.sql.statements";
+    static final String SQL_BUDGET_EXCEEDED_METRIC = "booklovers.http.sql.budget.exceeded";
+
+    private final MeterRegistry meterRegistry;
+    private final SqlBudgetProperties budgetProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long before = SqlStatementCounter.current();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            long statements = SqlStatementCounter.current() - before;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder(SQL_STATEMENTS_METRIC)
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+            // Po wyjątku z łańcucha nie zasłaniamy go błędem budżetu
+            if (completed) {
+                checkBudget(request.getMethod(), uri, statements);
+            }
+        }
+    }
+
+    private void checkBudget(String method, String uri, long statements) {
+        if (budgetProperties.getMode() == SqlBudgetProperties.Mode.OFF) {
+            return;
+        }
+        Integer budget = budgetProperties.getBudget(method, uri);
+        if (budget == null || statements <= budget) {
+            return;
+        }
+        meterRegistry.counter(SQL_BUDGET_EXCEEDED_METRIC, "method", method, "uri", uri).increment();
+        if (budgetProperties.getMode() == SqlBudgetProperties.Mode.FAIL) {
+            throw new SqlBudgetExceededException(method + " " + uri, statements, budget);
+        }
+        log.warn("Przekroczony budżet zapytań SQL: endpoint={} {}, statements={}, budget={}", method, uri, statements, budget);
+    }
+}
@@ -0,0 +1,33 @@
+package com.booklovers.api.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.AbstractConfigurableTemplateResolver;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+
+/**
+ * W profilu prod szablony muszą być cache'owane - bez cache każde żądanie parsuje szablon od nowa.
+ * Start kończy się błędem, jeśli cache wyłączono (devtools na classpath, SPRING_THYMELEAF_CACHE=false).
+ */
+@Slf4j
+@Configuration
+@Profile("prod")
+@RequiredArgsConstructor
+public class ThymeleafProductionConfig {
+
+    private final SpringTemplateEngine templateEngine;
+
+    @PostConstruct
+    void verifyTemplateCache() {
+        for (ITemplateResolver resolver : templateEngine.getTemplateResolvers()) {
+            if (resolver instanceof AbstractConfigurableTemplateResolver configurable && !configurable.isCacheable()) {
+                throw new IllegalStateException("Cache szablonów Thymeleaf jest wyłączony w profilu prod: " + resolver.getName());
+            }
+        }
+        log.info("Cache szablonów Thymeleaf włączony");
+    }
+}
@@ -0,0 +1,70 @@
+package com.booklovers.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per klucz (IP, użytkownik, klucz API): pojemność capacity, uzupełniany w tempie
+ * capacity na refillPeriod. Kubełek nieużywany przez refillPeriod jest pełny, więc może wypaść
+ * z cache bez zmiany zachowania - pamięć zależy od liczby aktywnych kluczy, nie od wszystkich widzianych.
+ */
+public class TokenBucketLimiter {
+
+    private static final int MAX_KEYS = 100_000;
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private final Cache<String, Bucket> buckets;
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod) {
+        this(capacity, refillPeriod, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, LongSupplier nanoTime) {
+        if (capacity < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("capacity must be >= 1 and refillPeriod positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / refillPeriod.toNanos();
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_KEYS)
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    public boolean tryAcquire(String key) {
+        return buckets.get(key, missing -> new Bucket(capacity, nanoTime.getAsLong())).tryAcquire();
+    }
+
+    // Czas do odzyskania jednego tokena - wartość nagłówka Retry-After
+    public long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(1 / tokensPerNano / 1_000_000_000d));
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire() {
+            long now = nanoTime.getAsLong();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+/**
+ * Raportuje przypięcia wirtualnych wątków do wątku nośnika (zdarzenie JFR jdk.VirtualThreadPinned),
+ * np. blokujące I/O wewnątrz sekcji synchronized sterownika Oracle JDBC. Każde przypięcie dłuższe
+ * niż threads.pinning.threshold zwiększa jvm.threads.virtual.pinned z tagiem source
+ * (oracle-jdbc, application, other) i trafia do logu z ramką, która je spowodowała.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(prefix = "threads.pinning", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_METRIC = "jvm.threads.virtual.pinned";
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final VirtualThreadPinningProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(properties.getThreshold()).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitor przypięć wirtualnych wątków włączony: threshold={}", properties.getThreshold());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedFrame frame = blockingFrame(event.getStackTrace());
+        String source = source(event.getStackTrace());
+        meterRegistry.counter(PINNED_METRIC, "source", source).increment();
+        log.warn("Wirtualny wątek przypięty do nośnika: duration={}ms, source={}, frame={}",
+                event.getDuration().toMillis(), source, frame != null ? describe(frame) : "unknown");
+    }
+
+    // Sterownik Oracle ma pierwszeństwo - jego sekcje synchronized są głównym źródłem przypięć przy JDBC
+    static String source(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "other";
+        }
+        boolean application = false;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("oracle.jdbc.")) {
+                return "oracle-jdbc";
+            }
+            application |= type.startsWith("com.booklovers.");
+        }
+        return application ? "application" : "other";
+    }
+
+    // Pierwsza ramka spoza JDK - zwykle metoda, która zablokowała się w synchronized
+    private static RecordedFrame blockingFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        return stackTrace.getFrames().stream()
+                .filter(frame -> !frame.getMethod().getType().getName().startsWith("java.")
+                        && !frame.getMethod().getType().getName().startsWith("jdk."))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,19 @@
+package com.booklovers.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "threads.pinning")
+public class VirtualThreadPinningProperties {
+
+    // Monitor działa tylko przy spring.threads.virtual.enabled=true
+    private boolean enabled = true;
+
+    // Krótsze przypięcia (np. szybkie sekcje synchronized) nie są raportowane
+    private Duration threshold = Duration.ofMillis(20);
+}
@@ -1,8 +1,12 @@
 package com.booklovers.api.controller;
 
 import com.booklovers.dto.LoginRequest;
+import com.booklovers.dto.RefreshTokenRequest;
 import com.booklovers.dto.RegisterRequest;
+import com.booklovers.dto.TokenResponse;
 import com.booklovers.dto.UserDto;
+import com.booklovers.service.token.TokenService;
+import com.booklovers.service.user.LoginThrottleService;
 import com.booklovers.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,6 +37,8 @@ public class AuthController {
     
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+    private final LoginThrottleService loginThrottleService;
     
     @Operation(summary = "Rejestracja nowego użytkownika", description = "Tworzy nowe konto użytkownika w systemie. Endpoint dostępny publicznie - nie wymaga autoryzacji. Po rejestracji użytkownik może się zalogować używając endpointu /api/auth/login.")
     @ApiResponses(value = {
@@ -55,11 +61,13 @@ public class AuthController {
     @Operation(summary = "Logowanie użytkownika", description = "Uwierzytelnia użytkownika w systemie. Po pomyślnym logowaniu tworzona jest sesja użytkownika, która jest używana do autoryzacji w kolejnych żądaniach. Endpoint dostępny publicznie - nie wymaga autoryzacji.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Logowanie zakończone sukcesem - użytkownik jest zalogowany"),
-            @ApiResponse(responseCode = "401", description = "Nieprawidłowe dane logowania (błędna nazwa użytkownika lub hasło)")
+            @ApiResponse(responseCode = "401", description = "Nieprawidłowe dane logowania (błędna nazwa użytkownika lub hasło)"),
+            @ApiResponse(responseCode = "429", description = "Zbyt wiele prób logowania z adresu lub na konto - ponów po Retry-After")
     })
     @PostMapping("/login")
     public ResponseEntity<String> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         log.info("Próba logowania użytkownika: username={}", request.getUsername());
+        loginThrottleService.checkAllowed(httpRequest.getRemoteAddr(), request.getUsername());
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
@@ -81,4 +89,50 @@ public class AuthController {
             throw e;
         }
     }
+    
+    @Operation(summary = "Logowanie bezstanowe (tokeny)", description = "Uwierzytelnia użytkownika i zwraca parę tokenów bez tworzenia sesji. Access token przekazuj w nagłówku 'Authorization: Bearer <token>' do endpointów /api/**; po wygaśnięciu uzyskaj nową parę przez /api/auth/refresh.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tokeny wydane"),
+            @ApiResponse(responseCode = "401", description = "Nieprawidłowe dane logowania"),
+            @ApiResponse(responseCode = "429", description = "Zbyt wiele prób logowania z adresu lub na konto - ponów po Retry-After")
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> token(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        log.info("Próba logowania tokenem: username={}", request.getUsername());
+        loginThrottleService.checkAllowed(httpRequest.getRemoteAddr(), request.getUsername());
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+            return ResponseEntity.ok(tokenService.issueTokens(authentication));
+        } catch (BadCredentialsException e) {
+            log.warn("Nieprawidłowe dane logowania: username={}", request.getUsername());
+            throw e;
+        }
+    }
+    
+    @Operation(summary = "Odświeżenie tokenów", description = "Zwraca nową parę tokenów na podstawie ważnego refresh tokena. Zablokowany użytkownik nie dostanie nowych tokenów.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Nowa para tokenów"),
+            @ApiResponse(responseCode = "401", description = "Nieważny lub wygasły refresh token albo zablokowane konto")
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(tokenService.refresh(request.getRefreshToken()));
+    }
+    
+    @Operation(summary = "Wylogowanie", description = "Unieważnia wszystkie access i refresh tokeny użytkownika wydane do tej chwili (na wszystkich urządzeniach) i kończy sesję, jeśli istnieje. Wymaga autoryzacji.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokeny unieważnione"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji - użytkownik nie jest zalogowany")
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication, HttpServletRequest httpRequest) {
+        tokenService.revokeTokens(authentication);
+        HttpSession session = httpRequest.getSession(false);
+        if (session != null) {
+            session.invalidate();
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.noContent().build();
+    }
 }
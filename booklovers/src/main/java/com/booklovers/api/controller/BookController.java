@@ -1,9 +1,14 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheSupport;
 import com.booklovers.dto.BookDto;
+import com.booklovers.dto.ShelfBatchRequest;
+import com.booklovers.dto.ShelfBatchResultDto;
 import com.booklovers.dto.UserBookDto;
 import com.booklovers.dto.UserDto;
 import com.booklovers.service.book.BookService;
+import com.booklovers.service.cache.CacheValidatorService;
+import com.booklovers.service.shelf.ShelfBatchService;
 import com.booklovers.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -16,6 +21,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -26,26 +32,35 @@ import java.util.List;
 public class BookController {
     
     private final BookService bookService;
+    private final ShelfBatchService shelfBatchService;
     private final UserService userService;
+    private final CacheValidatorService cacheValidatorService;
+    private final HttpCacheSupport httpCacheSupport;
     
     @Operation(summary = "Pobierz wszystkie książki", description = "Zwraca listę wszystkich książek w systemie. Endpoint dostępny publicznie - nie wymaga autoryzacji.")
-    @ApiResponse(responseCode = "200", description = "Lista książek została zwrócona pomyślnie")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista książek została zwrócona pomyślnie"),
+            @ApiResponse(responseCode = "304", description = "Lista książek nie zmieniła się od ostatniego pobrania (ETag/Last-Modified)")
+    })
     @GetMapping
-    public ResponseEntity<List<BookDto>> getAllBooks() {
-        List<BookDto> books = bookService.getAllBooks();
-        return ResponseEntity.ok(books);
+    public ResponseEntity<List<BookDto>> getAllBooks(WebRequest webRequest) {
+        return httpCacheSupport.conditional(webRequest, "books", cacheValidatorService.getBooksValidator(),
+                () -> ResponseEntity.ok(bookService.getAllBooks()));
     }
     
     @Operation(summary = "Pobierz książkę po ID", description = "Zwraca szczegóły książki o podanym ID (tytuł, autor, opis, oceny, recenzje). Endpoint dostępny publicznie - nie wymaga autoryzacji.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Książka została znaleziona"),
+            @ApiResponse(responseCode = "304", description = "Książka nie zmieniła się od ostatniego pobrania (ETag/Last-Modified)"),
             @ApiResponse(responseCode = "404", description = "Książka nie została znaleziona")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<BookDto> getBookById(@Parameter(description = "ID książki", required = true) @PathVariable Long id) {
-        return bookService.getBookById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<BookDto> getBookById(@Parameter(description = "ID książki", required = true) @PathVariable Long id,
+                                               WebRequest webRequest) {
+        return httpCacheSupport.conditional(webRequest, "book", cacheValidatorService.getBookValidator(id),
+                () -> bookService.getBookById(id)
+                        .map(ResponseEntity::ok)
+                        .orElse(ResponseEntity.notFound().build()));
     }
     
     // UWAGA: Endpointy do tworzenia, aktualizacji i usuwania książek zostały usunięte ze względów bezpieczeństwa.
@@ -109,6 +124,20 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
     
+    @Operation(summary = "Zbiorcze operacje na biblioteczce", description = "Dodaje, przenosi lub usuwa wiele książek w jednej transakcji. Operacje wykonywane są w podanej kolejności, a wynik zawiera status dla każdej książki (OK, NOT_FOUND, CONFLICT). Wymaga autoryzacji - użytkownik musi być zalogowany.")
+    @SecurityRequirement(name = "cookieAuth")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operacje zostały wykonane - szczegóły w wynikach per książka"),
+            @ApiResponse(responseCode = "400", description = "Nieprawidłowe dane wejściowe (np. brak operacji, zbyt wiele książek)"),
+            @ApiResponse(responseCode = "401", description = "Brak autoryzacji - użytkownik nie jest zalogowany"),
+            @ApiResponse(responseCode = "409", description = "Biblioteczka zmieniona równolegle - żadna operacja nie została zapisana")
+    })
+    @PostMapping("/my-books/batch")
+    public ResponseEntity<ShelfBatchResultDto> applyShelfBatch(@Valid @RequestBody ShelfBatchRequest request) {
+        UserDto currentUser = userService.getCurrentUser();
+        return ResponseEntity.ok(shelfBatchService.applyBatch(currentUser.getId(), request));
+    }
+    
     @Operation(summary = "Pobierz moje półki", description = "Zwraca listę wszystkich półek użytkownika (np. 'Przeczytane', 'Czytam', 'Chcę przeczytać', 'Moja biblioteczka'). Wymaga autoryzacji - użytkownik musi być zalogowany.")
     @SecurityRequirement(name = "cookieAuth")
     @ApiResponses(value = {
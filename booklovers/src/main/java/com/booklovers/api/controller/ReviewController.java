@@ -1,6 +1,8 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheSupport;
 import com.booklovers.dto.ReviewDto;
+import com.booklovers.service.cache.CacheValidatorService;
 import com.booklovers.service.review.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +26,8 @@ import java.util.List;
 public class ReviewController {
     
     private final ReviewService reviewService;
+    private final CacheValidatorService cacheValidatorService;
+    private final HttpCacheSupport httpCacheSupport;
     
     @Operation(summary = "Utwórz recenzję", description = "Dodaje nową recenzję do książki. Wymaga autoryzacji - użytkownik musi być zalogowany.")
     @SecurityRequirement(name = "cookieAuth")
@@ -85,12 +90,16 @@ public class ReviewController {
     }
     
     @Operation(summary = "Pobierz recenzje książki", description = "Zwraca wszystkie recenzje dla danej książki. Endpoint dostępny publicznie - nie wymaga autoryzacji.")
-    @ApiResponse(responseCode = "200", description = "Lista recenzji książki została zwrócona pomyślnie")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista recenzji książki została zwrócona pomyślnie"),
+            @ApiResponse(responseCode = "304", description = "Recenzje nie zmieniły się od ostatniego pobrania (ETag/Last-Modified)")
+    })
     @GetMapping("/books/{bookId}")
     public ResponseEntity<List<ReviewDto>> getReviewsByBookId(
-            @Parameter(description = "ID książki", required = true) @PathVariable Long bookId) {
-        List<ReviewDto> reviews = reviewService.getReviewsByBookId(bookId);
-        return ResponseEntity.ok(reviews);
+            @Parameter(description = "ID książki", required = true) @PathVariable Long bookId,
+            WebRequest webRequest) {
+        return httpCacheSupport.conditional(webRequest, "book-reviews", cacheValidatorService.getBookReviewsValidator(bookId),
+                () -> ResponseEntity.ok(reviewService.getReviewsByBookId(bookId)));
     }
     
     @Operation(summary = "Pobierz recenzje użytkownika", description = "Zwraca wszystkie recenzje napisane przez użytkownika. Endpoint dostępny publicznie - nie wymaga autoryzacji.")
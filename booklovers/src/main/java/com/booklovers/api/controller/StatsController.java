@@ -1,7 +1,9 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheSupport;
 import com.booklovers.dto.StatsDto;
 import com.booklovers.dto.UserStatsDto;
+import com.booklovers.service.cache.CacheValidatorService;
 import com.booklovers.service.stats.StatsService;
 import com.booklovers.service.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +15,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/stats")
@@ -22,13 +25,15 @@ public class StatsController {
     
     private final StatsService statsService;
     private final UserService userService;
+    private final CacheValidatorService cacheValidatorService;
+    private final HttpCacheSupport httpCacheSupport;
     
     @Operation(summary = "Pobierz statystyki globalne", description = "Zwraca zagregowane statystyki dla całej platformy (liczba książek, użytkowników, recenzji, ocen). Endpoint dostępny publicznie.")
     @ApiResponse(responseCode = "200", description = "Statystyki globalne zostały zwrócone pomyślnie")
     @GetMapping("/books")
-    public ResponseEntity<StatsDto> getGlobalStats() {
-        StatsDto stats = statsService.getGlobalStats();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<StatsDto> getGlobalStats(WebRequest webRequest) {
+        return httpCacheSupport.conditional(webRequest, "global-stats", cacheValidatorService.getGlobalStatsValidator(),
+                () -> ResponseEntity.ok(statsService.getGlobalStats()));
     }
     
     @Operation(summary = "Pobierz statystyki zalogowanego użytkownika", description = "Zwraca statystyki czytelnictwa dla zalogowanego użytkownika (liczba przeczytanych książek, średnia ocena, wyzwanie czytelnicze). Wymaga autoryzacji.")
@@ -39,10 +44,10 @@ public class StatsController {
             @ApiResponse(responseCode = "404", description = "Użytkownik nie został znaleziony")
     })
     @GetMapping("/user")
-    public ResponseEntity<UserStatsDto> getCurrentUserStats() {
+    public ResponseEntity<UserStatsDto> getCurrentUserStats(WebRequest webRequest) {
             com.booklovers.dto.UserDto currentUser = userService.getCurrentUser();
-            UserStatsDto stats = statsService.getUserStats(currentUser.getId());
-            return ResponseEntity.ok(stats);
+            return httpCacheSupport.conditional(webRequest, "user-stats", cacheValidatorService.getUserStatsValidator(currentUser.getId()),
+                    () -> ResponseEntity.ok(statsService.getUserStats(currentUser.getId())));
     }
     
     @Operation(summary = "Pobierz statystyki użytkownika", description = "Zwraca statystyki czytelnictwa dla określonego użytkownika (liczba przeczytanych książek, średnia ocena, wyzwanie czytelnicze). Endpoint dostępny publicznie.")
@@ -52,9 +57,10 @@ public class StatsController {
     })
     @GetMapping("/user/{userId}")
     public ResponseEntity<UserStatsDto> getUserStats(
-            @Parameter(description = "ID użytkownika", required = true) @PathVariable Long userId) {
-            UserStatsDto stats = statsService.getUserStats(userId);
-            return ResponseEntity.ok(stats);
+            @Parameter(description = "ID użytkownika", required = true) @PathVariable Long userId,
+            WebRequest webRequest) {
+            return httpCacheSupport.conditional(webRequest, "user-stats", cacheValidatorService.getUserStatsValidator(userId),
+                    () -> ResponseEntity.ok(statsService.getUserStats(userId)));
     }
     
     @Operation(summary = "Pobierz statystyki książki", description = "Zwraca statystyki czytelnictwa dla określonej książki (liczba czytelników, średnia ocena, rozkład ocen). Endpoint dostępny publicznie.")
@@ -64,8 +70,9 @@ public class StatsController {
     })
     @GetMapping("/book/{bookId}")
     public ResponseEntity<com.booklovers.dto.BookStatsDto> getBookStats(
-            @Parameter(description = "ID książki", required = true) @PathVariable Long bookId) {
-            com.booklovers.dto.BookStatsDto stats = statsService.getBookStats(bookId);
-            return ResponseEntity.ok(stats);
+            @Parameter(description = "ID książki", required = true) @PathVariable Long bookId,
+            WebRequest webRequest) {
+            return httpCacheSupport.conditional(webRequest, "book-stats", cacheValidatorService.getBookStatsValidator(bookId),
+                    () -> ResponseEntity.ok(statsService.getBookStats(bookId)));
     }
 }
@@ -50,6 +50,11 @@ public class BookDto {
     @Schema(description = "URL do okładki", example = "/uploads/covers/hobbit.jpg")
     private String coverImageUrl;
     
+    @Schema(description = "Okładka pobrana do magazynu plików, dostępna pod /media/{coverImagePath}",
+            example = "covers/2c26b46b68ffc68ff99b453c1d30413413422d706483bfa0f98a5e886266e7ae.jpg",
+            accessMode = Schema.AccessMode.READ_ONLY)
+    private String coverImagePath;
+    
     @Schema(description = "Data utworzenia rekordu", example = "2024-01-15T10:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime createdAt;
     
@@ -61,4 +66,7 @@ public class BookDto {
     
     @Schema(description = "Liczba recenzji", example = "15", accessMode = Schema.AccessMode.READ_ONLY)
     private Integer reviewsCount;
+    
+    @Schema(description = "Wersja rekordu - przy edycji należy odesłać wartość z odczytu, inaczej zmiana innego użytkownika zostanie wykryta jako konflikt (409)", example = "3")
+    private Long version;
 }
@@ -0,0 +1,21 @@
+package com.booklovers.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheValidatorDto {
+    private String etag;
+    private Instant lastModified; // null gdy zasób nie ma jeszcze żadnego znacznika czasu
+
+    public long getLastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
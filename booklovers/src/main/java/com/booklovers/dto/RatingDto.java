@@ -43,4 +43,7 @@ public class RatingDto {
     
     @Schema(description = "Data ostatniej aktualizacji oceny", example = "2024-01-16T14:20:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
+    
+    @Schema(description = "Wersja oceny", example = "2", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
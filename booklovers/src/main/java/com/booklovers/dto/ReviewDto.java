@@ -48,4 +48,7 @@ public class ReviewDto {
     
     @Schema(description = "Data ostatniej aktualizacji recenzji", example = "2024-01-16T14:20:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
+    
+    @Schema(description = "Wersja recenzji - przy edycji należy odesłać wartość z odczytu (konflikt zwraca 409)", example = "1")
+    private Long version;
 }
@@ -0,0 +1,37 @@
+package com.booklovers.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Wynik operacji zbiorczej dla jednej książki")
+public class ShelfBatchItemResultDto {
+    
+    public enum Status {
+        OK, NOT_FOUND, CONFLICT
+    }
+    
+    @Schema(description = "Indeks operacji w żądaniu", example = "0")
+    private int operationIndex;
+    
+    @Schema(description = "Rodzaj operacji", example = "ADD")
+    private ShelfBatchOperationDto.Action action;
+    
+    @Schema(description = "ID książki", example = "1")
+    private Long bookId;
+    
+    @Schema(description = "Półka, której dotyczy operacja", example = "Przeczytane")
+    private String shelfName;
+    
+    @Schema(description = "Status operacji", example = "OK")
+    private Status status;
+    
+    @Schema(description = "Opis błędu albo dodatkowa informacja", example = "Book already exists in this shelf")
+    private String message;
+}
@@ -0,0 +1,39 @@
+package com.booklovers.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Jedna operacja zbiorcza na wielu książkach")
+public class ShelfBatchOperationDto {
+    
+    public enum Action {
+        ADD, MOVE, REMOVE
+    }
+    
+    @NotNull(message = "Action is required")
+    @Schema(description = "Rodzaj operacji", example = "MOVE", required = true)
+    private Action action;
+    
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = 5000, message = "At most 5000 books per operation")
+    @Schema(description = "ID książek", example = "[1, 2, 3]", required = true)
+    private List<@NotNull Long> bookIds;
+    
+    @Schema(description = "Półka docelowa (ADD, MOVE) albo półka, z której usuwamy (REMOVE); domyślnie 'Moja biblioteczka'", example = "Przeczytane")
+    private String shelfName;
+    
+    @Schema(description = "Półka źródłowa dla MOVE; domyślnie 'Moja biblioteczka'", example = "Chcę przeczytać")
+    private String fromShelf;
+}
@@ -0,0 +1,26 @@
+package com.booklovers.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Zbiorcze operacje na biblioteczce wykonywane w jednej transakcji, w podanej kolejności")
+public class ShelfBatchRequest {
+    
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations per batch")
+    @Valid
+    @Schema(description = "Lista operacji", required = true)
+    private List<ShelfBatchOperationDto> operations;
+}
@@ -0,0 +1,26 @@
+package com.booklovers.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Wynik zbiorczych operacji na biblioteczce")
+public class ShelfBatchResultDto {
+    
+    @Schema(description = "Liczba książek przetworzonych poprawnie", example = "1998")
+    private int succeeded;
+    
+    @Schema(description = "Liczba książek pominiętych (brak książki, konflikt)", example = "2")
+    private int failed;
+    
+    @Schema(description = "Wyniki dla poszczególnych książek, w kolejności z żądania")
+    private List<ShelfBatchItemResultDto> results;
+}
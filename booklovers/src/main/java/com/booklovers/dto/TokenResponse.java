@@ -0,0 +1,27 @@
+package com.booklovers.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Para tokenów: access token do nagłówka Authorization i refresh token do /api/auth/refresh")
+public class TokenResponse {
+
+    @Schema(description = "Podpisany token dostępu (JWT, HS256)")
+    private String accessToken;
+
+    @Schema(description = "Token do uzyskania nowej pary tokenów")
+    private String refreshToken;
+
+    @Schema(description = "Typ tokena", example = "Bearer")
+    private String tokenType;
+
+    @Schema(description = "Czas ważności tokena dostępu w sekundach", example = "900")
+    private long expiresIn;
+}
@@ -1,6 +1,7 @@
 package com.booklovers.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,6 +25,11 @@ public class Book {
     @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 1)
     private Long id;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @Column(nullable = false)
     private String title;
     
@@ -42,10 +48,18 @@ public class Book {
     private String language;
     private String coverImageUrl;
     
-    @Column(nullable = false, updatable = false)
+    // Kopia okładki z coverImageUrl w magazynie plików (np. "covers/{sha256}.jpg"), uzupełniana w tle przez CoverFetchService
+    @Column(name = "cover_image_path")
+    private String coverImagePath;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     
+    @Column(name = "updated_at")
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Review> reviews;
     
@@ -54,4 +68,9 @@ public class Book {
     
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<UserBook> userBooks;
+    
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
@@ -3,6 +3,7 @@ package com.booklovers.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,16 +26,22 @@ public class Rating {
     @SequenceGenerator(name = "rating_seq", sequenceName = "rating_seq", allocationSize = 1)
     private Long id;
     
+    // Wersja do optimistic locking - zwiększana przez Hibernate przy każdej aktualizacji
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @Column(name = "rating_value", nullable = false)
     @Min(1)
     @Max(5)
     private Integer value;
     
-    @Column(nullable = false, updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     
-    @Column(nullable = false)
+    @Column(name = "updated_at", nullable = false)
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
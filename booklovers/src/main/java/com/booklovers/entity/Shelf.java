@@ -0,0 +1,42 @@
+package com.booklovers.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "shelves", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "name"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Shelf {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shelf_seq")
+    @SequenceGenerator(name = "shelf_seq", sequenceName = "shelf_seq", allocationSize = 1)
+    private Long id;
+    
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,41 @@
+package com.booklovers.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Licznik referencji pliku w magazynie adresowanym treścią (ścieżka "avatars/{sha256}.jpg").
+ * Pliki pochodne (miniatury {sha256}-{rozmiar}) nie mają własnych wierszy - żyją i są usuwane razem z plikiem głównym.
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredFile {
+
+    @Id
+    @Column(nullable = false)
+    private String path;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Ostatni zapis tej samej treści - GC usuwa nieużywane pliki dopiero po okresie karencji od tej chwili
+    @Column(name = "last_stored_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime lastStoredAt = LocalDateTime.now();
+}
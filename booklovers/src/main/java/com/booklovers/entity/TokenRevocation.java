@@ -0,0 +1,30 @@
+package com.booklovers.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moment unieważnienia tokenów dostępu użytkownika (blokada, usunięcie konta) - wspólny dla wszystkich węzłów.
+ * Bez klucza obcego do users - wiersz musi przeżyć usunięcie konta.
+ */
+@Entity
+@Table(name = "token_revocations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // UTC z dokładnością do sekundy, jak iat tokena
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -1,6 +1,7 @@
 package com.booklovers.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,11 @@ public class UserBook {
     @SequenceGenerator(name = "user_book_seq", sequenceName = "user_book_seq", allocationSize = 1)
     private Long id;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -35,7 +41,7 @@ public class UserBook {
     @Builder.Default
     private String shelfName = "Moja biblioteczka"; // Domyślna kategoria
     
-    @Column(nullable = false, updatable = false)
+    @Column(name = "added_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime addedAt = LocalDateTime.now();
 }
@@ -1,6 +1,7 @@
 package com.booklovers.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -55,6 +56,13 @@ public class WebExceptionHandler {
         return null;
     }
     
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public String handleOptimisticLockingFailure(OptimisticLockingFailureException ex, RedirectAttributes redirectAttributes) {
+        log.warn("Optimistic locking conflict: {}", ex.getMessage());
+        redirectAttributes.addFlashAttribute("error", "Dane zostały w międzyczasie zmienione przez innego użytkownika. Odśwież stronę i spróbuj ponownie.");
+        return "redirect:/books";
+    }
+    
     @ExceptionHandler(ForbiddenException.class)
     public String handleForbiddenException(ForbiddenException ex, RedirectAttributes redirectAttributes) {
         log.error("Forbidden: {}", ex.getMessage());
@@ -1,20 +1,54 @@
 package com.booklovers.repository;
 
 import com.booklovers.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByIsbn(String isbn);
+    
+    // Listy książek mapowane do BookDto potrzebują autora - pobierany w tym samym zapytaniu
+    @Override
+    @EntityGraph(attributePaths = "authorEntity")
+    List<Book> findAll();
+    
+    @Override
+    @EntityGraph(attributePaths = "authorEntity")
+    List<Book> findAllById(Iterable<Long> ids);
+    
+    @EntityGraph(attributePaths = "authorEntity")
+    Optional<Book> findWithAuthorById(Long id);
+    
+    // Katalog czytany kursorem: książka z autorem, średnią i liczbą ocen oraz liczbą recenzji w jednym zapytaniu.
+    // Wymaga otwartej transakcji; fetch size ogranicza liczbę wierszy pobieranych z bazy naraz
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT b, " +
+           "(SELECT AVG(r.value) FROM Rating r WHERE r.book = b), " +
+           "(SELECT COUNT(r) FROM Rating r WHERE r.book = b), " +
+           "(SELECT COUNT(v) FROM Review v WHERE v.book = b) " +
+           "FROM Book b LEFT JOIN FETCH b.authorEntity ORDER BY b.id")
+    Stream<Object[]> streamCatalog();
+    
     List<Book> findByTitleContainingIgnoreCase(String title);
     List<Book> findByAuthorContainingIgnoreCase(String author);
     
+    @EntityGraph(attributePaths = "authorEntity")
     @Query("SELECT b FROM Book b WHERE " +
            "LOWER(b.title) LIKE LOWER(:query) OR " +
            "LOWER(b.author) LIKE LOWER(:query) OR " +
@@ -23,4 +57,26 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     
     @Query("SELECT COUNT(b) FROM Book b WHERE b.authorEntity.id = :authorId")
     Long countByAuthorId(@Param("authorId") Long authorId);
+    
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Książki z adresem okładki, ale bez pobranego pliku - uzupełnianie okładek stronicowane po id
+    @Query("SELECT b.id, b.coverImageUrl FROM Book b WHERE b.coverImageUrl IS NOT NULL AND b.coverImagePath IS NULL " +
+           "AND b.id > :afterId ORDER BY b.id")
+    List<Object[]> findMissingCoverImages(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Bez podbicia wersji - pobranie okładki w tle nie może unieważnić formularza edycji otwartego przez administratora;
+    // updatedAt zmienia ETag/Last-Modified. Warunek na coverImageUrl odrzuca okładkę adresu zmienionego w międzyczasie
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.coverImagePath = :path, b.updatedAt = :updatedAt WHERE b.id = :id AND b.coverImageUrl = :sourceUrl")
+    int updateCoverImagePath(@Param("id") Long id, @Param("sourceUrl") String sourceUrl, @Param("path") String path,
+                             @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Imię i nazwisko autora jest częścią reprezentacji książki (BookDto.author) - zmiana autora
+    // podbija updatedAt jego książek, więc zmienia się ETag listy i książki oraz klucz cache fragmentów
+    @Modifying
+    @Query("UPDATE Book b SET b.updatedAt = :updatedAt WHERE b.authorEntity.id = :authorId")
+    int touchByAuthorId(@Param("authorId") Long authorId, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,22 +1,43 @@
 package com.booklovers.repository;
 
 import com.booklovers.entity.Rating;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RatingRepository extends JpaRepository<Rating, Long> {
+public interface RatingRepository extends JpaRepository<Rating, Long>, RatingUpsertRepository {
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Rating> findByBookId(Long bookId);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Rating> findByUserId(Long userId);
     
+    long countByUserId(Long userId);
+    
+    @Query("SELECT AVG(r.value) FROM Rating r WHERE r.user.id = :userId")
+    Double getAverageRatingByUserId(@Param("userId") Long userId);
+    
+    // Wiersze (bookId, AVG(value), COUNT) - jedno zapytanie dla całej listy książek
+    @Query("SELECT r.book.id, AVG(r.value), COUNT(r) FROM Rating r WHERE r.book.id IN :bookIds GROUP BY r.book.id")
+    List<Object[]> getRatingSummariesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+    
+    // Wiersze (value, COUNT)
+    @Query("SELECT r.value, COUNT(r) FROM Rating r WHERE r.book.id = :bookId GROUP BY r.value")
+    List<Object[]> getRatingDistributionByBookId(@Param("bookId") Long bookId);
+    
     @Query("SELECT r FROM Rating r WHERE r.user.id = :userId AND r.book.id = :bookId")
     Optional<Rating> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
+    @Query("SELECT r FROM Rating r JOIN FETCH r.book WHERE r.user.id = :userId AND r.book.id = :bookId")
+    Optional<Rating> findWithBookByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
+    
     @Query("SELECT AVG(r.value) FROM Rating r WHERE r.book.id = :bookId")
     Double getAverageRatingByBookId(@Param("bookId") Long bookId);
     
@@ -0,0 +1,22 @@
+package com.booklovers.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RatingUpsertRepository {
+
+    /**
+     * Zapisuje ocenę jednym poleceniem MERGE (insert albo update po (user_id, book_id)).
+     * Zwraca liczbę zmienionych wierszy - 0 oznacza, że książka nie istnieje.
+     */
+    int upsertRating(Long userId, Long bookId, Integer value);
+
+    /**
+     * Wsadowy wariant upsertRating (JDBC batch) - oceny dla nieistniejących książek są pomijane,
+     * a istniejąca ocena zmieniona po ratedAt nie jest nadpisywana.
+     */
+    void upsertRatings(List<RatingUpsert> ratings);
+
+    record RatingUpsert(Long userId, Long bookId, Integer value, LocalDateTime ratedAt) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.booklovers.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class RatingUpsertRepositoryImpl implements RatingUpsertRepository {
+
+    // USING wybiera książkę po id, więc dla nieistniejącej książki MERGE nie zmienia żadnego wiersza
+    private static final String UPSERT_SQL =
+            "MERGE INTO ratings r " +
+            "USING (SELECT b.id AS book_id FROM books b WHERE b.id = :bookId) s " +
+            "ON (r.user_id = :userId AND r.book_id = s.book_id) " +
+            "WHEN MATCHED THEN UPDATE SET rating_value = :value, updated_at = :now, version = r.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (id, rating_value, created_at, updated_at, version, user_id, book_id) " +
+            "VALUES (%s, :value, :now, :now, 0, :userId, s.book_id)";
+
+    // Ocena z kolejki albo pliku write-behind nie nadpisuje zmiany zapisanej po ratedAt - źródło jest wtedy puste
+    // (warunek w USING, bo Oracle nie zna WHEN MATCHED AND, a H2 nie zna UPDATE ... WHERE w MERGE)
+    private static final String UPSERT_BATCH_SQL =
+            "MERGE INTO ratings r " +
+            "USING (SELECT b.id AS book_id FROM books b WHERE b.id = ? AND NOT EXISTS " +
+            "(SELECT 1 FROM ratings n WHERE n.user_id = ? AND n.book_id = b.id AND n.updated_at > ?)) s " +
+            "ON (r.user_id = ? AND r.book_id = s.book_id) " +
+            "WHEN MATCHED THEN UPDATE SET rating_value = ?, updated_at = ?, version = r.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (id, rating_value, created_at, updated_at, version, user_id, book_id) " +
+            "VALUES (%s, ?, ?, ?, 0, ?, s.book_id)";
+
+    private final EntityManager entityManager;
+
+    private volatile String nextIdExpression;
+
+    @Override
+    public int upsertRating(Long userId, Long bookId, Integer value) {
+        int affected = entityManager.createNativeQuery(String.format(UPSERT_SQL, getNextIdExpression()))
+                .setParameter("bookId", bookId)
+                .setParameter("userId", userId)
+                .setParameter("value", value)
+                .setParameter("now", LocalDateTime.now())
+                .executeUpdate();
+        log.debug("MERGE oceny: userId={}, bookId={}, value={}, affected={}", userId, bookId, value, affected);
+        return affected;
+    }
+
+    @Override
+    public void upsertRatings(List<RatingUpsert> ratings) {
+        String sql = String.format(UPSERT_BATCH_SQL, getNextIdExpression());
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (RatingUpsert rating : ratings) {
+                    // Dokładność kolumny TIMESTAMP(6) - zaokrąglony w górę zapis byłby "nowszy" od tej samej oceny
+                    Timestamp ratedAt = Timestamp.valueOf(rating.ratedAt().truncatedTo(ChronoUnit.MICROS));
+                    statement.setLong(1, rating.bookId());
+                    statement.setLong(2, rating.userId());
+                    statement.setTimestamp(3, ratedAt);
+                    statement.setLong(4, rating.userId());
+                    statement.setInt(5, rating.value());
+                    statement.setTimestamp(6, ratedAt);
+                    statement.setInt(7, rating.value());
+                    statement.setTimestamp(8, ratedAt);
+                    statement.setTimestamp(9, ratedAt);
+                    statement.setLong(10, rating.userId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+        log.debug("Wsadowy MERGE ocen: size={}", ratings.size());
+    }
+
+    private String getNextIdExpression() {
+        if (nextIdExpression == null) {
+            // Składnia pobrania wartości sekwencji różni się między Oracle (rating_seq.nextval) a H2 (next value for)
+            Dialect dialect = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+            nextIdExpression = dialect.getSequenceSupport().getSelectSequenceNextValString("rating_seq");
+        }
+        return nextIdExpression;
+    }
+}
@@ -1,20 +1,36 @@
 package com.booklovers.repository;
 
 import com.booklovers.entity.Review;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
+    // ReviewMapper czyta autora recenzji i tytuł książki - bez grafu każda recenzja to dodatkowe zapytania
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Review> findByBookId(Long bookId);
+    
+    @EntityGraph(attributePaths = {"user", "book"})
     List<Review> findByUserId(Long userId);
     
+    @Override
+    @EntityGraph(attributePaths = {"user", "book"})
+    List<Review> findAll();
+    
+    long countByUserId(Long userId);
+    
+    // Wiersze (bookId, COUNT)
+    @Query("SELECT r.book.id, COUNT(r) FROM Review r WHERE r.book.id IN :bookIds GROUP BY r.book.id")
+    List<Object[]> countByBookIds(@Param("bookIds") Collection<Long> bookIds);
+    
     @Query("SELECT r FROM Review r WHERE r.user.id = :userId AND r.book.id = :bookId")
     Optional<Review> findByUserIdAndBookId(@Param("userId") Long userId, @Param("bookId") Long bookId);
     
@@ -0,0 +1,21 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.Shelf;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ShelfRepository extends JpaRepository<Shelf, Long> {
+    
+    @Query("SELECT s.name FROM Shelf s WHERE s.user.id = :userId ORDER BY s.name")
+    List<String> findNamesByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM Shelf s WHERE s.user.id = :userId AND s.name = :name")
+    int deleteByUserIdAndName(@Param("userId") Long userId, @Param("name") String name);
+}
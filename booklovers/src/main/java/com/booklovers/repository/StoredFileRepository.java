@@ -0,0 +1,42 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.StoredFile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Liczniki zmieniane pojedynczym UPDATE - bez odczytu encji i bez utraconych aktualizacji przy współbieżnych zmianach
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount + 1 WHERE f.path = :path")
+    int incrementRefCount(@Param("path") String path);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.path = :path AND f.refCount > 0")
+    int decrementRefCount(@Param("path") String path);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.lastStoredAt = :storedAt WHERE f.path = :path")
+    int touch(@Param("path") String path, @Param("storedAt") LocalDateTime storedAt);
+
+    @Query("SELECT f.path FROM StoredFile f WHERE f.refCount = 0 AND f.lastStoredAt < :cutoff ORDER BY f.lastStoredAt")
+    List<String> findUnreferenced(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // Warunek powtórzony w DELETE - plik użyty lub zapisany ponownie od czasu odczytu kandydatów nie zostanie usunięty
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.path = :path AND f.refCount = 0 AND f.lastStoredAt < :cutoff")
+    int deleteIfUnreferenced(@Param("path") String path, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,26 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TokenRevocation r SET r.revokedAt = :revokedAt WHERE r.userId = :userId")
+    int updateRevokedAt(@Param("userId") Long userId, @Param("revokedAt") LocalDateTime revokedAt);
+
+    // Wpisy starsze niż czas życia tokena dostępu niczego już nie blokują
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,12 @@
+package com.booklovers.repository;
+
+import java.util.Collection;
+
+public interface UserBookBatchRepository {
+
+    /**
+     * Dodaje książki na półkę jednym poleceniem INSERT ... SELECT z tabeli books.
+     * Nieistniejące id książek są pomijane. Zwraca liczbę dodanych wierszy.
+     */
+    int insertBooks(Long userId, String shelfName, Collection<Long> bookIds);
+}
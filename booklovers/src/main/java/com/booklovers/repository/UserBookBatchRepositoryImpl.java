@@ -0,0 +1,51 @@
+package com.booklovers.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Slf4j
+@RequiredArgsConstructor
+public class UserBookBatchRepositoryImpl implements UserBookBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_books (id, version, user_id, book_id, shelf_name, added_at) " +
+            "SELECT %s, 0, :userId, b.id, :shelfName, :now FROM books b WHERE b.id IN (:bookIds)";
+
+    private final EntityManager entityManager;
+
+    private volatile String nextIdExpression;
+
+    @Override
+    public int insertBooks(Long userId, String shelfName, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        int inserted = entityManager.createNativeQuery(String.format(INSERT_SQL, getNextIdExpression()))
+                .setParameter("userId", userId)
+                .setParameter("shelfName", shelfName)
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("bookIds", bookIds)
+                .executeUpdate();
+        log.debug("Zbiorcze dodanie książek: userId={}, shelfName={}, requested={}, inserted={}",
+                userId, shelfName, bookIds.size(), inserted);
+        return inserted;
+    }
+
+    private String getNextIdExpression() {
+        if (nextIdExpression == null) {
+            Dialect dialect = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect();
+            nextIdExpression = dialect.getSequenceSupport().getSelectSequenceNextValString("user_book_seq");
+        }
+        return nextIdExpression;
+    }
+}
@@ -2,15 +2,17 @@ package com.booklovers.repository;
 
 import com.booklovers.entity.UserBook;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserBookRepository extends JpaRepository<UserBook, Long> {
+public interface UserBookRepository extends JpaRepository<UserBook, Long>, UserBookBatchRepository {
     List<UserBook> findByUserId(Long userId);
     
     @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId AND ub.shelfName = :shelfName")
@@ -24,6 +26,14 @@ public interface UserBookRepository extends JpaRepository<UserBook, Long> {
     @Query("SELECT ub FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id = :bookId AND ub.shelfName = :shelfName")
     Optional<UserBook> findByUserIdAndBookIdAndShelfName(@Param("userId") Long userId, @Param("bookId") Long bookId, @Param("shelfName") String shelfName);
     
+    // Wiersze (shelfName, bookId) dla indeksu biblioteczki - bookId jest null dla dawnych pustych półek
+    @Query("SELECT ub.shelfName, b.id FROM UserBook ub LEFT JOIN ub.book b WHERE ub.user.id = :userId")
+    List<Object[]> findShelfEntriesByUserId(@Param("userId") Long userId);
+    
+    // Półki wskazanych książek prosto z bazy - dla zmian zbiorczych, które nie mogą opierać się na indeksie z cache
+    @Query("SELECT ub.shelfName, ub.book.id FROM UserBook ub WHERE ub.user.id = :userId AND ub.book.id IN :bookIds")
+    List<Object[]> findShelfEntriesByUserIdAndBookIds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+    
     @Query("SELECT DISTINCT ub.shelfName FROM UserBook ub WHERE ub.user.id = :userId")
     List<String> findDistinctShelfNamesByUserId(@Param("userId") Long userId);
     
@@ -32,4 +42,16 @@ public interface UserBookRepository extends JpaRepository<UserBook, Long> {
     
     @Query("SELECT COUNT(DISTINCT ub.user.id) FROM UserBook ub WHERE ub.book.id = :bookId AND ub.book IS NOT NULL")
     Long countReadersByBookId(@Param("bookId") Long bookId);
+    
+    // Operacje zbiorcze - listy bookIds dzielone przez wywołującego na paczki po 1000 (limit IN w Oracle)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserBook ub SET ub.shelfName = :toShelf, ub.version = ub.version + 1 " +
+           "WHERE ub.user.id = :userId AND ub.shelfName = :fromShelf AND ub.book.id IN :bookIds")
+    int moveBooks(@Param("userId") Long userId, @Param("fromShelf") String fromShelf,
+                  @Param("toShelf") String toShelf, @Param("bookIds") Collection<Long> bookIds);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM UserBook ub WHERE ub.user.id = :userId AND ub.shelfName = :shelfName AND ub.book.id IN :bookIds")
+    int deleteBooksFromShelf(@Param("userId") Long userId, @Param("shelfName") String shelfName,
+                             @Param("bookIds") Collection<Long> bookIds);
 }
@@ -4,11 +4,13 @@ import com.booklovers.dto.AuthorDto;
 import com.booklovers.entity.Author;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.AuthorRepository;
+import com.booklovers.repository.BookRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -20,6 +22,7 @@ public class AuthorServiceImp implements AuthorService {
     
     private final AuthorRepository authorRepository;
     private final AuthorMapper authorMapper;
+    private final BookRepository bookRepository;
     
     @Override
     @Transactional(readOnly = true)
@@ -74,6 +77,8 @@ public class AuthorServiceImp implements AuthorService {
         author.setNationality(authorDto.getNationality());
         
         Author updated = authorRepository.save(author);
+        // Walidatory HTTP książek liczone są z tabeli books - bez tego lista i szczegóły zwracałyby 304 ze starym autorem
+        bookRepository.touchByAuthorId(updated.getId(), LocalDateTime.now());
         log.info("Autor zaktualizowany pomyślnie: authorId={}, fullName={}", 
                 updated.getId(), updated.getFullName());
         return authorMapper.toDto(updated);
@@ -0,0 +1,119 @@
+package com.booklovers.service.book;
+
+import com.booklovers.dto.BookDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Katalog książek czytany kursorem bazy (repozytorium Stream) i mapowany do BookDto wiersz po wierszu,
+ * żeby widok mógł renderować i wysyłać wiersze, zanim zostanie wczytany cały katalog.
+ * Transakcja tylko do odczytu trwa od otwarcia do wyczerpania kursora albo close(); widok iteruje kursor
+ * na wątku żądania. Kontekst utrwalania jest czyszczony co CLEAR_INTERVAL wierszy - pamięć nie rośnie
+ * z liczbą książek.
+ */
+@Slf4j
+public class BookCursor implements CloseableIterator<BookDto> {
+
+    private static final int CLEAR_INTERVAL = 100;
+
+    private final Stream<Object[]> rows;
+    private final Iterator<Object[]> source;
+    private final Function<Object[], BookDto> mapper;
+    private final Runnable clearPersistenceContext;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionStatus transaction;
+    private final Deque<BookDto> buffer = new ArrayDeque<>();
+    private int sinceClear;
+    private int read;
+    private boolean closed;
+
+    BookCursor(Stream<Object[]> rows, Function<Object[], BookDto> mapper, Runnable clearPersistenceContext,
+               PlatformTransactionManager transactionManager, TransactionStatus transaction) {
+        this.rows = rows;
+        this.source = rows.iterator();
+        this.mapper = mapper;
+        this.clearPersistenceContext = clearPersistenceContext;
+        this.transactionManager = transactionManager;
+        this.transaction = transaction;
+    }
+
+    /**
+     * Czy katalog ma więcej niż limit książek. Wczytuje z wyprzedzeniem najwyżej limit + 1 wierszy;
+     * gdy kursor wyczerpie się wcześniej, transakcja jest już zakończona.
+     */
+    public boolean hasMoreThan(int limit) {
+        boolean more = true;
+        while (more && buffer.size() <= limit) {
+            more = fetch();
+        }
+        return buffer.size() > limit;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !buffer.isEmpty() || fetch();
+    }
+
+    @Override
+    public BookDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.poll();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            rows.close();
+        } finally {
+            if (!transaction.isCompleted()) {
+                transactionManager.commit(transaction);
+            }
+        }
+        log.debug("Zamknięto kursor katalogu: read={}", read);
+    }
+
+    private boolean fetch() {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!source.hasNext()) {
+                close();
+                return false;
+            }
+            buffer.add(mapper.apply(source.next()));
+            read++;
+            if (++sinceClear >= CLEAR_INTERVAL) {
+                // Zmapowane encje nie są już potrzebne - bez tego kontekst utrwalania trzyma cały katalog
+                clearPersistenceContext.run();
+                sinceClear = 0;
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            closed = true;
+            try {
+                rows.close();
+            } finally {
+                if (!transaction.isCompleted()) {
+                    transactionManager.rollback(transaction);
+                }
+            }
+            throw ex;
+        }
+    }
+}
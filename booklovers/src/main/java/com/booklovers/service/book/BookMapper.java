@@ -2,6 +2,7 @@ package com.booklovers.service.book;
 
 import com.booklovers.dto.BookDto;
 import com.booklovers.entity.Book;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -30,9 +31,12 @@ public class BookMapper {
                 .pageCount(book.getPageCount())
                 .language(book.getLanguage())
                 .coverImageUrl(book.getCoverImageUrl())
+                .coverImagePath(book.getCoverImagePath())
                 .createdAt(book.getCreatedAt())
-                .ratingsCount(book.getRatings() != null ? book.getRatings().size() : 0)
-                .reviewsCount(book.getReviews() != null ? book.getReviews().size() : 0)
+                .version(book.getVersion())
+                // Niezaładowane kolekcje nie są inicjalizowane - liczniki uzupełnia BookServiceImp zapytaniem zbiorczym
+                .ratingsCount(Hibernate.isInitialized(book.getRatings()) && book.getRatings() != null ? book.getRatings().size() : 0)
+                .reviewsCount(Hibernate.isInitialized(book.getReviews()) && book.getReviews() != null ? book.getReviews().size() : 0)
                 .build();
     }
     
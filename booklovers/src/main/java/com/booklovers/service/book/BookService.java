@@ -9,6 +9,7 @@ import java.util.Optional;
 
 public interface BookService {
     List<BookDto> getAllBooks();
+    BookCursor openCatalog();
     Optional<BookDto> getBookById(Long id);
     BookDto createBook(BookDto bookDto);
     BookDto updateBook(Long id, BookDto bookDto);
@@ -16,6 +17,7 @@ public interface BookService {
     List<BookDto> searchBooks(String query);
     List<BookDto> getUserBooks(Long userId);
     List<BookDto> getUserBooksByShelf(Long userId, String shelfName);
+    int countUserBooks(Long userId);
     List<String> getUserShelves(Long userId);
     List<String> getDefaultShelves();
     void createShelf(Long userId, String shelfName);
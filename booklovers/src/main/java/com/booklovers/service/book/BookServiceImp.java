@@ -4,6 +4,7 @@ import com.booklovers.dto.BookDto;
 import com.booklovers.dto.UserBookDto;
 import com.booklovers.entity.Author;
 import com.booklovers.entity.Book;
+import com.booklovers.entity.Shelf;
 import com.booklovers.entity.User;
 import com.booklovers.entity.UserBook;
 import com.booklovers.exception.BadRequestException;
@@ -13,24 +14,45 @@ import com.booklovers.repository.AuthorRepository;
 import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.RatingRepository;
 import com.booklovers.repository.ReviewRepository;
+import com.booklovers.repository.ShelfRepository;
 import com.booklovers.repository.UserBookRepository;
 import com.booklovers.repository.UserRepository;
+import com.booklovers.service.cover.CoverFetchService;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.shelf.LibraryIndexService;
+import com.booklovers.service.shelf.UserLibrary;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookServiceImp implements BookService {
     
+    // Oracle dopuszcza maksymalnie 1000 elementów w klauzuli IN
+    private static final int IN_CLAUSE_LIMIT = 1000;
+    
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final AuthorRepository authorRepository;
@@ -38,34 +60,44 @@ public class BookServiceImp implements BookService {
     private final UserBookRepository userBookRepository;
     private final RatingRepository ratingRepository;
     private final ReviewRepository reviewRepository;
+    private final ShelfRepository shelfRepository;
+    private final LibraryIndexService libraryIndexService;
+    private final CoverFetchService coverFetchService;
+    private final FileStorageService fileStorageService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
     
     @Override
     @Transactional(readOnly = true)
     public List<BookDto> getAllBooks() {
         log.debug("Pobieranie wszystkich książek");
-        List<BookDto> books = bookRepository.findAll().stream()
-                .map(book -> {
-                    BookDto dto = bookMapper.toDto(book);
-                    Double avgRating = ratingRepository.getAverageRatingByBookId(book.getId());
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .collect(Collectors.toList());
-        log.info("Pobrano {} książek", books.size());
+        List<BookDto> books = toDtosWithRatings(bookRepository.findAll());
+        log.debug("Pobrano {} książek", books.size());
         return books;
     }
     
+    // Bez @Transactional: transakcja tylko do odczytu trwa do zamknięcia kursora, nie do końca tej metody
+    @Override
+    public BookCursor openCatalog() {
+        log.debug("Otwieranie kursora katalogu książek");
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        definition.setReadOnly(true);
+        TransactionStatus transaction = transactionManager.getTransaction(definition);
+        try {
+            Stream<Object[]> rows = bookRepository.streamCatalog();
+            return new BookCursor(rows, this::toCatalogDto, entityManager::clear, transactionManager, transaction);
+        } catch (RuntimeException ex) {
+            transactionManager.rollback(transaction);
+            throw ex;
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<BookDto> getBookById(Long id) {
         log.debug("Pobieranie książki: bookId={}", id);
-        Optional<BookDto> book = bookRepository.findById(id)
-                .map(b -> {
-                    BookDto dto = bookMapper.toDto(b);
-                    Double avgRating = ratingRepository.getAverageRatingByBookId(id);
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                });
+        Optional<BookDto> book = bookRepository.findWithAuthorById(id)
+                .map(b -> toDtosWithRatings(List.of(b)).get(0));
         if (book.isEmpty()) {
             log.warn("Nie znaleziono książki: bookId={}", id);
         } else {
@@ -92,6 +124,7 @@ public class BookServiceImp implements BookService {
         }
         
         Book savedBook = bookRepository.save(book);
+        coverFetchService.scheduleFetch(savedBook.getId(), savedBook.getCoverImageUrl());
         log.info("Książka utworzona pomyślnie: bookId={}, title={}", savedBook.getId(), savedBook.getTitle());
         return bookMapper.toDto(savedBook);
     }
@@ -102,6 +135,14 @@ public class BookServiceImp implements BookService {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", id));
         
+        // Klient odsyła wersję z odczytu - inna wartość oznacza, że ktoś zmienił książkę w międzyczasie
+        if (bookDto.getVersion() != null && !bookDto.getVersion().equals(book.getVersion())) {
+            log.warn("Konflikt wersji przy aktualizacji książki: bookId={}, expected={}, current={}",
+                    id, bookDto.getVersion(), book.getVersion());
+            throw new ConflictException("Book was modified by another user, reload and try again");
+        }
+        
+        String previousCoverUrl = book.getCoverImageUrl();
         if (bookDto.getTitle() != null) {
             book.setTitle(bookDto.getTitle());
         }
@@ -133,20 +174,27 @@ public class BookServiceImp implements BookService {
         if (bookDto.getLanguage() != null) {
             book.setLanguage(bookDto.getLanguage());
         }
-        if (bookDto.getCoverImageUrl() != null) {
+        if (bookDto.getCoverImageUrl() != null && !bookDto.getCoverImageUrl().equals(book.getCoverImageUrl())) {
             book.setCoverImageUrl(bookDto.getCoverImageUrl());
+            if (!StringUtils.hasText(book.getCoverImageUrl())) {
+                fileStorageService.release(book.getCoverImagePath());
+                book.setCoverImagePath(null);
+            }
         }
         
         Book updatedBook = bookRepository.save(book);
-        BookDto dto = bookMapper.toDto(updatedBook);
-        Double avgRating = ratingRepository.getAverageRatingByBookId(id);
-        dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-        return dto;
+        // Nowy adres albo nieudane wcześniejsze pobranie - dotychczasowa kopia zostaje do czasu pobrania nowej
+        if (StringUtils.hasText(updatedBook.getCoverImageUrl())
+                && (updatedBook.getCoverImagePath() == null || !updatedBook.getCoverImageUrl().equals(previousCoverUrl))) {
+            coverFetchService.scheduleFetch(updatedBook.getId(), updatedBook.getCoverImageUrl());
+        }
+        return toDtosWithRatings(List.of(updatedBook)).get(0);
     }
     
     @Override
     @Transactional
     public void deleteBook(Long id) {
+        bookRepository.findById(id).map(Book::getCoverImagePath).ifPresent(fileStorageService::release);
         bookRepository.deleteById(id);
     }
     
@@ -157,51 +205,29 @@ public class BookServiceImp implements BookService {
             return getAllBooks();
         }
         String searchQuery = "%" + query.trim() + "%";
-        return bookRepository.searchBooks(searchQuery).stream()
-                .map(book -> {
-                    BookDto dto = bookMapper.toDto(book);
-                    Double avgRating = ratingRepository.getAverageRatingByBookId(book.getId());
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDtosWithRatings(bookRepository.searchBooks(searchQuery));
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<BookDto> getUserBooks(Long userId) {
-        List<UserBook> userBooks = userBookRepository.findByUserId(userId);
-        return userBooks.stream()
-                .filter(ub -> ub.getBook() != null)
-                .map(ub -> {
-                    BookDto dto = bookMapper.toDto(ub.getBook());
-                    Double avgRating = ratingRepository.getAverageRatingByBookId(ub.getBook().getId());
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .distinct()
-                .collect(Collectors.toList());
+        return toBookDtos(libraryIndexService.getLibrary(userId).getAllBookIds());
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<BookDto> getUserBooksByShelf(Long userId, String shelfName) {
-        List<UserBook> userBooks = userBookRepository.findByUserIdAndShelfName(userId, shelfName);
-        return userBooks.stream()
-                .filter(ub -> ub.getBook() != null)
-                .map(ub -> {
-                    BookDto dto = bookMapper.toDto(ub.getBook());
-                    Double avgRating = ratingRepository.getAverageRatingByBookId(ub.getBook().getId());
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toBookDtos(libraryIndexService.getLibrary(userId).getBookIds(shelfName));
+    }
+    
+    @Override
+    public int countUserBooks(Long userId) {
+        return libraryIndexService.getLibrary(userId).getTotalBooks();
     }
     
     @Override
     public List<String> getUserShelves(Long userId) {
-        List<String> shelves = userBookRepository.findDistinctShelfNamesByUserId(userId);
-        if (shelves.isEmpty()) {
-            return getDefaultShelves();
-        }
+        List<String> shelves = libraryIndexService.getLibrary(userId).getShelfNames();
         List<String> defaultShelves = getDefaultShelves();
         for (String defaultShelf : defaultShelves) {
             if (!shelves.contains(defaultShelf)) {
@@ -227,17 +253,16 @@ public class BookServiceImp implements BookService {
             throw new BadRequestException("Cannot create default shelf: " + shelfName);
         }
         
-        List<String> existingShelves = userBookRepository.findDistinctShelfNamesByUserId(userId);
-        if (existingShelves.contains(shelfName)) {
+        if (libraryIndexService.getLibrary(userId).hasShelf(shelfName)) {
             throw new ConflictException("Shelf already exists: " + shelfName);
         }
         
-        UserBook emptyShelf = UserBook.builder()
+        Shelf shelf = Shelf.builder()
                 .user(user)
-                .book(null)
-                .shelfName(shelfName)
+                .name(shelfName)
                 .build();
-        userBookRepository.save(emptyShelf);
+        shelfRepository.save(shelf);
+        libraryIndexService.evict(userId);
     }
     
     @Override
@@ -255,10 +280,8 @@ public class BookServiceImp implements BookService {
             shelfName = "Moja biblioteczka";
         }
         
-        Optional<UserBook> existing = userBookRepository.findByUserIdAndBookIdAndShelfName(
-                user.getId(), bookId, shelfName);
-        
-        if (existing.isPresent()) {
+        UserLibrary library = libraryIndexService.getLibrary(user.getId());
+        if (library.contains(shelfName, bookId)) {
             throw new ConflictException("Book already exists in this shelf");
         }
         
@@ -266,18 +289,12 @@ public class BookServiceImp implements BookService {
         boolean isDefaultShelf = defaultShelves.contains(shelfName);
         
         if (isDefaultShelf) {
-            List<UserBook> existingInDefaultShelves = userBookRepository.findByUserIdAndBookId(user.getId(), bookId)
-                    .stream()
-                    .filter(ub -> ub.getBook() != null && defaultShelves.contains(ub.getShelfName()))
+            List<String> existingInDefaultShelves = library.getShelvesContaining(bookId).stream()
+                    .filter(defaultShelves::contains)
                     .collect(Collectors.toList());
             
             if (!existingInDefaultShelves.isEmpty()) {
-                UserBook existingUserBook = existingInDefaultShelves.get(0);
-                String fromShelf = existingUserBook.getShelfName();
-                
-                if (fromShelf.equals(shelfName)) {
-                    throw new ConflictException("Book already exists in this shelf");
-                }
+                String fromShelf = existingInDefaultShelves.get(0);
                 
                 moveBookToShelf(bookId, fromShelf, shelfName);
                 UserBook moved = userBookRepository.findByUserIdAndBookIdAndShelfName(
@@ -287,14 +304,6 @@ public class BookServiceImp implements BookService {
             }
         }
         
-        List<UserBook> emptyShelves = userBookRepository.findByUserIdAndShelfName(user.getId(), shelfName)
-                .stream()
-                .filter(ub -> ub.getBook() == null)
-                .collect(Collectors.toList());
-        if (!emptyShelves.isEmpty()) {
-            userBookRepository.deleteAll(emptyShelves);
-        }
-        
         UserBook userBook = UserBook.builder()
                 .user(user)
                 .book(book)
@@ -302,6 +311,7 @@ public class BookServiceImp implements BookService {
                 .build();
         
         UserBook saved = userBookRepository.save(userBook);
+        libraryIndexService.evict(user.getId());
         return toUserBookDto(saved);
     }
     
@@ -322,6 +332,7 @@ public class BookServiceImp implements BookService {
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "not found in shelf: " + finalShelfName));
         
         userBookRepository.delete(userBook);
+        libraryIndexService.evict(user.getId());
     }
     
     @Override
@@ -350,17 +361,9 @@ public class BookServiceImp implements BookService {
             throw new ConflictException("Book already exists in target shelf");
         }
         
-        List<UserBook> emptyShelves = userBookRepository.findByUserIdAndShelfName(user.getId(), finalToShelf)
-                .stream()
-                .filter(ub -> ub.getBook() == null)
-                .collect(Collectors.toList());
-        if (!emptyShelves.isEmpty()) {
-            userBookRepository.deleteAll(emptyShelves);
-            userBookRepository.flush();
-        }
-        
         userBook.setShelfName(finalToShelf);
         userBookRepository.save(userBook);
+        libraryIndexService.evict(user.getId());
     }
     
     @Override
@@ -376,6 +379,56 @@ public class BookServiceImp implements BookService {
             userBookRepository.deleteAll(userBooks);
             userBookRepository.flush();
         }
+        shelfRepository.deleteByUserIdAndName(userId, shelfName);
+        libraryIndexService.evict(userId);
+    }
+    
+    // Kolejność wyniku zgodna z indeksem (rosnące id książek)
+    private List<BookDto> toBookDtos(long[] bookIds) {
+        if (bookIds.length == 0) {
+            return new ArrayList<>();
+        }
+        Map<Long, Book> books = bookRepository.findAllById(LongStream.of(bookIds).boxed().toList()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return toDtosWithRatings(LongStream.of(bookIds)
+                .mapToObj(books::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+    
+    // Średnia i liczba ocen oraz liczba recenzji dwoma zapytaniami zbiorczymi zamiast zapytań per książka (N+1)
+    private List<BookDto> toDtosWithRatings(List<Book> books) {
+        Map<Long, Object[]> ratingSummaries = new HashMap<>();
+        Map<Long, Long> reviewCounts = new HashMap<>();
+        List<Long> ids = books.stream().map(Book::getId).toList();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_LIMIT) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_LIMIT, ids.size()));
+            for (Object[] row : ratingRepository.getRatingSummariesByBookIds(chunk)) {
+                ratingSummaries.put((Long) row[0], row);
+            }
+            for (Object[] row : reviewRepository.countByBookIds(chunk)) {
+                reviewCounts.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return books.stream()
+                .map(book -> {
+                    BookDto dto = bookMapper.toDto(book);
+                    Object[] summary = ratingSummaries.get(book.getId());
+                    dto.setAverageRating(summary != null ? ((Number) summary[1]).doubleValue() : 0.0);
+                    dto.setRatingsCount(summary != null ? ((Number) summary[2]).intValue() : 0);
+                    dto.setReviewsCount(reviewCounts.getOrDefault(book.getId(), 0L).intValue());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    // Wiersz BookRepository.streamCatalog: książka, średnia ocen, liczba ocen, liczba recenzji
+    private BookDto toCatalogDto(Object[] row) {
+        BookDto dto = bookMapper.toDto((Book) row[0]);
+        dto.setAverageRating(row[1] != null ? ((Number) row[1]).doubleValue() : 0.0);
+        dto.setRatingsCount(((Number) row[2]).intValue());
+        dto.setReviewsCount(((Number) row[3]).intValue());
+        return dto;
     }
     
     private UserBookDto toUserBookDto(UserBook userBook) {
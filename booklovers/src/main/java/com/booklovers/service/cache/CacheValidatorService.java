@@ -0,0 +1,12 @@
+package com.booklovers.service.cache;
+
+import com.booklovers.dto.CacheValidatorDto;
+
+public interface CacheValidatorService {
+    CacheValidatorDto getBooksValidator();
+    CacheValidatorDto getBookValidator(Long bookId);
+    CacheValidatorDto getBookReviewsValidator(Long bookId);
+    CacheValidatorDto getGlobalStatsValidator();
+    CacheValidatorDto getUserStatsValidator(Long userId);
+    CacheValidatorDto getBookStatsValidator(Long bookId);
+}
@@ -0,0 +1,141 @@
+package com.booklovers.service.cache;
+
+import com.booklovers.dto.CacheValidatorDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wylicza walidatory HTTP (ETag, Last-Modified) jednym lekkim zapytaniem agregującym,
+ * bez uruchamiania pełnej ścieżki serwisowej i mapowania DTO.
+ * Kolumny version wchodzą do odcisku, więc zmiana w obrębie tej samej milisekundy też zmienia ETag.
+ * Zwraca null, gdy zasób nie istnieje - kontroler obsługuje wtedy żądanie normalnie (np. 404).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheValidatorServiceImp implements CacheValidatorService {
+
+    private static final String BOOKS_SQL =
+            "SELECT (SELECT COUNT(*) FROM books) AS books_count, " +
+            "(SELECT MAX(COALESCE(updated_at, created_at)) FROM books) AS books_modified, " +
+            "(SELECT SUM(version) FROM books) AS books_version, " +
+            "(SELECT COUNT(*) FROM authors) AS authors_count, " +
+            "(SELECT COUNT(*) FROM ratings) AS ratings_count, " +
+            "(SELECT SUM(rating_value) FROM ratings) AS ratings_sum, " +
+            "(SELECT MAX(updated_at) FROM ratings) AS ratings_modified, " +
+            "(SELECT SUM(version) FROM ratings) AS ratings_version, " +
+            "(SELECT COUNT(*) FROM reviews) AS reviews_count " +
+            "FROM dual";
+
+    private static final String BOOK_SQL =
+            "SELECT COALESCE(b.updated_at, b.created_at) AS book_modified, b.version AS book_version, " +
+            "(SELECT COUNT(*) FROM ratings r WHERE r.book_id = b.id) AS ratings_count, " +
+            "(SELECT SUM(r.rating_value) FROM ratings r WHERE r.book_id = b.id) AS ratings_sum, " +
+            "(SELECT MAX(r.updated_at) FROM ratings r WHERE r.book_id = b.id) AS ratings_modified, " +
+            "(SELECT COUNT(*) FROM reviews v WHERE v.book_id = b.id) AS reviews_count " +
+            "FROM books b WHERE b.id = ?";
+
+    private static final String BOOK_REVIEWS_SQL =
+            "SELECT COUNT(*) AS reviews_count, MAX(updated_at) AS reviews_modified, SUM(version) AS reviews_version " +
+            "FROM reviews WHERE book_id = ?";
+
+    private static final String GLOBAL_STATS_SQL =
+            "SELECT (SELECT COUNT(*) FROM books) AS books_count, " +
+            "(SELECT COUNT(*) FROM users) AS users_count, " +
+            "(SELECT COUNT(*) FROM reviews) AS reviews_count, " +
+            "(SELECT COUNT(*) FROM ratings) AS ratings_count, " +
+            "(SELECT SUM(rating_value) FROM ratings) AS ratings_sum, " +
+            "(SELECT MAX(updated_at) FROM ratings) AS ratings_modified " +
+            "FROM dual";
+
+    private static final String USER_STATS_SQL =
+            "SELECT (SELECT COUNT(*) FROM user_books ub WHERE ub.user_id = u.id) AS user_books_count, " +
+            "(SELECT COUNT(DISTINCT ub.shelf_name) FROM user_books ub WHERE ub.user_id = u.id) AS shelves_count, " +
+            "(SELECT COUNT(*) FROM shelves s WHERE s.user_id = u.id) AS custom_shelves_count, " +
+            "(SELECT MAX(ub.added_at) FROM user_books ub WHERE ub.user_id = u.id) AS user_books_modified, " +
+            "(SELECT COUNT(*) FROM reviews v WHERE v.user_id = u.id) AS reviews_count, " +
+            "(SELECT COUNT(*) FROM ratings r WHERE r.user_id = u.id) AS ratings_count, " +
+            "(SELECT SUM(r.rating_value) FROM ratings r WHERE r.user_id = u.id) AS ratings_sum, " +
+            "(SELECT MAX(r.updated_at) FROM ratings r WHERE r.user_id = u.id) AS ratings_modified " +
+            "FROM users u WHERE u.id = ?";
+
+    private static final String BOOK_STATS_SQL =
+            "SELECT COALESCE(b.updated_at, b.created_at) AS book_modified, " +
+            "(SELECT COUNT(DISTINCT ub.user_id) FROM user_books ub WHERE ub.book_id = b.id) AS readers_count, " +
+            "(SELECT MAX(ub.added_at) FROM user_books ub WHERE ub.book_id = b.id) AS user_books_modified, " +
+            "(SELECT COUNT(*) FROM ratings r WHERE r.book_id = b.id) AS ratings_count, " +
+            "(SELECT SUM(r.rating_value) FROM ratings r WHERE r.book_id = b.id) AS ratings_sum, " +
+            "(SELECT MAX(r.updated_at) FROM ratings r WHERE r.book_id = b.id) AS ratings_modified " +
+            "FROM books b WHERE b.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public CacheValidatorDto getBooksValidator() {
+        return validator("books", BOOKS_SQL);
+    }
+
+    @Override
+    public CacheValidatorDto getBookValidator(Long bookId) {
+        return validator("book:" + bookId, BOOK_SQL, bookId);
+    }
+
+    @Override
+    public CacheValidatorDto getBookReviewsValidator(Long bookId) {
+        return validator("book-reviews:" + bookId, BOOK_REVIEWS_SQL, bookId);
+    }
+
+    @Override
+    public CacheValidatorDto getGlobalStatsValidator() {
+        return validator("global-stats", GLOBAL_STATS_SQL);
+    }
+
+    @Override
+    public CacheValidatorDto getUserStatsValidator(Long userId) {
+        // booksReadThisYear zależy od bieżącego roku, więc rok wchodzi do ETaga
+        return validator("user-stats:" + userId + ":" + LocalDate.now().getYear(), USER_STATS_SQL, userId);
+    }
+
+    @Override
+    public CacheValidatorDto getBookStatsValidator(Long bookId) {
+        return validator("book-stats:" + bookId, BOOK_STATS_SQL, bookId);
+    }
+
+    private CacheValidatorDto validator(String resource, String sql, Object... args) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, args);
+        if (rows.isEmpty()) {
+            log.debug("Brak zasobu do walidacji cache: resource={}", resource);
+            return null;
+        }
+
+        StringBuilder fingerprint = new StringBuilder(resource);
+        Instant lastModified = null;
+        for (Object value : rows.get(0).values()) {
+            fingerprint.append('|').append(value);
+            if (value instanceof Timestamp timestamp) {
+                Instant modified = timestamp.toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant();
+                if (lastModified == null || modified.isAfter(lastModified)) {
+                    lastModified = modified;
+                }
+            }
+        }
+
+        String hash = DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+        log.debug("Walidator cache: resource={}, etag={}, lastModified={}", resource, hash, lastModified);
+        return CacheValidatorDto.builder()
+                .etag("W/\"" + hash + "\"")
+                .lastModified(lastModified)
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.booklovers.service.cache;
+
+import com.booklovers.dto.CacheValidatorDto;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public interface FragmentCacheService {
+    Optional<String> getIfPresent(String template, String fragment, CacheValidatorDto validator);
+    String render(String template, String fragment, CacheValidatorDto validator,
+                  Supplier<Map<String, Object>> variables, HttpServletRequest request, HttpServletResponse response);
+}
@@ -0,0 +1,102 @@
+package com.booklovers.service.cache;
+
+import com.booklovers.dto.CacheValidatorDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache wyrenderowanych fragmentów Thymeleaf (lista katalogu, nagłówek książki, statystyki).
+ * Kluczem jest ETag z CacheValidatorService - zmiana encji zmienia odcisk, więc stary wpis przestaje być
+ * trafiany bez jawnego unieważniania (także przy kilku węzłach) i wypada z cache po czasie bezczynności.
+ * Przy trafieniu dostawca zmiennych nie jest wywoływany - model fragmentu w ogóle nie jest ładowany.
+ * Walidator null (brak zasobu) oznacza renderowanie bez cache. Walidator jest liczony na bazie głównej, więc model
+ * renderowany do cache wywołujący czyta z niej (PrimaryReadScope) - starszy model z repliki zostałby pod nowszym kluczem.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FragmentCacheServiceImp implements FragmentCacheService {
+
+    private static final int MAX_FRAGMENTS = 5_000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(30);
+
+    private final ITemplateEngine templateEngine;
+
+    private final Cache<FragmentKey, String> fragments = Caffeine.newBuilder()
+            .maximumSize(MAX_FRAGMENTS)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .build();
+
+    @Override
+    public Optional<String> getIfPresent(String template, String fragment, CacheValidatorDto validator) {
+        if (validator == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(fragments.getIfPresent(
+                new FragmentKey(template, fragment, validator.getEtag(), LocaleContextHolder.getLocale())));
+    }
+
+    @Override
+    public String render(String template, String fragment, CacheValidatorDto validator,
+                         Supplier<Map<String, Object>> variables, HttpServletRequest request, HttpServletResponse response) {
+        Locale locale = LocaleContextHolder.getLocale();
+        if (validator == null) {
+            return process(template, fragment, locale, variables.get(), request, response);
+        }
+        FragmentKey key = new FragmentKey(template, fragment, validator.getEtag(), locale);
+        return fragments.get(key, missing -> {
+            log.debug("Renderowanie fragmentu do cache: template={}, fragment={}, etag={}", template, fragment, validator.getEtag());
+            return process(template, fragment, locale, variables.get(), request, response);
+        });
+    }
+
+    private String process(String template, String fragment, Locale locale, Map<String, Object> variables,
+                           HttpServletRequest request, HttpServletResponse response) {
+        IWebExchange exchange = JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, new NoUrlRewritingResponse(response));
+        return templateEngine.process(template, Set.of(fragment), new WebContext(exchange, locale, variables));
+    }
+
+    private record FragmentKey(String template, String fragment, String etag, Locale locale) {
+    }
+
+    // Fragment jest współdzielony między sesjami - linki nie mogą dostać ;jsessionid bieżącego użytkownika.
+    // Pozostałe przekształcenia URL (wersjonowanie zasobów statycznych przez ResourceUrlEncodingFilter) zostają
+    private static class NoUrlRewritingResponse extends HttpServletResponseWrapper {
+
+        private static final Pattern SESSION_ID = Pattern.compile(";jsessionid=[^?#]*", Pattern.CASE_INSENSITIVE);
+
+        NoUrlRewritingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public String encodeURL(String url) {
+            return SESSION_ID.matcher(super.encodeURL(url)).replaceFirst("");
+        }
+
+        @Override
+        public String encodeRedirectURL(String url) {
+            return SESSION_ID.matcher(super.encodeRedirectURL(url)).replaceFirst("");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.booklovers.service.cover;
+
+public interface CoverFetchService {
+    // Pobiera okładkę w tle (po zatwierdzeniu bieżącej transakcji) i zapisuje ją jako books.cover_image_path
+    void scheduleFetch(Long bookId, String sourceUrl);
+
+    // Planuje pobranie okładek wszystkich książek z adresem okładki bez zapisanego pliku; zwraca liczbę książek
+    int backfillMissingCovers();
+}
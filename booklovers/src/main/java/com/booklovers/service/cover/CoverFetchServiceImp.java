@@ -0,0 +1,489 @@
+package com.booklovers.service.cover;
+
+import com.booklovers.api.config.CoverFetchProperties;
+import com.booklovers.entity.Book;
+import com.booklovers.exception.BadRequestException;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pobiera okładki z Book.coverImageUrl do magazynu plików (podkatalog covers, z miniaturami ImageProcessingService),
+ * żeby strony katalogu nie zależały od zewnętrznych serwerów - szablony pokazują tylko /media/{coverImagePath}.
+ * Pobieranie w ograniczonej puli wątków; błędy sieci, 429 i 5xx ponawiane z wykładniczym odstępem,
+ * pozostałe błędy (4xx, nie-obraz, za duży plik) kończą próbę. Adresy prywatne sprawdza resolver DNS klienta HTTP,
+ * więc połączenie idzie dokładnie na sprawdzony adres (bez ponownego rozwiązania nazwy - DNS rebinding).
+ * Przekierowania obsługiwane ręcznie, żeby każdy kolejny host przeszedł tę samą kontrolę.
+ * Po starcie aplikacji planowane są okładki książek, które mają adres, a nie mają jeszcze pliku.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CoverFetchServiceImp implements CoverFetchService {
+
+    static final String SUBDIRECTORY = "covers";
+    private static final int BACKFILL_BATCH = 100;
+
+    private final BookRepository bookRepository;
+    private final ImageProcessingService imageProcessingService;
+    private final FileStorageService fileStorageService;
+    private final PlatformTransactionManager transactionManager;
+    private final CoverFetchProperties properties;
+
+    private CloseableHttpClient httpClient;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+    private Thread backfillThread;
+
+    @PostConstruct
+    void start() {
+        httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setDnsResolver(new PublicAddressResolver(properties.isAllowPrivateAddresses()))
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                                .setSocketTimeout(Timeout.of(properties.getRequestTimeout()))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(properties.getRequestTimeout()))
+                        .setRedirectsEnabled(false)
+                        .build())
+                .setUserAgent(properties.getUserAgent())
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .build();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "cover-fetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // Wątek odliczający odstęp przed ponowieniem - samo pobieranie zawsze w puli executor
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cover-fetch-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Po starcie aplikacji, we własnym wątku - start nie czeka na przejście po tabeli books
+    @EventListener(ApplicationReadyEvent.class)
+    void backfillOnStartup() {
+        if (!properties.isEnabled() || !properties.isBackfillOnStartup()) {
+            return;
+        }
+        backfillThread = new Thread(() -> {
+            try {
+                backfillMissingCovers();
+            } catch (RuntimeException e) {
+                log.error("Błąd uzupełniania okładek", e);
+            }
+        }, "cover-fetch-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (backfillThread != null) {
+            backfillThread.interrupt();
+        }
+        retryScheduler.shutdownNow();
+        executor.shutdownNow();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            log.debug("Nie można zamknąć klienta HTTP okładek", e);
+        }
+    }
+
+    @Override
+    public void scheduleFetch(Long bookId, String sourceUrl) {
+        if (!properties.isEnabled() || bookId == null || !StringUtils.hasText(sourceUrl)) {
+            return;
+        }
+        CoverTask task = new CoverTask(bookId, sourceUrl, 1);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Zadanie po zatwierdzeniu - wątek puli musi widzieć zapisaną książkę i nowy adres okładki
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(task);
+                }
+            });
+        } else {
+            submit(task);
+        }
+    }
+
+    @Override
+    public int backfillMissingCovers() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        long afterId = 0;
+        int scheduled = 0;
+        List<Object[]> batch;
+        do {
+            batch = bookRepository.findMissingCoverImages(afterId, PageRequest.of(0, BACKFILL_BATCH));
+            for (Object[] row : batch) {
+                afterId = (Long) row[0];
+                String sourceUrl = (String) row[1];
+                if (!StringUtils.hasText(sourceUrl)) {
+                    continue;
+                }
+                if (!awaitQueueCapacity()) {
+                    log.info("Uzupełnianie okładek przerwane: zaplanowano {} książek", scheduled);
+                    return scheduled;
+                }
+                submit(new CoverTask(afterId, sourceUrl, 1));
+                scheduled++;
+            }
+        } while (batch.size() == BACKFILL_BATCH);
+        log.info("Uzupełnianie okładek: zaplanowano {} książek", scheduled);
+        return scheduled;
+    }
+
+    // Uzupełnianie zajmuje najwyżej połowę kolejki - reszta zostaje dla edycji książek i ponowień
+    private boolean awaitQueueCapacity() {
+        while (executor.getQueue().size() >= Math.max(1, properties.getQueueCapacity() / 2)) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void submit(CoverTask task) {
+        try {
+            executor.execute(() -> fetch(task));
+        } catch (RejectedExecutionException e) {
+            log.warn("Kolejka pobierania okładek pełna, okładka pominięta: bookId={}, queueCapacity={}",
+                    task.bookId(), properties.getQueueCapacity());
+        }
+    }
+
+    private void fetch(CoverTask task) {
+        Path file = null;
+        try {
+            file = download(task.sourceUrl());
+            String path = imageProcessingService.storeLocalImage(file, SUBDIRECTORY);
+            attach(task, path);
+        } catch (CoverFetchException e) {
+            if (e.retryable && task.attempt() < properties.getMaxAttempts()) {
+                Duration delay = backoff(task.attempt(), e.retryAfter);
+                log.info("Nieudane pobranie okładki, ponowienie za {} ms: bookId={}, attempt={}, reason={}",
+                        delay.toMillis(), task.bookId(), task.attempt(), e.getMessage());
+                retryScheduler.schedule(() -> submit(task.next()), delay.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                log.warn("Nie udało się pobrać okładki: bookId={}, url={}, attempt={}, reason={}",
+                        task.bookId(), task.sourceUrl(), task.attempt(), e.getMessage());
+            }
+        } catch (BadRequestException e) {
+            log.warn("Pobrany plik nie jest obsługiwaną okładką: bookId={}, url={}, reason={}",
+                    task.bookId(), task.sourceUrl(), e.getMessage());
+        } catch (IllegalStateException e) {
+            // Przetwarzanie obrazów przeciążone - ponowienie jak przy błędzie sieci
+            if (task.attempt() < properties.getMaxAttempts()) {
+                log.info("Przetwarzanie obrazów przeciążone, ponowienie okładki: bookId={}, attempt={}", task.bookId(), task.attempt());
+                retryScheduler.schedule(() -> submit(task.next()), backoff(task.attempt(), null).toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                log.warn("Nie udało się przetworzyć okładki: bookId={}, reason={}", task.bookId(), e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.error("Błąd pobierania okładki: bookId={}, url={}", task.bookId(), task.sourceUrl(), e);
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    // Okładka przypisywana tylko, gdy książka nadal wskazuje ten sam adres; poprzedni plik traci referencję
+    private void attach(CoverTask task, String path) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Book book = bookRepository.findById(task.bookId()).orElse(null);
+            if (book == null || !task.sourceUrl().equals(book.getCoverImageUrl())) {
+                log.debug("Książka usunięta lub adres okładki zmieniony w trakcie pobierania: bookId={}", task.bookId());
+                return;
+            }
+            String previous = book.getCoverImagePath();
+            if (path.equals(previous)) {
+                return;
+            }
+            if (bookRepository.updateCoverImagePath(task.bookId(), task.sourceUrl(), path, LocalDateTime.now()) > 0) {
+                fileStorageService.retain(path);
+                fileStorageService.release(previous);
+                log.info("Okładka zapisana: bookId={}, path={}", task.bookId(), path);
+            }
+        });
+    }
+
+    private Path download(String sourceUrl) {
+        URI uri = parse(sourceUrl);
+        for (int redirect = 0; redirect <= properties.getMaxRedirects(); redirect++) {
+            HttpGet request = new HttpGet(uri);
+            request.setHeader(HttpHeaders.ACCEPT, "image/*");
+            try (ClassicHttpResponse response = httpClient.executeOpen(HttpHost.create(uri), request, null)) {
+                int status = response.getCode();
+                Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+                if (status >= 300 && status < 400 && location != null) {
+                    uri = parse(uri.resolve(location.getValue()).toString());
+                    continue;
+                }
+                if (status != 200) {
+                    boolean retryable = status == 429 || status >= 500;
+                    throw new CoverFetchException("HTTP " + status, retryable, retryAfter(response));
+                }
+                return save(response.getEntity());
+            } catch (PrivateAddressException e) {
+                throw new CoverFetchException("adres prywatny: " + uri.getHost(), false, null);
+            } catch (UnknownHostException e) {
+                throw new CoverFetchException("nieznany host: " + uri.getHost(), true, null);
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CoverFetchException("przerwano", false, null);
+                }
+                throw new CoverFetchException("błąd połączenia: " + e, true, null);
+            }
+        }
+        throw new CoverFetchException("zbyt wiele przekierowań", false, null);
+    }
+
+    // Treść kopiowana z limitem rozmiaru - Content-Length może być nieobecny albo nieprawdziwy
+    private Path save(HttpEntity entity) {
+        long maxSize = properties.getMaxSize().toBytes();
+        if (entity == null) {
+            throw new CoverFetchException("pusta odpowiedź", false, null);
+        }
+        if (entity.getContentLength() > maxSize) {
+            throw new CoverFetchException("plik większy niż " + properties.getMaxSize(), false, null);
+        }
+        Path file = null;
+        try (InputStream in = entity.getContent()) {
+            file = Files.createTempFile("cover-", ".download");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    total += read;
+                    if (total > maxSize) {
+                        throw new CoverFetchException("plik większy niż " + properties.getMaxSize(), false, null);
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new CoverFetchException("przerwany transfer: " + e, true, null);
+        } catch (CoverFetchException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private URI parse(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+            if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+                throw new CoverFetchException("nieobsługiwany adres: " + url, false, null);
+            }
+            return uri;
+        } catch (IllegalArgumentException e) {
+            throw new CoverFetchException("nieprawidłowy adres: " + url, false, null);
+        }
+    }
+
+    // Adresy, pod które nie wolno się łączyć z adresu podanego przez użytkownika: pętla zwrotna, sieci prywatne
+    // i lokalne łącza (także metadane chmury: 169.254.169.254, fd00:ec2::254), CGNAT, zarezerwowane i rozgłoszeniowe
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isSiteLocalAddress() || address.isLinkLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet6Address) {
+            if ((bytes[0] & 0xFE) == 0xFC) {
+                return false; // fc00::/7 - unique local
+            }
+            InetAddress embedded = embeddedIpv4(bytes);
+            return embedded == null || isPublicAddress(embedded);
+        }
+        int first = bytes[0] & 0xFF;
+        int second = bytes[1] & 0xFF;
+        return first != 0                                           // 0.0.0.0/8
+                && !(first == 100 && (second & 0xC0) == 64)         // 100.64.0.0/10 - CGNAT
+                && !(first == 192 && second == 0 && bytes[2] == 0)  // 192.0.0.0/24
+                && !(first == 198 && (second & 0xFE) == 18)         // 198.18.0.0/15
+                && first < 240;                                     // 240.0.0.0/4 i 255.255.255.255
+    }
+
+    // Adres IPv4 zapisany w IPv6: ::a.b.c.d, ::ffff:a.b.c.d, NAT64 64:ff9b::/96 i 6to4 2002::/16
+    private static InetAddress embeddedIpv4(byte[] bytes) {
+        byte[] ipv4;
+        if (isZero(bytes, 0, 10) && (isZero(bytes, 10, 12) || bytes[10] == (byte) 0xFF && bytes[11] == (byte) 0xFF)
+                || bytes[0] == 0x00 && bytes[1] == 0x64 && bytes[2] == (byte) 0xFF && bytes[3] == (byte) 0x9B
+                && isZero(bytes, 4, 12)) {
+            ipv4 = Arrays.copyOfRange(bytes, 12, 16);
+        } else if (bytes[0] == 0x20 && bytes[1] == 0x02) {
+            ipv4 = Arrays.copyOfRange(bytes, 2, 6);
+        } else {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(ipv4);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isZero(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Odstęp z losowym rozrzutem (połowa - całość), żeby ponowienia wielu okładek z jednego serwera się nie kumulowały
+    private Duration backoff(int attempt, Duration retryAfter) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = Math.min(max, initial << Math.min(attempt - 1, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        if (retryAfter != null) {
+            delay = Math.max(delay, Math.min(max, retryAfter.toMillis()));
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    private static Duration retryAfter(ClassicHttpResponse response) {
+        return Optional.ofNullable(response.getFirstHeader(HttpHeaders.RETRY_AFTER))
+                .map(Header::getValue)
+                .filter(value -> value.matches("\\d{1,6}"))
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(null);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Nie można usunąć pliku tymczasowego: {}", path, e);
+        }
+    }
+
+    // Rozwiązuje nazwę i odrzuca adresy niepubliczne; klient łączy się tylko z adresami zwróconymi stąd
+    private static final class PublicAddressResolver implements DnsResolver {
+
+        private final boolean allowPrivateAddresses;
+
+        PublicAddressResolver(boolean allowPrivateAddresses) {
+            this.allowPrivateAddresses = allowPrivateAddresses;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            InetAddress[] addresses = SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            if (!allowPrivateAddresses) {
+                for (InetAddress address : addresses) {
+                    if (!isPublicAddress(address)) {
+                        throw new PrivateAddressException(host);
+                    }
+                }
+            }
+            return addresses;
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+        }
+    }
+
+    // UnknownHostException, bo tylko taki wyjątek resolver może zgłosić przez klienta HTTP
+    private static final class PrivateAddressException extends UnknownHostException {
+        PrivateAddressException(String host) {
+            super(host);
+        }
+    }
+
+    private record CoverTask(Long bookId, String sourceUrl, int attempt) {
+        CoverTask next() {
+            return new CoverTask(bookId, sourceUrl, attempt + 1);
+        }
+    }
+
+    private static final class CoverFetchException extends RuntimeException {
+        private final boolean retryable;
+        private final Duration retryAfter;
+
+        CoverFetchException(String message, boolean retryable, Duration retryAfter) {
+            super(message);
+            this.retryable = retryable;
+            this.retryAfter = retryAfter;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.booklovers.service.user.UserMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,6 +37,7 @@ public class ExportServiceImp implements ExportService {
     private final RatingService ratingService;
     private final UserBookRepository userBookRepository;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
     
     private ObjectMapper getConfiguredObjectMapper() {
         ObjectMapper mapper = objectMapper.copy();
@@ -46,7 +48,7 @@ public class ExportServiceImp implements ExportService {
     
     @Override
     public UserDataExportDto exportUserData(Long userId) {
-        log.info("Eksport danych użytkownika: userId={}", userId);
+        log.debug("Eksport danych użytkownika: userId={}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
                     log.error("Nie znaleziono użytkownika podczas eksportu danych: userId={}", userId);
@@ -77,7 +79,7 @@ public class ExportServiceImp implements ExportService {
                         .build())
                 .collect(Collectors.toList());
         
-        log.info("Eksport danych użytkownika zakończony pomyślnie: userId={}, userBooks={}", 
+        log.debug("Eksport danych użytkownika zakończony pomyślnie: userId={}, userBooks={}", 
                 userId, userBooks.size());
         return UserDataExportDto.builder()
                 .user(userDto)
@@ -91,12 +93,13 @@ public class ExportServiceImp implements ExportService {
     
     @Override
     public String exportUserDataAsJson(Long userId) {
-        log.info("Eksport danych użytkownika do JSON: userId={}", userId);
+        log.debug("Eksport danych użytkownika do JSON: userId={}", userId);
         try {
             UserDataExportDto data = exportUserData(userId);
             ObjectMapper configuredMapper = getConfiguredObjectMapper();
             String json = configuredMapper.writerWithDefaultPrettyPrinter().writeValueAsString(data);
             log.info("Eksport do JSON zakończony pomyślnie: userId={}, size={} bytes", userId, json.length());
+            meterRegistry.counter("booklovers.exports", "format", "json").increment();
             return json;
         } catch (Exception e) {
             log.error("Błąd podczas eksportu danych użytkownika do JSON: userId={}, error={}", 
@@ -107,7 +110,7 @@ public class ExportServiceImp implements ExportService {
     
     @Override
     public String exportUserDataAsCsv(Long userId) {
-        log.info("Eksport danych użytkownika do CSV: userId={}", userId);
+        log.debug("Eksport danych użytkownika do CSV: userId={}", userId);
         UserDataExportDto data = exportUserData(userId);
         StringBuilder csv = new StringBuilder();
         
@@ -150,6 +153,7 @@ public class ExportServiceImp implements ExportService {
         
         String csvResult = csv.toString();
         log.info("Eksport do CSV zakończony pomyślnie: userId={}, size={} bytes", userId, csvResult.length());
+        meterRegistry.counter("booklovers.exports", "format", "csv").increment();
         return csvResult;
     }
 }
@@ -1,13 +1,26 @@
 package com.booklovers.service.file;
 
 import org.springframework.core.io.Resource;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
 import java.nio.file.Path;
+import java.util.Optional;
 
 public interface FileStorageService {
-    String storeFile(MultipartFile file, String subdirectory);
+    // Obrazy trafiają tu po przetworzeniu przez ImageProcessingService - nazwa = hash przesłanego pliku
+    String storeBytes(byte[] content, String subdirectory, String filename);
+    boolean exists(String filename, String subdirectory);
     Resource loadFileAsResource(String filename, String subdirectory);
     void deleteFile(String filename, String subdirectory);
-    Path getFileLocation(String filename, String subdirectory);
+
+    // Ścieżka pliku na lokalnym dysku; pusta dla magazynu obiektów - wtedy getDownloadUrl
+    Optional<Path> getFileLocation(String filename, String subdirectory);
+
+    // Podpisany, czasowy URL do pobrania pliku bezpośrednio z magazynu obiektów; pusty dla magazynu lokalnego
+    Optional<URI> getDownloadUrl(String filename, String subdirectory);
+
+    // Liczniki referencji plików adresowanych treścią; ścieżki spoza magazynu (URL, stare nazwy) są pomijane
+    void retain(String path);
+    void release(String path);
+    void touch(String path);
 }
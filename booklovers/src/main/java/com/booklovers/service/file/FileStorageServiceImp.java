@@ -4,25 +4,38 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.util.Optional;
 
+/**
+ * Magazyn adresowany treścią na lokalnym dysku: nazwa pliku = SHA-256 treści, katalogi dzielone
+ * dwoma poziomami po dwa znaki hasha ({podkatalog}/ab/cd/abcd...jpg), żeby żaden katalog nie rósł bez końca.
+ * Ścieżka logiczna zapisywana w encjach nie zawiera podziału ("avatars/abcd...jpg").
+ * Liczniki referencji w tabeli stored_files; nieużywane pliki usuwa StoredFileGarbageCollector.
+ * Domyślny magazyn (file.storage.type=local) - dla jednego węzła; przy kilku węzłach S3FileStorageServiceImp.
+ */
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
 public class FileStorageServiceImp implements FileStorageService {
-    
+
     private final Path fileStorageLocation;
-    
-    public FileStorageServiceImp(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    private final StoredFileRegistry storedFileRegistry;
+
+    public FileStorageServiceImp(@Value("${file.upload-dir:uploads}") String uploadDir,
+                                 StoredFileRegistry storedFileRegistry) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        
+        this.storedFileRegistry = storedFileRegistry;
+
         try {
             Files.createDirectories(this.fileStorageLocation);
             log.info("Katalog do przechowywania plików utworzony: {}", this.fileStorageLocation);
@@ -31,53 +44,48 @@ public class FileStorageServiceImp implements FileStorageService {
             throw new RuntimeException("Nie można utworzyć katalogu do przechowywania plików", ex);
         }
     }
-    
+
     @Override
-    public String storeFile(MultipartFile file, String subdirectory) {
-        log.info("Zapisywanie pliku: originalFilename={}, subdirectory={}, size={}", 
-                file.getOriginalFilename(), subdirectory, file.getSize());
-        
-        if (file.isEmpty()) {
-            log.warn("Próba zapisania pustego pliku");
-            throw new RuntimeException("Plik jest pusty");
-        }
-        
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            log.warn("Nieprawidłowy typ pliku: {}", contentType);
-            throw new RuntimeException("Tylko pliki graficzne są dozwolone");
-        }
-        
+    public String storeBytes(byte[] content, String subdirectory, String filename) {
+        Path tempFile = null;
         try {
             Path subdirectoryPath = this.fileStorageLocation.resolve(subdirectory);
-            Files.createDirectories(subdirectoryPath);
-            
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            Path targetLocation = resolveLocation(subdirectory, filename);
+            if (!targetLocation.startsWith(subdirectoryPath) || filename.contains("/")) {
+                throw new IllegalArgumentException("Nieprawidłowa nazwa pliku: " + filename);
             }
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-            
-            Path targetLocation = subdirectoryPath.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            
-            String relativePath = subdirectory + "/" + fileName;
-            log.info("Plik zapisany pomyślnie: path={}, size={}", relativePath, file.getSize());
+            String relativePath = subdirectory + "/" + filename;
+            if (StoredFileRegistry.isTracked(filename)) {
+                storedFileRegistry.register(relativePath, (long) content.length);
+            }
+
+            Files.createDirectories(targetLocation.getParent());
+            // Zapis do pliku tymczasowego i atomowe przeniesienie - /media nigdy nie zobaczy niepełnego pliku
+            tempFile = Files.createTempFile(subdirectoryPath, "upload-", ".tmp");
+            Files.write(tempFile, content);
+            Files.move(tempFile, targetLocation, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Plik zapisany: path={}, size={}", relativePath, content.length);
             return relativePath;
         } catch (IOException ex) {
-            log.error("Błąd podczas zapisywania pliku: originalFilename={}", file.getOriginalFilename(), ex);
-            throw new RuntimeException("Nie można zapisać pliku: " + file.getOriginalFilename(), ex);
+            log.error("Błąd podczas zapisywania pliku: subdirectory={}, filename={}", subdirectory, filename, ex);
+            throw new RuntimeException("Nie można zapisać pliku: " + filename, ex);
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
-    
+
+    @Override
+    public boolean exists(String filename, String subdirectory) {
+        return Files.isRegularFile(locate(filename, subdirectory));
+    }
+
     @Override
     public Resource loadFileAsResource(String filename, String subdirectory) {
         log.debug("Pobieranie pliku: filename={}, subdirectory={}", filename, subdirectory);
         try {
-            Path filePath = getFileLocation(filename, subdirectory);
+            Path filePath = locate(filename, subdirectory);
             Resource resource = new UrlResource(filePath.toUri());
-            
+
             if (resource.exists()) {
                 log.debug("Plik znaleziony: path={}", filePath);
                 return resource;
@@ -90,25 +98,89 @@ public class FileStorageServiceImp implements FileStorageService {
             throw new RuntimeException("Błąd podczas pobierania pliku: " + filename, ex);
         }
     }
-    
+
+    // Usuwa plik fizycznie (wywoływane przez GC); razem z plikiem głównym znikają jego pliki pochodne
     @Override
     public void deleteFile(String filename, String subdirectory) {
         log.info("Usuwanie pliku: filename={}, subdirectory={}", filename, subdirectory);
         try {
-            Path filePath = getFileLocation(filename, subdirectory);
+            Path filePath = locate(filename, subdirectory);
             Files.deleteIfExists(filePath);
+            if (StoredFileRegistry.isTracked(filePath.getFileName().toString())) {
+                deleteDerived(filePath);
+            }
             log.info("Plik usunięty pomyślnie: path={}", filePath);
         } catch (IOException ex) {
             log.error("Błąd podczas usuwania pliku: filename={}, subdirectory={}", filename, subdirectory, ex);
             throw new RuntimeException("Nie można usunąć pliku: " + filename, ex);
         }
     }
-    
+
     @Override
-    public Path getFileLocation(String filename, String subdirectory) {
+    public Optional<Path> getFileLocation(String filename, String subdirectory) {
+        return Optional.of(locate(filename, subdirectory));
+    }
+
+    @Override
+    public Optional<URI> getDownloadUrl(String filename, String subdirectory) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void retain(String path) {
+        storedFileRegistry.retain(path);
+    }
+
+    @Override
+    public void release(String path) {
+        storedFileRegistry.release(path);
+    }
+
+    @Override
+    public void touch(String path) {
+        storedFileRegistry.touch(path);
+    }
+
+    private Path locate(String filename, String subdirectory) {
         if (filename.contains("/")) {
-            return this.fileStorageLocation.resolve(filename).normalize();
+            int slash = filename.lastIndexOf('/');
+            return locate(filename.substring(slash + 1), filename.substring(0, slash));
+        }
+        Path location = resolveLocation(subdirectory, filename);
+        if (!Files.exists(location)) {
+            // Pliki zapisane przed wprowadzeniem podziału katalogów leżą bezpośrednio w podkatalogu
+            Path flat = this.fileStorageLocation.resolve(subdirectory).resolve(filename).normalize();
+            if (Files.exists(flat)) {
+                return flat;
+            }
+        }
+        return location;
+    }
+
+    private Path resolveLocation(String subdirectory, String filename) {
+        return this.fileStorageLocation.resolve(subdirectory).resolve(StoredFileRegistry.shard(filename) + filename).normalize();
+    }
+
+    private void deleteDerived(Path filePath) throws IOException {
+        String prefix = StoredFileRegistry.derivedPrefix(filePath.getFileName().toString());
+        if (!Files.isDirectory(filePath.getParent())) {
+            return;
+        }
+        try (DirectoryStream<Path> derived = Files.newDirectoryStream(filePath.getParent(), prefix + "*")) {
+            for (Path file : derived) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Nie można usunąć pliku tymczasowego: {}", path, ex);
         }
-        return this.fileStorageLocation.resolve(subdirectory).resolve(filename).normalize();
     }
 }
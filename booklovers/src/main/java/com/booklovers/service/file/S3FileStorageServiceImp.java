@@ -0,0 +1,186 @@
+package com.booklovers.service.file;
+
+import com.booklovers.api.config.MediaProperties;
+import com.booklovers.api.config.S3StorageProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Magazyn adresowany treścią w S3 (albo zgodnym magazynie, np. MinIO) - dla kilku węzłów aplikacji.
+ * Klucze jak ścieżki magazynu lokalnego: {podkatalog}/ab/cd/{sha256}.{ext}, liczniki referencji w stored_files.
+ * Zapisywane są obrazy już przetworzone przez ImageProcessingService (kilkaset KB) - jednym putObject.
+ * /media przekierowuje na podpisany URL, więc treść plików nie przechodzi przez JVM.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3FileStorageServiceImp implements FileStorageService {
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final S3StorageProperties properties;
+    private final MediaProperties mediaProperties;
+    private final StoredFileRegistry storedFileRegistry;
+
+    @PostConstruct
+    void createBucketIfMissing() {
+        try {
+            s3Client.headBucket(request -> request.bucket(properties.getBucket()));
+        } catch (S3Exception ex) {
+            if (ex.statusCode() != 404) {
+                throw ex;
+            }
+            s3Client.createBucket(request -> request.bucket(properties.getBucket()));
+            log.info("Utworzono bucket S3: {}", properties.getBucket());
+        }
+    }
+
+    @Override
+    public String storeBytes(byte[] content, String subdirectory, String filename) {
+        if (filename.contains("/") || filename.contains("..")) {
+            throw new IllegalArgumentException("Nieprawidłowa nazwa pliku: " + filename);
+        }
+        String key = key(filename, subdirectory);
+        String relativePath = subdirectory + "/" + filename;
+        if (StoredFileRegistry.isTracked(filename)) {
+            storedFileRegistry.register(relativePath, (long) content.length);
+        }
+        try {
+            s3Client.putObject(request -> request.bucket(properties.getBucket()).key(key)
+                            .contentType(contentType(filename)).cacheControl(cacheControl()),
+                    RequestBody.fromBytes(content));
+        } catch (S3Exception ex) {
+            log.error("Błąd podczas zapisywania pliku w S3: key={}", key, ex);
+            throw new RuntimeException("Nie można zapisać pliku: " + filename, ex);
+        }
+
+        log.debug("Plik zapisany w S3: key={}, size={}", key, content.length);
+        return relativePath;
+    }
+
+    @Override
+    public boolean exists(String filename, String subdirectory) {
+        return objectExists(key(filename, subdirectory));
+    }
+
+    @Override
+    public Resource loadFileAsResource(String filename, String subdirectory) {
+        String key = key(filename, subdirectory);
+        log.debug("Pobieranie pliku z S3: key={}", key);
+        try {
+            return new InputStreamResource(s3Client.getObject(request -> request.bucket(properties.getBucket()).key(key)));
+        } catch (NoSuchKeyException ex) {
+            log.warn("Plik nie istnieje: key={}", key);
+            throw new RuntimeException("Plik nie został znaleziony: " + filename, ex);
+        } catch (S3Exception ex) {
+            log.error("Błąd podczas pobierania pliku z S3: key={}", key, ex);
+            throw new RuntimeException("Błąd podczas pobierania pliku: " + filename, ex);
+        }
+    }
+
+    // Usuwa obiekt (wywoływane przez GC); razem z plikiem głównym znikają jego pliki pochodne
+    @Override
+    public void deleteFile(String filename, String subdirectory) {
+        String key = key(filename, subdirectory);
+        log.info("Usuwanie pliku z S3: key={}", key);
+        try {
+            s3Client.deleteObject(request -> request.bucket(properties.getBucket()).key(key));
+            String name = key.substring(key.lastIndexOf('/') + 1);
+            if (StoredFileRegistry.isTracked(name)) {
+                String prefix = key.substring(0, key.lastIndexOf('/') + 1) + StoredFileRegistry.derivedPrefix(name);
+                List<S3Object> derived = s3Client.listObjectsV2Paginator(request -> request
+                        .bucket(properties.getBucket()).prefix(prefix)).contents().stream().toList();
+                for (S3Object object : derived) {
+                    s3Client.deleteObject(request -> request.bucket(properties.getBucket()).key(object.key()));
+                }
+            }
+            log.info("Plik usunięty pomyślnie z S3: key={}", key);
+        } catch (S3Exception ex) {
+            log.error("Błąd podczas usuwania pliku z S3: key={}", key, ex);
+            throw new RuntimeException("Nie można usunąć pliku: " + filename, ex);
+        }
+    }
+
+    @Override
+    public Optional<Path> getFileLocation(String filename, String subdirectory) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> getDownloadUrl(String filename, String subdirectory) {
+        String key = key(filename, subdirectory);
+        try {
+            return Optional.of(s3Presigner.presignGetObject(presign -> presign
+                    .signatureDuration(properties.getPresignTtl())
+                    .getObjectRequest(request -> request.bucket(properties.getBucket()).key(key))).url().toURI());
+        } catch (URISyntaxException ex) {
+            throw new IllegalStateException("Nieprawidłowy podpisany URL dla klucza: " + key, ex);
+        }
+    }
+
+    @Override
+    public void retain(String path) {
+        storedFileRegistry.retain(path);
+    }
+
+    @Override
+    public void release(String path) {
+        storedFileRegistry.release(path);
+    }
+
+    @Override
+    public void touch(String path) {
+        storedFileRegistry.touch(path);
+    }
+
+    private boolean objectExists(String key) {
+        try {
+            s3Client.headObject(request -> request.bucket(properties.getBucket()).key(key));
+            return true;
+        } catch (NoSuchKeyException ex) {
+            return false;
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return false;
+            }
+            throw ex;
+        }
+    }
+
+    private String key(String filename, String subdirectory) {
+        if (filename.contains("/")) {
+            int slash = filename.lastIndexOf('/');
+            return key(filename.substring(slash + 1), filename.substring(0, slash));
+        }
+        return subdirectory + "/" + StoredFileRegistry.shard(filename) + filename;
+    }
+
+    private String cacheControl() {
+        return CacheControl.maxAge(mediaProperties.getMaxAge()).cachePublic().immutable().getHeaderValue();
+    }
+
+    private static String contentType(String filename) {
+        return MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.booklovers.service.file;
+
+import com.booklovers.api.config.FileGcProperties;
+import com.booklovers.repository.StoredFileRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Usuwa pliki z licznikiem referencji 0 starsze niż okres karencji - także pliki zapisane przez żądanie,
+ * które nie doszło do zapisu encji (np. błąd aktualizacji profilu po przesłaniu zdjęcia).
+ * Wiersz jest usuwany warunkowo w transakcji, która obejmuje też usunięcie pliku - blokada wiersza trzyma
+ * równoległy zapis tego samego pliku (register) do końca usuwania, a zapis sprawdza istnienie pliku dopiero
+ * po rejestracji, więc nie zostawi wiersza bez pliku. Równoległe retain wygrywa z GC.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoredFileGarbageCollector {
+
+    private final StoredFileRepository storedFileRepository;
+    private final FileStorageService fileStorageService;
+    private final FileGcProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stored-file-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::collectQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("GC plików włączony: interval={}, gracePeriod={}", properties.getInterval(), properties.getGracePeriod());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Usuwa jedną paczkę nieużywanych plików. Zwraca liczbę usuniętych plików głównych.
+     */
+    public int collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getGracePeriod());
+        List<String> candidates = storedFileRepository.findUnreferenced(cutoff, PageRequest.of(0, properties.getBatchSize()));
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int deleted = 0;
+        for (String path : candidates) {
+            // Błąd usuwania pliku wycofuje usunięcie wiersza - plik zostaje kandydatem w kolejnym przebiegu
+            Boolean removed = template.execute(status -> {
+                if (storedFileRepository.deleteIfUnreferenced(path, cutoff) == 0) {
+                    return false;
+                }
+                int slash = path.lastIndexOf('/');
+                fileStorageService.deleteFile(path.substring(slash + 1), path.substring(0, slash));
+                return true;
+            });
+            if (Boolean.TRUE.equals(removed)) {
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            log.info("GC plików: usunięto {} nieużywanych plików", deleted);
+        }
+        return deleted;
+    }
+
+    private void collectQuietly() {
+        try {
+            while (collect() == properties.getBatchSize()) {
+                log.debug("GC plików: kolejna paczka");
+            }
+        } catch (Exception e) {
+            log.error("Błąd GC plików", e);
+        }
+    }
+}
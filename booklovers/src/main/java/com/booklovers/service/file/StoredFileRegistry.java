@@ -0,0 +1,106 @@
+package com.booklovers.service.file;
+
+import com.booklovers.entity.StoredFile;
+import com.booklovers.repository.StoredFileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Nazewnictwo plików adresowanych treścią i liczniki referencji w tabeli stored_files -
+ * wspólne dla magazynu lokalnego i S3, żeby oba zachowywały się identycznie wobec encji i GC.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoredFileRegistry {
+
+    // {sha256}.{ext} - plik główny z licznikiem; {sha256}-{wariant}.{ext} - plik pochodny (miniatura)
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{2})([0-9a-f]{2})[0-9a-f]{60}(-[A-Za-z0-9]+)?(\\.[a-z0-9]{1,5})?");
+
+    private final StoredFileRepository storedFileRepository;
+
+    // Nowy plik startuje z licznikiem 0 - dopóki encja go nie użyje (retain), jest kandydatem do GC po okresie karencji
+    public void register(String path, Long size) {
+        LocalDateTime now = LocalDateTime.now();
+        if (storedFileRepository.touch(path, now) > 0) {
+            return;
+        }
+        try {
+            storedFileRepository.save(StoredFile.builder()
+                    .path(path)
+                    .refCount(0)
+                    .sizeBytes(size)
+                    .createdAt(now)
+                    .lastStoredAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException ex) {
+            // Ten sam plik zapisany równolegle przez inne żądanie
+            storedFileRepository.touch(path, now);
+        }
+    }
+
+    public void retain(String path) {
+        if (!isTrackedPath(path)) {
+            return;
+        }
+        if (storedFileRepository.incrementRefCount(path) == 0) {
+            // Plik zapisany przed wprowadzeniem liczników albo wiersz usunięty przez GC w trakcie zapisu
+            storedFileRepository.save(StoredFile.builder().path(path).refCount(1).build());
+        }
+        log.debug("Referencja do pliku dodana: path={}", path);
+    }
+
+    public void release(String path) {
+        if (!isTrackedPath(path)) {
+            return;
+        }
+        if (storedFileRepository.decrementRefCount(path) == 0) {
+            log.warn("Zwolnienie pliku bez referencji: path={}", path);
+        } else {
+            log.debug("Referencja do pliku zwolniona: path={}", path);
+        }
+    }
+
+    public void touch(String path) {
+        if (isTrackedPath(path)) {
+            register(path, null);
+        }
+    }
+
+    // Dwa poziomy po dwa znaki hasha ("ab/cd/") dla plików adresowanych treścią, pusty dla pozostałych nazw
+    public static String shard(String filename) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(filename);
+        return matcher.matches() ? matcher.group(1) + "/" + matcher.group(2) + "/" : "";
+    }
+
+    public static boolean isTracked(String filename) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(filename);
+        return matcher.matches() && matcher.group(3) == null;
+    }
+
+    // Prefiks nazw plików pochodnych: "{sha256}-"
+    public static String derivedPrefix(String filename) {
+        return (filename.contains(".") ? filename.substring(0, filename.indexOf('.')) : filename) + "-";
+    }
+
+    // Tylko litery i cyfry - rozszerzenie trafia do URL /media i do nazwy pliku w magazynie
+    public static String extension(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,5}") ? "." + extension : "";
+    }
+
+    static boolean isTrackedPath(String path) {
+        return path != null && path.indexOf('/') > 0 && !path.contains("://")
+                && isTracked(path.substring(path.lastIndexOf('/') + 1));
+    }
+}
@@ -0,0 +1,13 @@
+package com.booklovers.service.image;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+public interface ImageProcessingService {
+    String storeImage(MultipartFile file, String subdirectory);
+
+    // Obraz z pliku lokalnego (np. pobrana okładka); plik źródłowy pozostaje własnością wywołującego
+    String storeLocalImage(Path source, String subdirectory);
+    String resolveVariant(String filename, Integer size);
+}
@@ -0,0 +1,294 @@
+package com.booklovers.service.image;
+
+import com.booklovers.api.config.ImageProcessingProperties;
+import com.booklovers.exception.BadRequestException;
+import com.booklovers.service.file.FileStorageService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Przetwarzanie przesłanych obrazów: rozpoznanie formatu po zawartości, dekodowanie bez metadanych (EXIF, GPS),
+ * zapis obrazu głównego i miniatur. Nazwa = SHA-256 przesłanego pliku, miniatury: {hash}-{rozmiar}.{rozszerzenie},
+ * więc ten sam plik przesłany ponownie nie jest przetwarzany drugi raz. Miniatury są plikami pochodnymi obrazu głównego
+ * w FileStorageService - licznik referencji i GC dotyczą całego kompletu.
+ * JDK nie ma kodera WebP - obrazy z przezroczystością zapisywane są jako PNG, pozostałe jako JPEG.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProcessingServiceImp implements ImageProcessingService {
+
+    private static final String[] OUTPUT_EXTENSIONS = {".jpg", ".png"};
+
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingProperties properties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(properties.getThreads(), properties.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "image-processing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String storeImage(MultipartFile file, String subdirectory) {
+        if (file.isEmpty()) {
+            throw new BadRequestException("Plik jest pusty");
+        }
+        Path source = null;
+        try {
+            // Przesłany plik kopiowany strumieniowo do pliku tymczasowego z liczeniem hasha - bez bufora na cały plik
+            source = Files.createTempFile("image-", ".upload");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, source, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return submit(source, HexFormat.of().formatHex(digest.digest()), subdirectory, file.getOriginalFilename());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Nie można odczytać pliku: " + file.getOriginalFilename(), e);
+        } finally {
+            deleteQuietly(source);
+        }
+    }
+
+    @Override
+    public String storeLocalImage(Path source, String subdirectory) {
+        try {
+            if (Files.size(source) == 0) {
+                throw new BadRequestException("Plik jest pusty");
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return submit(source, HexFormat.of().formatHex(digest.digest()), subdirectory, source.getFileName().toString());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Nie można odczytać pliku: " + source, e);
+        }
+    }
+
+    private String submit(Path source, String key, String subdirectory, String originalFilename) {
+        Future<String> result;
+        try {
+            result = executor.submit(() -> process(source, key, subdirectory));
+        } catch (RejectedExecutionException e) {
+            log.warn("Kolejka przetwarzania obrazów pełna: queueCapacity={}", properties.getQueueCapacity());
+            throw new IllegalStateException("Serwer przetwarza zbyt wiele obrazów, spróbuj ponownie za chwilę", e);
+        }
+        try {
+            return result.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new IllegalStateException("Przekroczono czas przetwarzania obrazu", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano przetwarzanie obrazu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Błąd przetwarzania obrazu: " + originalFilename, e.getCause());
+        }
+    }
+
+    // Najmniejsza miniatura nie mniejsza niż żądany rozmiar; większe żądania dostają obraz główny
+    @Override
+    public String resolveVariant(String filename, Integer size) {
+        if (size == null) {
+            return filename;
+        }
+        return properties.getVariants().stream()
+                .filter(variant -> variant >= size)
+                .min(Integer::compare)
+                .map(variant -> variantFilename(filename, variant))
+                .orElse(filename);
+    }
+
+    private String process(Path source, String key, String subdirectory) throws IOException {
+        for (String extension : OUTPUT_EXTENSIONS) {
+            if (isComplete(key, extension, subdirectory)) {
+                String path = subdirectory + "/" + key + extension;
+                // Ponowne przesłanie odświeża znacznik zapisu - GC nie usunie pliku przed zapisem referencji.
+                // touch czeka na trwające usuwanie przez GC, więc pliki sprawdzane są ponownie po nim
+                fileStorageService.touch(path);
+                if (isComplete(key, extension, subdirectory)) {
+                    log.debug("Obraz już przetworzony: key={}", key);
+                    return path;
+                }
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        BufferedImage image = decode(source);
+        boolean alpha = image.getColorModel().hasAlpha();
+        String extension = alpha ? ".png" : ".jpg";
+        // Znacznik zapisu przed miniaturami - GC usuwa je razem z obrazem głównym
+        fileStorageService.touch(subdirectory + "/" + key + extension);
+
+        // Miniatury przed obrazem głównym - obraz główny oznacza komplet wariantów (isComplete)
+        for (Integer size : properties.getVariants()) {
+            fileStorageService.storeBytes(encode(scale(image, size, alpha), alpha), subdirectory,
+                    variantFilename(key + extension, size));
+        }
+        byte[] main = encode(scale(image, properties.getMaxDimension(), alpha), alpha);
+        String path = fileStorageService.storeBytes(main, subdirectory, key + extension);
+        log.info("Obraz przetworzony: path={}, source={}x{} ({} B), main={} B, variants={}, time={} ms",
+                path, image.getWidth(), image.getHeight(), Files.size(source), main.length, properties.getVariants(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return path;
+    }
+
+    private boolean isComplete(String key, String extension, String subdirectory) {
+        if (!fileStorageService.exists(key + extension, subdirectory)) {
+            return false;
+        }
+        return properties.getVariants().stream()
+                .allMatch(size -> fileStorageService.exists(variantFilename(key + extension, size), subdirectory));
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new BadRequestException("Plik nie jest obsługiwanym obrazem");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (!properties.getAllowedFormats().contains(format)) {
+                    throw new BadRequestException("Nieobsługiwany format obrazu: " + format);
+                }
+                // ignoreMetadata - metadane nie są nawet parsowane, a zapisywany obraz powstaje od zera
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > properties.getMaxSourcePixels()) {
+                    throw new BadRequestException("Obraz ma zbyt dużą rozdzielczość");
+                }
+                return reader.read(0);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new BadRequestException("Nie można odczytać obrazu", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Obraz wpisany w kwadrat maxSize x maxSize; zmniejszanie kolejnymi połowami daje gładsze miniatury niż jeden krok
+    private static BufferedImage scale(BufferedImage image, int maxSize, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height, alpha);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (!alpha) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image, boolean alpha) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        if (alpha) {
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(properties.getJpegQuality());
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static String variantFilename(String filename, int size) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename + "-" + size : filename.substring(0, dot) + "-" + size + filename.substring(dot);
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Nie można usunąć pliku tymczasowego: {}", path, e);
+        }
+    }
+}
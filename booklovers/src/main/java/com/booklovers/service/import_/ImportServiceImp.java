@@ -13,6 +13,7 @@ import com.booklovers.service.review.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -40,6 +41,7 @@ public class ImportServiceImp implements ImportService {
     private final RatingService ratingService;
     private final ObjectMapper objectMapper;
     private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
     
     private TransactionTemplate getTransactionTemplate() {
         TransactionTemplate template = new TransactionTemplate(transactionManager);
@@ -74,9 +76,12 @@ public class ImportServiceImp implements ImportService {
             
             importUserData(userId, data);
             log.info("Import danych z JSON zakończony pomyślnie: userId={}", userId);
+            countImport("json", "success");
         } catch (BadRequestException e) {
+            countImport("json", "failure");
             throw e;
         } catch (Exception e) {
+            countImport("json", "failure");
             log.error("Błąd podczas importu danych z JSON: userId={}, error={}", userId, e.getMessage(), e);
             throw new BadRequestException("Invalid JSON format: " + e.getMessage());
         }
@@ -100,9 +105,12 @@ public class ImportServiceImp implements ImportService {
             
             importUserData(userId, data);
             log.info("Import danych z CSV zakończony pomyślnie: userId={}", userId);
+            countImport("csv", "success");
         } catch (BadRequestException e) {
+            countImport("csv", "failure");
             throw e;
         } catch (Exception e) {
+            countImport("csv", "failure");
             log.error("Błąd podczas importu danych z CSV: userId={}, error={}", userId, e.getMessage(), e);
             throw new BadRequestException("Invalid CSV format: " + e.getMessage());
         }
@@ -258,6 +266,18 @@ public class ImportServiceImp implements ImportService {
         
         log.info("Import danych zakończony: userId={}, books(imported={}, skipped={}), reviews(imported={}, skipped={}), ratings(imported={}, skipped={})", 
                 userId, importedBooks, skippedBooks, importedReviews, skippedReviews, importedRatings, skippedRatings);
+        countImportedItems("books", importedBooks, skippedBooks);
+        countImportedItems("reviews", importedReviews, skippedReviews);
+        countImportedItems("ratings", importedRatings, skippedRatings);
+    }
+    
+    private void countImport(String format, String outcome) {
+        meterRegistry.counter("booklovers.imports", "format", format, "outcome", outcome).increment();
+    }
+    
+    private void countImportedItems(String type, int imported, int skipped) {
+        meterRegistry.counter("booklovers.import.items", "type", type, "result", "imported").increment(imported);
+        meterRegistry.counter("booklovers.import.items", "type", type, "result", "skipped").increment(skipped);
     }
     
     private Book findBook(Long bookId, String bookTitle) {
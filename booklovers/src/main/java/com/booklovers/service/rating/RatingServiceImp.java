@@ -1,20 +1,27 @@
 package com.booklovers.service.rating;
 
 import com.booklovers.dto.RatingDto;
-import com.booklovers.entity.Book;
 import com.booklovers.entity.Rating;
 import com.booklovers.entity.User;
+import com.booklovers.exception.ConflictException;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.RatingRepository;
 import com.booklovers.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,11 +34,69 @@ public class RatingServiceImp implements RatingService {
     private final RatingRepository ratingRepository;
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final RatingWriteBehindQueue writeBehindQueue;
+    private final MeterRegistry meterRegistry;
+    
+    // Ustawienie oceny jest idempotentne, więc kolizję z równoległym zapisem można bezpiecznie ponowić
+    private static final int MAX_ATTEMPTS = 3;
     
     @Override
-    @Transactional
     public RatingDto createOrUpdateRating(Long bookId, RatingDto ratingDto) {
-        log.info("Tworzenie/aktualizacja oceny: bookId={}, ratingValue={}", bookId, ratingDto.getValue());
+        // W transakcji zewnętrznej (np. import) ponowienie nie jest możliwe - transakcja jest już oznaczona do rollbacku
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return saveRating(bookId, ratingDto);
+        }
+        
+        if (writeBehindQueue.isEnabled()) {
+            Optional<RatingDto> accepted = enqueueRating(bookId, ratingDto);
+            if (accepted.isPresent()) {
+                return accepted.get();
+            }
+        }
+        
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return template.execute(status -> saveRating(bookId, ratingDto));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.warn("Konflikt zapisu oceny po {} próbach: bookId={}", attempt, bookId);
+                    throw new ConflictException("Rating was modified concurrently, please try again");
+                }
+                log.debug("Równoległy zapis oceny, ponawianie: bookId={}, attempt={}", bookId, attempt);
+            }
+        }
+    }
+    
+    // Tryb write-behind: ocena trafia do kolejki i jest potwierdzana od razu, zapis do bazy następuje wsadowo
+    private Optional<RatingDto> enqueueRating(Long bookId, RatingDto ratingDto) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", username));
+        if (!bookRepository.existsById(bookId)) {
+            log.error("Nie znaleziono książki podczas tworzenia oceny: bookId={}", bookId);
+            throw new ResourceNotFoundException("Book", bookId);
+        }
+        
+        if (!writeBehindQueue.offer(user.getId(), bookId, ratingDto.getValue())) {
+            log.debug("Kolejka write-behind pełna, zapis synchroniczny: userId={}, bookId={}", user.getId(), bookId);
+            return Optional.empty();
+        }
+        log.debug("Ocena przyjęta do kolejki write-behind: userId={}, bookId={}, value={}", 
+                user.getId(), bookId, ratingDto.getValue());
+        countRating("queued");
+        return Optional.of(RatingDto.builder()
+                .value(ratingDto.getValue())
+                .userId(user.getId())
+                .username(user.getUsername())
+                .bookId(bookId)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+    
+    private RatingDto saveRating(Long bookId, RatingDto ratingDto) {
+        log.debug("Tworzenie/aktualizacja oceny: bookId={}, ratingValue={}", bookId, ratingDto.getValue());
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         log.debug("Użytkownik oceniający: username={}, bookId={}", username, bookId);
@@ -41,39 +106,25 @@ public class RatingServiceImp implements RatingService {
                     return new ResourceNotFoundException("User", username);
                 });
         
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> {
-                    log.error("Nie znaleziono książki podczas tworzenia oceny: bookId={}", bookId);
-                    return new ResourceNotFoundException("Book", bookId);
-                });
-        
-        Optional<Rating> existingRating = ratingRepository.findByUserIdAndBookId(user.getId(), bookId);
-        
-        Rating rating;
-        if (existingRating.isPresent()) {
-            log.debug("Aktualizacja istniejącej oceny: ratingId={}, userId={}, bookId={}", 
-                    existingRating.get().getId(), user.getId(), bookId);
-            rating = existingRating.get();
-            rating.setValue(ratingDto.getValue());
-        } else {
-            log.debug("Tworzenie nowej oceny: userId={}, bookId={}", user.getId(), bookId);
-            rating = Rating.builder()
-                    .value(ratingDto.getValue())
-                    .user(user)
-                    .book(book)
-                    .build();
+        // Jeden MERGE zamiast odczytu oceny i save - sprawdza też istnienie książki
+        int affected = ratingRepository.upsertRating(user.getId(), bookId, ratingDto.getValue());
+        if (affected == 0) {
+            log.error("Nie znaleziono książki podczas tworzenia oceny: bookId={}", bookId);
+            throw new ResourceNotFoundException("Book", bookId);
         }
         
-        Rating savedRating = ratingRepository.save(rating);
+        Rating savedRating = ratingRepository.findWithBookByUserIdAndBookId(user.getId(), bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Rating", "not found for book: " + bookId));
         log.info("Ocena zapisana pomyślnie: ratingId={}, userId={}, bookId={}, value={}", 
                 savedRating.getId(), user.getId(), bookId, savedRating.getValue());
+        countRating("saved");
         return toDto(savedRating);
     }
     
     @Override
     @Transactional
     public void deleteRating(Long bookId) {
-        log.info("Usuwanie oceny: bookId={}", bookId);
+        log.debug("Usuwanie oceny: bookId={}", bookId);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         log.debug("Użytkownik usuwający ocenę: username={}, bookId={}", username, bookId);
@@ -83,13 +134,21 @@ public class RatingServiceImp implements RatingService {
                     return new ResourceNotFoundException("User", username);
                 });
         
-        Rating rating = ratingRepository.findByUserIdAndBookId(user.getId(), bookId)
+        boolean discarded = writeBehindQueue.discard(user.getId(), bookId);
+        Optional<Rating> existingRating = ratingRepository.findByUserIdAndBookId(user.getId(), bookId);
+        if (existingRating.isEmpty() && discarded) {
+            log.debug("Usunięto ocenę oczekującą w kolejce write-behind: userId={}, bookId={}", user.getId(), bookId);
+            countRating("deleted");
+            return;
+        }
+        Rating rating = existingRating
                 .orElseThrow(() -> {
                     log.warn("Nie znaleziono oceny do usunięcia: userId={}, bookId={}", user.getId(), bookId);
                     return new ResourceNotFoundException("Rating", "not found for book: " + bookId);
                 });
         
         ratingRepository.delete(rating);
+        countRating("deleted");
         log.info("Ocena usunięta pomyślnie: ratingId={}, userId={}, bookId={}", 
                 rating.getId(), user.getId(), bookId);
     }
@@ -107,6 +166,17 @@ public class RatingServiceImp implements RatingService {
         
         Optional<RatingDto> rating = ratingRepository.findByUserIdAndBookId(user.getId(), bookId)
                 .map(this::toDto);
+        Optional<Integer> pendingValue = writeBehindQueue.getPendingValue(user.getId(), bookId);
+        if (pendingValue.isPresent()) {
+            // Użytkownik widzi swoją najnowszą ocenę, zanim kolejka zapisze ją do bazy
+            RatingDto dto = rating.orElseGet(() -> RatingDto.builder()
+                    .userId(user.getId())
+                    .username(user.getUsername())
+                    .bookId(bookId)
+                    .build());
+            dto.setValue(pendingValue.get());
+            return Optional.of(dto);
+        }
         if (rating.isEmpty()) {
             log.debug("Nie znaleziono oceny: userId={}, bookId={}", user.getId(), bookId);
         }
@@ -133,6 +203,10 @@ public class RatingServiceImp implements RatingService {
         return ratings;
     }
     
+    private void countRating(String operation) {
+        meterRegistry.counter("booklovers.ratings", "operation", operation).increment();
+    }
+    
     private RatingDto toDto(Rating rating) {
         return RatingDto.builder()
                 .id(rating.getId())
@@ -143,6 +217,7 @@ public class RatingServiceImp implements RatingService {
                 .bookTitle(rating.getBook() != null ? rating.getBook().getTitle() : null)
                 .createdAt(rating.getCreatedAt())
                 .updatedAt(rating.getUpdatedAt())
+                .version(rating.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,285 @@
+package com.booklovers.service.rating;
+
+import com.booklovers.api.config.RatingWriteBehindProperties;
+import com.booklovers.repository.RatingRepository;
+import com.booklovers.repository.RatingUpsertRepository.RatingUpsert;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Kolejka write-behind dla ocen: przyjmuje oceny w pamięci i zapisuje je do bazy wsadowym MERGE.
+ * Kolejna ocena tej samej książki przez tego samego użytkownika nadpisuje oczekującą.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RatingWriteBehindQueue {
+
+    private final RatingRepository ratingRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final RatingWriteBehindProperties properties;
+
+    // Klucz userId:bookId, kolejność wstawienia = kolejność zapisu
+    private final Map<String, RatingUpsert> pending = new LinkedHashMap<>();
+    // ReentrantLock zamiast synchronized - wirtualny wątek żądania czekający w discard() na zapis JDBC nie przypina nośnika
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        replaySpool();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Kolejka write-behind ocen włączona: flushInterval={}, batchSize={}, capacity={}",
+                properties.getFlushInterval(), properties.getBatchSize(), properties.getCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Zwraca false, gdy kolejka jest pełna - wywołujący zapisuje wtedy ocenę synchronicznie.
+     */
+    public boolean offer(Long userId, Long bookId, Integer value) {
+        int size;
+        synchronized (pending) {
+            String key = key(userId, bookId);
+            if (!pending.containsKey(key) && pending.size() >= properties.getCapacity()) {
+                log.warn("Kolejka write-behind ocen pełna: capacity={}", properties.getCapacity());
+                return false;
+            }
+            pending.remove(key);
+            pending.put(key, new RatingUpsert(userId, bookId, value, LocalDateTime.now()));
+            size = pending.size();
+        }
+        if (size >= properties.getBatchSize() && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    public Optional<Integer> getPendingValue(Long userId, Long bookId) {
+        synchronized (pending) {
+            return Optional.ofNullable(pending.get(key(userId, bookId))).map(RatingUpsert::value);
+        }
+    }
+
+    /**
+     * Usuwa oczekującą ocenę. Czeka na trwający zapis wsadowy, żeby nie odtworzył usuwanej oceny.
+     */
+    public boolean discard(Long userId, Long bookId) {
+        flushLock.lock();
+        try {
+            synchronized (pending) {
+                return pending.remove(key(userId, bookId)) != null;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int size() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Zapisuje wszystkie oczekujące oceny paczkami po batchSize. Przy niedostępnej bazie paczka wraca do kolejki;
+     * przy innym błędzie oceny z paczki są zapisywane pojedynczo, a te, których nie da się zapisać, są odrzucane -
+     * jeden wadliwy wiersz nie blokuje pozostałych.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            int flushed = 0;
+            List<RatingUpsert> batch;
+            while (!(batch = drain(properties.getBatchSize())).isEmpty()) {
+                List<RatingUpsert> current = batch;
+                try {
+                    template.executeWithoutResult(status -> ratingRepository.upsertRatings(current));
+                    flushed += current.size();
+                } catch (RuntimeException e) {
+                    if (isTransient(e)) {
+                        requeue(current);
+                        throw e;
+                    }
+                    log.warn("Błąd zapisu paczki ocen, zapis pojedynczo: size={}, reason={}", current.size(), e.getMessage());
+                    flushed += flushOneByOne(template, current);
+                }
+            }
+            if (flushed > 0) {
+                log.debug("Zapisano oceny z kolejki write-behind: count={}", flushed);
+            }
+            return flushed;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushOneByOne(TransactionTemplate template, List<RatingUpsert> batch) {
+        int flushed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            RatingUpsert rating = batch.get(i);
+            try {
+                template.executeWithoutResult(status -> ratingRepository.upsertRatings(List.of(rating)));
+                flushed++;
+            } catch (RuntimeException e) {
+                if (isTransient(e)) {
+                    requeue(batch.subList(i, batch.size()));
+                    throw e;
+                }
+                log.error("Odrzucono ocenę z kolejki write-behind: userId={}, bookId={}, value={}, ratedAt={}",
+                        rating.userId(), rating.bookId(), rating.value(), rating.ratedAt(), e);
+            }
+        }
+        return flushed;
+    }
+
+    // Baza niedostępna albo chwilowo przeciążona - ponowienie tych samych ocen ma sens
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Błąd zapisu ocen z kolejki write-behind, ponowienie przy kolejnym cyklu: pending={}", size(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Nie udało się zapisać ocen przy zamykaniu aplikacji, zapis do pliku: pending={}", size(), e);
+            spool();
+        }
+    }
+
+    // Oceny zapisane do pliku przy poprzednim zamknięciu trafiają do bazy niezależnie od trybu write-behind, jeszcze
+    // przy tworzeniu kontekstu - przed startem serwera HTTP. MERGE pomija oceny zmienione w bazie po ich ratedAt
+    public void replaySpool() {
+        Path spoolFile = properties.getSpoolFile();
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        try {
+            List<RatingUpsert> ratings = new ArrayList<>();
+            for (String line : Files.readAllLines(spoolFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    String[] parts = line.split(";");
+                    ratings.add(new RatingUpsert(Long.valueOf(parts[0]), Long.valueOf(parts[1]),
+                            Integer.valueOf(parts[2]), LocalDateTime.parse(parts[3])));
+                }
+            }
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            for (int from = 0; from < ratings.size(); from += properties.getBatchSize()) {
+                List<RatingUpsert> batch = ratings.subList(from, Math.min(from + properties.getBatchSize(), ratings.size()));
+                template.executeWithoutResult(status -> ratingRepository.upsertRatings(batch));
+            }
+            Files.delete(spoolFile);
+            log.info("Odtworzono oceny z pliku write-behind: count={}, file={}", ratings.size(), spoolFile);
+        } catch (IOException | RuntimeException e) {
+            log.error("Nie udało się odtworzyć ocen z pliku write-behind: file={}", spoolFile, e);
+        }
+    }
+
+    private void spool() {
+        List<RatingUpsert> remaining = drain(Integer.MAX_VALUE);
+        if (remaining.isEmpty()) {
+            return;
+        }
+        Path spoolFile = properties.getSpoolFile();
+        List<String> lines = remaining.stream()
+                .map(r -> r.userId() + ";" + r.bookId() + ";" + r.value() + ";" + r.ratedAt())
+                .toList();
+        try {
+            if (spoolFile.getParent() != null) {
+                Files.createDirectories(spoolFile.getParent());
+            }
+            Files.write(spoolFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.warn("Oceny zapisane do pliku write-behind: count={}, file={}", lines.size(), spoolFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spool pending ratings to " + spoolFile, e);
+        }
+    }
+
+    private List<RatingUpsert> drain(int max) {
+        synchronized (pending) {
+            List<RatingUpsert> batch = new ArrayList<>(Math.min(max, pending.size()));
+            Iterator<RatingUpsert> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < max) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    private void requeue(List<RatingUpsert> batch) {
+        synchronized (pending) {
+            // Nowsza ocena przyjęta w trakcie zapisu ma pierwszeństwo
+            for (RatingUpsert rating : batch) {
+                pending.putIfAbsent(key(rating.userId(), rating.bookId()), rating);
+            }
+        }
+    }
+
+    private static String key(Long userId, Long bookId) {
+        return userId + ":" + bookId;
+    }
+}
@@ -21,6 +21,7 @@ public class ReviewMapper {
                 .bookTitle(review.getBook() != null ? review.getBook().getTitle() : null)
                 .createdAt(review.getCreatedAt())
                 .updatedAt(review.getUpdatedAt())
+                .version(review.getVersion())
                 .build();
     }
     
@@ -12,6 +12,7 @@ import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.ReviewRepository;
 import com.booklovers.repository.UserRepository;
 import com.booklovers.service.rating.RatingService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -34,11 +35,12 @@ public class ReviewServiceImp implements ReviewService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final RatingService ratingService;
+    private final MeterRegistry meterRegistry;
     
     @Override
     @Transactional
     public ReviewDto createReview(Long bookId, ReviewDto reviewDto) {
-        log.info("Tworzenie recenzji: bookId={}", bookId);
+        log.debug("Tworzenie recenzji: bookId={}", bookId);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         log.debug("Użytkownik tworzący recenzję: username={}", username);
@@ -75,6 +77,7 @@ public class ReviewServiceImp implements ReviewService {
         
         log.info("Recenzja utworzona pomyślnie: reviewId={}, userId={}, bookId={}", 
                 savedReview.getId(), user.getId(), bookId);
+        countReview("created");
         return reviewMapper.toDto(savedReview);
     }
     
@@ -92,7 +95,7 @@ public class ReviewServiceImp implements ReviewService {
     @Override
     @Transactional
     public ReviewDto updateReview(Long id, ReviewDto reviewDto) {
-        log.info("Aktualizacja recenzji: reviewId={}", id);
+        log.debug("Aktualizacja recenzji: reviewId={}", id);
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         log.debug("Użytkownik aktualizujący recenzję: username={}, reviewId={}", username, id);
@@ -119,31 +122,37 @@ public class ReviewServiceImp implements ReviewService {
             throw new ForbiddenException("You can only update your own reviews");
         }
         
+        checkVersion(review, reviewDto);
+        
         if (reviewDto.getContent() != null) {
             review.setContent(reviewDto.getContent());
         }
         
         Review updatedReview = reviewRepository.save(review);
         log.info("Recenzja zaktualizowana pomyślnie: reviewId={}, userId={}", updatedReview.getId(), user.getId());
+        countReview("updated");
         return reviewMapper.toDto(updatedReview);
     }
     
     @Override
     @Transactional
     public ReviewDto updateReviewAsAdmin(Long id, ReviewDto reviewDto) {
-        log.info("Aktualizacja recenzji przez administratora: reviewId={}", id);
+        log.debug("Aktualizacja recenzji przez administratora: reviewId={}", id);
         Review review = reviewRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Nie znaleziono recenzji do aktualizacji przez admina: reviewId={}", id);
                     return new ResourceNotFoundException("Review", id);
                 });
         
+        checkVersion(review, reviewDto);
+        
         if (reviewDto.getContent() != null) {
             review.setContent(reviewDto.getContent());
         }
         
         Review updatedReview = reviewRepository.save(review);
         log.info("Recenzja zaktualizowana przez administratora: reviewId={}", updatedReview.getId());
+        countReview("updated");
         return reviewMapper.toDto(updatedReview);
     }
     
@@ -158,7 +167,7 @@ public class ReviewServiceImp implements ReviewService {
         Review review = reviewRepository.findByIdWithUser(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review", id));
         
-        log.info("Usuwanie recenzji: reviewId={}, userId={}", id, user.getId());
+        log.debug("Usuwanie recenzji: reviewId={}, userId={}", id, user.getId());
         
         if (!review.getUser().getId().equals(user.getId())) {
             log.warn("Próba usunięcia cudzej recenzji: userId={}, reviewId={}, reviewOwnerId={}", 
@@ -169,12 +178,13 @@ public class ReviewServiceImp implements ReviewService {
         reviewRepository.deleteById(id);
         reviewRepository.flush();
         log.info("Recenzja usunięta pomyślnie: reviewId={}, userId={}", id, user.getId());
+        countReview("deleted");
     }
     
     @Override
     @Transactional
     public void deleteReviewAsAdmin(Long id) {
-        log.info("Usuwanie recenzji przez administratora: reviewId={}", id);
+        log.debug("Usuwanie recenzji przez administratora: reviewId={}", id);
         if (!reviewRepository.existsById(id)) {
             log.warn("Próba usunięcia nieistniejącej recenzji przez admina: reviewId={}", id);
             throw new ResourceNotFoundException("Review", id);
@@ -183,6 +193,7 @@ public class ReviewServiceImp implements ReviewService {
         reviewRepository.deleteById(id);
         reviewRepository.flush();
         log.info("Recenzja usunięta przez administratora: reviewId={}", id);
+        countReview("deleted");
     }
     
     @Override
@@ -211,4 +222,16 @@ public class ReviewServiceImp implements ReviewService {
                 .map(reviewMapper::toDto)
                 .collect(Collectors.toList());
     }
+    
+    private void countReview(String operation) {
+        meterRegistry.counter("booklovers.reviews", "operation", operation).increment();
+    }
+    
+    private void checkVersion(Review review, ReviewDto reviewDto) {
+        if (reviewDto.getVersion() != null && !reviewDto.getVersion().equals(review.getVersion())) {
+            log.warn("Konflikt wersji przy aktualizacji recenzji: reviewId={}, expected={}, current={}",
+                    review.getId(), reviewDto.getVersion(), review.getVersion());
+            throw new ConflictException("Review was modified in the meantime, reload and try again");
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package com.booklovers.service.shelf;
+
+public interface LibraryIndexService {
+    UserLibrary getLibrary(Long userId);
+    void evict(Long userId);
+}
@@ -0,0 +1,87 @@
+package com.booklovers.service.shelf;
+
+import com.booklovers.repository.ShelfRepository;
+import com.booklovers.repository.UserBookRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LibraryIndexServiceImp implements LibraryIndexService {
+
+    private static final int MAX_USERS = 10_000;
+    // Cache jest lokalny dla węzła: zmiana zapisana na innym węźle (albo indeks zbudowany z opóźnionej repliki)
+    // jest widoczna najpóźniej po tym czasie od zbudowania wpisu, niezależnie od tego, jak często jest czytany
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofSeconds(15);
+
+    private final ShelfRepository shelfRepository;
+    private final UserBookRepository userBookRepository;
+
+    private final Cache<Long, UserLibrary> libraries = Caffeine.newBuilder()
+            .maximumSize(MAX_USERS)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    // Klucz zasobu transakcji: użytkownicy, których biblioteczkę zmieniła bieżąca transakcja
+    private final Object modifiedUsersKey = new Object();
+
+    @Override
+    public UserLibrary getLibrary(Long userId) {
+        // Niezatwierdzone zmiany nie mogą trafić do cache współdzielonego z innymi wątkami
+        if (getModifiedUsers().contains(userId)) {
+            return load(userId);
+        }
+        return libraries.get(userId, this::load);
+    }
+
+    /**
+     * Usuwa indeks od razu i ponownie po zakończeniu transakcji - odczyt równoległy
+     * z zapisem nie zostawi w cache stanu sprzed commita.
+     */
+    @Override
+    public void evict(Long userId) {
+        libraries.invalidate(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<Long> modifiedUsers = getModifiedUsers();
+        if (modifiedUsers.isEmpty()) {
+            Set<Long> bound = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(modifiedUsersKey, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(modifiedUsersKey);
+                    bound.forEach(libraries::invalidate);
+                }
+            });
+            modifiedUsers = bound;
+        }
+        modifiedUsers.add(userId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> getModifiedUsers() {
+        Object modifiedUsers = TransactionSynchronizationManager.getResource(modifiedUsersKey);
+        return modifiedUsers != null ? (Set<Long>) modifiedUsers : Set.of();
+    }
+
+    private UserLibrary load(Long userId) {
+        UserLibrary library = UserLibrary.of(
+                shelfRepository.findNamesByUserId(userId),
+                userBookRepository.findShelfEntriesByUserId(userId));
+        log.debug("Zbudowano indeks biblioteczki: userId={}, shelves={}, books={}",
+                userId, library.getShelfNames().size(), library.getTotalBooks());
+        return library;
+    }
+}
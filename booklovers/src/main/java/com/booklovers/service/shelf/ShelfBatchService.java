@@ -0,0 +1,8 @@
+package com.booklovers.service.shelf;
+
+import com.booklovers.dto.ShelfBatchRequest;
+import com.booklovers.dto.ShelfBatchResultDto;
+
+public interface ShelfBatchService {
+    ShelfBatchResultDto applyBatch(Long userId, ShelfBatchRequest request);
+}
@@ -0,0 +1,214 @@
+package com.booklovers.service.shelf;
+
+import com.booklovers.dto.ShelfBatchItemResultDto;
+import com.booklovers.dto.ShelfBatchItemResultDto.Status;
+import com.booklovers.dto.ShelfBatchOperationDto;
+import com.booklovers.dto.ShelfBatchRequest;
+import com.booklovers.dto.ShelfBatchResultDto;
+import com.booklovers.exception.ConflictException;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.repository.UserBookRepository;
+import com.booklovers.service.book.BookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Zbiorcze dodawanie, przenoszenie i usuwanie książek. Półki wskazanych książek czytane są z bazy w transakcji
+ * zmiany, nie z indeksu LibraryIndexService (lokalny cache węzła może być nieaktualny), a zmiany idą do bazy
+ * poleceniami operującymi na zbiorach id (INSERT ... SELECT, UPDATE/DELETE ... IN). Zmiana równoległa,
+ * przez którą liczba zmienionych wierszy nie zgadza się z wynikami, wycofuje całą operację (409).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShelfBatchServiceImp implements ShelfBatchService {
+    
+    // Oracle ogranicza listę IN do 1000 elementów
+    private static final int CHUNK_SIZE = 1000;
+    private static final String DEFAULT_SHELF = "Moja biblioteczka";
+    
+    private final UserBookRepository userBookRepository;
+    private final BookRepository bookRepository;
+    private final LibraryIndexService libraryIndexService;
+    private final BookService bookService;
+    
+    @Override
+    @Transactional
+    public ShelfBatchResultDto applyBatch(Long userId, ShelfBatchRequest request) {
+        log.info("Zbiorcza operacja na biblioteczce: userId={}, operations={}", userId, request.getOperations().size());
+        List<ShelfBatchItemResultDto> results = new ArrayList<>();
+        List<ShelfBatchOperationDto> operations = request.getOperations();
+        for (int index = 0; index < operations.size(); index++) {
+            results.addAll(apply(userId, index, operations.get(index)));
+        }
+        
+        int succeeded = (int) results.stream().filter(r -> r.getStatus() == Status.OK).count();
+        log.info("Zakończono zbiorczą operację: userId={}, succeeded={}, failed={}",
+                userId, succeeded, results.size() - succeeded);
+        return ShelfBatchResultDto.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+    
+    private List<ShelfBatchItemResultDto> apply(Long userId, int index, ShelfBatchOperationDto operation) {
+        String shelfName = normalize(operation.getShelfName());
+        // Wynik dla każdej książki w kolejności z żądania, powtórzone id traktujemy jak jedno
+        Map<Long, ShelfBatchItemResultDto> results = new LinkedHashMap<>();
+        for (Long bookId : operation.getBookIds()) {
+            results.putIfAbsent(bookId, ShelfBatchItemResultDto.builder()
+                    .operationIndex(index)
+                    .action(operation.getAction())
+                    .bookId(bookId)
+                    .shelfName(shelfName)
+                    .status(Status.OK)
+                    .build());
+        }
+        
+        UserLibrary library = loadMembership(userId, new ArrayList<>(results.keySet()));
+        boolean modified = switch (operation.getAction()) {
+            case ADD -> add(userId, library, shelfName, results);
+            case MOVE -> move(userId, library, normalize(operation.getFromShelf()), shelfName, results);
+            case REMOVE -> remove(userId, library, shelfName, results);
+        };
+        if (modified) {
+            libraryIndexService.evict(userId);
+        }
+        return new ArrayList<>(results.values());
+    }
+    
+    private boolean add(Long userId, UserLibrary library, String shelfName, Map<Long, ShelfBatchItemResultDto> results) {
+        List<Long> candidates = new ArrayList<>();
+        for (ShelfBatchItemResultDto result : results.values()) {
+            if (library.contains(shelfName, result.getBookId())) {
+                reject(result, Status.CONFLICT, "Book already exists in this shelf");
+            } else {
+                candidates.add(result.getBookId());
+            }
+        }
+        
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> chunk : chunks(candidates)) {
+            existing.addAll(bookRepository.findExistingIds(chunk));
+        }
+        
+        // Jak w addBookToUserLibrary: książka może leżeć tylko na jednej domyślnej półce, więc ją przenosimy
+        List<String> defaultShelves = bookService.getDefaultShelves();
+        Map<String, List<Long>> toMove = new LinkedHashMap<>();
+        List<Long> toInsert = new ArrayList<>();
+        for (Long bookId : candidates) {
+            if (!existing.contains(bookId)) {
+                reject(results.get(bookId), Status.NOT_FOUND, "Book not found");
+                continue;
+            }
+            String fromShelf = defaultShelves.contains(shelfName)
+                    ? library.getShelvesContaining(bookId).stream().filter(defaultShelves::contains).findFirst().orElse(null)
+                    : null;
+            if (fromShelf != null) {
+                toMove.computeIfAbsent(fromShelf, s -> new ArrayList<>()).add(bookId);
+                results.get(bookId).setMessage("Moved from shelf: " + fromShelf);
+            } else {
+                toInsert.add(bookId);
+            }
+        }
+        if (toMove.isEmpty() && toInsert.isEmpty()) {
+            return false;
+        }
+        
+        toMove.forEach((fromShelf, bookIds) ->
+                execute(bookIds, chunk -> userBookRepository.moveBooks(userId, fromShelf, shelfName, chunk)));
+        try {
+            execute(toInsert, chunk -> userBookRepository.insertBooks(userId, shelfName, chunk));
+        } catch (DataIntegrityViolationException e) {
+            // Ta sama książka dodana na półkę równolegle przez inne żądanie
+            throw new ConflictException("Library was modified concurrently, reload and try again");
+        }
+        return true;
+    }
+    
+    private boolean move(Long userId, UserLibrary library, String fromShelf, String toShelf,
+                         Map<Long, ShelfBatchItemResultDto> results) {
+        List<Long> toMove = new ArrayList<>();
+        for (ShelfBatchItemResultDto result : results.values()) {
+            if (!library.contains(fromShelf, result.getBookId())) {
+                reject(result, Status.NOT_FOUND, "Book not found in source shelf: " + fromShelf);
+            } else if (library.contains(toShelf, result.getBookId())) {
+                reject(result, Status.CONFLICT, "Book already exists in target shelf");
+            } else {
+                toMove.add(result.getBookId());
+            }
+        }
+        if (toMove.isEmpty()) {
+            return false;
+        }
+        
+        execute(toMove, chunk -> userBookRepository.moveBooks(userId, fromShelf, toShelf, chunk));
+        return true;
+    }
+    
+    private boolean remove(Long userId, UserLibrary library, String shelfName, Map<Long, ShelfBatchItemResultDto> results) {
+        List<Long> toRemove = new ArrayList<>();
+        for (ShelfBatchItemResultDto result : results.values()) {
+            if (library.contains(shelfName, result.getBookId())) {
+                toRemove.add(result.getBookId());
+            } else {
+                reject(result, Status.NOT_FOUND, "Book not found in shelf: " + shelfName);
+            }
+        }
+        if (toRemove.isEmpty()) {
+            return false;
+        }
+        
+        execute(toRemove, chunk -> userBookRepository.deleteBooksFromShelf(userId, shelfName, chunk));
+        return true;
+    }
+    
+    private void execute(List<Long> bookIds, ToIntFunction<List<Long>> statement) {
+        int affected = 0;
+        for (List<Long> chunk : chunks(bookIds)) {
+            affected += statement.applyAsInt(chunk);
+        }
+        if (affected != bookIds.size()) {
+            // Biblioteczka zmieniona równolegle po odczycie półek - wynik per książka byłby nieprawdziwy
+            log.warn("Liczba zmienionych wierszy różni się od oczekiwanej: expected={}, affected={}", bookIds.size(), affected);
+            throw new ConflictException("Library was modified concurrently, reload and try again");
+        }
+    }
+    
+    private UserLibrary loadMembership(Long userId, List<Long> bookIds) {
+        List<Object[]> entries = new ArrayList<>();
+        for (List<Long> chunk : chunks(bookIds)) {
+            entries.addAll(userBookRepository.findShelfEntriesByUserIdAndBookIds(userId, chunk));
+        }
+        return UserLibrary.of(List.of(), entries);
+    }
+    
+    private static void reject(ShelfBatchItemResultDto result, Status status, String message) {
+        result.setStatus(status);
+        result.setMessage(message);
+    }
+    
+    private static String normalize(String shelfName) {
+        return shelfName == null || shelfName.trim().isEmpty() ? DEFAULT_SHELF : shelfName;
+    }
+    
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            chunks.add(items.subList(from, Math.min(from + CHUNK_SIZE, items.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,90 @@
+package com.booklovers.service.shelf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+/**
+ * Niezmienny indeks biblioteczki użytkownika: półka -> posortowana tablica id książek.
+ * Tablice long[] zamiast List<Long> - bez boxingu, członkostwo sprawdzane wyszukiwaniem binarnym.
+ */
+public final class UserLibrary {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<String, long[]> shelves;
+    private final long[] allBookIds;
+
+    private UserLibrary(Map<String, long[]> shelves, long[] allBookIds) {
+        this.shelves = shelves;
+        this.allBookIds = allBookIds;
+    }
+
+    /**
+     * @param shelfNames nazwy półek, także pustych
+     * @param entries wiersze (shelfName, bookId); bookId null oznacza pustą półkę
+     */
+    public static UserLibrary of(Collection<String> shelfNames, List<Object[]> entries) {
+        Map<String, LongStream.Builder> builders = new TreeMap<>();
+        for (String name : shelfNames) {
+            builders.computeIfAbsent(name, n -> LongStream.builder());
+        }
+        LongStream.Builder all = LongStream.builder();
+        for (Object[] entry : entries) {
+            LongStream.Builder shelf = builders.computeIfAbsent((String) entry[0], n -> LongStream.builder());
+            if (entry[1] != null) {
+                long bookId = ((Number) entry[1]).longValue();
+                shelf.add(bookId);
+                all.add(bookId);
+            }
+        }
+
+        Map<String, long[]> shelves = new TreeMap<>();
+        builders.forEach((name, builder) -> shelves.put(name, builder.build().sorted().distinct().toArray()));
+        return new UserLibrary(Collections.unmodifiableMap(shelves), all.build().sorted().distinct().toArray());
+    }
+
+    public List<String> getShelfNames() {
+        return new ArrayList<>(shelves.keySet());
+    }
+
+    public boolean hasShelf(String shelfName) {
+        return shelves.containsKey(shelfName);
+    }
+
+    public long[] getBookIds(String shelfName) {
+        return shelves.getOrDefault(shelfName, EMPTY).clone();
+    }
+
+    public long[] getAllBookIds() {
+        return allBookIds.clone();
+    }
+
+    public int count(String shelfName) {
+        return shelves.getOrDefault(shelfName, EMPTY).length;
+    }
+
+    public int getTotalBooks() {
+        return allBookIds.length;
+    }
+
+    public boolean contains(String shelfName, long bookId) {
+        long[] ids = shelves.get(shelfName);
+        return ids != null && Arrays.binarySearch(ids, bookId) >= 0;
+    }
+
+    public List<String> getShelvesContaining(long bookId) {
+        List<String> result = new ArrayList<>();
+        shelves.forEach((name, ids) -> {
+            if (Arrays.binarySearch(ids, bookId) >= 0) {
+                result.add(name);
+            }
+        });
+        return result;
+    }
+}
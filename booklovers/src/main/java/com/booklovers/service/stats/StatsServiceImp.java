@@ -7,6 +7,8 @@ import com.booklovers.entity.Book;
 import com.booklovers.entity.User;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.*;
+import com.booklovers.service.shelf.LibraryIndexService;
+import com.booklovers.service.shelf.UserLibrary;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -25,6 +28,7 @@ import java.util.Map;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class StatsServiceImp implements StatsService {
     
     private final BookRepository bookRepository;
@@ -32,11 +36,12 @@ public class StatsServiceImp implements StatsService {
     private final ReviewRepository reviewRepository;
     private final RatingRepository ratingRepository;
     private final com.booklovers.repository.UserBookRepository userBookRepository;
+    private final LibraryIndexService libraryIndexService;
     private final JdbcTemplate jdbcTemplate;
     
     @Override
     public StatsDto getGlobalStats() {
-        log.info("Pobieranie globalnych statystyk");
+        log.debug("Pobieranie globalnych statystyk");
         
         Long totalBooks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
         Long totalUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
@@ -66,7 +71,7 @@ public class StatsServiceImp implements StatsService {
             ratingsDistribution.putIfAbsent(i, 0L);
         }
         
-        log.info("Globalne statystyki pobrane: averageRating={}", averageRating);
+        log.debug("Globalne statystyki pobrane: averageRating={}", averageRating);
         return StatsDto.builder()
                 .totalBooks(totalBooks != null ? totalBooks.intValue() : 0)
                 .totalUsers(totalUsers != null ? totalUsers.intValue() : 0)
@@ -99,28 +104,22 @@ public class StatsServiceImp implements StatsService {
     
     @Override
     public UserStatsDto getUserStats(Long userId) {
-        log.info("Pobieranie statystyk użytkownika: userId={}", userId);
+        log.debug("Pobieranie statystyk użytkownika: userId={}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
                     log.error("Nie znaleziono użytkownika podczas pobierania statystyk: userId={}", userId);
                     return new ResourceNotFoundException("User", userId);
                 });
         
-        int booksRead = user.getUserBooks() != null ? 
-            (int) user.getUserBooks().stream()
-                .filter(ub -> ub.getBook() != null)
-                .map(ub -> ub.getBook().getId())
-                .distinct()
-                .count() : 0;
-        int reviewsWritten = user.getReviews() != null ? user.getReviews().size() : 0;
-        int ratingsGiven = user.getRatings() != null ? user.getRatings().size() : 0;
-        int shelvesCount = userBookRepository.findDistinctShelfNamesByUserId(userId).size();
+        // Liczniki zapytaniami agregującymi - bez ładowania kolekcji użytkownika
+        UserLibrary library = libraryIndexService.getLibrary(userId);
+        int booksRead = library.getAllBookIds().length;
+        int reviewsWritten = (int) reviewRepository.countByUserId(userId);
+        int ratingsGiven = (int) ratingRepository.countByUserId(userId);
+        int shelvesCount = library.getShelfNames().size();
         
-        double averageRatingGiven = user.getRatings() != null && !user.getRatings().isEmpty() ?
-                user.getRatings().stream()
-                        .mapToInt(r -> r.getValue())
-                        .average()
-                        .orElse(0.0) : 0.0;
+        Double averageRating = ratingRepository.getAverageRatingByUserId(userId);
+        double averageRatingGiven = averageRating != null ? averageRating : 0.0;
         
         int currentYear = LocalDate.now().getYear();
         Long booksReadThisYear = userBookRepository.countBooksReadInYear(userId, currentYear);
@@ -144,7 +143,7 @@ public class StatsServiceImp implements StatsService {
     
     @Override
     public BookStatsDto getBookStats(Long bookId) {
-        log.info("Pobieranie statystyk książki: bookId={}", bookId);
+        log.debug("Pobieranie statystyk książki: bookId={}", bookId);
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> {
                     log.error("Nie znaleziono książki podczas pobierania statystyk: bookId={}", bookId);
@@ -152,27 +151,32 @@ public class StatsServiceImp implements StatsService {
                 });
         
         Long readersCount = userBookRepository.countReadersByBookId(bookId);
-        Long ratingsCount = ratingRepository.countByBookId(bookId);
-        Double averageRating = ratingRepository.getAverageRatingByBookId(bookId);
-        
-        log.debug("Statystyki książki: bookId={}, readersCount={}, ratingsCount={}, averageRating={}", 
-                bookId, readersCount, ratingsCount, averageRating);
         
+        // Liczba i średnia ocen wyliczane z rozkładu - jedno zapytanie zamiast trzech
         Map<Integer, Long> ratingsDistribution = new HashMap<>();
-        ratingRepository.findByBookId(bookId).forEach(rating -> {
-            ratingsDistribution.merge(rating.getValue(), 1L, Long::sum);
-        });
-        
+        long ratingsCount = 0;
+        long ratingsSum = 0;
+        for (Object[] row : ratingRepository.getRatingDistributionByBookId(bookId)) {
+            Integer value = (Integer) row[0];
+            Long count = (Long) row[1];
+            ratingsDistribution.put(value, count);
+            ratingsCount += count;
+            ratingsSum += value * count;
+        }
         for (int i = 1; i <= 5; i++) {
             ratingsDistribution.putIfAbsent(i, 0L);
         }
+        double averageRating = ratingsCount > 0 ? (double) ratingsSum / ratingsCount : 0.0;
+        
+        log.debug("Statystyki książki: bookId={}, readersCount={}, ratingsCount={}, averageRating={}", 
+                bookId, readersCount, ratingsCount, averageRating);
         
         return BookStatsDto.builder()
                 .bookId(book.getId())
                 .bookTitle(book.getTitle())
                 .readersCount(readersCount != null ? readersCount.intValue() : 0)
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .ratingsCount(ratingsCount != null ? ratingsCount.intValue() : 0)
+                .averageRating(averageRating)
+                .ratingsCount((int) ratingsCount)
                 .ratingsDistribution(ratingsDistribution)
                 .build();
     }
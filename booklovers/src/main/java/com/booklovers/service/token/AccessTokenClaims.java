@@ -0,0 +1,9 @@
+package com.booklovers.service.token;
+
+import java.time.Instant;
+
+/**
+ * Dane użytkownika z zweryfikowanego tokena dostępu - wystarczają do autoryzacji bez odczytu z bazy.
+ */
+public record AccessTokenClaims(Long userId, String username, String role, Instant issuedAt) {
+}
@@ -0,0 +1,8 @@
+package com.booklovers.service.token;
+
+import java.time.Instant;
+
+public interface TokenRevocationService {
+    void revokeUser(Long userId);
+    boolean isRevoked(Long userId, Instant issuedAt);
+}
@@ -0,0 +1,78 @@
+package com.booklovers.service.token;
+
+import com.booklovers.api.config.AuthTokenProperties;
+import com.booklovers.api.config.PrimaryReadScope;
+import com.booklovers.entity.TokenRevocation;
+import com.booklovers.repository.TokenRevocationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Lista użytkowników, których tokeny dostępu wydane przed danym momentem są unieważnione (blokada, usunięcie konta).
+ * Wpisy w tabeli token_revocations widzą wszystkie węzły; sprawdzenie przy każdym żądaniu idzie przez lokalny cache
+ * (także wyników pustych), więc inny węzeł odrzuci token najpóźniej po auth.token.revocation-cache-ttl.
+ * Wpis potrzebny jest tyle, co token dostępu - starszych tokenów i tak nie ma, a refresh token sprawdza stan konta w bazie.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImp implements TokenRevocationService {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final Duration accessTokenTtl;
+    private final Clock clock;
+    private final Cache<Long, Optional<Instant>> revocations;
+
+    @Autowired
+    public TokenRevocationServiceImp(TokenRevocationRepository tokenRevocationRepository, AuthTokenProperties properties) {
+        this(tokenRevocationRepository, properties, Clock.systemUTC());
+    }
+
+    TokenRevocationServiceImp(TokenRevocationRepository tokenRevocationRepository, AuthTokenProperties properties,
+                              Clock clock) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.accessTokenTtl = properties.getAccessTokenTtl();
+        this.clock = clock;
+        this.revocations = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_USERS)
+                .expireAfterWrite(properties.getRevocationCacheTtl())
+                .build();
+    }
+
+    @Override
+    public void revokeUser(Long userId) {
+        // iat tokena ma dokładność sekundy - token z tej samej sekundy co blokada też jest odrzucany
+        Instant revokedAt = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime revokedAtUtc = LocalDateTime.ofInstant(revokedAt, ZoneOffset.UTC);
+        if (tokenRevocationRepository.updateRevokedAt(userId, revokedAtUtc) == 0) {
+            tokenRevocationRepository.save(TokenRevocation.builder().userId(userId).revokedAt(revokedAtUtc).build());
+        }
+        tokenRevocationRepository.deleteRevokedBefore(LocalDateTime.ofInstant(revokedAt.minus(accessTokenTtl), ZoneOffset.UTC));
+        revocations.put(userId, Optional.of(revokedAt));
+        log.info("Unieważniono tokeny użytkownika: userId={}", userId);
+    }
+
+    @Override
+    public boolean isRevoked(Long userId, Instant issuedAt) {
+        Optional<Instant> revokedAt = revocations.get(userId, this::loadRevokedAt);
+        return revokedAt.isPresent() && !issuedAt.isAfter(revokedAt.get());
+    }
+
+    // Z bazy głównej - replika mogłaby jeszcze nie mieć świeżej blokady, a wynik zostaje w cache
+    private Optional<Instant> loadRevokedAt(Long userId) {
+        return PrimaryReadScope.call(() -> tokenRevocationRepository.findById(userId))
+                .map(revocation -> revocation.getRevokedAt().toInstant(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,13 @@
+package com.booklovers.service.token;
+
+import com.booklovers.dto.TokenResponse;
+import org.springframework.security.core.Authentication;
+
+import java.util.Optional;
+
+public interface TokenService {
+    TokenResponse issueTokens(Authentication authentication);
+    TokenResponse refresh(String refreshToken);
+    Optional<AccessTokenClaims> verifyAccessToken(String accessToken);
+    void revokeTokens(Authentication authentication);
+}
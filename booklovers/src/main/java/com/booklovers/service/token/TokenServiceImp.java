@@ -0,0 +1,205 @@
+package com.booklovers.service.token;
+
+import com.booklovers.api.config.AuthTokenProperties;
+import com.booklovers.dto.TokenResponse;
+import com.booklovers.entity.User;
+import com.booklovers.exception.UnauthorizedException;
+import com.booklovers.repository.UserRepository;
+import com.booklovers.service.user.AuthenticatedUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Tokeny JWT (HS256) dla /api/**: access token niesie id, nazwę i rolę użytkownika i jest weryfikowany
+ * lokalnie - podpis, wystawca, typ i ważność, plus lista unieważnień z TokenRevocationService.
+ * Odświeżenie to jedyne miejsce, gdzie odczytujemy użytkownika z bazy (zablokowany nie dostanie nowej pary).
+ */
+@Slf4j
+@Service
+public class TokenServiceImp implements TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String TOKEN_TYPE = "Bearer";
+    private static final String ACCESS = "access";
+    private static final String REFRESH = "refresh";
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+    // Jedyny akceptowany nagłówek - porównanie całości odrzuca m.in. "alg":"none"
+    private static final String HEADER = BASE64_URL.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthTokenProperties properties;
+    private final Clock clock;
+    private final SecretKeySpec key;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    public TokenServiceImp(UserRepository userRepository, TokenRevocationService tokenRevocationService,
+                           AuthTokenProperties properties) {
+        this(userRepository, tokenRevocationService, properties, Clock.systemUTC());
+    }
+
+    TokenServiceImp(UserRepository userRepository, TokenRevocationService tokenRevocationService,
+                    AuthTokenProperties properties, Clock clock) {
+        this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.properties = properties;
+        this.clock = clock;
+        this.key = new SecretKeySpec(secret(properties), ALGORITHM);
+    }
+
+    @Override
+    public TokenResponse issueTokens(Authentication authentication) {
+        AuthenticatedUser user = resolveUser(authentication);
+        log.info("Wydanie tokenów: userId={}, username={}", user.getId(), user.getUsername());
+        return issue(user);
+    }
+
+    // Wylogowanie unieważnia wszystkie tokeny użytkownika wydane do tej chwili - lista unieważnień jest per użytkownik
+    @Override
+    public void revokeTokens(Authentication authentication) {
+        AuthenticatedUser user = resolveUser(authentication);
+        tokenRevocationService.revokeUser(user.getId());
+        log.info("Wylogowanie - tokeny unieważnione: userId={}, username={}", user.getId(), user.getUsername());
+    }
+
+    @Override
+    public TokenResponse refresh(String refreshToken) {
+        JsonNode claims = parse(refreshToken, REFRESH)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        Long userId = Long.valueOf(claims.path("sub").asText());
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        if (Boolean.TRUE.equals(user.getIsBlocked())) {
+            log.warn("Odrzucono odświeżenie tokena zablokowanego użytkownika: userId={}", userId);
+            throw new UnauthorizedException("User is blocked");
+        }
+        // Blokada, zmiana hasła albo wylogowanie po wydaniu tego tokena
+        if (tokenRevocationService.isRevoked(userId, Instant.ofEpochSecond(claims.path("iat").asLong()))) {
+            log.warn("Odrzucono odświeżenie unieważnionego tokena: userId={}", userId);
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        log.debug("Odświeżenie tokenów: userId={}", userId);
+        return issue(AuthenticatedUser.from(user));
+    }
+
+    @Override
+    public Optional<AccessTokenClaims> verifyAccessToken(String accessToken) {
+        return parse(accessToken, ACCESS)
+                .map(claims -> new AccessTokenClaims(
+                        Long.valueOf(claims.path("sub").asText()),
+                        claims.path("name").asText(),
+                        claims.path("role").asText(),
+                        Instant.ofEpochSecond(claims.path("iat").asLong())))
+                .filter(claims -> !tokenRevocationService.isRevoked(claims.userId(), claims.issuedAt()));
+    }
+
+    private AuthenticatedUser resolveUser(Authentication authentication) {
+        return authentication.getPrincipal() instanceof AuthenticatedUser principal
+                ? principal
+                : userRepository.findByUsername(authentication.getName())
+                        .map(AuthenticatedUser::from)
+                        .orElseThrow(() -> new UnauthorizedException("User not found"));
+    }
+
+    private TokenResponse issue(AuthenticatedUser user) {
+        Instant now = clock.instant();
+        return TokenResponse.builder()
+                .accessToken(sign(user, ACCESS, now, properties.getAccessTokenTtl()))
+                .refreshToken(sign(user, REFRESH, now, properties.getRefreshTokenTtl()))
+                .tokenType(TOKEN_TYPE)
+                .expiresIn(properties.getAccessTokenTtl().toSeconds())
+                .build();
+    }
+
+    private String sign(AuthenticatedUser user, String type, Instant now, Duration ttl) {
+        ObjectNode claims = objectMapper.createObjectNode()
+                .put("iss", properties.getIssuer())
+                .put("sub", user.getId().toString())
+                .put("typ", type)
+                .put("iat", now.getEpochSecond())
+                .put("exp", now.plus(ttl).getEpochSecond());
+        // Refresh token nie niesie roli - przy odświeżeniu rola jest czytana z bazy
+        if (ACCESS.equals(type)) {
+            claims.put("name", user.getUsername()).put("role", user.getRole().name());
+        }
+        String content = HEADER + "." + BASE64_URL.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8));
+        return content + "." + BASE64_URL.encodeToString(hmac(content));
+    }
+
+    private Optional<JsonNode> parse(String token, String expectedType) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = BASE64_URL_DECODER.decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, hmac(parts[0] + "." + parts[1]))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(BASE64_URL_DECODER.decode(parts[1]));
+            boolean valid = properties.getIssuer().equals(claims.path("iss").asText())
+                    && expectedType.equals(claims.path("typ").asText())
+                    && claims.path("sub").asText().matches("\\d{1,18}")
+                    && clock.instant().getEpochSecond() < claims.path("exp").asLong();
+            return valid ? Optional.of(claims) : Optional.empty();
+        } catch (IllegalArgumentException | IOException e) {
+            log.debug("Niepoprawny token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private byte[] hmac(String content) {
+        try {
+            // Mac nie jest bezpieczny wątkowo - instancja na wywołanie
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static byte[] secret(AuthTokenProperties properties) {
+        String configured = properties.getSecret();
+        if (configured == null || configured.isBlank()) {
+            if (properties.isRequireSecret()) {
+                throw new IllegalStateException("auth.token.secret is required (set AUTH_TOKEN_SECRET)");
+            }
+            log.warn("Brak auth.token.secret - losowy klucz, tokeny tracą ważność po restarcie i nie działają na innych węzłach");
+            byte[] random = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = configured.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("auth.token.secret must have at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,80 @@
+package com.booklovers.service.user;
+
+import com.booklovers.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal zalogowanego użytkownika: id, nazwa i rola zamiast encji User. Trafia do SecurityContext w sesji,
+ * więc nie może nieść leniwych kolekcji ani stanu Hibernate. Hash hasła jest potrzebny tylko do weryfikacji
+ * w DaoAuthenticationProvider i jest czyszczony po uwierzytelnieniu (eraseCredentials).
+ */
+@Getter
+public final class AuthenticatedUser implements UserDetails, CredentialsContainer, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final User.Role role;
+    private final boolean blocked;
+    private String password;
+
+    public AuthenticatedUser(Long id, String username, User.Role role, boolean blocked, String password) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.blocked = blocked;
+        this.password = password;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole(),
+                Boolean.TRUE.equals(user.getIsBlocked()), user.getPassword());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !blocked;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !blocked;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    // Jak org.springframework.security.core.userdetails.User - równość po nazwie (rejestr sesji, porównania principali)
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AuthenticatedUser user && username.equals(user.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return username.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,5 @@
+package com.booklovers.service.user;
+
+public interface LoginThrottleService {
+    void checkAllowed(String remoteAddress, String username);
+}
@@ -0,0 +1,44 @@
+package com.booklovers.service.user;
+
+import com.booklovers.api.config.LoginThrottleProperties;
+import com.booklovers.api.config.TokenBucketLimiter;
+import com.booklovers.exception.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Limit prób logowania per adres IP i per nazwa użytkownika, sprawdzany przed wczytaniem użytkownika
+ * i weryfikacją hasła - odrzucona próba nie kosztuje ani zapytania, ani haszowania.
+ */
+@Slf4j
+@Service
+public class LoginThrottleServiceImp implements LoginThrottleService {
+
+    private final LoginThrottleProperties properties;
+    private final TokenBucketLimiter perIp;
+    private final TokenBucketLimiter perUsername;
+
+    public LoginThrottleServiceImp(LoginThrottleProperties properties) {
+        this.properties = properties;
+        this.perIp = new TokenBucketLimiter(properties.getPerIp().getCapacity(), properties.getPerIp().getRefillPeriod());
+        this.perUsername = new TokenBucketLimiter(properties.getPerUsername().getCapacity(),
+                properties.getPerUsername().getRefillPeriod());
+    }
+
+    @Override
+    public void checkAllowed(String remoteAddress, String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!perIp.tryAcquire(remoteAddress)) {
+            log.warn("Limit prób logowania z adresu przekroczony: remoteAddress={}", remoteAddress);
+            throw new TooManyRequestsException("Too many login attempts", perIp.retryAfterSeconds());
+        }
+        if (username != null && !perUsername.tryAcquire(username.trim().toLowerCase(Locale.ROOT))) {
+            log.warn("Limit prób logowania na konto przekroczony: username={}", username);
+            throw new TooManyRequestsException("Too many login attempts", perUsername.retryAfterSeconds());
+        }
+    }
+}
@@ -3,21 +3,37 @@ package com.booklovers.service.user;
 import com.booklovers.entity.User;
 import com.booklovers.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImp implements UserDetailsService {
-    
+public class UserDetailsServiceImp implements UserDetailsService, UserDetailsPasswordService {
+
     private final UserRepository userRepository;
-    
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return user;
+        // Do SecurityContext (i sesji) trafia zwarty principal, nie encja z leniwymi kolekcjami
+        return AuthenticatedUser.from(user);
+    }
+
+    // Wywoływane przez DaoAuthenticationProvider po udanym logowaniu, gdy hash ma stary format lub niższy koszt
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        log.info("Hash hasła przeliczony przy logowaniu: userId={}", user.getId());
+        return AuthenticatedUser.from(userRepository.save(user));
     }
 }
@@ -7,6 +7,8 @@ import com.booklovers.exception.BadRequestException;
 import com.booklovers.exception.ConflictException;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.UserRepository;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.token.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -27,6 +29,8 @@ public class UserServiceImp implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final FileStorageService fileStorageService;
+    private final TokenRevocationService tokenRevocationService;
     
     @Override
     @Transactional
@@ -133,13 +137,20 @@ public class UserServiceImp implements UserService {
             log.debug("Aktualizacja bio dla użytkownika: userId={}", user.getId());
             user.setBio(userDto.getBio());
         }
-        if (userDto.getAvatarUrl() != null) {
+        if (userDto.getAvatarUrl() != null && !userDto.getAvatarUrl().equals(user.getAvatarUrl())) {
             log.debug("Aktualizacja avatarUrl dla użytkownika: userId={}", user.getId());
+            // Liczniki referencji zmieniane w tej samej transakcji co avatar_url - wycofanie aktualizacji wycofuje też je
+            fileStorageService.retain(userDto.getAvatarUrl());
+            if (user.getAvatarUrl() != null) {
+                fileStorageService.release(user.getAvatarUrl());
+            }
             user.setAvatarUrl(userDto.getAvatarUrl());
         }
         if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
             log.debug("Aktualizacja hasła dla użytkownika: userId={}", user.getId());
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+            // Zmiana hasła odcina wcześniej wydane tokeny - także skradziony refresh token
+            tokenRevocationService.revokeUser(user.getId());
         }
         
         User updatedUser = userRepository.save(user);
@@ -158,11 +169,16 @@ public class UserServiceImp implements UserService {
     @Transactional
     public void deleteUser(Long id) {
         log.info("Usuwanie użytkownika: userId={}", id);
-        if (!userRepository.existsById(id)) {
-            log.warn("Próba usunięcia nieistniejącego użytkownika: userId={}", id);
-            throw new ResourceNotFoundException("User", id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn("Próba usunięcia nieistniejącego użytkownika: userId={}", id);
+                    return new ResourceNotFoundException("User", id);
+                });
+        if (user.getAvatarUrl() != null) {
+            fileStorageService.release(user.getAvatarUrl());
         }
         userRepository.deleteById(id);
+        tokenRevocationService.revokeUser(id);
         log.info("Użytkownik usunięty pomyślnie: userId={}", id);
     }
     
@@ -180,7 +196,11 @@ public class UserServiceImp implements UserService {
                 });
         Long userId = user.getId();
         log.info("Usuwanie konta użytkownika: userId={}, username={}", userId, username);
+        if (user.getAvatarUrl() != null) {
+            fileStorageService.release(user.getAvatarUrl());
+        }
         userRepository.deleteById(userId);
+        tokenRevocationService.revokeUser(userId);
         log.info("Konto użytkownika usunięte pomyślnie: userId={}, username={}", userId, username);
     }
     
@@ -195,6 +215,8 @@ public class UserServiceImp implements UserService {
                 });
         user.setIsBlocked(true);
         User saved = userRepository.save(user);
+        // Od razu, nie po commicie - wycofana blokada kosztuje najwyżej ponowne logowanie
+        tokenRevocationService.revokeUser(id);
         log.info("Użytkownik zablokowany pomyślnie: userId={}, username={}", saved.getId(), saved.getUsername());
         return userMapper.toDto(saved);
     }
@@ -1,18 +1,25 @@
 package com.booklovers.web.controller;
 
+import com.booklovers.api.config.PrimaryReadScope;
 import com.booklovers.dto.AuthorDto;
 import com.booklovers.dto.BookDto;
+import com.booklovers.dto.CacheValidatorDto;
 import com.booklovers.dto.RatingDto;
 import com.booklovers.dto.ReviewDto;
 import com.booklovers.dto.UserDto;
 import com.booklovers.dto.UserStatsDto;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.service.author.AuthorService;
+import com.booklovers.service.book.BookCursor;
 import com.booklovers.service.book.BookService;
+import com.booklovers.service.cache.CacheValidatorService;
+import com.booklovers.service.cache.FragmentCacheService;
 import com.booklovers.service.rating.RatingService;
 import com.booklovers.service.review.ReviewService;
 import com.booklovers.service.stats.StatsService;
 import com.booklovers.service.user.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,10 +29,16 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,28 +46,79 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BookWebController {
     
+    private static final String CATALOG_TEMPLATE = "fragments/catalog";
+    private static final String CATALOG_FRAGMENT = "catalog";
+    // Próg między katalogiem renderowanym do cache a strumieniowanym wprost z kursora
+    private static final int CACHED_CATALOG_MAX_BOOKS = 100;
+    
     private final BookService bookService;
     private final ReviewService reviewService;
     private final RatingService ratingService;
     private final UserService userService;
     private final AuthorService authorService;
     private final com.booklovers.service.stats.StatsService statsService;
+    private final CacheValidatorService cacheValidatorService;
+    private final FragmentCacheService fragmentCacheService;
     
     @GetMapping("/books")
-    public String booksPage(Model model, @RequestParam(required = false) String search) {
-        List<BookDto> books;
+    public String booksPage(Model model, @RequestParam(required = false) String search,
+                            HttpServletRequest request, HttpServletResponse response) {
+        model.addAttribute("search", search);
         if (search != null && !search.isEmpty()) {
-            books = bookService.searchBooks(search);
-        } else {
-            books = bookService.getAllBooks();
+            // Wyników wyszukiwania nie cache'ujemy - każde zapytanie dałoby osobny wpis
+            model.addAttribute("books", bookService.searchBooks(search));
+            model.addAttribute("catalogEmpty", false);
+            return "books";
         }
-        model.addAttribute("books", books);
-        model.addAttribute("search", search);
+        
+        CacheValidatorDto validator = cacheValidatorService.getBooksValidator();
+        Optional<String> cached = fragmentCacheService.getIfPresent(CATALOG_TEMPLATE, CATALOG_FRAGMENT, validator);
+        if (cached.isPresent()) {
+            model.addAttribute("catalogHtml", cached.get());
+            return "books";
+        }
+        
+        // Fragment trafi do cache pod walidatorem z bazy głównej - katalog z opóźnionej repliki byłby starszy od klucza.
+        // Duży katalog (bez cache) też jest wtedy czytany z bazy głównej, bo jego rozmiar znamy dopiero z kursora
+        BookCursor cursor = PrimaryReadScope.call(bookService::openCatalog);
+        // Zamknięcie kursora (i jego transakcji) także wtedy, gdy renderowanie widoku przerwie wyjątek
+        RequestContextHolder.currentRequestAttributes()
+                .registerDestructionCallback("bookCursor", cursor::close, RequestAttributes.SCOPE_REQUEST);
+        if (cursor.hasMoreThan(CACHED_CATALOG_MAX_BOOKS)) {
+            // Duży katalog nie trafia do cache: widok iteruje kursor i wysyła wiersze w trakcie renderowania
+            model.addAttribute("books", cursor);
+            model.addAttribute("catalogEmpty", false);
+            return "books";
+        }
+        
+        List<BookDto> books = new ArrayList<>();
+        while (cursor.hasNext()) {
+            books.add(cursor.next());
+        }
+        model.addAttribute("catalogHtml", fragmentCacheService.render(CATALOG_TEMPLATE, CATALOG_FRAGMENT, validator,
+                () -> Map.of("books", books, "catalogEmpty", books.isEmpty()), request, response));
         return "books";
     }
     
     @GetMapping("/books/{id}")
-    public String bookDetails(@PathVariable Long id, Model model) {
+    public String bookDetails(@PathVariable Long id, Model model, HttpServletRequest request, HttpServletResponse response) {
+        CacheValidatorDto headerValidator = cacheValidatorService.getBookValidator(id);
+        CacheValidatorDto statsValidator = cacheValidatorService.getBookStatsValidator(id);
+        Optional<String> cachedHeader = fragmentCacheService.getIfPresent("fragments/book", "header", headerValidator);
+        Optional<String> cachedStats = fragmentCacheService.getIfPresent("fragments/book", "stats", statsValidator);
+        if (cachedHeader.isPresent() && cachedStats.isPresent()) {
+            return bookDetailsPage(id, model, book -> cachedHeader.get(), cachedStats::get);
+        }
+        // Brakujący fragment trafi do cache pod walidatorem z bazy głównej - model strony też jest czytany z bazy głównej
+        return PrimaryReadScope.call(() -> bookDetailsPage(id, model,
+                book -> fragmentCacheService.render("fragments/book", "header", headerValidator,
+                        () -> Map.of("book", book), request, response),
+                // Statystyki są ładowane tylko przy braku fragmentu w cache
+                () -> fragmentCacheService.render("fragments/book", "stats", statsValidator,
+                        () -> bookStatsVariables(id), request, response)));
+    }
+    
+    private String bookDetailsPage(Long id, Model model, Function<BookDto, String> headerHtml, Supplier<String> statsHtml) {
         BookDto book = bookService.getBookById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", id));
         
@@ -87,33 +151,40 @@ public class BookWebController {
             }
         }
         
-        com.booklovers.dto.BookStatsDto bookStats = statsService.getBookStats(id);
+        String bookHeaderHtml = headerHtml.apply(book);
+        String bookStatsHtml = statsHtml.get();
         
         model.addAttribute("book", book);
         model.addAttribute("reviews", reviews);
         model.addAttribute("reviewDto", new ReviewDto());
         model.addAttribute("currentUser", currentUser);
         model.addAttribute("userShelves", userShelves);
-        model.addAttribute("bookStats", bookStats);
+        model.addAttribute("bookHeaderHtml", bookHeaderHtml);
+        model.addAttribute("bookStatsHtml", bookStatsHtml);
         return "book-details";
     }
     
+    private Map<String, Object> bookStatsVariables(Long bookId) {
+        com.booklovers.dto.BookStatsDto bookStats = statsService.getBookStats(bookId);
+        // Map.of nie przyjmuje null - brak statystyk to pusty model (fragment nic nie wyświetli)
+        return bookStats != null ? Map.of("bookStats", bookStats) : Map.of();
+    }
+    
     @GetMapping("/my-books")
     public String myBooksPage(Model model, @RequestParam(required = false) String shelf) {
         UserDto currentUser = userService.getCurrentUser();
         List<String> shelves = bookService.getUserShelves(currentUser.getId());
         List<String> defaultShelves = bookService.getDefaultShelves();
         
-        List<BookDto> allBooks = bookService.getUserBooks(currentUser.getId());
         List<BookDto> books;
         if (shelf != null && !shelf.isEmpty()) {
             books = bookService.getUserBooksByShelf(currentUser.getId(), shelf);
         } else {
-            books = allBooks;
+            books = bookService.getUserBooks(currentUser.getId());
         }
         
         model.addAttribute("books", books);
-        model.addAttribute("totalBooksCount", allBooks.size());
+        model.addAttribute("totalBooksCount", bookService.countUserBooks(currentUser.getId()));
         model.addAttribute("shelves", shelves);
         model.addAttribute("defaultShelves", defaultShelves);
         model.addAttribute("currentShelf", shelf);
@@ -124,12 +195,11 @@ public class BookWebController {
     public String shelfBooksPage(@PathVariable String shelfName, Model model) {
         UserDto currentUser = userService.getCurrentUser();
         List<BookDto> books = bookService.getUserBooksByShelf(currentUser.getId(), shelfName);
-        List<BookDto> allBooks = bookService.getUserBooks(currentUser.getId());
         List<String> shelves = bookService.getUserShelves(currentUser.getId());
         List<String> defaultShelves = bookService.getDefaultShelves();
         
         model.addAttribute("books", books);
-        model.addAttribute("totalBooksCount", allBooks.size());
+        model.addAttribute("totalBooksCount", bookService.countUserBooks(currentUser.getId()));
         model.addAttribute("shelves", shelves);
         model.addAttribute("defaultShelves", defaultShelves);
         model.addAttribute("currentShelf", shelfName);
@@ -325,33 +395,29 @@ public class BookWebController {
     @PostMapping("/books/{bookId}/reviews/{reviewId}/delete")
     public String deleteReview(@PathVariable Long bookId, @PathVariable Long reviewId,
                                RedirectAttributes redirectAttributes) {
-        log.error("=== DELETE REVIEW REQUEST START: bookId={}, reviewId={} ===", bookId, reviewId);
         try {
             UserDto currentUser = userService.getCurrentUser();
-            log.error("=== Current user: {} (ID: {}), Role: {} ===", currentUser.getUsername(), currentUser.getId(), currentUser.getRole());
             
             if ("ADMIN".equals(currentUser.getRole())) {
-                log.error("=== Deleting review {} as ADMIN ===", reviewId);
                 reviewService.deleteReviewAsAdmin(reviewId);
             } else {
-                log.error("=== Deleting review {} as USER ===", reviewId);
                 reviewService.deleteReview(reviewId);
             }
             
-            log.error("=== Review {} successfully deleted ===", reviewId);
+            log.debug("Usunięto recenzję: bookId={}, reviewId={}, userId={}, role={}",
+                    bookId, reviewId, currentUser.getId(), currentUser.getRole());
             redirectAttributes.addFlashAttribute("success", "Recenzja została usunięta!");
         } catch (com.booklovers.exception.ForbiddenException e) {
-            log.error("=== ForbiddenException when deleting review {}: {} ===", reviewId, e.getMessage());
+            log.warn("Brak uprawnień do usunięcia recenzji: reviewId={}, error={}", reviewId, e.getMessage());
             redirectAttributes.addFlashAttribute("error", "Nie masz uprawnień do usunięcia tej recenzji.");
         } catch (com.booklovers.exception.ResourceNotFoundException e) {
-            log.error("=== ResourceNotFoundException when deleting review {}: {} ===", reviewId, e.getMessage());
+            log.debug("Nie znaleziono recenzji do usunięcia: reviewId={}", reviewId);
             redirectAttributes.addFlashAttribute("error", "Recenzja nie została znaleziona.");
         } catch (Exception e) {
-            log.error("=== ERROR deleting review {}: ===", reviewId, e);
+            log.error("Błąd podczas usuwania recenzji: reviewId={}", reviewId, e);
             redirectAttributes.addFlashAttribute("error", "Wystąpił błąd podczas usuwania recenzji: " + e.getMessage());
         }
         
-        log.error("=== DELETE REVIEW REQUEST END: bookId={}, reviewId={} ===", bookId, reviewId);
         return "redirect:/books/" + bookId;
     }
     
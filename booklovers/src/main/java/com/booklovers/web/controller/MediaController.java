@@ -0,0 +1,73 @@
+package com.booklovers.web.controller;
+
+import com.booklovers.api.config.MediaFileSender;
+import com.booklovers.api.config.MediaProperties;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Pliki z file.upload-dir adresowane ścieżką zapisaną w encji (np. avatarUrl "avatars/{sha256}.jpg"),
+ * bez zapytań do bazy. Szablony budują URL bezpośrednio: /media/ + avatarUrl, a ?size= wybiera miniaturę
+ * (pliki przesłane przed wprowadzeniem miniatur są serwowane w oryginale).
+ * Przy magazynie S3 (file.storage.type=s3) odpowiedzią jest przekierowanie na podpisany URL obiektu.
+ */
+@Controller
+@RequiredArgsConstructor
+public class MediaController {
+
+    // Bez kropek poza rozszerzeniem i bez separatorów - nie da się wyjść poza podkatalog
+    private static final Pattern FILENAME = Pattern.compile("[A-Za-z0-9-]{1,100}(\\.[a-z0-9]{1,5})?");
+
+    private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
+    private final MediaProperties mediaProperties;
+    private final MediaFileSender mediaFileSender;
+
+    @GetMapping("/media/{subdirectory}/{filename:.+}")
+    public void getMedia(@PathVariable String subdirectory, @PathVariable String filename,
+                         @RequestParam(required = false) Integer size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!mediaProperties.getSubdirectories().contains(subdirectory) || !FILENAME.matcher(filename).matches()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String variant = imageProcessingService.resolveVariant(filename, size);
+        Optional<URI> downloadUrl = fileStorageService.getDownloadUrl(variant, subdirectory);
+        if (downloadUrl.isPresent()) {
+            // Magazyn obiektów: treść pobierana bezpośrednio z niego; brak pliku głównego zgłosi sam magazyn (404)
+            if (!variant.equals(filename) && !fileStorageService.exists(variant, subdirectory)) {
+                downloadUrl = fileStorageService.getDownloadUrl(filename, subdirectory);
+            }
+            mediaFileSender.redirect(response, downloadUrl.get());
+            return;
+        }
+        Optional<Path> file = fileStorageService.getFileLocation(variant, subdirectory).filter(Files::isRegularFile);
+        if (file.isEmpty() && !variant.equals(filename)) {
+            variant = filename;
+            file = fileStorageService.getFileLocation(filename, subdirectory).filter(Files::isRegularFile);
+        }
+        if (file.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String hash = variant.contains(".") ? variant.substring(0, variant.indexOf('.')) : variant;
+        MediaType contentType = MediaTypeFactory.getMediaType(variant).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        mediaFileSender.send(request, response, file.get(), "\"" + hash + "\"", contentType);
+    }
+}
@@ -4,6 +4,7 @@ import com.booklovers.dto.UserDto;
 import com.booklovers.dto.UserStatsDto;
 import com.booklovers.service.export.ExportService;
 import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
 import com.booklovers.service.import_.ImportService;
 import com.booklovers.service.stats.StatsService;
 import com.booklovers.service.user.UserService;
@@ -33,6 +34,7 @@ public class ProfileWebController {
     private final ImportService importService;
     private final StatsService statsService;
     private final FileStorageService fileStorageService;
+    private final ImageProcessingService imageProcessingService;
     
     @GetMapping
     public String profilePage(Model model) {
@@ -62,23 +64,8 @@ public class ProfileWebController {
                 log.info("Przesyłanie zdjęcia profilowego: originalFilename={}, size={}", 
                         avatarFile.getOriginalFilename(), avatarFile.getSize());
                 
-                if (currentUser.getAvatarUrl() != null && !currentUser.getAvatarUrl().isEmpty() 
-                        && !currentUser.getAvatarUrl().startsWith("http")) {
-                    try {
-                        String oldPath = currentUser.getAvatarUrl();
-                        if (oldPath.contains("/")) {
-                            String[] parts = oldPath.split("/");
-                            if (parts.length >= 2) {
-                                fileStorageService.deleteFile(parts[parts.length - 1], parts[parts.length - 2]);
-                                log.debug("Stare zdjęcie profilowe usunięte: path={}", oldPath);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("Nie można usunąć starego zdjęcia profilowego", e);
-                    }
-                }
-                
-                String filePath = fileStorageService.storeFile(avatarFile, "avatars");
+                // Stare zdjęcie zwalnia UserService.updateUser; nieużyte pliki usuwa GC magazynu
+                String filePath = imageProcessingService.storeImage(avatarFile, "avatars");
                 userDto.setAvatarUrl(filePath);
                 log.info("Zdjęcie profilowe zapisane: path={}", filePath);
             } else {
@@ -271,24 +258,7 @@ public class ProfileWebController {
     public String deleteAccount(RedirectAttributes redirectAttributes) {
         try {
             log.info("Usuwanie konta użytkownika");
-            UserDto currentUser = userService.getCurrentUser();
-            
-            if (currentUser.getAvatarUrl() != null && !currentUser.getAvatarUrl().isEmpty() 
-                    && !currentUser.getAvatarUrl().startsWith("http")) {
-                try {
-                    String oldPath = currentUser.getAvatarUrl();
-                    if (oldPath.contains("/")) {
-                        String[] parts = oldPath.split("/");
-                        if (parts.length >= 2) {
-                            fileStorageService.deleteFile(parts[parts.length - 1], parts[parts.length - 2]);
-                            log.debug("Zdjęcie profilowe usunięte podczas usuwania konta: path={}", oldPath);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Nie można usunąć zdjęcia profilowego podczas usuwania konta", e);
-                }
-            }
-            
+            // Zdjęcie profilowe zwalnia UserService.deleteCurrentUser
             userService.deleteCurrentUser();
             redirectAttributes.addFlashAttribute("success", "Twoje konto zostało usunięte pomyślnie!");
             log.info("Konto użytkownika usunięte pomyślnie");
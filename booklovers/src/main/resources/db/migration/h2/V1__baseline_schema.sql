@@ -0,0 +1,92 @@
+-- Schemat generowany wcześniej przez ddl-auto: update.
+-- Istniejące bazy są oznaczane jako V1 (spring.flyway.baseline-on-migrate), nowe tworzone od zera.
+
+CREATE SEQUENCE author_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE rating_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE review_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE user_book_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE users (
+    id BIGINT NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    bio VARCHAR(255),
+    avatar_url VARCHAR(255),
+    role ENUM ('ADMIN', 'USER') NOT NULL,
+    is_blocked BOOLEAN NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE authors (
+    id BIGINT NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    biography VARCHAR(255),
+    date_of_birth DATE,
+    date_of_death DATE,
+    nationality VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_authors PRIMARY KEY (id)
+);
+
+CREATE TABLE books (
+    id BIGINT NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    author VARCHAR(255) NOT NULL,
+    author_id BIGINT,
+    isbn VARCHAR(255),
+    description VARCHAR(255),
+    publisher VARCHAR(255),
+    publication_date DATE,
+    page_count INTEGER,
+    language VARCHAR(255),
+    cover_image_url VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_books PRIMARY KEY (id),
+    CONSTRAINT fk_books_author FOREIGN KEY (author_id) REFERENCES authors (id)
+);
+
+CREATE TABLE ratings (
+    id BIGINT NOT NULL,
+    rating_value INTEGER NOT NULL CHECK (rating_value BETWEEN 1 AND 5),
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_ratings PRIMARY KEY (id),
+    CONSTRAINT uk_ratings_user_book UNIQUE (user_id, book_id),
+    CONSTRAINT fk_ratings_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_ratings_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE reviews (
+    id BIGINT NOT NULL,
+    content VARCHAR(5000) NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_reviews PRIMARY KEY (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reviews_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE user_books (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    book_id BIGINT,
+    shelf_name VARCHAR(255) NOT NULL,
+    added_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_user_books PRIMARY KEY (id),
+    CONSTRAINT uk_user_books_user_book_shelf UNIQUE (user_id, book_id, shelf_name),
+    CONSTRAINT fk_user_books_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_books_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
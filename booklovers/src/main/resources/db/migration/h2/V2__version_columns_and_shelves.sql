@@ -0,0 +1,22 @@
+-- Kolumny optymistycznego blokowania i tabela półek użytkownika
+
+-- Znacznik zmiany książki (ETag/Last-Modified); schemat sprzed migracji go nie miał
+ALTER TABLE books ADD updated_at TIMESTAMP(6);
+
+ALTER TABLE books ADD version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE ratings ADD version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE reviews ADD version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE user_books ADD version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE shelf_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE shelves (
+    id BIGINT NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_shelves PRIMARY KEY (id),
+    CONSTRAINT uk_shelves_user_name UNIQUE (user_id, name),
+    CONSTRAINT fk_shelves_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
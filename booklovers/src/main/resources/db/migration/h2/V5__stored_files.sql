@@ -0,0 +1,13 @@
+-- Liczniki referencji plików w magazynie adresowanym treścią (FileStorageService)
+
+CREATE TABLE stored_files (
+    path VARCHAR(255) NOT NULL,
+    ref_count INTEGER DEFAULT 0 NOT NULL,
+    size_bytes BIGINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    last_stored_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_stored_files PRIMARY KEY (path)
+);
+
+-- StoredFileRepository.findUnreferenced - kandydaci do GC
+CREATE INDEX idx_stored_files_gc ON stored_files (ref_count, last_stored_at);
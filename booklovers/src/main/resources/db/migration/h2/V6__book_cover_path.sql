@@ -0,0 +1,3 @@
+-- Lokalna kopia okładki z books.cover_image_url w magazynie plików (CoverFetchService)
+
+ALTER TABLE books ADD cover_image_path VARCHAR(255);
@@ -0,0 +1,92 @@
+-- Schemat generowany wcześniej przez ddl-auto: update.
+-- Istniejące bazy są oznaczane jako V1 (spring.flyway.baseline-on-migrate), nowe tworzone od zera.
+
+CREATE SEQUENCE author_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE rating_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE review_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE user_book_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE user_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE users (
+    id NUMBER(19,0) NOT NULL,
+    username VARCHAR2(255 CHAR) NOT NULL,
+    email VARCHAR2(255 CHAR) NOT NULL,
+    password VARCHAR2(255 CHAR) NOT NULL,
+    first_name VARCHAR2(255 CHAR),
+    last_name VARCHAR2(255 CHAR),
+    bio VARCHAR2(255 CHAR),
+    avatar_url VARCHAR2(255 CHAR),
+    role VARCHAR2(255 CHAR) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    is_blocked NUMBER(1,0) NOT NULL CHECK (is_blocked IN (0, 1)),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE authors (
+    id NUMBER(19,0) NOT NULL,
+    first_name VARCHAR2(255 CHAR) NOT NULL,
+    last_name VARCHAR2(255 CHAR) NOT NULL,
+    biography VARCHAR2(255 CHAR),
+    date_of_birth DATE,
+    date_of_death DATE,
+    nationality VARCHAR2(255 CHAR),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_authors PRIMARY KEY (id)
+);
+
+CREATE TABLE books (
+    id NUMBER(19,0) NOT NULL,
+    title VARCHAR2(255 CHAR) NOT NULL,
+    author VARCHAR2(255 CHAR) NOT NULL,
+    author_id NUMBER(19,0),
+    isbn VARCHAR2(255 CHAR),
+    description VARCHAR2(255 CHAR),
+    publisher VARCHAR2(255 CHAR),
+    publication_date DATE,
+    page_count NUMBER(10,0),
+    language VARCHAR2(255 CHAR),
+    cover_image_url VARCHAR2(255 CHAR),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_books PRIMARY KEY (id),
+    CONSTRAINT fk_books_author FOREIGN KEY (author_id) REFERENCES authors (id)
+);
+
+CREATE TABLE ratings (
+    id NUMBER(19,0) NOT NULL,
+    rating_value NUMBER(10,0) NOT NULL CHECK (rating_value BETWEEN 1 AND 5),
+    user_id NUMBER(19,0) NOT NULL,
+    book_id NUMBER(19,0) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_ratings PRIMARY KEY (id),
+    CONSTRAINT uk_ratings_user_book UNIQUE (user_id, book_id),
+    CONSTRAINT fk_ratings_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_ratings_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE reviews (
+    id NUMBER(19,0) NOT NULL,
+    content CLOB NOT NULL,
+    user_id NUMBER(19,0) NOT NULL,
+    book_id NUMBER(19,0) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_reviews PRIMARY KEY (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_reviews_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE TABLE user_books (
+    id NUMBER(19,0) NOT NULL,
+    user_id NUMBER(19,0) NOT NULL,
+    book_id NUMBER(19,0),
+    shelf_name VARCHAR2(255 CHAR) NOT NULL,
+    added_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_user_books PRIMARY KEY (id),
+    CONSTRAINT uk_user_books_user_book_shelf UNIQUE (user_id, book_id, shelf_name),
+    CONSTRAINT fk_user_books_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_books_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
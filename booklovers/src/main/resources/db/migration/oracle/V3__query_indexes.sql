@@ -0,0 +1,24 @@
+-- Indeksy dla predykatów z metod *Repository. Kolumny prowadzące istniejących
+-- ograniczeń unikalnych (ratings, user_books i shelves po user_id)
+-- są już pokryte i nie dostają osobnych indeksów.
+
+-- BookRepository.countByAuthorId, findByIsbn
+CREATE INDEX idx_books_author_id ON books (author_id);
+CREATE INDEX idx_books_isbn ON books (isbn);
+-- Wyszukiwanie po tytule bez względu na wielkość liter (LOWER(b.title) = / LIKE 'prefiks%')
+CREATE INDEX idx_books_title_lower ON books (LOWER(title));
+
+-- AuthorRepository.findByFirstNameAndLastName
+CREATE INDEX idx_authors_name ON authors (first_name, last_name);
+
+-- RatingRepository.findByBookId, getAverageRatingByBookId, countByBookId - AVG liczony z samego indeksu
+CREATE INDEX idx_ratings_book_value ON ratings (book_id, rating_value);
+
+-- ReviewRepository.findByBookId, countByBookId; findByUserId, findByUserIdAndBookId
+CREATE INDEX idx_reviews_book_id ON reviews (book_id);
+CREATE INDEX idx_reviews_user_book ON reviews (user_id, book_id);
+
+-- UserBookRepository.findByUserIdAndShelfName oraz operacje zbiorcze na półce
+CREATE INDEX idx_user_books_user_shelf ON user_books (user_id, shelf_name);
+-- UserBookRepository.findByBookId, countReadersByBookId (COUNT DISTINCT user_id z indeksu)
+CREATE INDEX idx_user_books_book_user ON user_books (book_id, user_id);
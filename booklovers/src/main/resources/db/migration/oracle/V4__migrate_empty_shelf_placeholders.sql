@@ -0,0 +1,13 @@
+-- Puste półki były zapisywane jako wiersze user_books z book_id = NULL - przenosimy je do tabeli shelves
+
+INSERT INTO shelves (id, version, user_id, name, created_at)
+SELECT shelf_seq.NEXTVAL, 0, p.user_id, p.shelf_name, p.created_at
+FROM (
+    SELECT ub.user_id, ub.shelf_name, MIN(ub.added_at) AS created_at
+    FROM user_books ub
+    WHERE ub.book_id IS NULL
+    GROUP BY ub.user_id, ub.shelf_name
+) p
+WHERE NOT EXISTS (SELECT 1 FROM shelves s WHERE s.user_id = p.user_id AND s.name = p.shelf_name);
+
+DELETE FROM user_books WHERE book_id IS NULL;
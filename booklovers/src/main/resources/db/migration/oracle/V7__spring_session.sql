@@ -0,0 +1,25 @@
+-- Sesje HTTP Spring Session (session.store.type=jdbc); schemat jak org/springframework/session/jdbc/schema-oracle.sql
+
+CREATE TABLE SPRING_SESSION (
+    PRIMARY_ID CHAR(36) NOT NULL,
+    SESSION_ID CHAR(36) NOT NULL,
+    CREATION_TIME NUMBER(19,0) NOT NULL,
+    LAST_ACCESS_TIME NUMBER(19,0) NOT NULL,
+    MAX_INACTIVE_INTERVAL NUMBER(10,0) NOT NULL,
+    EXPIRY_TIME NUMBER(19,0) NOT NULL,
+    PRINCIPAL_NAME VARCHAR2(100 CHAR),
+    CONSTRAINT SPRING_SESSION_PK PRIMARY KEY (PRIMARY_ID)
+);
+
+CREATE UNIQUE INDEX SPRING_SESSION_IX1 ON SPRING_SESSION (SESSION_ID);
+-- Cykliczne usuwanie wygasłych sesji (EXPIRY_TIME < now)
+CREATE INDEX SPRING_SESSION_IX2 ON SPRING_SESSION (EXPIRY_TIME);
+CREATE INDEX SPRING_SESSION_IX3 ON SPRING_SESSION (PRINCIPAL_NAME);
+
+CREATE TABLE SPRING_SESSION_ATTRIBUTES (
+    SESSION_PRIMARY_ID CHAR(36) NOT NULL,
+    ATTRIBUTE_NAME VARCHAR2(200 CHAR) NOT NULL,
+    ATTRIBUTE_BYTES BLOB NOT NULL,
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_PK PRIMARY KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME),
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_FK FOREIGN KEY (SESSION_PRIMARY_ID) REFERENCES SPRING_SESSION(PRIMARY_ID) ON DELETE CASCADE
+);
@@ -0,0 +1,7 @@
+-- Unieważnienia tokenów dostępu wspólne dla wszystkich węzłów (TokenRevocationService)
+
+CREATE TABLE token_revocations (
+    user_id NUMBER(19,0) NOT NULL,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_token_revocations PRIMARY KEY (user_id)
+);
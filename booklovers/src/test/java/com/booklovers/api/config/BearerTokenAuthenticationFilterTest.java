@@ -0,0 +1,158 @@
+package com.booklovers.api.config;
+
+import com.booklovers.dto.TokenResponse;
+import com.booklovers.entity.User;
+import com.booklovers.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BearerTokenAuthenticationFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = userRepository.save(user("tokenreader", User.Role.USER));
+        userRepository.save(user("tokenadmin", User.Role.ADMIN));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBearerTokenAuthenticatesWithoutSession() throws Exception {
+        TokenResponse tokens = login("tokenreader");
+
+        MvcResult result = mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("tokenreader"))
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    @Test
+    void testInvalidTokenReturns401() throws Exception {
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer invalid"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void testRoleFromTokenIsEnforced() throws Exception {
+        TokenResponse tokens = login("tokenreader");
+
+        mockMvc.perform(get("/api/admin/users")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testBlockedUserTokensAreRevoked() throws Exception {
+        TokenResponse readerTokens = login("tokenreader");
+        TokenResponse adminTokens = login("tokenadmin");
+
+        mockMvc.perform(put("/api/admin/users/" + reader.getId() + "/block")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + adminTokens.getAccessToken()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + readerTokens.getAccessToken()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + readerTokens.getRefreshToken() + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogoutRevokesAccessAndRefreshTokens() throws Exception {
+        TokenResponse tokens = login("tokenreader");
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.getAccessToken()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + tokens.getRefreshToken() + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogoutRequiresAuthentication() throws Exception {
+        mockMvc.perform(post("/api/auth/logout"))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    void testRefreshIssuesWorkingAccessToken() throws Exception {
+        TokenResponse tokens = login("tokenreader");
+
+        String body = mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + tokens.getRefreshToken() + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        TokenResponse refreshed = objectMapper.readValue(body, TokenResponse.class);
+
+        mockMvc.perform(get("/api/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.getAccessToken()))
+                .andExpect(status().isOk());
+    }
+
+    private TokenResponse login(String username) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, TokenResponse.class);
+    }
+
+    private User user(String username, User.Role role) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .role(role)
+                .build();
+    }
+}
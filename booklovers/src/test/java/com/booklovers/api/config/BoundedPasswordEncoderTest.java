@@ -0,0 +1,81 @@
+package com.booklovers.api.config;
+
+import com.booklovers.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    void testHashesOnDedicatedThreads() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5));
+        when(delegate.encode("secret")).thenAnswer(invocation -> Thread.currentThread().getName());
+
+        assertTrue(encoder.encode("secret").startsWith("password-hashing-"));
+    }
+
+    @Test
+    void testUpgradeEncodingRunsOnCallerThread() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5));
+        when(delegate.upgradeEncoding("hash")).thenAnswer(invocation ->
+                !Thread.currentThread().getName().startsWith("password-hashing-"));
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+    }
+
+    @Test
+    void testFullQueueRejectsWithoutHashing() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        // Wątek zajęty, jedno miejsce w kolejce zajęte - trzecie żądanie odrzucone od razu
+        while (encoder.queuedTasks() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.matches("c", "hash"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        verify(delegate, never()).matches(eq("c"), any());
+    }
+
+    @Test
+    void testTimeoutReturnsServiceUnavailable() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofMillis(50));
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return true;
+        });
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.matches("a", "hash"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.booklovers.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Adres klienta za load balancerem: test łączy się z loopbacku (zaufane proxy), więc Tomcat bierze adres
+ * z X-Forwarded-For - limity logowania i żądań liczą się per klient, a nie wspólnie dla wszystkich za proxy.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "auth.login-throttle.enabled=true",
+        "auth.login-throttle.per-ip.capacity=2",
+        "auth.login-throttle.per-username.capacity=100",
+        "rate-limit.enabled=true",
+        "rate-limit.routes.book-search.capacity=2"
+})
+@ActiveProfiles("test")
+class ForwardedClientAddressTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testLoginThrottleCountsForwardedClientAddress() throws Exception {
+        assertThat(tokenRequest("203.0.113.10")).isNotEqualTo(429);
+        assertThat(tokenRequest("203.0.113.10")).isNotEqualTo(429);
+        assertThat(tokenRequest("203.0.113.10")).isEqualTo(429);
+
+        // Inny klient za tym samym proxy ma własny limit
+        assertThat(tokenRequest("203.0.113.20")).isNotEqualTo(429);
+    }
+
+    @Test
+    void testRateLimitCountsForwardedClientAddress() throws Exception {
+        assertThat(searchRequest("198.51.100.10")).isEqualTo(200);
+        assertThat(searchRequest("198.51.100.10")).isEqualTo(200);
+        assertThat(searchRequest("198.51.100.10")).isEqualTo(429);
+
+        assertThat(searchRequest("198.51.100.20")).isEqualTo(200);
+    }
+
+    private int searchRequest(String clientAddress) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/books?search=lem"))
+                .header("X-Forwarded-For", clientAddress)
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int tokenRequest(String clientAddress) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/token"))
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientAddress)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"nobody\",\"password\":\"wrong-password\"}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
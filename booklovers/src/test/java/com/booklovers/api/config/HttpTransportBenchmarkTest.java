@@ -0,0 +1,172 @@
+package com.booklovers.api.config;
+
+import com.booklovers.entity.Author;
+import com.booklovers.entity.Book;
+import com.booklovers.repository.AuthorRepository;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bajty na łączu dla katalogu HTML (/books) i listy JSON (/api/books) z kompresją gzip i bez niej,
+ * na prawdziwym Tomcacie (kompresja działa na poziomie konektora, MockMvc jej nie widzi).
+ * Wyniki trafiają do logu; asercje sprawdzają kompresję, h2c i wersjonowane zasoby statyczne.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class HttpTransportBenchmarkTest {
+
+    private static final int BOOKS = 200;
+    private static final Pattern VERSIONED_CSS = Pattern.compile("/css/booklovers-[0-9a-f]{32}\\.css");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .cookieHandler(new CookieManager())
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        Author author = authorRepository.save(Author.builder().firstName("Stanisław").lastName("Lem").build());
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(Book.builder()
+                    .title("Solaris, wydanie " + i)
+                    .author(author.getFullName())
+                    .authorEntity(author)
+                    .isbn(String.format("978%010d", i))
+                    .description("Powieść o kontakcie z obcą inteligencją - oceanem pokrywającym planetę Solaris. Wydanie " + i)
+                    .build());
+        }
+        bookRepository.saveAll(books);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testCompressionReducesBytesOnWire() throws Exception {
+        login();
+        for (String path : List.of("/books", "/api/books")) {
+            HttpResponse<byte[]> identity = get(path, "identity");
+            HttpResponse<byte[]> gzip = get(path, "gzip");
+
+            assertThat(identity.statusCode()).isEqualTo(200);
+            assertThat(identity.headers().firstValue("Content-Encoding")).isEmpty();
+            assertThat(gzip.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(gunzip(gzip.body())).hasSameSizeAs(identity.body());
+
+            long saved = 100 - gzip.body().length * 100L / identity.body().length;
+            log.info("{}: bez kompresji {} B, gzip {} B ({}% mniej)", path, identity.body().length, gzip.body().length, saved);
+            assertThat(gzip.body().length * 4L).isLessThan(identity.body().length);
+        }
+    }
+
+    @Test
+    void testSmallResponsesAreNotCompressed() throws Exception {
+        HttpResponse<byte[]> css = get(versionedCss(), "gzip");
+
+        assertThat(css.statusCode()).isEqualTo(200);
+        assertThat(css.body().length).isLessThan(1024);
+        assertThat(css.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void testStaticResourcesAreVersionedAndCachedLong() throws Exception {
+        HttpResponse<byte[]> css = get(versionedCss(), "identity");
+
+        assertThat(css.statusCode()).isEqualTo(200);
+        assertThat(css.headers().firstValue("Cache-Control")).hasValueSatisfying(value ->
+                assertThat(value).contains("max-age=31536000").contains("public"));
+        assertThat(new String(css.body(), StandardCharsets.UTF_8)).contains(".book-cover-thumb");
+    }
+
+    @Test
+    void testHttp2CleartextUpgrade() throws Exception {
+        HttpClient http2 = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+        HttpResponse<byte[]> response = http2.send(HttpRequest.newBuilder(uri("/books")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+    }
+
+    private String versionedCss() throws Exception {
+        String html = new String(get("/books", "identity").body(), StandardCharsets.UTF_8);
+        Matcher matcher = VERSIONED_CSS.matcher(html);
+        assertThat(matcher.find()).as("wersjonowany link do arkusza stylów").isTrue();
+        return matcher.group();
+    }
+
+    private void login() throws Exception {
+        String credentials = "{\"username\":\"transport\",\"password\":\"password123\"}";
+        post("/api/auth/register", "{\"username\":\"transport\",\"email\":\"transport@example.com\",\"password\":\"password123\"}");
+        assertThat(post("/api/auth/login", credentials).statusCode()).isEqualTo(200);
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .header("Accept-Encoding", acceptEncoding)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.booklovers.api.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Przepustowość wątków logujących: synchroniczny appender konsoli kontra AsyncAppender i limit
+ * LogRateLimitTurboFilter. Appender symuluje zapis na konsolę kosztem ~50 µs na zdarzenie.
+ * Przepustowość trafia tylko do logu - zależy od obciążenia maszyny; asercje sprawdzają zachowanie:
+ * synchronicznie zapis wykonują wątki logujące, z AsyncAppender żaden, a limit przepuszcza do appendera
+ * najwyżej maxPerSecond zdarzeń INFO w każdej sekundzie.
+ */
+@Slf4j
+class LoggingThroughputBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 500;
+    private static final long APPEND_COST_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Test
+    void testAsyncAppenderAndRateLimitRecoverThroughput() throws InterruptedException {
+        Result sync = run("sync", (context, target) -> target, 0);
+        Result async = run("async", (context, target) -> {
+            AsyncAppender appender = new AsyncAppender();
+            appender.setContext(context);
+            appender.setQueueSize(8192);
+            appender.setNeverBlock(true);
+            appender.addAppender(target);
+            appender.start();
+            return appender;
+        }, 0);
+        Result rateLimited = run("rate-limited", (context, target) -> target, 50);
+
+        log.info("Logowanie INFO: synchroniczne {} zdarzeń/s, async {} zdarzeń/s, limit 50/s {} zdarzeń/s",
+                sync.eventsPerSecond(), async.eventsPerSecond(), rateLimited.eventsPerSecond());
+
+        assertThat(sync.appendedOnLoggingThreads()).isEqualTo(THREADS * EVENTS_PER_THREAD);
+        assertThat(async.appendedOnLoggingThreads()).isZero();
+        assertThat(rateLimited.appendedInfo()).isPositive().isLessThanOrEqualTo(50 * rateLimited.seconds());
+    }
+
+    @Test
+    void testRateLimitKeepsWarnings() {
+        LoggerContext context = new LoggerContext();
+        CountingAppender appender = new CountingAppender();
+        appender.setContext(context);
+        appender.start();
+        LogRateLimitTurboFilter filter = new LogRateLimitTurboFilter();
+        filter.setMaxPerSecond(5);
+        filter.start();
+        context.addTurboFilter(filter);
+        Logger logger = context.getLogger("com.booklovers.service.review.ReviewServiceImp");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+
+        for (int i = 0; i < 100; i++) {
+            logger.info("Zdarzenie {}", i);
+            logger.warn("Ostrzeżenie {}", i);
+        }
+
+        // Do 5 zdarzeń INFO na sekundę (przełom sekundy w trakcie pętli może dodać kolejne 5 i ostrzeżenie o odrzuconych)
+        assertThat(appender.info.get()).isBetween(5, 10);
+        assertThat(appender.warn.get()).isBetween(100, 101);
+        context.stop();
+    }
+
+    private Result run(String name, AppenderFactory appenderFactory, int maxPerSecond) throws InterruptedException {
+        LoggerContext context = new LoggerContext();
+        if (maxPerSecond > 0) {
+            LogRateLimitTurboFilter filter = new LogRateLimitTurboFilter();
+            filter.setMaxPerSecond(maxPerSecond);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        Logger logger = context.getLogger("benchmark." + name);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        Set<Thread> loggingThreads = ConcurrentHashMap.newKeySet();
+        SlowAppender target = new SlowAppender(loggingThreads);
+        target.setContext(context);
+        target.start();
+        logger.addAppender(appenderFactory.create(context, target));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger logged = new AtomicInteger();
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                loggingThreads.add(Thread.currentThread());
+                start.await();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    logger.info("Pobieranie recenzji: bookId={}", i);
+                    logged.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        long startedAtMillis = System.currentTimeMillis();
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).as(name + " zakończony").isTrue();
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        // Liczba okien limitu (pełnych sekund zegara), w które trafił przebieg
+        int seconds = (int) (System.currentTimeMillis() / 1000 - startedAtMillis / 1000 + 1);
+        context.stop();
+        return new Result(logged.get() * 1_000_000_000L / elapsedNanos, target.info.get(),
+                target.onLoggingThreads.get(), seconds);
+    }
+
+    @FunctionalInterface
+    private interface AppenderFactory {
+        Appender<ILoggingEvent> create(LoggerContext context, Appender<ILoggingEvent> target);
+    }
+
+    private record Result(long eventsPerSecond, int appendedInfo, int appendedOnLoggingThreads, int seconds) {
+    }
+
+    // Zapis na konsolę kosztem ~50 µs; liczy zdarzenia INFO i zapisy wykonane przez wątki logujące
+    private static final class SlowAppender extends AppenderBase<ILoggingEvent> {
+        private final Set<Thread> loggingThreads;
+        private final AtomicInteger info = new AtomicInteger();
+        private final AtomicInteger onLoggingThreads = new AtomicInteger();
+
+        private SlowAppender(Set<Thread> loggingThreads) {
+            this.loggingThreads = loggingThreads;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            event.getFormattedMessage();
+            LockSupport.parkNanos(APPEND_COST_NANOS);
+            if (event.getLevel() == Level.INFO) {
+                info.incrementAndGet();
+            }
+            if (loggingThreads.contains(Thread.currentThread())) {
+                onLoggingThreads.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class CountingAppender extends AppenderBase<ILoggingEvent> {
+        private final AtomicInteger info = new AtomicInteger();
+        private final AtomicInteger warn = new AtomicInteger();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            (event.getLevel() == Level.WARN ? warn : info).incrementAndGet();
+        }
+    }
+}
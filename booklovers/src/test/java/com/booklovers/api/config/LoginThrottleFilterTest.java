@@ -0,0 +1,57 @@
+package com.booklovers.api.config;
+
+import com.booklovers.exception.TooManyRequestsException;
+import com.booklovers.service.user.LoginThrottleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleFilterTest {
+
+    private final LoginThrottleService loginThrottleService = mock(LoginThrottleService.class);
+    private final LoginThrottleFilter filter = new LoginThrottleFilter(loginThrottleService);
+
+    @Test
+    void testThrottledFormLoginRedirectsWithoutReachingAuthentication() throws Exception {
+        doThrow(new TooManyRequestsException("Too many login attempts", 30))
+                .when(loginThrottleService).checkAllowed("10.0.0.1", "reader");
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(), response, chain);
+
+        assertEquals("/login?throttled", response.getRedirectedUrl());
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testAllowedFormLoginContinues() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(loginRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(loginThrottleService).checkAllowed("10.0.0.1", "reader");
+    }
+
+    @Test
+    void testOtherRequestsAreNotChecked() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/login"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("POST", "/books/add"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verifyNoInteractions(loginThrottleService);
+    }
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.setParameter("username", "reader");
+        request.setParameter("password", "secret");
+        return request;
+    }
+}
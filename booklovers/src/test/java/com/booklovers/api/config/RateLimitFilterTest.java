@@ -0,0 +1,144 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RateLimitFilterTest {
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicInteger passed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setPaths(List.of("/api/books/search", "/books"));
+        search.setRequiredParam("search");
+        search.setCapacity(2);
+        search.setRefillPeriod(Duration.ofMinutes(1));
+        properties.getRoutes().put("book-search", search);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRateLimitPerAddressReturns429() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        assertEquals(200, perform(filter, search("10.0.0.1")).getStatus());
+        assertEquals(200, perform(filter, search("10.0.0.1")).getStatus());
+        MockHttpServletResponse rejected = perform(filter, search("10.0.0.1"));
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertEquals(200, perform(filter, search("10.0.0.2")).getStatus());
+        assertEquals(3, passed.get());
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC)
+                .tag("route", "book-search").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void testUnmatchedRequestsAreNotLimited() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            // /books bez parametru search to zwykły katalog z cache fragmentów
+            assertEquals(200, perform(filter, new MockHttpServletRequest("GET", "/books")).getStatus());
+        }
+    }
+
+    @Test
+    void testAuthenticatedUserHasOwnBucket() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        perform(filter, search("10.0.0.1"));
+        perform(filter, search("10.0.0.1"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("reader", null, List.of()));
+
+        assertEquals(200, perform(filter, search("10.0.0.1")).getStatus());
+    }
+
+    @Test
+    void testOnlyConfiguredApiKeysGetOwnBucket() throws Exception {
+        properties.getApiKeys().put("partner-key", "partner");
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        perform(filter, search("10.0.0.1"));
+        perform(filter, search("10.0.0.1"));
+
+        MockHttpServletRequest unknownKey = search("10.0.0.1");
+        unknownKey.addHeader("X-API-Key", "random");
+        MockHttpServletRequest knownKey = search("10.0.0.1");
+        knownKey.addHeader("X-API-Key", "partner-key");
+
+        assertEquals(429, perform(filter, unknownKey).getStatus());
+        assertEquals(200, perform(filter, knownKey).getStatus());
+    }
+
+    @Test
+    void testConcurrencyLimitReturns503WithoutWaiting() throws Exception {
+        RateLimitProperties.Route stats = new RateLimitProperties.Route();
+        stats.setPaths(List.of("/api/stats/books"));
+        stats.setMaxConcurrent(1);
+        properties.getRoutes().put("stats", stats);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        // Drugie żądanie przychodzi, gdy pierwsze jest jeszcze w łańcuchu
+        FilterChain chain = (request, response) -> {
+            passed.incrementAndGet();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/stats/books"), nested, (req, res) -> passed.incrementAndGet());
+        };
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/stats/books"), outer, chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested.getStatus());
+        assertEquals(1, passed.get());
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC)
+                .tag("route", "stats").tag("reason", "concurrency").counter().count());
+        // Pozwolenie zwolnione po zakończeniu pierwszego żądania
+        assertEquals(200, perform(filter, new MockHttpServletRequest("GET", "/api/stats/books")).getStatus());
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        properties.setEnabled(false);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(filter, search("10.0.0.1")).getStatus());
+        }
+    }
+
+    private MockHttpServletRequest search(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/search");
+        request.setParameter("search", "lem");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private MockHttpServletResponse perform(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> passed.incrementAndGet());
+        return response;
+    }
+}
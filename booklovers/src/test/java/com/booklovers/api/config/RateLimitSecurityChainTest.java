@@ -0,0 +1,58 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.routes.api-book-search.capacity=2",
+        "rate-limit.routes.book-search.capacity=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitSecurityChainTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testSearchIsLimitedPerUserInSecurityChain() throws Exception {
+        mockMvc.perform(get("/api/books/search").param("q", "lem").with(user("limited")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/search").param("q", "lem").with(user("limited")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/books/search").param("q", "lem").with(user("limited")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        // Inny użytkownik z tego samego adresu ma własny kubełek
+        mockMvc.perform(get("/api/books/search").param("q", "lem").with(user("other")))
+                .andExpect(status().isOk());
+        assertEquals(1.0, meterRegistry.get(RateLimitFilter.REJECTED_METRIC)
+                .tag("route", "api-book-search").tag("reason", "rate").counter().count());
+    }
+
+    @Test
+    void testCatalogWithoutSearchIsNotLimited() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(get("/books")).andExpect(status().isOk());
+        }
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/books").param("search", "lem")).andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/books").param("search", "lem")).andExpect(status().isTooManyRequests());
+    }
+}
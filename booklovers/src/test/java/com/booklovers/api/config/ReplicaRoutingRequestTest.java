@@ -0,0 +1,143 @@
+package com.booklovers.api.config;
+
+import com.booklovers.entity.Author;
+import com.booklovers.repository.AuthorRepository;
+import com.booklovers.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing w pełnym kontekście z open-in-view: odczyt readOnly, a po nim zapis w tym samym żądaniu.
+ * Replika to ta sama baza H2, ale jej połączenia odrzucają instrukcje zmieniające dane - jak replika tylko do odczytu.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:testdb;MODE=Oracle;DATABASE_TO_LOWER=TRUE",
+        "datasource.replica.username=sa",
+        "datasource.replica.password=",
+        "datasource.replica.driver-class-name=org.h2.Driver"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingRequestTest {
+
+    private static final AtomicInteger REPLICA_CONNECTIONS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Test
+    @WithMockUser(username = "routing")
+    void testWriteAfterReadInSameRequest_UsesPrimary() throws Exception {
+        REPLICA_CONNECTIONS.set(0);
+
+        mockMvc.perform(post("/test/replica-routing").with(csrf()))
+                .andExpect(status().isOk());
+
+        assertThat(REPLICA_CONNECTIONS.get()).as("odczyt z repliki").isPositive();
+        assertThat(authorRepository.findAll()).extracting(Author::getLastName).contains("Routing");
+    }
+
+    @TestConfiguration
+    static class ReplicaRoutingTestConfig {
+
+        @Bean
+        static BeanPostProcessor readOnlyReplica() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return "replicaDataSource".equals(beanName) ? new ReadOnlyDataSource((DataSource) bean) : bean;
+                }
+            };
+        }
+
+        @Bean
+        ReplicaRoutingTestController replicaRoutingTestController(BookRepository bookRepository,
+                                                                  AuthorRepository authorRepository,
+                                                                  PlatformTransactionManager transactionManager) {
+            return new ReplicaRoutingTestController(bookRepository, authorRepository, transactionManager);
+        }
+    }
+
+    @RestController
+    static class ReplicaRoutingTestController {
+
+        private final BookRepository bookRepository;
+        private final AuthorRepository authorRepository;
+        private final TransactionTemplate transactionTemplate;
+
+        ReplicaRoutingTestController(BookRepository bookRepository, AuthorRepository authorRepository,
+                                     PlatformTransactionManager transactionManager) {
+            this.bookRepository = bookRepository;
+            this.authorRepository = authorRepository;
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+
+        @PostMapping("/test/replica-routing")
+        long readThenWrite() {
+            long books = bookRepository.count();
+            transactionTemplate.executeWithoutResult(status ->
+                    authorRepository.save(Author.builder().firstName("Replica").lastName("Routing").build()));
+            return books;
+        }
+    }
+
+    private static final class ReadOnlyDataSource extends DelegatingDataSource {
+
+        private ReadOnlyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            REPLICA_CONNECTIONS.incrementAndGet();
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement") && isWrite((String) args[0])) {
+                            throw new SQLException("Replika tylko do odczytu: " + args[0]);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private static boolean isWrite(String sql) {
+            String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return statement.startsWith("insert") || statement.startsWith("update")
+                    || statement.startsWith("delete") || statement.startsWith("merge");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.booklovers.api.config;
+
+import com.booklovers.dto.UserStatsDto;
+import com.booklovers.exception.ResourceNotFoundException;
+import com.booklovers.repository.*;
+import com.booklovers.service.shelf.LibraryIndexService;
+import com.booklovers.service.stats.StatsService;
+import com.booklovers.service.stats.StatsServiceImp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserRepository userRepository;
+    private StatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userRepository = mock(UserRepository.class);
+        StatsServiceImp target = new StatsServiceImp(mock(BookRepository.class), userRepository,
+                mock(ReviewRepository.class), mock(RatingRepository.class), mock(UserBookRepository.class),
+                mock(LibraryIndexService.class), mock(JdbcTemplate.class));
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        statsService = factory.getProxy();
+    }
+
+    @Test
+    void testTimesPublicServiceMethod() {
+        statsService.getGlobalStats();
+
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tag("class", "StatsServiceImp")
+                .tag("method", "getGlobalStats")
+                .tag("exception", "none")
+                .timer().count());
+    }
+
+    @Test
+    void testTagsFailedCallWithException() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> {
+            UserStatsDto ignored = statsService.getUserStats(1L);
+        });
+
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.SERVICE_TIMER)
+                .tag("method", "getUserStats")
+                .tag("exception", "ResourceNotFoundException")
+                .timer().count());
+    }
+}
@@ -0,0 +1,66 @@
+package com.booklovers.api.config;
+
+import com.booklovers.entity.User;
+import com.booklovers.service.user.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionAttributeConverterTest {
+
+    private static final TypeDescriptor OBJECT = TypeDescriptor.valueOf(Object.class);
+    private static final TypeDescriptor BYTES = TypeDescriptor.valueOf(byte[].class);
+
+    private final SessionAttributeConverter converter = new SessionAttributeConverter(getClass().getClassLoader());
+
+    @Test
+    void testSecurityContextIsStoredCompactly() {
+        AuthenticatedUser user = new AuthenticatedUser(42L, "reader", User.Role.ADMIN, false, null);
+        SecurityContext context = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+
+        byte[] bytes = (byte[]) converter.convert(context, OBJECT, BYTES);
+        SecurityContext restored = (SecurityContext) converter.convert(bytes, BYTES, OBJECT);
+
+        assertTrue(bytes.length < 32, "compact context has " + bytes.length + " bytes");
+        Authentication authentication = restored.getAuthentication();
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("reader", authentication.getName());
+        assertEquals(42L, ((AuthenticatedUser) authentication.getPrincipal()).getId());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void testOtherAttributesUseJavaSerialization() {
+        SecurityContext foreign = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                "reader", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        byte[] bytes = (byte[]) converter.convert(foreign, OBJECT, BYTES);
+
+        assertEquals((byte) 0xAC, bytes[0]);
+        assertEquals("reader", ((SecurityContext) converter.convert(bytes, BYTES, OBJECT)).getAuthentication().getName());
+        assertEquals("/books?page=2", converter.convert(converter.convert("/books?page=2", OBJECT, BYTES), BYTES, OBJECT));
+    }
+
+    @Test
+    void testContextWithExtraAuthoritiesIsNotCompacted() {
+        // Uprawnień spoza roli nie da się odtworzyć z id, nazwy i roli - zostaje pełna serializacja
+        AuthenticatedUser user = new AuthenticatedUser(42L, "reader", User.Role.USER, false, null);
+        SecurityContext context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_AUDITOR"))));
+
+        byte[] bytes = (byte[]) converter.convert(context, OBJECT, BYTES);
+        SecurityContext restored = (SecurityContext) converter.convert(bytes, BYTES, OBJECT);
+
+        assertEquals((byte) 0xAC, bytes[0]);
+        assertEquals(2, restored.getAuthentication().getAuthorities().size());
+    }
+}
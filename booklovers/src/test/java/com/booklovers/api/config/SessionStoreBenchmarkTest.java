@@ -0,0 +1,175 @@
+package com.booklovers.api.config;
+
+import com.booklovers.entity.User;
+import com.booklovers.repository.UserRepository;
+import com.booklovers.service.user.AuthenticatedUser;
+import jakarta.servlet.http.Cookie;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Sesje w magazynie JDBC (session.store.type=jdbc): zapis zwięzłego SecurityContext i narzut na żądanie
+ * (odczyt sesji, odświeżenie czasu dostępu, zapis) w porównaniu z magazynem w pamięci. Wyniki trafiają do logu;
+ * asercje sprawdzają tylko poprawność i rozmiar zapisu.
+ */
+@Slf4j
+@SpringBootTest(properties = "session.store.type=jdbc")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SessionStoreBenchmarkTest {
+
+    private static final int WARMUP = 100;
+    private static final int REQUESTS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcIndexedSessionRepository jdbcSessionRepository;
+
+    @Autowired
+    @Qualifier("springSessionConversionService")
+    private ConversionService conversionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Testy budują schemat z encji - tabele sesji z tej samej migracji co na produkcji
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = 'SPRING_SESSION'", Integer.class);
+        if (tables == 0) {
+            new ResourceDatabasePopulator(new ClassPathResource("db/migration/h2/V7__spring_session.sql")).execute(dataSource);
+        }
+        user = userRepository.save(User.builder()
+                .username("sessionreader")
+                .email("sessionreader@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .role(User.Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM SPRING_SESSION");
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testLoginSessionIsStoredInDatabase() throws Exception {
+        Cookie sessionCookie = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"sessionreader\",\"password\":\"password123\"}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("JSESSIONID"))
+                .andReturn().getResponse().getCookie("JSESSIONID");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT PRINCIPAL_NAME FROM SPRING_SESSION", String.class))
+                .isEqualTo("sessionreader");
+        byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT ATTRIBUTE_BYTES FROM SPRING_SESSION_ATTRIBUTES WHERE ATTRIBUTE_NAME = ?", byte[].class,
+                HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        assertThat(stored).hasSizeLessThan(64);
+
+        // Kolejne żądanie (na dowolnym węźle) odtwarza uwierzytelnienie z bazy
+        mockMvc.perform(get("/api/users/me").cookie(sessionCookie))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("sessionreader"));
+    }
+
+    @Test
+    void testSessionOverheadAgainstInMemoryStore() {
+        SecurityContext context = securityContext(AuthenticatedUser.from(user));
+        int compact = serialize(context).length;
+        // Tak wyglądał kontekst z encją User jako principalem
+        int entity = new SerializingConverter().convert(securityContext(user)).length;
+
+        MapSessionRepository memoryRepository = new MapSessionRepository(new ConcurrentHashMap<>());
+        double memoryMicros = perRequestMicros(memoryRepository, context);
+        double jdbcMicros = perRequestMicros(jdbcSessionRepository, context);
+
+        log.info("Narzut sesji na żądanie: pamięć {} µs, JDBC {} µs; SecurityContext: {} B zwięźle, {} B z encją User",
+                String.format("%.1f", memoryMicros), String.format("%.1f", jdbcMicros), compact, entity);
+
+        assertThat(compact).isLessThan(entity / 10);
+    }
+
+    // Cykl SessionRepositoryFilter dla każdego żądania: odczyt sesji, odświeżenie czasu dostępu, zapis
+    private <S extends Session> double perRequestMicros(SessionRepository<S> repository, SecurityContext context) {
+        S session = repository.createSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+        repository.save(session);
+        String id = session.getId();
+
+        long start = 0;
+        for (int i = 0; i < WARMUP + REQUESTS; i++) {
+            if (i == WARMUP) {
+                start = System.nanoTime();
+            }
+            S current = repository.findById(id);
+            current.setLastAccessedTime(Instant.now());
+            SecurityContext restored = current.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+            assertThat(restored.getAuthentication().getName()).isEqualTo("sessionreader");
+            repository.save(current);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / REQUESTS;
+        repository.deleteById(id);
+        return micros;
+    }
+
+    private byte[] serialize(SecurityContext context) {
+        return (byte[]) conversionService.convert(context, TypeDescriptor.valueOf(Object.class),
+                TypeDescriptor.valueOf(byte[].class));
+    }
+
+    private static SecurityContext securityContext(UserDetails principal) {
+        return new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,72 @@
+package com.booklovers.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowAcquisitionDataSourceTest {
+
+    private HikariDataSource pool;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:slow-acquisition");
+        pool.setUsername("sa");
+        pool.setPoolName("test");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testGetConnection_CountsSlowAcquisition() throws Exception {
+        SlowAcquisitionDataSource dataSource = new SlowAcquisitionDataSource(pool, Duration.ZERO, meterRegistry);
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+        assertEquals(1.0, meterRegistry.get(SlowAcquisitionDataSource.SLOW_ACQUIRE_METRIC)
+                .tag("pool", "test").tag("caller", "unknown").counter().count());
+    }
+
+    @Test
+    void testGetConnection_IgnoresFastAcquisition() throws Exception {
+        SlowAcquisitionDataSource dataSource = new SlowAcquisitionDataSource(pool, Duration.ofMinutes(1), meterRegistry);
+
+        try (Connection connection = dataSource.getConnection()) {
+            assertTrue(connection.isValid(1));
+        }
+
+        assertNull(meterRegistry.find(SlowAcquisitionDataSource.SLOW_ACQUIRE_METRIC).counter());
+    }
+
+    @Test
+    void testUnwrap_ExposesHikariPoolForMetrics() throws Exception {
+        SlowAcquisitionDataSource dataSource = new SlowAcquisitionDataSource(pool, Duration.ZERO, meterRegistry);
+
+        assertTrue(dataSource.isWrapperFor(HikariDataSource.class));
+        assertSame(pool, dataSource.unwrap(HikariDataSource.class));
+    }
+
+    @Test
+    void testClose_ClosesPool() {
+        SlowAcquisitionDataSource dataSource = new SlowAcquisitionDataSource(pool, Duration.ZERO, meterRegistry);
+
+        dataSource.close();
+
+        assertTrue(pool.isClosed());
+    }
+}
@@ -0,0 +1,29 @@
+package com.booklovers.api.config;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asercje liczby zapytań SQL dla testów @DataJpaTest i @SpringBootTest - liczy zapytania
+ * wysłane przez Hibernate w bieżącym wątku (SqlStatementCounter).
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static long countStatements(Runnable action) {
+        long before = SqlStatementCounter.current();
+        action.run();
+        return SqlStatementCounter.current() - before;
+    }
+
+    public static <T> T assertMaxStatements(int max, Supplier<T> action) {
+        long before = SqlStatementCounter.current();
+        T result = action.get();
+        long statements = SqlStatementCounter.current() - before;
+        assertTrue(statements <= max, "Expected at most " + max + " SQL statements but was " + statements);
+        return result;
+    }
+}
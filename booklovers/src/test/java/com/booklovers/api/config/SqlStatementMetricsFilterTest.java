@@ -0,0 +1,91 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SqlStatementMetricsFilterTest {
+
+    private SqlStatementCounter counter;
+    private SimpleMeterRegistry meterRegistry;
+    private SqlBudgetProperties budgetProperties;
+    private SqlStatementMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SqlStatementCounter();
+        meterRegistry = new SimpleMeterRegistry();
+        budgetProperties = new SqlBudgetProperties();
+        budgetProperties.getEndpoints().put("GET /api/books/{id}", 2);
+        filter = new SqlStatementMetricsFilter(meterRegistry, budgetProperties);
+    }
+
+    @Test
+    void testRecordsStatementsPerRequest() throws Exception {
+        // Zapytanie spoza żądania nie może trafić do metryki żądania
+        counter.inspect("select 1");
+
+        performBookRequest(3);
+
+        DistributionSummary summary = meterRegistry.get(SqlStatementMetricsFilter.SQL_STATEMENTS_METRIC)
+                .tag("method", "GET")
+                .tag("uri", "/api/books/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(3.0, summary.totalAmount());
+    }
+
+    @Test
+    void testUnmappedRequestTaggedUnknown() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertEquals(1, meterRegistry.get(SqlStatementMetricsFilter.SQL_STATEMENTS_METRIC)
+                .tag("uri", "UNKNOWN").summary().count());
+    }
+
+    @Test
+    void testWarnModeCountsExceededBudget() throws Exception {
+        budgetProperties.setMode(SqlBudgetProperties.Mode.WARN);
+
+        assertDoesNotThrow(() -> performBookRequest(3));
+        performBookRequest(2);
+
+        assertEquals(1.0, meterRegistry.get(SqlStatementMetricsFilter.SQL_BUDGET_EXCEEDED_METRIC)
+                .tag("uri", "/api/books/{id}").counter().count());
+    }
+
+    @Test
+    void testFailModeThrowsWhenBudgetExceeded() {
+        budgetProperties.setMode(SqlBudgetProperties.Mode.FAIL);
+
+        SqlBudgetExceededException exception = assertThrows(SqlBudgetExceededException.class, () -> performBookRequest(3));
+
+        assertEquals("SQL budget exceeded for GET /api/books/{id}: 3 statements, budget 2", exception.getMessage());
+    }
+
+    @Test
+    void testDefaultBudgetAppliesToUnlistedEndpoints() {
+        budgetProperties.setMode(SqlBudgetProperties.Mode.FAIL);
+        budgetProperties.setDefaultBudget(0);
+
+        assertThrows(SqlBudgetExceededException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/authors"),
+                new MockHttpServletResponse(), (req, res) -> counter.inspect("select * from authors")));
+    }
+
+    private void performBookRequest(int statements) throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/books/1"), new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                counter.inspect("select * from books where id=?");
+            }
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/books/{id}");
+        });
+    }
+}
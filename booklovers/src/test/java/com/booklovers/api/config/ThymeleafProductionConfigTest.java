@@ -0,0 +1,29 @@
+package com.booklovers.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ThymeleafProductionConfigTest {
+
+    @Test
+    void testVerifyTemplateCache_CacheableResolver() {
+        assertDoesNotThrow(() -> new ThymeleafProductionConfig(engine(true)).verifyTemplateCache());
+    }
+
+    @Test
+    void testVerifyTemplateCache_DisabledCacheFailsStartup() {
+        assertThrows(IllegalStateException.class, () -> new ThymeleafProductionConfig(engine(false)).verifyTemplateCache());
+    }
+
+    private static SpringTemplateEngine engine(boolean cacheable) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setCacheable(cacheable);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+}
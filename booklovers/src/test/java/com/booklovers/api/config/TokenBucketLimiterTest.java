@@ -0,0 +1,63 @@
+package com.booklovers.api.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(30), now::get);
+
+    @Test
+    void testBurstUpToCapacityThenRejects() {
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+        assertTrue(limiter.tryAcquire("1.2.3.4"));
+
+        assertFalse(limiter.tryAcquire("1.2.3.4"));
+    }
+
+    @Test
+    void testKeysHaveSeparateBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("1.2.3.4");
+        }
+
+        assertTrue(limiter.tryAcquire("5.6.7.8"));
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user");
+        }
+
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertFalse(limiter.tryAcquire("user"));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(limiter.tryAcquire("user"));
+        assertFalse(limiter.tryAcquire("user"));
+    }
+
+    @Test
+    void testRefillIsCappedAtCapacity() {
+        limiter.tryAcquire("user");
+        now.addAndGet(Duration.ofHours(1).toNanos());
+
+        assertTrue(limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user"));
+        assertFalse(limiter.tryAcquire("user"));
+    }
+
+    @Test
+    void testRetryAfterIsTimeForOneToken() {
+        assertEquals(10, limiter.retryAfterSeconds());
+        assertEquals(1, new TokenBucketLimiter(100, Duration.ofSeconds(1)).retryAfterSeconds());
+    }
+}
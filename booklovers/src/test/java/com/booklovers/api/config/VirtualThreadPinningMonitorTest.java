@@ -0,0 +1,61 @@
+package com.booklovers.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        VirtualThreadPinningProperties properties = new VirtualThreadPinningProperties();
+        properties.setThreshold(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(properties, meterRegistry);
+        monitor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void testBlockingInsideSynchronizedIsReported() throws Exception {
+        Thread thread = Thread.ofVirtual().start(this::sleepWhileHoldingMonitor);
+        thread.join();
+
+        // Strumień JFR dostarcza zdarzenia z opóźnieniem (okres flush ~1 s)
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        Counter counter = null;
+        while (counter == null && System.nanoTime() < deadline) {
+            counter = meterRegistry.find(VirtualThreadPinningMonitor.PINNED_METRIC).tag("source", "application").counter();
+            Thread.sleep(100);
+        }
+
+        assertTrue(counter != null, "Expected pinned event from application code");
+        assertEquals(1.0, counter.count());
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.booklovers.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Porównanie obsługi żądań przy dużej współbieżności: pula 200 wątków platformowych (domyślne
+ * server.tomcat.threads.max) kontra wątek wirtualny na żądanie. Żądanie symuluje blokujące I/O poza bazą
+ * (50 ms) i zapytanie JDBC (1 ms) ograniczone pulą 20 połączeń - gdy dominuje czas w bazie, limitem
+ * pozostaje pula Hikari, nie wątki. Czasy i przepustowość trafiają tylko do logu - zależą od obciążenia maszyny;
+ * asercje sprawdzają liczbę żądań obsługiwanych jednocześnie: pula ogranicza ją do swojego rozmiaru,
+ * wątki wirtualne nie, a do bazy w obu trybach wchodzi najwyżej tyle żądań, ile jest połączeń.
+ */
+@Slf4j
+class VirtualThreadThroughputBenchmarkTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int CONNECTION_POOL_SIZE = 20;
+
+    @Test
+    void testVirtualThreadsRaiseThroughputForBlockingRequests() throws Exception {
+        Result platform;
+        try (ExecutorService executor = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)) {
+            platform = run(executor);
+        }
+        Result virtual;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            virtual = run(executor);
+        }
+
+        log.info("Wątki platformowe: {} żądań/s, p50={} ms, p99={} ms, jednocześnie {}; "
+                        + "wirtualne: {} żądań/s, p50={} ms, p99={} ms, jednocześnie {}",
+                platform.requestsPerSecond(), platform.p50Millis(), platform.p99Millis(), platform.peakInFlight(),
+                virtual.requestsPerSecond(), virtual.p50Millis(), virtual.p99Millis(), virtual.peakInFlight());
+
+        assertThat(platform.peakInFlight()).isLessThanOrEqualTo(TOMCAT_MAX_THREADS);
+        assertThat(virtual.peakInFlight()).isGreaterThan(TOMCAT_MAX_THREADS);
+        assertThat(platform.peakInDatabase()).isLessThanOrEqualTo(CONNECTION_POOL_SIZE);
+        assertThat(virtual.peakInDatabase()).isLessThanOrEqualTo(CONNECTION_POOL_SIZE);
+    }
+
+    private Result run(ExecutorService executor) throws Exception {
+        Semaphore connections = new Semaphore(CONNECTION_POOL_SIZE);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicInteger inDatabase = new AtomicInteger();
+        AtomicInteger peakInDatabase = new AtomicInteger();
+        List<Future<Long>> latencies = new ArrayList<>(REQUESTS);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            long submittedAt = System.nanoTime();
+            latencies.add(executor.submit(() -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                    connections.acquire();
+                    try {
+                        peakInDatabase.accumulateAndGet(inDatabase.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        inDatabase.decrementAndGet();
+                    } finally {
+                        connections.release();
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return System.nanoTime() - submittedAt;
+            }));
+        }
+        long[] sorted = new long[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            sorted[i] = latencies.get(i).get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        Arrays.sort(sorted);
+        return new Result(REQUESTS * 1_000_000_000L / elapsedNanos,
+                TimeUnit.NANOSECONDS.toMillis(sorted[REQUESTS / 2]),
+                TimeUnit.NANOSECONDS.toMillis(sorted[REQUESTS * 99 / 100]),
+                peakInFlight.get(), peakInDatabase.get());
+    }
+
+    private record Result(long requestsPerSecond, long p50Millis, long p99Millis, int peakInFlight, int peakInDatabase) {
+    }
+}
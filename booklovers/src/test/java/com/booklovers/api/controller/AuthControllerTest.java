@@ -1,10 +1,16 @@
 package com.booklovers.api.controller;
 
 import com.booklovers.dto.LoginRequest;
+import com.booklovers.dto.RefreshTokenRequest;
 import com.booklovers.dto.RegisterRequest;
+import com.booklovers.dto.TokenResponse;
 import com.booklovers.dto.UserDto;
 import com.booklovers.entity.User;
 import com.booklovers.exception.ConflictException;
+import com.booklovers.exception.TooManyRequestsException;
+import com.booklovers.exception.UnauthorizedException;
+import com.booklovers.service.token.TokenService;
+import com.booklovers.service.user.LoginThrottleService;
 import com.booklovers.service.user.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -40,6 +46,12 @@ class AuthControllerTest {
     @MockBean
     private AuthenticationManager authenticationManager;
     
+    @MockBean
+    private TokenService tokenService;
+    
+    @MockBean
+    private LoginThrottleService loginThrottleService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -137,6 +149,38 @@ class AuthControllerTest {
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
     
+    @Test
+    void testLogin_ThrottledBeforePasswordCheck() throws Exception {
+        LoginRequest request = new LoginRequest("testuser", "password123");
+        
+        doThrow(new TooManyRequestsException("Too many login attempts", 30))
+                .when(loginThrottleService).checkAllowed(any(), eq("testuser"));
+        
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"));
+        
+        verify(authenticationManager, never()).authenticate(any());
+    }
+    
+    @Test
+    void testToken_ThrottledBeforePasswordCheck() throws Exception {
+        LoginRequest request = new LoginRequest("testuser", "password123");
+        
+        doThrow(new TooManyRequestsException("Too many login attempts", 30))
+                .when(loginThrottleService).checkAllowed(any(), eq("testuser"));
+        
+        mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests());
+        
+        verify(authenticationManager, never()).authenticate(any());
+        verify(tokenService, never()).issueTokens(any());
+    }
+    
     @Test
     void testLogin_ValidationError() throws Exception {
         LoginRequest invalidRequest = new LoginRequest("", "");
@@ -149,4 +193,91 @@ class AuthControllerTest {
         
         verify(authenticationManager, never()).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
+    
+    @Test
+    void testToken_Success() throws Exception {
+        LoginRequest request = new LoginRequest("testuser", "password123");
+        
+        Authentication authentication = mock(Authentication.class);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(authentication);
+        when(tokenService.issueTokens(authentication)).thenReturn(TokenResponse.builder()
+                .accessToken("access")
+                .refreshToken("refresh")
+                .tokenType("Bearer")
+                .expiresIn(900)
+                .build());
+        
+        mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("access"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andExpect(request().sessionAttributeDoesNotExist("SPRING_SECURITY_CONTEXT"));
+        
+        verify(tokenService).issueTokens(authentication);
+    }
+    
+    @Test
+    void testToken_InvalidCredentials() throws Exception {
+        LoginRequest request = new LoginRequest("testuser", "wrongpassword");
+        
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        
+        mockMvc.perform(post("/api/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().is5xxServerError());
+        
+        verify(tokenService, never()).issueTokens(any());
+    }
+    
+    @Test
+    void testRefresh_Success() throws Exception {
+        when(tokenService.refresh("refresh")).thenReturn(TokenResponse.builder()
+                .accessToken("new-access")
+                .refreshToken("new-refresh")
+                .tokenType("Bearer")
+                .expiresIn(900)
+                .build());
+        
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("new-access"));
+    }
+    
+    @Test
+    void testRefresh_InvalidToken() throws Exception {
+        when(tokenService.refresh("expired")).thenThrow(new UnauthorizedException("Invalid refresh token"));
+        
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("expired"))))
+                .andExpect(status().isUnauthorized());
+    }
+    
+    @Test
+    void testLogout_RevokesTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .principal(new UsernamePasswordAuthenticationToken("testuser", null)))
+                .andExpect(status().isNoContent());
+        
+        verify(tokenService).revokeTokens(any());
+    }
+    
+    @Test
+    void testRefresh_ValidationError() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(""))))
+                .andExpect(status().isBadRequest());
+        
+        verify(tokenService, never()).refresh(any());
+    }
 }
@@ -1,10 +1,19 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheProperties;
+import com.booklovers.api.config.HttpCacheSupport;
 import com.booklovers.dto.BookDto;
+import com.booklovers.dto.CacheValidatorDto;
+import com.booklovers.dto.ShelfBatchItemResultDto;
+import com.booklovers.dto.ShelfBatchOperationDto;
+import com.booklovers.dto.ShelfBatchRequest;
+import com.booklovers.dto.ShelfBatchResultDto;
 import com.booklovers.dto.UserBookDto;
 import com.booklovers.dto.UserDto;
 import com.booklovers.entity.User;
 import com.booklovers.service.book.BookService;
+import com.booklovers.service.cache.CacheValidatorService;
+import com.booklovers.service.shelf.ShelfBatchService;
 import com.booklovers.service.user.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -28,6 +38,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookController.class)
+@Import({HttpCacheSupport.class, HttpCacheProperties.class})
 class BookControllerTest {
     
     @Autowired
@@ -39,6 +50,12 @@ class BookControllerTest {
     @MockBean
     private UserService userService;
     
+    @MockBean
+    private ShelfBatchService shelfBatchService;
+    
+    @MockBean
+    private CacheValidatorService cacheValidatorService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -224,6 +241,50 @@ class BookControllerTest {
         verify(bookService).addBookToUserLibrary(1L, "Moja biblioteczka");
     }
     
+    @Test
+    @WithMockUser
+    void testApplyShelfBatch_Success() throws Exception {
+        ShelfBatchRequest request = ShelfBatchRequest.builder()
+                .operations(List.of(ShelfBatchOperationDto.builder()
+                        .action(ShelfBatchOperationDto.Action.ADD)
+                        .bookIds(List.of(1L, 2L))
+                        .shelfName("Przeczytane")
+                        .build()))
+                .build();
+        ShelfBatchResultDto result = ShelfBatchResultDto.builder()
+                .succeeded(1)
+                .failed(1)
+                .results(List.of(
+                        ShelfBatchItemResultDto.builder().bookId(1L).status(ShelfBatchItemResultDto.Status.OK).build(),
+                        ShelfBatchItemResultDto.builder().bookId(2L).status(ShelfBatchItemResultDto.Status.NOT_FOUND).build()))
+                .build();
+        when(userService.getCurrentUser()).thenReturn(userDto);
+        when(shelfBatchService.applyBatch(eq(1L), any(ShelfBatchRequest.class))).thenReturn(result);
+        
+        mockMvc.perform(post("/api/books/my-books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("NOT_FOUND"));
+        
+        verify(shelfBatchService).applyBatch(eq(1L), any(ShelfBatchRequest.class));
+    }
+    
+    @Test
+    @WithMockUser
+    void testApplyShelfBatch_EmptyOperations() throws Exception {
+        mockMvc.perform(post("/api/books/my-books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[]}")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+        
+        verify(shelfBatchService, never()).applyBatch(anyLong(), any());
+    }
+    
     @Test
     @WithMockUser
     void testRemoveBookFromLibrary_Success() throws Exception {
@@ -305,4 +366,63 @@ class BookControllerTest {
                         .with(csrf()))
                 .andExpect(status().isBadRequest());
     }
+    
+    @Test
+    @WithMockUser
+    void testGetAllBooks_SetsValidatorsAndCacheControl() throws Exception {
+        when(cacheValidatorService.getBooksValidator()).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"abc\"")
+                .lastModified(java.time.Instant.parse("2024-01-15T10:30:00Z"))
+                .build());
+        when(bookService.getAllBooks()).thenReturn(List.of(bookDto));
+        
+        mockMvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"abc\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(header().string("Cache-Control", org.hamcrest.Matchers.containsString("must-revalidate")));
+        
+        verify(bookService).getAllBooks();
+    }
+    
+    @Test
+    @WithMockUser
+    void testGetAllBooks_NotModified() throws Exception {
+        when(cacheValidatorService.getBooksValidator()).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"abc\"")
+                .build());
+        
+        mockMvc.perform(get("/api/books").header("If-None-Match", "W/\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        
+        verify(bookService, never()).getAllBooks();
+    }
+    
+    @Test
+    @WithMockUser
+    void testGetBookById_NotModified() throws Exception {
+        when(cacheValidatorService.getBookValidator(1L)).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"book-1\"")
+                .build());
+        
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "W/\"book-1\""))
+                .andExpect(status().isNotModified());
+        
+        verify(bookService, never()).getBookById(anyLong());
+    }
+    
+    @Test
+    @WithMockUser
+    void testGetBookById_StaleEtagReturnsBody() throws Exception {
+        when(cacheValidatorService.getBookValidator(1L)).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"book-1-v2\"")
+                .build());
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(bookDto));
+        
+        mockMvc.perform(get("/api/books/1").header("If-None-Match", "W/\"book-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"book-1-v2\""))
+                .andExpect(jsonPath("$.id").value(1L));
+    }
 }
@@ -1,14 +1,19 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheProperties;
+import com.booklovers.api.config.HttpCacheSupport;
+import com.booklovers.dto.CacheValidatorDto;
 import com.booklovers.dto.ReviewDto;
 import com.booklovers.exception.ForbiddenException;
 import com.booklovers.exception.ResourceNotFoundException;
+import com.booklovers.service.cache.CacheValidatorService;
 import com.booklovers.service.review.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -26,6 +31,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ReviewController.class)
+@Import({HttpCacheSupport.class, HttpCacheProperties.class})
 class ReviewControllerTest {
     
     @Autowired
@@ -34,6 +40,9 @@ class ReviewControllerTest {
     @MockBean
     private ReviewService reviewService;
     
+    @MockBean
+    private CacheValidatorService cacheValidatorService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -232,4 +241,18 @@ class ReviewControllerTest {
         
         verify(reviewService).getReviewsByUserId(1L);
     }
+    
+    @Test
+    @WithMockUser
+    void testGetReviewsByBookId_NotModified() throws Exception {
+        when(reviewService.getReviewsByBookId(1L)).thenReturn(List.of());
+        when(cacheValidatorService.getBookReviewsValidator(1L)).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"reviews-1\"")
+                .build());
+        
+        mockMvc.perform(get("/api/reviews/books/1").header("If-None-Match", "W/\"reviews-1\""))
+                .andExpect(status().isNotModified());
+        
+        verify(reviewService, never()).getReviewsByBookId(1L);
+    }
 }
@@ -1,16 +1,22 @@
 package com.booklovers.api.controller;
 
+import com.booklovers.api.config.HttpCacheProperties;
+import com.booklovers.api.config.HttpCacheSupport;
 import com.booklovers.dto.BookStatsDto;
+import com.booklovers.dto.CacheValidatorDto;
+import com.booklovers.dto.CacheValidatorDto;
 import com.booklovers.dto.StatsDto;
 import com.booklovers.dto.UserDto;
 import com.booklovers.dto.UserStatsDto;
 import com.booklovers.entity.User;
+import com.booklovers.service.cache.CacheValidatorService;
 import com.booklovers.service.stats.StatsService;
 import com.booklovers.service.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,6 +31,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(StatsController.class)
+@Import({HttpCacheSupport.class, HttpCacheProperties.class})
 class StatsControllerTest {
     
     @Autowired
@@ -36,6 +43,9 @@ class StatsControllerTest {
     @MockBean
     private UserService userService;
     
+    @MockBean
+    private CacheValidatorService cacheValidatorService;
+    
     @Test
     @WithMockUser
     void testGetGlobalStats_Success() throws Exception {
@@ -170,4 +180,32 @@ class StatsControllerTest {
         
         verify(statsService).getBookStats(1L);
     }
+    
+    @Test
+    @WithMockUser
+    void testGetGlobalStats_NotModified() throws Exception {
+        when(cacheValidatorService.getGlobalStatsValidator()).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"stats\"")
+                .lastModified(java.time.Instant.parse("2024-01-15T10:30:00Z"))
+                .build());
+        
+        mockMvc.perform(get("/api/stats/books").header("If-Modified-Since", "Mon, 15 Jan 2024 10:30:00 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists("Cache-Control"));
+        
+        verify(statsService, never()).getGlobalStats();
+    }
+    
+    @Test
+    @WithMockUser
+    void testGetUserStats_SetsEtag() throws Exception {
+        when(cacheValidatorService.getUserStatsValidator(1L)).thenReturn(CacheValidatorDto.builder()
+                .etag("W/\"user-1\"")
+                .build());
+        when(statsService.getUserStats(1L)).thenReturn(UserStatsDto.builder().userId(1L).build());
+        
+        mockMvc.perform(get("/api/stats/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"user-1\""));
+    }
 }
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.BindingResult;
@@ -52,6 +53,29 @@ class GlobalExceptionHandlerTest {
         assertEquals("/api/test", response.getBody().getPath());
     }
 
+    @Test
+    void testHandleTooManyRequestsException() {
+        TooManyRequestsException ex = new TooManyRequestsException("Too many login attempts", 30);
+
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleTooManyRequestsException(ex, webRequest);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(429, response.getBody().getStatus());
+        assertEquals("Too many login attempts", response.getBody().getMessage());
+    }
+
+    @Test
+    void testHandleServiceUnavailableException() {
+        ServiceUnavailableException ex = new ServiceUnavailableException("Busy");
+
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleServiceUnavailableException(ex, webRequest);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(503, response.getBody().getStatus());
+    }
+
     @Test
     void testHandleBadRequestException() {
         BadRequestException ex = new BadRequestException("Invalid input");
@@ -66,6 +90,18 @@ class GlobalExceptionHandlerTest {
         assertEquals("Invalid input", response.getBody().getMessage());
     }
 
+    @Test
+    void testHandleOptimisticLockingFailure() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException("com.booklovers.entity.Book", 1L);
+
+        ResponseEntity<ErrorResponse> response = exceptionHandler.handleOptimisticLockingFailure(ex, webRequest);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(409, response.getBody().getStatus());
+        assertEquals("Conflict", response.getBody().getError());
+    }
+
     @Test
     void testHandleConflictException() {
         ConflictException ex = new ConflictException("Resource already exists");
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -54,6 +55,16 @@ class WebExceptionHandlerTest {
         assertEquals("Invalid input", redirectAttributes.getFlashAttributes().get("error"));
     }
 
+    @Test
+    void testHandleOptimisticLockingFailure() {
+        ObjectOptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException("com.booklovers.entity.Book", 1L);
+
+        String result = exceptionHandler.handleOptimisticLockingFailure(ex, redirectAttributes);
+
+        assertEquals("redirect:/books", result);
+        assertTrue(redirectAttributes.getFlashAttributes().containsKey("error"));
+    }
+
     @Test
     void testHandleConflictException_DefaultRedirect() {
         ConflictException ex = new ConflictException("Resource already exists");
@@ -2,16 +2,23 @@ package com.booklovers.repository;
 
 import com.booklovers.entity.Author;
 import com.booklovers.entity.Book;
+import com.booklovers.entity.Rating;
+import com.booklovers.entity.Review;
+import com.booklovers.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -157,4 +164,71 @@ class BookRepositoryTest {
         
         assertThat(count).isGreaterThanOrEqualTo(2);
     }
+
+    @Test
+    void testUpdateCoverImagePath_OnlyForCurrentSourceUrl() {
+        testBook.setCoverImageUrl("https://covers.example.com/1.jpg");
+        Book saved = entityManager.persistAndFlush(testBook);
+        Long version = saved.getVersion();
+        LocalDateTime fetchedAt = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.MILLIS);
+
+        int stale = bookRepository.updateCoverImagePath(saved.getId(), "https://covers.example.com/old.jpg", "covers/old.jpg", fetchedAt);
+        int updated = bookRepository.updateCoverImagePath(saved.getId(), "https://covers.example.com/1.jpg", "covers/1.jpg", fetchedAt);
+        entityManager.clear();
+
+        Book reloaded = bookRepository.findById(saved.getId()).orElseThrow();
+        assertThat(stale).isZero();
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloaded.getCoverImagePath()).isEqualTo("covers/1.jpg");
+        assertThat(reloaded.getUpdatedAt()).isEqualTo(fetchedAt);
+        // Formularz edycji otwarty przed pobraniem okładki nadal może zostać zapisany
+        assertThat(reloaded.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void testFindMissingCoverImages_OnlyBooksWithUrlAndNoStoredCover() {
+        testBook.setCoverImageUrl("https://covers.example.com/1.jpg");
+        Book missing = entityManager.persistAndFlush(testBook);
+        entityManager.persistAndFlush(Book.builder().title("Stored").author("Test Author")
+                .coverImageUrl("https://covers.example.com/2.jpg").coverImagePath("covers/2.jpg").build());
+        entityManager.persistAndFlush(Book.builder().title("No cover").author("Test Author").build());
+
+        List<Object[]> rows = bookRepository.findMissingCoverImages(0L, PageRequest.of(0, 10));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsExactly(missing.getId(), "https://covers.example.com/1.jpg");
+        assertThat(bookRepository.findMissingCoverImages(missing.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void testStreamCatalog_BooksWithRatingSummaryInIdOrder() {
+        Book rated = entityManager.persistAndFlush(testBook);
+        Book unrated = entityManager.persistAndFlush(Book.builder().title("Unrated").author("Test Author").build());
+        for (int i = 0; i < 2; i++) {
+            User user = entityManager.persistAndFlush(User.builder()
+                    .username("reader" + i)
+                    .email("reader" + i + "@example.com")
+                    .password("password")
+                    .role(User.Role.USER)
+                    .build());
+            entityManager.persistAndFlush(Rating.builder().value(3 + 2 * i).user(user).book(rated).build());
+            entityManager.persistAndFlush(Review.builder().content("Review").user(user).book(rated).build());
+        }
+        entityManager.clear();
+
+        List<Object[]> rows;
+        try (Stream<Object[]> catalog = bookRepository.streamCatalog()) {
+            rows = catalog.toList();
+        }
+
+        assertThat(rows).hasSize(2);
+        assertThat(((Book) rows.get(0)[0]).getId()).isEqualTo(rated.getId());
+        assertThat(((Book) rows.get(0)[0]).getAuthorEntity().getLastName()).isEqualTo("Author");
+        assertThat(((Number) rows.get(0)[1]).doubleValue()).isEqualTo(4.0);
+        assertThat(((Number) rows.get(0)[2]).longValue()).isEqualTo(2);
+        assertThat(((Number) rows.get(0)[3]).longValue()).isEqualTo(2);
+        assertThat(((Book) rows.get(1)[0]).getId()).isEqualTo(unrated.getId());
+        assertThat(rows.get(1)[1]).isNull();
+        assertThat(((Number) rows.get(1)[2]).longValue()).isZero();
+    }
 }
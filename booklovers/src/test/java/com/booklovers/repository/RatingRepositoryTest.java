@@ -9,12 +9,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -69,6 +71,33 @@ class RatingRepositoryTest {
                 .build();
     }
 
+    @Test
+    void testVersionIncrementsOnUpdate() {
+        Rating saved = entityManager.persistAndFlush(testRating);
+        assertThat(saved.getVersion()).isZero();
+
+        saved.setValue(3);
+        entityManager.persistAndFlush(saved);
+
+        assertThat(saved.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void testStaleUpdateIsRejected() {
+        Rating saved = entityManager.persistAndFlush(testRating);
+        entityManager.clear();
+
+        Rating first = ratingRepository.findById(saved.getId()).orElseThrow();
+        entityManager.detach(first);
+        Rating second = ratingRepository.findById(saved.getId()).orElseThrow();
+        second.setValue(2);
+        ratingRepository.saveAndFlush(second);
+
+        first.setValue(1);
+        assertThatThrownBy(() -> ratingRepository.saveAndFlush(first))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
     @Test
     void testSaveRating() {
         Rating savedRating = ratingRepository.save(testRating);
@@ -147,6 +176,25 @@ class RatingRepositoryTest {
         assertThat(average).isEqualTo(4.0);
     }
 
+    @Test
+    void testGetRatingSummariesByBookIds() {
+        User user2 = entityManager.persistAndFlush(User.builder()
+                .username("user2")
+                .email("user2@example.com")
+                .password("pass")
+                .role(User.Role.USER)
+                .build());
+        entityManager.persistAndFlush(testRating);
+        entityManager.persistAndFlush(Rating.builder().value(2).user(user2).book(testBook).build());
+        
+        List<Object[]> rows = ratingRepository.getRatingSummariesByBookIds(List.of(testBook.getId()));
+        
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[0]).isEqualTo(testBook.getId());
+        assertThat(((Number) rows.get(0)[1]).doubleValue()).isEqualTo((testRating.getValue() + 2) / 2.0);
+        assertThat(rows.get(0)[2]).isEqualTo(2L);
+    }
+
     @Test
     void testCountByBookId() {
         entityManager.persistAndFlush(testRating);
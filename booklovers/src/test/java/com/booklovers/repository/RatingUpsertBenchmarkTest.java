@@ -0,0 +1,201 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.Book;
+import com.booklovers.entity.Rating;
+import com.booklovers.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Porównanie przepustowości pod współbieżnością: dotychczasowa ścieżka JPA (odczyt + save)
+ * kontra jedno polecenie MERGE. Wyniki trafiają do logu; asercje sprawdzają tylko poprawność.
+ */
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RatingUpsertBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 50;
+    private static final int USERS = 4;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<User> users = new ArrayList<>();
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .username("bench" + i)
+                    .email("bench" + i + "@example.com")
+                    .password("password")
+                    .role(User.Role.USER)
+                    .build()));
+        }
+        book = bookRepository.save(Book.builder()
+                .title("Benchmark Book")
+                .author("Author")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ratingRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testMergeUpsert_CorrectUnderContention() throws InterruptedException {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        Result jpa = run("jpa", (user, value) -> template.executeWithoutResult(status -> {
+            Rating rating = ratingRepository.findByUserIdAndBookId(user.getId(), book.getId())
+                    .orElseGet(() -> Rating.builder().user(user).book(book).build());
+            rating.setValue(value);
+            ratingRepository.save(rating);
+        }));
+        ratingRepository.deleteAll();
+
+        // Dwa równoległe MERGE dla brakującego wiersza mogą obydwa trafić w INSERT - drugi ponawiamy, jak serwis
+        Result merge = run("merge", (user, value) -> {
+            try {
+                template.executeWithoutResult(status -> ratingRepository.upsertRating(user.getId(), book.getId(), value));
+            } catch (DataIntegrityViolationException e) {
+                template.executeWithoutResult(status -> ratingRepository.upsertRating(user.getId(), book.getId(), value));
+            }
+        });
+
+        log.info("Ścieżka JPA: {} ops/s, błędy={}; MERGE: {} ops/s, błędy={}",
+                jpa.opsPerSecond(), jpa.failures(), merge.opsPerSecond(), merge.failures());
+
+        List<Rating> ratings = ratingRepository.findByBookId(book.getId());
+        assertThat(ratings).hasSize(USERS);
+        assertThat(ratings).allSatisfy(rating -> assertThat(rating.getVersion()).isNotNull());
+        assertThat(merge.failures()).isZero();
+    }
+
+    @Test
+    void testMergeUpsert_MissingBookAffectsNoRows() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+
+        Integer affected = template.execute(status ->
+                ratingRepository.upsertRating(users.get(0).getId(), 999_999L, 4));
+
+        assertThat(affected).isZero();
+        assertThat(ratingRepository.count()).isZero();
+    }
+
+    @Test
+    void testMergeUpsert_UpdatesExistingRow() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Long userId = users.get(0).getId();
+
+        template.executeWithoutResult(status -> ratingRepository.upsertRating(userId, book.getId(), 2));
+        template.executeWithoutResult(status -> ratingRepository.upsertRating(userId, book.getId(), 5));
+
+        Rating rating = ratingRepository.findByUserIdAndBookId(userId, book.getId()).orElseThrow();
+        assertThat(rating.getValue()).isEqualTo(5);
+        assertThat(rating.getVersion()).isEqualTo(1L);
+        assertThat(ratingRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testBatchUpsert_SkipsMissingBooks() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        List<RatingUpsertRepository.RatingUpsert> batch = List.of(
+                new RatingUpsertRepository.RatingUpsert(users.get(0).getId(), book.getId(), 3, now),
+                new RatingUpsertRepository.RatingUpsert(users.get(1).getId(), book.getId(), 4, now),
+                new RatingUpsertRepository.RatingUpsert(users.get(1).getId(), 999_999L, 5, now));
+
+        template.executeWithoutResult(status -> ratingRepository.upsertRatings(batch));
+        template.executeWithoutResult(status -> ratingRepository.upsertRatings(batch.subList(0, 1)));
+
+        assertThat(ratingRepository.findByBookId(book.getId())).hasSize(2);
+        assertThat(ratingRepository.count()).isEqualTo(2);
+        assertThat(ratingRepository.findByUserIdAndBookId(users.get(0).getId(), book.getId()).orElseThrow().getVersion())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void testBatchUpsert_DoesNotOverwriteNewerRating() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        Long userId = users.get(0).getId();
+        LocalDateTime spooledAt = LocalDateTime.now().minusMinutes(5);
+
+        template.executeWithoutResult(status -> ratingRepository.upsertRating(userId, book.getId(), 5));
+        template.executeWithoutResult(status -> ratingRepository.upsertRatings(
+                List.of(new RatingUpsertRepository.RatingUpsert(userId, book.getId(), 2, spooledAt))));
+
+        assertThat(ratingRepository.findByUserIdAndBookId(userId, book.getId()).orElseThrow().getValue()).isEqualTo(5);
+    }
+
+    private Result run(String name, BiConsumer<User, Integer> operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    try {
+                        operation.accept(users.get((thread + i) % USERS), 1 + (i % 5));
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).as(name + " zakończony").isTrue();
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        return new Result(succeeded.get(), failures.get(), succeeded.get() * 1_000_000_000L / elapsedNanos);
+    }
+
+    private record Result(int succeeded, int failures, long opsPerSecond) {
+    }
+}
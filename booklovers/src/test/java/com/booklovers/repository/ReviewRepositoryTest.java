@@ -14,6 +14,7 @@ import org.springframework.test.context.ActiveProfiles;
 import java.util.List;
 import java.util.Optional;
 
+import static com.booklovers.api.config.SqlStatementAssertions.assertMaxStatements;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -97,6 +98,34 @@ class ReviewRepositoryTest {
         assertThat(reviews.get(0).getContent()).isEqualTo("Great book!");
     }
 
+    @Test
+    void testFindByBookId_FetchesUserAndBookInOneStatement() {
+        entityManager.persistAndFlush(testReview);
+        entityManager.clear();
+        
+        List<Review> reviews = assertMaxStatements(1, () -> {
+            List<Review> found = reviewRepository.findByBookId(testBook.getId());
+            found.forEach(review -> {
+                review.getUser().getUsername();
+                review.getBook().getTitle();
+            });
+            return found;
+        });
+        
+        assertThat(reviews).hasSize(1);
+    }
+
+    @Test
+    void testCountByBookIds() {
+        entityManager.persistAndFlush(testReview);
+        
+        List<Object[]> rows = reviewRepository.countByBookIds(List.of(testBook.getId()));
+        
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[0]).isEqualTo(testBook.getId());
+        assertThat(rows.get(0)[1]).isEqualTo(1L);
+    }
+
     @Test
     void testFindByUserId() {
         Review savedReview = entityManager.persistAndFlush(testReview);
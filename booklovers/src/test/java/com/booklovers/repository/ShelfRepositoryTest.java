@@ -0,0 +1,69 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.Shelf;
+import com.booklovers.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ShelfRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ShelfRepository shelfRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .username("testuser")
+                .email("test@example.com")
+                .password("password")
+                .role(User.Role.USER)
+                .build();
+        testUser = entityManager.persistAndFlush(testUser);
+    }
+
+    @Test
+    void testFindNamesByUserId() {
+        shelfRepository.save(Shelf.builder().user(testUser).name("Zimowe").build());
+        shelfRepository.save(Shelf.builder().user(testUser).name("Fantastyka").build());
+
+        List<String> names = shelfRepository.findNamesByUserId(testUser.getId());
+
+        assertThat(names).containsExactly("Fantastyka", "Zimowe");
+    }
+
+    @Test
+    void testDeleteByUserIdAndName() {
+        shelfRepository.save(Shelf.builder().user(testUser).name("Zimowe").build());
+        shelfRepository.save(Shelf.builder().user(testUser).name("Fantastyka").build());
+
+        int deleted = shelfRepository.deleteByUserIdAndName(testUser.getId(), "Zimowe");
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(shelfRepository.findNamesByUserId(testUser.getId())).containsExactly("Fantastyka");
+    }
+
+    @Test
+    void testDuplicateShelfNameIsRejected() {
+        shelfRepository.saveAndFlush(Shelf.builder().user(testUser).name("Zimowe").build());
+
+        assertThatThrownBy(() -> shelfRepository.saveAndFlush(Shelf.builder().user(testUser).name("Zimowe").build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.booklovers.repository;
+
+import com.booklovers.entity.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class StoredFileRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Test
+    void testIncrementAndDecrementRefCount() {
+        save("avatars/a.jpg", 0, LocalDateTime.now());
+
+        assertThat(storedFileRepository.incrementRefCount("avatars/a.jpg")).isEqualTo(1);
+        assertThat(storedFileRepository.incrementRefCount("avatars/a.jpg")).isEqualTo(1);
+        assertThat(storedFileRepository.decrementRefCount("avatars/a.jpg")).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(storedFileRepository.findById("avatars/a.jpg")).get()
+                .extracting(StoredFile::getRefCount).isEqualTo(1);
+    }
+
+    @Test
+    void testDecrementRefCountDoesNotGoBelowZero() {
+        save("avatars/a.jpg", 0, LocalDateTime.now());
+
+        assertThat(storedFileRepository.decrementRefCount("avatars/a.jpg")).isZero();
+        assertThat(storedFileRepository.incrementRefCount("avatars/missing.jpg")).isZero();
+    }
+
+    @Test
+    void testFindUnreferencedAndDeleteIfUnreferenced() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        save("avatars/old-orphan.jpg", 0, cutoff.minusMinutes(5));
+        save("avatars/old-used.jpg", 2, cutoff.minusMinutes(5));
+        save("avatars/fresh-orphan.jpg", 0, LocalDateTime.now());
+
+        assertThat(storedFileRepository.findUnreferenced(cutoff, PageRequest.of(0, 10)))
+                .containsExactly("avatars/old-orphan.jpg");
+
+        assertThat(storedFileRepository.deleteIfUnreferenced("avatars/old-used.jpg", cutoff)).isZero();
+        assertThat(storedFileRepository.deleteIfUnreferenced("avatars/fresh-orphan.jpg", cutoff)).isZero();
+        assertThat(storedFileRepository.deleteIfUnreferenced("avatars/old-orphan.jpg", cutoff)).isEqualTo(1);
+    }
+
+    @Test
+    void testTouchProtectsFromCollection() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        save("avatars/a.jpg", 0, cutoff.minusMinutes(5));
+
+        assertThat(storedFileRepository.touch("avatars/a.jpg", LocalDateTime.now())).isEqualTo(1);
+
+        assertThat(storedFileRepository.deleteIfUnreferenced("avatars/a.jpg", cutoff)).isZero();
+    }
+
+    private void save(String path, int refCount, LocalDateTime lastStoredAt) {
+        entityManager.persistAndFlush(StoredFile.builder()
+                .path(path)
+                .refCount(refCount)
+                .lastStoredAt(lastStoredAt)
+                .build());
+    }
+}
@@ -167,6 +167,71 @@ class UserBookRepositoryTest {
         assertThat(shelves).contains("Przeczytane", "Chcę przeczytać");
     }
 
+    @Test
+    void testFindShelfEntriesByUserId() {
+        entityManager.persistAndFlush(testUserBook);
+        entityManager.persistAndFlush(UserBook.builder()
+                .user(testUser)
+                .book(null)
+                .shelfName("Pusta półka")
+                .build());
+
+        List<Object[]> entries = userBookRepository.findShelfEntriesByUserId(testUser.getId());
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries).anySatisfy(entry -> {
+            assertThat(entry[0]).isEqualTo("Przeczytane");
+            assertThat(entry[1]).isEqualTo(testBook.getId());
+        });
+        assertThat(entries).anySatisfy(entry -> {
+            assertThat(entry[0]).isEqualTo("Pusta półka");
+            assertThat(entry[1]).isNull();
+        });
+    }
+
+    @Test
+    void testFindShelfEntriesByUserIdAndBookIds() {
+        entityManager.persistAndFlush(testUserBook);
+
+        List<Object[]> entries = userBookRepository.findShelfEntriesByUserIdAndBookIds(
+                testUser.getId(), List.of(testBook.getId(), 999_999L));
+
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0)).containsExactly("Przeczytane", testBook.getId());
+        assertThat(userBookRepository.findShelfEntriesByUserIdAndBookIds(testUser.getId(), List.of(999_999L))).isEmpty();
+    }
+
+    @Test
+    void testInsertBooks_SkipsMissingBooks() {
+        int inserted = userBookRepository.insertBooks(testUser.getId(), "Przeczytane", List.of(testBook.getId(), 999_999L));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(userBookRepository.findByUserIdAndBookIdAndShelfName(testUser.getId(), testBook.getId(), "Przeczytane"))
+                .isPresent();
+    }
+
+    @Test
+    void testMoveBooks() {
+        entityManager.persistAndFlush(testUserBook);
+
+        int moved = userBookRepository.moveBooks(testUser.getId(), "Przeczytane", "Teraz czytam", List.of(testBook.getId()));
+
+        assertThat(moved).isEqualTo(1);
+        UserBook reloaded = userBookRepository.findByUserIdAndBookIdAndShelfName(
+                testUser.getId(), testBook.getId(), "Teraz czytam").orElseThrow();
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void testDeleteBooksFromShelf() {
+        entityManager.persistAndFlush(testUserBook);
+
+        int deleted = userBookRepository.deleteBooksFromShelf(testUser.getId(), "Przeczytane", List.of(testBook.getId()));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(userBookRepository.findByUserId(testUser.getId())).isEmpty();
+    }
+
     @Test
     void testCountBooksReadInYear() {
         UserBook savedUserBook = entityManager.persistAndFlush(testUserBook);
@@ -4,6 +4,7 @@ import com.booklovers.dto.AuthorDto;
 import com.booklovers.entity.Author;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.AuthorRepository;
+import com.booklovers.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +20,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +32,9 @@ class AuthorServiceTest {
     @Mock
     private AuthorMapper authorMapper;
 
+    @Mock
+    private BookRepository bookRepository;
+
     @InjectMocks
     private AuthorServiceImp authorService;
 
@@ -151,6 +156,7 @@ class AuthorServiceTest {
         verify(authorRepository).findById(1L);
         verify(authorRepository).save(author);
         verify(authorMapper).toDto(author);
+        verify(bookRepository).touchByAuthorId(eq(1L), any());
     }
 
     @Test
@@ -0,0 +1,129 @@
+package com.booklovers.service.book;
+
+import com.booklovers.dto.BookDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookCursorTest {
+
+    private PlatformTransactionManager transactionManager;
+    private TransactionStatus transaction;
+    private final AtomicInteger clears = new AtomicInteger();
+    private final AtomicBoolean streamClosed = new AtomicBoolean();
+    private final AtomicInteger mapped = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        transaction = mock(TransactionStatus.class);
+        doAnswer(invocation -> {
+            when(transaction.isCompleted()).thenReturn(true);
+            return null;
+        }).when(transactionManager).commit(transaction);
+    }
+
+    @Test
+    void testIteratesAllRowsAndCommitsWhenExhausted() {
+        BookCursor cursor = cursor(250);
+
+        List<BookDto> books = new ArrayList<>();
+        while (cursor.hasNext()) {
+            books.add(cursor.next());
+        }
+
+        assertEquals(250, books.size());
+        assertEquals(1L, books.get(0).getId());
+        assertEquals(250L, books.get(249).getId());
+        assertEquals(2, clears.get());
+        assertTrue(streamClosed.get());
+        verify(transactionManager).commit(transaction);
+        assertThrows(NoSuchElementException.class, cursor::next);
+    }
+
+    @Test
+    void testRowsAreMappedLazily() {
+        BookCursor cursor = cursor(50);
+
+        assertEquals(0, mapped.get());
+        cursor.next();
+
+        assertEquals(1, mapped.get());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void testHasMoreThan_SmallCatalogFinishesTransaction() {
+        BookCursor cursor = cursor(3);
+
+        assertFalse(cursor.hasMoreThan(100));
+
+        verify(transactionManager).commit(transaction);
+        assertEquals(1L, cursor.next().getId());
+        assertEquals(2L, cursor.next().getId());
+        assertEquals(3L, cursor.next().getId());
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    void testHasMoreThan_LargeCatalogReadsAheadOnlyLimitPlusOne() {
+        BookCursor cursor = cursor(500);
+
+        assertTrue(cursor.hasMoreThan(100));
+
+        assertEquals(101, mapped.get());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(1L, cursor.next().getId());
+    }
+
+    @Test
+    void testCloseBeforeExhaustionCommitsOnce() {
+        BookCursor cursor = cursor(10);
+        cursor.next();
+
+        cursor.close();
+        cursor.close();
+
+        assertTrue(streamClosed.get());
+        verify(transactionManager, times(1)).commit(transaction);
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    void testMappingFailureRollsBack() {
+        BookCursor cursor = new BookCursor(rows(5), row -> {
+            throw new IllegalStateException("mapping");
+        }, clears::incrementAndGet, transactionManager, transaction);
+
+        assertThrows(IllegalStateException.class, cursor::hasNext);
+
+        assertTrue(streamClosed.get());
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private BookCursor cursor(int count) {
+        return new BookCursor(rows(count), row -> {
+            mapped.incrementAndGet();
+            return BookDto.builder().id((Long) row[0]).build();
+        }, clears::incrementAndGet, transactionManager, transaction);
+    }
+
+    private Stream<Object[]> rows(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new Object[]{id, null, 0L, 0L})
+                .onClose(() -> streamClosed.set(true));
+    }
+}
@@ -3,6 +3,7 @@ package com.booklovers.service.book;
 import com.booklovers.dto.BookDto;
 import com.booklovers.entity.Author;
 import com.booklovers.entity.Book;
+import com.booklovers.entity.Shelf;
 import com.booklovers.entity.User;
 import com.booklovers.entity.UserBook;
 import com.booklovers.exception.BadRequestException;
@@ -12,8 +13,13 @@ import com.booklovers.repository.AuthorRepository;
 import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.RatingRepository;
 import com.booklovers.repository.ReviewRepository;
+import com.booklovers.repository.ShelfRepository;
 import com.booklovers.repository.UserBookRepository;
 import com.booklovers.repository.UserRepository;
+import com.booklovers.service.cover.CoverFetchService;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.shelf.LibraryIndexService;
+import com.booklovers.service.shelf.UserLibrary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -60,6 +66,18 @@ class BookServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private ShelfRepository shelfRepository;
+
+    @Mock
+    private LibraryIndexService libraryIndexService;
+
+    @Mock
+    private CoverFetchService coverFetchService;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -107,13 +125,19 @@ class BookServiceTest {
         SecurityContextHolder.setContext(securityContext);
         lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         lenient().when(authentication.getName()).thenReturn("testuser");
+        lenient().when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of()));
+    }
+
+    // Wiersze w formacie (shelfName, bookId) jak z UserBookRepository.findShelfEntriesByUserId
+    private static UserLibrary library(List<String> shelves, Object[]... entries) {
+        return UserLibrary.of(shelves, Arrays.asList(entries));
     }
 
     @Test
     void testGetAllBooks() {
         when(bookRepository.findAll()).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.getAllBooks();
 
@@ -122,31 +146,32 @@ class BookServiceTest {
         assertEquals("Test Book", result.get(0).getTitle());
         assertEquals(4.5, result.get(0).getAverageRating());
         verify(bookRepository, times(1)).findAll();
-        verify(ratingRepository, times(1)).getAverageRatingByBookId(1L);
+        verify(ratingRepository, times(1)).getRatingSummariesByBookIds(List.of(1L));
     }
 
     @Test
     void testGetBookById_Success() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.findWithAuthorById(1L)).thenReturn(Optional.of(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         Optional<BookDto> result = bookService.getBookById(1L);
 
         assertTrue(result.isPresent());
         assertEquals("Test Book", result.get().getTitle());
+        assertEquals(2, result.get().getRatingsCount());
         assertEquals(4.5, result.get().getAverageRating());
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findWithAuthorById(1L);
     }
 
     @Test
     void testGetBookById_NotFound() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.findWithAuthorById(1L)).thenReturn(Optional.empty());
 
         Optional<BookDto> result = bookService.getBookById(1L);
 
         assertTrue(result.isEmpty());
-        verify(bookRepository, times(1)).findById(1L);
+        verify(bookRepository, times(1)).findWithAuthorById(1L);
     }
 
     @Test
@@ -240,7 +265,7 @@ class BookServiceTest {
         when(authorRepository.findById(1L)).thenReturn(Optional.of(author));
         when(bookRepository.save(any(Book.class))).thenReturn(updatedBook);
         when(bookMapper.toDto(updatedBook)).thenReturn(outputDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.0);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.0, 2L}));
 
         BookDto result = bookService.updateBook(1L, updateDto);
 
@@ -266,6 +291,23 @@ class BookServiceTest {
         verify(bookRepository, never()).save(any(Book.class));
     }
 
+    @Test
+    void testUpdateBook_StaleVersion() {
+        book.setVersion(2L);
+        BookDto updateDto = BookDto.builder()
+                .title("Updated Book")
+                .version(1L)
+                .build();
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        assertThrows(ConflictException.class, () -> {
+            bookService.updateBook(1L, updateDto);
+        });
+
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
     @Test
     void testDeleteBook() {
         bookService.deleteBook(1L);
@@ -273,12 +315,82 @@ class BookServiceTest {
         verify(bookRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void testDeleteBook_ReleasesCover() {
+        book.setCoverImagePath("covers/cover.jpg");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+        bookService.deleteBook(1L);
+
+        verify(fileStorageService).release("covers/cover.jpg");
+        verify(bookRepository).deleteById(1L);
+    }
+
+    @Test
+    void testCreateBook_SchedulesCoverFetch() {
+        BookDto inputDto = BookDto.builder().title("New Book").coverImageUrl("https://covers.example.com/1.jpg").build();
+        Book newBook = Book.builder().title("New Book").coverImageUrl("https://covers.example.com/1.jpg").build();
+        Book savedBook = Book.builder().id(2L).title("New Book").coverImageUrl("https://covers.example.com/1.jpg").build();
+        when(bookMapper.toEntity(inputDto)).thenReturn(newBook);
+        when(bookRepository.save(newBook)).thenReturn(savedBook);
+
+        bookService.createBook(inputDto);
+
+        verify(coverFetchService).scheduleFetch(2L, "https://covers.example.com/1.jpg");
+    }
+
+    @Test
+    void testUpdateBook_NewCoverUrlSchedulesFetchAndKeepsCurrentCover() {
+        book.setCoverImageUrl("https://covers.example.com/old.jpg");
+        book.setCoverImagePath("covers/old.jpg");
+        BookDto updateDto = BookDto.builder().coverImageUrl("https://covers.example.com/new.jpg").build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        bookService.updateBook(1L, updateDto);
+
+        assertEquals("covers/old.jpg", book.getCoverImagePath());
+        verify(coverFetchService).scheduleFetch(1L, "https://covers.example.com/new.jpg");
+        verify(fileStorageService, never()).release(any());
+    }
+
+    @Test
+    void testUpdateBook_UnchangedCoverUrlDoesNotRefetch() {
+        book.setCoverImageUrl("https://covers.example.com/1.jpg");
+        book.setCoverImagePath("covers/1.jpg");
+        BookDto updateDto = BookDto.builder().title("Renamed").coverImageUrl("https://covers.example.com/1.jpg").build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        bookService.updateBook(1L, updateDto);
+
+        verifyNoInteractions(coverFetchService);
+    }
+
+    @Test
+    void testUpdateBook_ClearedCoverUrlReleasesCover() {
+        book.setCoverImageUrl("https://covers.example.com/1.jpg");
+        book.setCoverImagePath("covers/1.jpg");
+        BookDto updateDto = BookDto.builder().coverImageUrl("").build();
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+        when(bookMapper.toDto(book)).thenReturn(bookDto);
+
+        bookService.updateBook(1L, updateDto);
+
+        assertNull(book.getCoverImagePath());
+        verify(fileStorageService).release("covers/1.jpg");
+        verifyNoInteractions(coverFetchService);
+    }
+
     @Test
     void testSearchBooks() {
         String query = "Test";
         when(bookRepository.searchBooks("%" + query + "%")).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.searchBooks(query);
 
@@ -292,10 +404,6 @@ class BookServiceTest {
         String shelfName = "Przeczytane";
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndShelfName(1L, shelfName))
-                .thenReturn(Arrays.asList());
 
         UserBook userBook = UserBook.builder()
                 .id(1L)
@@ -313,6 +421,8 @@ class BookServiceTest {
         verify(userRepository, times(1)).findByUsername("testuser");
         verify(bookRepository, times(1)).findById(1L);
         verify(userBookRepository, times(1)).save(any(UserBook.class));
+        verify(userBookRepository, never()).findByUserIdAndShelfName(anyLong(), any());
+        verify(libraryIndexService).evict(1L);
     }
 
     @Test
@@ -320,8 +430,7 @@ class BookServiceTest {
         String shelfName = "Przeczytane";
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.of(UserBook.builder().build()));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{shelfName, 1L}));
 
         assertThrows(ConflictException.class, () -> {
             bookService.addBookToUserLibrary(1L, shelfName);
@@ -334,21 +443,15 @@ class BookServiceTest {
     void testCreateShelf_Success() {
         String shelfName = "Moja półka";
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L))
-                .thenReturn(Arrays.asList("Przeczytane"));
-
-        UserBook emptyShelf = UserBook.builder()
-                .user(user)
-                .book(null)
-                .shelfName(shelfName)
-                .build();
-
-        when(userBookRepository.save(any(UserBook.class))).thenReturn(emptyShelf);
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{"Przeczytane", 1L}));
+        when(shelfRepository.save(any(Shelf.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         bookService.createShelf(1L, shelfName);
 
         verify(userRepository, times(1)).findById(1L);
-        verify(userBookRepository, times(1)).save(any(UserBook.class));
+        verify(shelfRepository, times(1)).save(argThat(shelf -> shelfName.equals(shelf.getName()) && shelf.getUser() == user));
+        verify(userBookRepository, never()).save(any(UserBook.class));
+        verify(libraryIndexService).evict(1L);
     }
 
     @Test
@@ -361,20 +464,20 @@ class BookServiceTest {
         });
 
         verify(userBookRepository, never()).save(any(UserBook.class));
+        verify(shelfRepository, never()).save(any(Shelf.class));
     }
 
     @Test
     void testCreateShelf_AlreadyExists() {
         String shelfName = "Moja półka";
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L))
-                .thenReturn(Arrays.asList("Przeczytane", shelfName));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(shelfName)));
 
         assertThrows(ConflictException.class, () -> {
             bookService.createShelf(1L, shelfName);
         });
 
-        verify(userBookRepository, never()).save(any(UserBook.class));
+        verify(shelfRepository, never()).save(any(Shelf.class));
     }
 
     @Test
@@ -392,6 +495,8 @@ class BookServiceTest {
         verify(userBookRepository).findByUserIdAndShelfName(1L, shelfName);
         verify(userBookRepository).deleteAll(any());
         verify(userBookRepository).flush();
+        verify(shelfRepository).deleteByUserIdAndName(1L, shelfName);
+        verify(libraryIndexService).evict(1L);
     }
 
     @Test
@@ -407,44 +512,51 @@ class BookServiceTest {
 
     @Test
     void testGetUserBooks_Success() {
-        UserBook userBook = UserBook.builder()
-                .id(1L)
-                .user(user)
-                .book(book)
-                .shelfName("Przeczytane")
-                .build();
-
-        when(userBookRepository.findByUserId(1L)).thenReturn(Arrays.asList(userBook));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(),
+                new Object[]{"Przeczytane", 1L}, new Object[]{"Moja półka", 1L}));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.getUserBooks(1L);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userBookRepository).findByUserId(1L);
+        verify(bookRepository).findAllById(List.of(1L));
+        verify(userBookRepository, never()).findByUserId(anyLong());
+    }
+
+    @Test
+    void testGetUserBooks_EmptyLibrary() {
+        List<BookDto> result = bookService.getUserBooks(1L);
+
+        assertTrue(result.isEmpty());
+        verify(bookRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testCountUserBooks() {
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(),
+                new Object[]{"Przeczytane", 1L}, new Object[]{"Moja półka", 1L}, new Object[]{"Moja półka", 2L}));
+
+        assertEquals(2, bookService.countUserBooks(1L));
     }
 
     @Test
     void testGetUserBooksByShelf_Success() {
         String shelfName = "Przeczytane";
-        UserBook userBook = UserBook.builder()
-                .id(1L)
-                .user(user)
-                .book(book)
-                .shelfName(shelfName)
-                .build();
-
-        when(userBookRepository.findByUserIdAndShelfName(1L, shelfName))
-                .thenReturn(Arrays.asList(userBook));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(),
+                new Object[]{shelfName, 1L}, new Object[]{"Chcę przeczytać", 2L}));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.getUserBooksByShelf(1L, shelfName);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userBookRepository).findByUserIdAndShelfName(1L, shelfName);
+        verify(bookRepository).findAllById(List.of(1L));
+        verify(userBookRepository, never()).findByUserIdAndShelfName(anyLong(), any());
     }
 
     @Test
@@ -461,37 +573,33 @@ class BookServiceTest {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, oldShelf))
                 .thenReturn(Optional.of(userBook));
-        when(userBookRepository.findByUserIdAndShelfName(1L, newShelf))
-                .thenReturn(Collections.emptyList());
         when(userBookRepository.save(any(UserBook.class))).thenReturn(userBook);
 
         bookService.moveBookToShelf(1L, oldShelf, newShelf);
 
         verify(userBookRepository).findByUserIdAndBookIdAndShelfName(1L, 1L, oldShelf);
         verify(userBookRepository).save(any(UserBook.class));
+        verify(libraryIndexService).evict(1L);
     }
 
     @Test
     void testGetUserShelves_Success() {
-        java.util.ArrayList<String> shelves = new java.util.ArrayList<>();
-        shelves.add("Przeczytane");
-        shelves.add("Chcę przeczytać");
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L))
-                .thenReturn(shelves);
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of("Moja półka"),
+                new Object[]{"Przeczytane", 1L}, new Object[]{"Chcę przeczytać", 2L}));
 
         List<String> result = bookService.getUserShelves(1L);
 
         assertNotNull(result);
+        assertEquals(4, result.size());
         assertTrue(result.contains("Przeczytane"));
         assertTrue(result.contains("Chcę przeczytać"));
-        verify(userBookRepository).findDistinctShelfNamesByUserId(1L);
+        assertTrue(result.contains("Teraz czytam"));
+        assertTrue(result.contains("Moja półka"));
+        verify(userBookRepository, never()).findDistinctShelfNamesByUserId(anyLong());
     }
 
     @Test
     void testGetUserShelves_Empty() {
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L))
-                .thenReturn(Collections.emptyList());
-
         List<String> result = bookService.getUserShelves(1L);
 
         assertNotNull(result);
@@ -539,7 +647,7 @@ class BookServiceTest {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
         when(bookRepository.save(any(Book.class))).thenReturn(updatedBook);
         when(bookMapper.toDto(updatedBook)).thenReturn(outputDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.0);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.0, 2L}));
 
         BookDto result = bookService.updateBook(1L, updateDto);
 
@@ -602,7 +710,7 @@ class BookServiceTest {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(existingBook));
         when(bookRepository.save(any(Book.class))).thenReturn(updatedBook);
         when(bookMapper.toDto(updatedBook)).thenReturn(outputDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         BookDto result = bookService.updateBook(1L, updateDto);
 
@@ -619,7 +727,7 @@ class BookServiceTest {
         
         verify(bookRepository).findById(1L);
         verify(bookRepository).save(any(Book.class));
-        verify(ratingRepository).getAverageRatingByBookId(1L);
+        verify(ratingRepository).getRatingSummariesByBookIds(List.of(1L));
     }
 
     @Test
@@ -642,6 +750,7 @@ class BookServiceTest {
         verify(userRepository).findByUsername("testuser");
         verify(userBookRepository).findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName);
         verify(userBookRepository).delete(userBook);
+        verify(libraryIndexService).evict(1L);
     }
 
     @Test
@@ -706,7 +815,7 @@ class BookServiceTest {
     void testSearchBooks_EmptyQuery() {
         when(bookRepository.findAll()).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.searchBooks("");
 
@@ -718,7 +827,7 @@ class BookServiceTest {
     void testSearchBooks_NullQuery() {
         when(bookRepository.findAll()).thenReturn(Arrays.asList(book));
         when(bookMapper.toDto(book)).thenReturn(bookDto);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
+        when(ratingRepository.getRatingSummariesByBookIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4.5, 2L}));
 
         List<BookDto> result = bookService.searchBooks(null);
 
@@ -738,12 +847,6 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndBookId(1L, 1L))
-                .thenReturn(Collections.emptyList());
-        when(userBookRepository.findByUserIdAndShelfName(1L, shelfName))
-                .thenReturn(Collections.emptyList());
         when(userBookRepository.save(any(UserBook.class))).thenReturn(savedUserBook);
 
         com.booklovers.dto.UserBookDto result = bookService.addBookToUserLibrary(1L, shelfName);
@@ -772,16 +875,12 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookId(1L, 1L))
-                .thenReturn(Arrays.asList(existingUserBook));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{fromShelf, 1L}));
         when(userBookRepository.findByUserIdAndBookIdAndShelfName(eq(1L), eq(1L), eq(toShelf)))
-                .thenReturn(Optional.empty())
                 .thenReturn(Optional.empty())
                 .thenReturn(Optional.of(movedUserBook));
         when(userBookRepository.findByUserIdAndBookIdAndShelfName(eq(1L), eq(1L), eq(fromShelf)))
                 .thenReturn(Optional.of(existingUserBook));
-        when(userBookRepository.findByUserIdAndShelfName(eq(1L), eq(toShelf)))
-                .thenReturn(Collections.emptyList());
         lenient().when(userBookRepository.findByUserIdAndShelfName(eq(1L), eq(fromShelf)))
                 .thenReturn(Collections.emptyList());
         when(userBookRepository.save(any(UserBook.class))).thenAnswer(invocation -> {
@@ -810,10 +909,7 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, customShelf))
-                .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndShelfName(1L, customShelf))
-                .thenReturn(Collections.emptyList());
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{defaultShelf, 1L}));
         when(userBookRepository.save(any(UserBook.class))).thenReturn(newUserBook);
 
         com.booklovers.dto.UserBookDto result = bookService.addBookToUserLibrary(1L, customShelf);
@@ -835,8 +931,7 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.of(existingUserBook));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{shelfName, 1L}));
 
         assertThrows(ConflictException.class, () -> {
             bookService.addBookToUserLibrary(1L, shelfName);
@@ -857,8 +952,7 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.of(existingUserBook));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(), new Object[]{shelfName, 1L}));
 
         assertThrows(ConflictException.class, () -> {
             bookService.addBookToUserLibrary(1L, shelfName);
@@ -880,10 +974,8 @@ class BookServiceTest {
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.empty()); // Nie znaleziono w bezpośrednim sprawdzeniu
-        when(userBookRepository.findByUserIdAndBookId(1L, 1L))
-                .thenReturn(Arrays.asList(existingUserBook)); // Ale jest w default shelves
+        when(libraryIndexService.getLibrary(1L)).thenReturn(library(List.of(),
+                new Object[]{existingUserBook.getShelfName(), existingUserBook.getBook().getId()}));
 
         assertThrows(ConflictException.class, () -> {
             bookService.addBookToUserLibrary(1L, shelfName);
@@ -892,41 +984,6 @@ class BookServiceTest {
         verify(userBookRepository, never()).save(any(UserBook.class));
     }
 
-    @Test
-    void testAddBookToUserLibrary_DeleteEmptyShelves() {
-        // Test dla linii 295 - usuwanie pustych półek
-        String shelfName = "Przeczytane";
-        UserBook emptyShelf = UserBook.builder()
-                .id(2L)
-                .user(user)
-                .book(null) // Pusta półka
-                .shelfName(shelfName)
-                .build();
-        UserBook savedUserBook = UserBook.builder()
-                .id(1L)
-                .user(user)
-                .book(book)
-                .shelfName(shelfName)
-                .build();
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, shelfName))
-                .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndBookId(1L, 1L))
-                .thenReturn(Collections.emptyList());
-        when(userBookRepository.findByUserIdAndShelfName(1L, shelfName))
-                .thenReturn(Arrays.asList(emptyShelf)); // Pusta półka istnieje
-        doNothing().when(userBookRepository).deleteAll(any());
-        when(userBookRepository.save(any(UserBook.class))).thenReturn(savedUserBook);
-
-        com.booklovers.dto.UserBookDto result = bookService.addBookToUserLibrary(1L, shelfName);
-
-        assertNotNull(result);
-        verify(userBookRepository).deleteAll(any()); // Sprawdzamy, że puste półki zostały usunięte
-        verify(userBookRepository).save(any(UserBook.class));
-    }
-
     @Test
     void testMoveBookToShelf_FromShelfIsNull() {
         // Test dla linii 336 - fromShelf jest null
@@ -943,8 +1000,6 @@ class BookServiceTest {
                 .thenReturn(Optional.of(userBook));
         when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, toShelf))
                 .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndShelfName(1L, toShelf))
-                .thenReturn(Collections.emptyList());
         when(userBookRepository.save(any(UserBook.class))).thenReturn(userBook);
 
         bookService.moveBookToShelf(1L, null, toShelf);
@@ -969,8 +1024,6 @@ class BookServiceTest {
                 .thenReturn(Optional.of(userBook));
         when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, "Moja biblioteczka"))
                 .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndShelfName(1L, "Moja biblioteczka"))
-                .thenReturn(Collections.emptyList());
         when(userBookRepository.save(any(UserBook.class))).thenReturn(userBook);
 
         bookService.moveBookToShelf(1L, fromShelf, null);
@@ -979,40 +1032,4 @@ class BookServiceTest {
         verify(userBookRepository).findByUserIdAndBookIdAndShelfName(1L, 1L, "Moja biblioteczka");
         verify(userBookRepository).save(any(UserBook.class));
     }
-
-    @Test
-    void testMoveBookToShelf_DeleteEmptyShelves() {
-        // Test dla linii 358-359 - usuwanie pustych półek i flush
-        String fromShelf = "Przeczytane";
-        String toShelf = "Chcę przeczytać";
-        UserBook userBook = UserBook.builder()
-                .id(1L)
-                .user(user)
-                .book(book)
-                .shelfName(fromShelf)
-                .build();
-        UserBook emptyShelf = UserBook.builder()
-                .id(2L)
-                .user(user)
-                .book(null) // Pusta półka
-                .shelfName(toShelf)
-                .build();
-
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, fromShelf))
-                .thenReturn(Optional.of(userBook));
-        when(userBookRepository.findByUserIdAndBookIdAndShelfName(1L, 1L, toShelf))
-                .thenReturn(Optional.empty());
-        when(userBookRepository.findByUserIdAndShelfName(1L, toShelf))
-                .thenReturn(Arrays.asList(emptyShelf)); // Pusta półka istnieje
-        doNothing().when(userBookRepository).deleteAll(any());
-        doNothing().when(userBookRepository).flush();
-        when(userBookRepository.save(any(UserBook.class))).thenReturn(userBook);
-
-        bookService.moveBookToShelf(1L, fromShelf, toShelf);
-
-        verify(userBookRepository).deleteAll(any()); // Linia 358
-        verify(userBookRepository).flush(); // Linia 359
-        verify(userBookRepository).save(any(UserBook.class));
-    }
 }
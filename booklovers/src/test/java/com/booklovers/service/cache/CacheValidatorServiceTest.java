@@ -0,0 +1,133 @@
+package com.booklovers.service.cache;
+
+import com.booklovers.dto.CacheValidatorDto;
+import com.booklovers.entity.Author;
+import com.booklovers.entity.Book;
+import com.booklovers.entity.Rating;
+import com.booklovers.entity.Review;
+import com.booklovers.entity.User;
+import com.booklovers.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CacheValidatorServiceImp.class)
+class CacheValidatorServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CacheValidatorService cacheValidatorService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persistAndFlush(User.builder()
+                .username("testuser")
+                .email("test@example.com")
+                .password("password")
+                .role(User.Role.USER)
+                .build());
+        book = entityManager.persistAndFlush(Book.builder()
+                .title("Test Book")
+                .author("Test Author")
+                .build());
+    }
+
+    @Test
+    void testBooksValidator_IsStableWithoutChanges() {
+        CacheValidatorDto first = cacheValidatorService.getBooksValidator();
+        CacheValidatorDto second = cacheValidatorService.getBooksValidator();
+
+        assertThat(first.getEtag()).startsWith("W/\"").isEqualTo(second.getEtag());
+        assertThat(first.getLastModified()).isNotNull();
+    }
+
+    @Test
+    void testBooksValidator_ChangesAfterNewRating() {
+        CacheValidatorDto before = cacheValidatorService.getBooksValidator();
+
+        entityManager.persistAndFlush(Rating.builder().value(4).user(user).book(book).build());
+
+        assertThat(cacheValidatorService.getBooksValidator().getEtag()).isNotEqualTo(before.getEtag());
+    }
+
+    @Test
+    void testBookValidator_ChangesAfterBookUpdate() {
+        CacheValidatorDto before = cacheValidatorService.getBookValidator(book.getId());
+
+        book.setTitle("Updated Title");
+        entityManager.persistAndFlush(book);
+
+        CacheValidatorDto after = cacheValidatorService.getBookValidator(book.getId());
+        assertThat(after.getEtag()).isNotEqualTo(before.getEtag());
+        assertThat(after.getLastModified()).isAfter(before.getLastModified());
+    }
+
+    @Test
+    void testBookValidators_ChangeAfterAuthorUpdate() {
+        Author author = entityManager.persistAndFlush(Author.builder().firstName("Stanisław").lastName("Lem").build());
+        Book authored = entityManager.persistAndFlush(Book.builder()
+                .title("Solaris")
+                .author("Stanisław Lem")
+                .authorEntity(author)
+                .build());
+        CacheValidatorDto booksBefore = cacheValidatorService.getBooksValidator();
+        CacheValidatorDto bookBefore = cacheValidatorService.getBookValidator(authored.getId());
+        CacheValidatorDto otherBefore = cacheValidatorService.getBookValidator(book.getId());
+
+        // Jak AuthorServiceImp.updateAuthor - imię autora jest częścią BookDto
+        bookRepository.touchByAuthorId(author.getId(), LocalDateTime.now().plusSeconds(1));
+
+        assertThat(cacheValidatorService.getBooksValidator().getEtag()).isNotEqualTo(booksBefore.getEtag());
+        assertThat(cacheValidatorService.getBookValidator(authored.getId()).getEtag()).isNotEqualTo(bookBefore.getEtag());
+        // Książki innych autorów zachowują ETag
+        assertThat(cacheValidatorService.getBookValidator(book.getId()).getEtag()).isEqualTo(otherBefore.getEtag());
+    }
+
+    @Test
+    void testBookValidator_ReturnsNullForMissingBook() {
+        assertThat(cacheValidatorService.getBookValidator(999L)).isNull();
+        assertThat(cacheValidatorService.getBookStatsValidator(999L)).isNull();
+        assertThat(cacheValidatorService.getUserStatsValidator(999L)).isNull();
+    }
+
+    @Test
+    void testBookReviewsValidator_ChangesAfterNewReview() {
+        CacheValidatorDto before = cacheValidatorService.getBookReviewsValidator(book.getId());
+
+        entityManager.persistAndFlush(Review.builder().content("Great").user(user).book(book).build());
+
+        assertThat(cacheValidatorService.getBookReviewsValidator(book.getId()).getEtag())
+                .isNotEqualTo(before.getEtag());
+    }
+
+    @Test
+    void testStatsValidators_ChangeAfterRating() {
+        CacheValidatorDto global = cacheValidatorService.getGlobalStatsValidator();
+        CacheValidatorDto userStats = cacheValidatorService.getUserStatsValidator(user.getId());
+        CacheValidatorDto bookStats = cacheValidatorService.getBookStatsValidator(book.getId());
+
+        entityManager.persistAndFlush(Rating.builder().value(5).user(user).book(book).build());
+
+        assertThat(cacheValidatorService.getGlobalStatsValidator().getEtag()).isNotEqualTo(global.getEtag());
+        assertThat(cacheValidatorService.getUserStatsValidator(user.getId()).getEtag()).isNotEqualTo(userStats.getEtag());
+        assertThat(cacheValidatorService.getBookStatsValidator(book.getId()).getEtag()).isNotEqualTo(bookStats.getEtag());
+    }
+}
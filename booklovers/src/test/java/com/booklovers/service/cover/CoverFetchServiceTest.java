@@ -0,0 +1,329 @@
+package com.booklovers.service.cover;
+
+import com.booklovers.api.config.CoverFetchProperties;
+import com.booklovers.entity.Book;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pobieranie okładek przeciw lokalnemu serwerowi HTTP (com.sun.net.httpserver) w roli zewnętrznego hosta okładek.
+ */
+class CoverFetchServiceTest {
+
+    private static final byte[] COVER = "cover-image-bytes".getBytes(StandardCharsets.UTF_8);
+    private static final String STORED_PATH = "covers/" + "a".repeat(64) + ".jpg";
+    private static final long WAIT_MILLIS = 5000;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final List<byte[]> processed = new CopyOnWriteArrayList<>();
+
+    private BookRepository bookRepository;
+    private ImageProcessingService imageProcessingService;
+    private FileStorageService fileStorageService;
+    private CoverFetchProperties properties;
+    private CoverFetchServiceImp coverFetchService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+
+        bookRepository = mock(BookRepository.class);
+        imageProcessingService = mock(ImageProcessingService.class);
+        fileStorageService = mock(FileStorageService.class);
+        when(imageProcessingService.storeLocalImage(any(Path.class), eq("covers"))).thenAnswer(invocation -> {
+            processed.add(Files.readAllBytes(invocation.getArgument(0)));
+            return STORED_PATH;
+        });
+        when(bookRepository.updateCoverImagePath(anyLong(), anyString(), anyString(), any())).thenReturn(1);
+
+        properties = new CoverFetchProperties();
+        properties.setAllowPrivateAddresses(true);
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(10));
+        properties.setMaxBackoff(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (coverFetchService != null) {
+            coverFetchService.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void testScheduleFetch_StoresCoverAndReplacesPrevious() {
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/cover.jpg");
+        givenBook(url, "covers/old.jpg");
+
+        start().scheduleFetch(1L, url);
+
+        verify(fileStorageService, timeout(WAIT_MILLIS)).release("covers/old.jpg");
+        verify(bookRepository).updateCoverImagePath(eq(1L), eq(url), eq(STORED_PATH), any());
+        verify(fileStorageService).retain(STORED_PATH);
+        assertArrayEquals(COVER, processed.get(0));
+    }
+
+    @Test
+    void testScheduleFetch_RetriesServerErrorsWithBackoff() {
+        AtomicInteger attempts = new AtomicInteger();
+        serve("/flaky.jpg", exchange -> {
+            if (attempts.incrementAndGet() < 3) {
+                respond(exchange, 503, new byte[0]);
+            } else {
+                respond(exchange, 200, COVER);
+            }
+        });
+        String url = url("/flaky.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(fileStorageService, timeout(WAIT_MILLIS)).retain(STORED_PATH);
+        assertEquals(3, requests("/flaky.jpg"));
+    }
+
+    @Test
+    void testScheduleFetch_GivesUpAfterMaxAttempts() {
+        serve("/down.jpg", exchange -> respond(exchange, 500, new byte[0]));
+        String url = url("/down.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(imageProcessingService, after(500).never()).storeLocalImage(any(Path.class), anyString());
+        assertEquals(3, requests("/down.jpg"));
+    }
+
+    @Test
+    void testScheduleFetch_ClientErrorIsNotRetried() {
+        serve("/missing.jpg", exchange -> respond(exchange, 404, new byte[0]));
+        String url = url("/missing.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(imageProcessingService, after(300).never()).storeLocalImage(any(Path.class), anyString());
+        assertEquals(1, requests("/missing.jpg"));
+    }
+
+    @Test
+    void testScheduleFetch_RejectsResponseOverMaxSize() {
+        properties.setMaxSize(DataSize.ofBytes(8));
+        serve("/huge.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/huge.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(imageProcessingService, after(300).never()).storeLocalImage(any(Path.class), anyString());
+        assertEquals(1, requests("/huge.jpg"));
+    }
+
+    @Test
+    void testScheduleFetch_FollowsRedirect() {
+        serve("/moved.jpg", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/cover.jpg");
+            respond(exchange, 302, new byte[0]);
+        });
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/moved.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(fileStorageService, timeout(WAIT_MILLIS)).retain(STORED_PATH);
+        assertEquals(1, requests("/cover.jpg"));
+    }
+
+    @Test
+    void testScheduleFetch_RejectsPrivateAddressesByDefault() {
+        properties.setAllowPrivateAddresses(false);
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/cover.jpg");
+        givenBook(url, null);
+
+        start().scheduleFetch(1L, url);
+
+        verify(imageProcessingService, after(300).never()).storeLocalImage(any(Path.class), anyString());
+        assertEquals(0, requests("/cover.jpg"));
+    }
+
+    @Test
+    void testIsPublicAddress_RejectsInternalRanges() throws Exception {
+        for (String address : List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "100.64.0.1", "100.127.255.254", "0.0.0.0", "192.0.0.170", "198.18.0.1", "240.0.0.1", "255.255.255.255",
+                "::1", "::", "fc00::1", "fd00:ec2::254", "fe80::1", "::ffff:10.0.0.1", "::127.0.0.1",
+                "64:ff9b::a9fe:a9fe", "2002:a00:1::1")) {
+            assertFalse(CoverFetchServiceImp.isPublicAddress(InetAddress.getByName(address)), address);
+        }
+        for (String address : List.of("8.8.8.8", "100.63.255.255", "100.128.0.1", "198.20.0.1",
+                "2001:4860:4860::8888", "64:ff9b::808:808", "2002:808:808::1")) {
+            assertTrue(CoverFetchServiceImp.isPublicAddress(InetAddress.getByName(address)), address);
+        }
+    }
+
+    @Test
+    void testScheduleFetch_IgnoresUnsupportedScheme() {
+        start().scheduleFetch(1L, "file:///etc/passwd");
+
+        verify(imageProcessingService, after(200).never()).storeLocalImage(any(Path.class), anyString());
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void testScheduleFetch_CoverUrlChangedDuringDownload() {
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        givenBook(url("/other.jpg"), "covers/old.jpg");
+
+        start().scheduleFetch(1L, url("/cover.jpg"));
+
+        verify(bookRepository, timeout(WAIT_MILLIS)).findById(1L);
+        verify(bookRepository, after(200).never()).updateCoverImagePath(anyLong(), anyString(), anyString(), any());
+        verify(fileStorageService, never()).retain(anyString());
+        verify(fileStorageService, never()).release(anyString());
+    }
+
+    @Test
+    void testScheduleFetch_WaitsForTransactionCommit() {
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/cover.jpg");
+        givenBook(url, null);
+        CoverFetchServiceImp service = start();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.scheduleFetch(1L, url);
+            verify(imageProcessingService, after(200).never()).storeLocalImage(any(Path.class), anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(fileStorageService, timeout(WAIT_MILLIS)).retain(STORED_PATH);
+    }
+
+    @Test
+    void testScheduleFetch_DisabledDoesNothing() {
+        properties.setEnabled(false);
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+
+        start().scheduleFetch(1L, url("/cover.jpg"));
+
+        verify(imageProcessingService, after(200).never()).storeLocalImage(any(Path.class), anyString());
+        assertEquals(0, requests("/cover.jpg"));
+    }
+
+    @Test
+    void testBackfillMissingCovers_SchedulesBooksWithoutStoredCover() {
+        serve("/cover.jpg", exchange -> respond(exchange, 200, COVER));
+        String url = url("/cover.jpg");
+        givenBook(url, null);
+        when(bookRepository.findMissingCoverImages(eq(0L), any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, url}, new Object[]{2L, " "}));
+
+        int scheduled = start().backfillMissingCovers();
+
+        assertEquals(1, scheduled);
+        verify(fileStorageService, timeout(WAIT_MILLIS)).retain(STORED_PATH);
+        verify(bookRepository).updateCoverImagePath(eq(1L), eq(url), eq(STORED_PATH), any());
+    }
+
+    @Test
+    void testBackfillMissingCovers_PagesByLastId() {
+        List<Object[]> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            firstPage.add(new Object[]{id, "file:///ignored/" + id});
+        }
+        when(bookRepository.findMissingCoverImages(eq(0L), any())).thenReturn(firstPage);
+        when(bookRepository.findMissingCoverImages(eq(100L), any())).thenReturn(List.of());
+
+        start().backfillMissingCovers();
+
+        verify(bookRepository).findMissingCoverImages(eq(100L), any());
+    }
+
+    @Test
+    void testBackfillMissingCovers_DisabledDoesNothing() {
+        properties.setEnabled(false);
+
+        assertEquals(0, start().backfillMissingCovers());
+        verifyNoInteractions(bookRepository);
+    }
+
+    private CoverFetchServiceImp start() {
+        coverFetchService = new CoverFetchServiceImp(bookRepository, imageProcessingService, fileStorageService,
+                mock(PlatformTransactionManager.class), properties);
+        coverFetchService.start();
+        return coverFetchService;
+    }
+
+    private void givenBook(String coverImageUrl, String coverImagePath) {
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(Book.builder()
+                .id(1L)
+                .title("Hobbit")
+                .author("J.R.R. Tolkien")
+                .coverImageUrl(coverImageUrl)
+                .coverImagePath(coverImagePath)
+                .build()));
+    }
+
+    private void serve(String path, HttpHandler handler) {
+        server.createContext(path, exchange -> {
+            requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+            handler.handle(exchange);
+        });
+    }
+
+    private int requests(String path) {
+        return requestCounts.getOrDefault(path, new AtomicInteger()).get();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        try (exchange) {
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+}
@@ -15,11 +15,14 @@ import com.booklovers.service.review.ReviewService;
 import com.booklovers.service.user.UserMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -62,6 +65,9 @@ class ExportServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ExportServiceImp exportService;
 
@@ -157,6 +163,7 @@ class ExportServiceTest {
         assertThat(result).contains("Reviews");
         assertThat(result).contains("Ratings");
         verify(userRepository).findById(1L);
+        assertThat(meterRegistry.get("booklovers.exports").tag("format", "csv").counter().count()).isEqualTo(1.0);
     }
 
     @Test
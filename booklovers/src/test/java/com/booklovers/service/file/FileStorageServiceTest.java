@@ -1,17 +1,21 @@
 package com.booklovers.service.file;
 
+import com.booklovers.entity.StoredFile;
+import com.booklovers.repository.StoredFileRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.core.io.Resource;
-import org.springframework.mock.web.MockMultipartFile;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class FileStorageServiceTest {
 
@@ -19,117 +23,47 @@ class FileStorageServiceTest {
     Path tempDir;
 
     private FileStorageServiceImp fileStorageService;
+    private StoredFileRepository storedFileRepository;
 
     @BeforeEach
     void setUp() {
-        fileStorageService = new FileStorageServiceImp(tempDir.toString());
+        storedFileRepository = mock(StoredFileRepository.class);
+        fileStorageService = new FileStorageServiceImp(tempDir.toString(), new StoredFileRegistry(storedFileRepository));
     }
 
-    @Test
-    void testStoreFile_Success() throws IOException {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "test image content".getBytes());
+    private static final String HASH = "0123456789abcdef".repeat(4);
 
-        String result = fileStorageService.storeFile(file, "avatars");
+    @Test
+    void testStoreBytes_Success() throws IOException {
+        String result = fileStorageService.storeBytes("test image content".getBytes(), "avatars", HASH + ".jpg");
 
-        assertNotNull(result);
-        assertTrue(result.startsWith("avatars/"));
-        assertTrue(result.endsWith(".jpg"));
-        
-        Path storedFile = tempDir.resolve(result);
+        assertEquals("avatars/" + HASH + ".jpg", result);
+        Path storedFile = fileStorageService.getFileLocation(result, "avatars").orElseThrow();
         assertTrue(Files.exists(storedFile));
         assertEquals("test image content", new String(Files.readAllBytes(storedFile)));
     }
 
     @Test
-    void testStoreFile_CreatesSubdirectory() throws IOException {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.png", "image/png", "test content".getBytes());
+    void testStoreBytes_CreatesSubdirectory() {
+        String result = fileStorageService.storeBytes("test content".getBytes(), "test-subdir", HASH + ".png");
 
-        String result = fileStorageService.storeFile(file, "test-subdir");
-
-        assertNotNull(result);
         assertTrue(result.startsWith("test-subdir/"));
-        
         Path subdirectory = tempDir.resolve("test-subdir");
         assertTrue(Files.exists(subdirectory));
         assertTrue(Files.isDirectory(subdirectory));
     }
 
     @Test
-    void testStoreFile_EmptyFile() {
-        MultipartFile file = new MockMultipartFile(
-                "file", "empty.jpg", "image/jpeg", new byte[0]);
-
-        assertThrows(RuntimeException.class, () -> {
-            fileStorageService.storeFile(file, "avatars");
-        });
-    }
-
-    @Test
-    void testStoreFile_InvalidContentType() {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.txt", "text/plain", "some text".getBytes());
-
-        assertThrows(RuntimeException.class, () -> {
-            fileStorageService.storeFile(file, "avatars");
-        });
-    }
-
-    @Test
-    void testStoreFile_NullContentType() {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.jpg", null, "test content".getBytes());
-
-        assertThrows(RuntimeException.class, () -> {
-            fileStorageService.storeFile(file, "avatars");
-        });
-    }
-
-    @Test
-    void testStoreFile_GeneratesUniqueFilename() throws IOException {
-        MultipartFile file1 = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "content1".getBytes());
-        MultipartFile file2 = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "content2".getBytes());
-
-        String result1 = fileStorageService.storeFile(file1, "avatars");
-        String result2 = fileStorageService.storeFile(file2, "avatars");
-
-        assertNotEquals(result1, result2);
-        assertTrue(result1.startsWith("avatars/"));
-        assertTrue(result2.startsWith("avatars/"));
-    }
-
-    @Test
-    void testStoreFile_PreservesFileExtension() throws IOException {
-        MultipartFile jpgFile = new MockMultipartFile(
-                "file", "image.jpg", "image/jpeg", "content".getBytes());
-        MultipartFile pngFile = new MockMultipartFile(
-                "file", "image.png", "image/png", "content".getBytes());
-        MultipartFile gifFile = new MockMultipartFile(
-                "file", "image.gif", "image/gif", "content".getBytes());
-
-        String jpgResult = fileStorageService.storeFile(jpgFile, "avatars");
-        String pngResult = fileStorageService.storeFile(pngFile, "avatars");
-        String gifResult = fileStorageService.storeFile(gifFile, "avatars");
-
-        assertTrue(jpgResult.endsWith(".jpg"));
-        assertTrue(pngResult.endsWith(".png"));
-        assertTrue(gifResult.endsWith(".gif"));
+    void testStoreBytes_RejectsPathOutsideSubdirectory() {
+        assertThrows(IllegalArgumentException.class,
+                () -> fileStorageService.storeBytes("content".getBytes(), "avatars", "../other.jpg"));
     }
 
     @Test
     void testLoadFileAsResource_Success() throws IOException {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "test content".getBytes());
-        
-        String storedPath = fileStorageService.storeFile(file, "avatars");
-        String[] parts = storedPath.split("/");
-        String filename = parts[parts.length - 1];
-        String subdirectory = parts[parts.length - 2];
+        fileStorageService.storeBytes("test content".getBytes(), "avatars", HASH + ".jpg");
 
-        Resource resource = fileStorageService.loadFileAsResource(filename, subdirectory);
+        Resource resource = fileStorageService.loadFileAsResource(HASH + ".jpg", "avatars");
 
         assertNotNull(resource);
         assertTrue(resource.exists());
@@ -144,19 +78,12 @@ class FileStorageServiceTest {
     }
 
     @Test
-    void testDeleteFile_Success() throws IOException {
-        MultipartFile file = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "test content".getBytes());
-        
-        String storedPath = fileStorageService.storeFile(file, "avatars");
-        String[] parts = storedPath.split("/");
-        String filename = parts[parts.length - 1];
-        String subdirectory = parts[parts.length - 2];
-
-        Path filePath = tempDir.resolve(storedPath);
+    void testDeleteFile_Success() {
+        String storedPath = fileStorageService.storeBytes("test content".getBytes(), "avatars", HASH + ".jpg");
+        Path filePath = fileStorageService.getFileLocation(storedPath, "avatars").orElseThrow();
         assertTrue(Files.exists(filePath));
 
-        fileStorageService.deleteFile(filename, subdirectory);
+        fileStorageService.deleteFile(HASH + ".jpg", "avatars");
 
         assertFalse(Files.exists(filePath));
     }
@@ -170,7 +97,7 @@ class FileStorageServiceTest {
 
     @Test
     void testGetFileLocation_WithSubdirectory() {
-        Path location = fileStorageService.getFileLocation("test.jpg", "avatars");
+        Path location = fileStorageService.getFileLocation("test.jpg", "avatars").orElseThrow();
         
         assertNotNull(location);
         assertTrue(location.toString().contains("avatars"));
@@ -179,7 +106,7 @@ class FileStorageServiceTest {
 
     @Test
     void testGetFileLocation_WithPathInFilename() {
-        Path location = fileStorageService.getFileLocation("avatars/test.jpg", "avatars");
+        Path location = fileStorageService.getFileLocation("avatars/test.jpg", "avatars").orElseThrow();
         
         assertNotNull(location);
         assertTrue(location.toString().contains("avatars"));
@@ -187,23 +114,102 @@ class FileStorageServiceTest {
     }
 
     @Test
-    void testStoreFile_ReplacesExistingFile() throws IOException {
-        MultipartFile file1 = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "content1".getBytes());
-        MultipartFile file2 = new MockMultipartFile(
-                "file", "test.jpg", "image/jpeg", "content2".getBytes());
+    void testStoreBytes_ReplacesExistingFile() throws IOException {
+        String path1 = fileStorageService.storeBytes("content1".getBytes(), "avatars", HASH + "-64.jpg");
+        String path2 = fileStorageService.storeBytes("content2".getBytes(), "avatars", HASH + "-64.jpg");
 
-        String path1 = fileStorageService.storeFile(file1, "avatars");
-        String path2 = fileStorageService.storeFile(file2, "avatars");
+        assertEquals(path1, path2);
+        assertEquals("content2", Files.readString(fileStorageService.getFileLocation(path2, "avatars").orElseThrow()));
+    }
+
+    @Test
+    void testStoreBytes_UsesShardedLayoutAndRegistersBlob() {
+        String result = fileStorageService.storeBytes("sharded content".getBytes(), "avatars", HASH + ".jpg");
+
+        Path expected = tempDir.resolve("avatars").resolve(HASH.substring(0, 2)).resolve(HASH.substring(2, 4))
+                .resolve(HASH + ".jpg");
+        assertTrue(Files.exists(expected));
+        assertEquals(expected, fileStorageService.getFileLocation(HASH + ".jpg", "avatars").orElseThrow());
+        verify(storedFileRepository).save(argThat((StoredFile stored) ->
+                stored.getPath().equals(result) && stored.getRefCount() == 0 && stored.getSizeBytes() == 15));
+    }
+
+    @Test
+    void testStoreBytes_ExistingBlobOnlyRefreshesTimestamp() {
+        when(storedFileRepository.touch(any(), any())).thenReturn(1);
+
+        fileStorageService.storeBytes("content".getBytes(), "avatars", HASH + ".jpg");
+
+        verify(storedFileRepository, never()).save(any());
+    }
+
+    @Test
+    void testStoreBytes_RewritesBlobDeletedByGcDuringRegistration() throws IOException {
+        String path = fileStorageService.storeBytes("collected content".getBytes(), "avatars", HASH + ".jpg");
+        Path stored = fileStorageService.getFileLocation(path, "avatars").orElseThrow();
+        // Rejestracja czekała na transakcję GC, która usunęła wiersz i plik
+        when(storedFileRepository.touch(eq(path), any())).thenAnswer(invocation -> {
+            Files.delete(stored);
+            return 0;
+        });
+
+        fileStorageService.storeBytes("collected content".getBytes(), "avatars", HASH + ".jpg");
+
+        assertEquals("collected content", Files.readString(stored));
+    }
+
+    @Test
+    void testDeleteFile_RemovesDerivedFiles() throws IOException {
+        String hash = "ab".repeat(32);
+        fileStorageService.storeBytes("main".getBytes(), "avatars", hash + ".jpg");
+        fileStorageService.storeBytes("small".getBytes(), "avatars", hash + "-64.jpg");
+        String other = "cd".repeat(32);
+        fileStorageService.storeBytes("other".getBytes(), "avatars", other + ".jpg");
+
+        fileStorageService.deleteFile(hash + ".jpg", "avatars");
+
+        assertFalse(fileStorageService.exists(hash + ".jpg", "avatars"));
+        assertFalse(fileStorageService.exists(hash + "-64.jpg", "avatars"));
+        assertTrue(fileStorageService.exists(other + ".jpg", "avatars"));
+        verify(storedFileRepository, never()).save(argThat((StoredFile stored) -> stored.getPath().contains("-64")));
+    }
+
+    @Test
+    void testGetFileLocation_FallsBackToFlatLayout() throws IOException {
+        String name = "ef".repeat(32) + ".jpg";
+        Files.createDirectories(tempDir.resolve("avatars"));
+        Files.writeString(tempDir.resolve("avatars").resolve(name), "legacy");
+
+        assertEquals(tempDir.resolve("avatars").resolve(name), fileStorageService.getFileLocation(name, "avatars").orElseThrow());
+    }
+
+    @Test
+    void testRetain_CreatesCounterForUntrackedBlob() {
+        String path = "avatars/" + "ab".repeat(32) + ".jpg";
+        when(storedFileRepository.incrementRefCount(path)).thenReturn(0);
+
+        fileStorageService.retain(path);
+
+        verify(storedFileRepository).save(argThat((StoredFile stored) ->
+                stored.getPath().equals(path) && stored.getRefCount() == 1));
+    }
+
+    @Test
+    void testRetainAndRelease_IgnoreExternalAndLegacyPaths() {
+        fileStorageService.retain("https://example.com/avatar.jpg");
+        fileStorageService.release("avatars/0b4f6c1e-uuid.jpg");
+        fileStorageService.release("avatars/" + "ab".repeat(32) + "-64.jpg");
+
+        verifyNoInteractions(storedFileRepository);
+    }
+
+    @Test
+    void testRelease_DecrementsCounter() {
+        String path = "avatars/" + "ab".repeat(32) + ".png";
+        when(storedFileRepository.decrementRefCount(path)).thenReturn(1);
 
-        Path filePath1 = tempDir.resolve(path1);
-        Path filePath2 = tempDir.resolve(path2);
+        fileStorageService.release(path);
 
-        if (path1.equals(path2)) {
-            assertEquals("content2", new String(Files.readAllBytes(filePath2)));
-        } else {
-            assertTrue(Files.exists(filePath1));
-            assertTrue(Files.exists(filePath2));
-        }
+        verify(storedFileRepository).decrementRefCount(path);
     }
 }
@@ -0,0 +1,149 @@
+package com.booklovers.service.file;
+
+import com.booklovers.api.config.MediaProperties;
+import com.booklovers.api.config.S3StorageConfig;
+import com.booklovers.api.config.S3StorageProperties;
+import com.booklovers.repository.StoredFileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * S3FileStorageServiceImp na prawdziwym kliencie AWS SDK przeciw S3StubServer (zamiast MinIO).
+ */
+class S3FileStorageServiceTest {
+
+    private static final String BUCKET = "booklovers-test";
+
+    private S3StubServer server;
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private StoredFileRepository storedFileRepository;
+    private S3FileStorageServiceImp fileStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new S3StubServer();
+        S3StorageProperties properties = new S3StorageProperties();
+        properties.setEndpoint(server.endpoint().toString());
+        properties.setBucket(BUCKET);
+        properties.setAccessKey("test");
+        properties.setSecretKey("test-secret");
+
+        S3StorageConfig config = new S3StorageConfig();
+        s3Client = config.s3Client(properties);
+        s3Presigner = config.s3Presigner(properties);
+        storedFileRepository = mock(StoredFileRepository.class);
+        fileStorageService = new S3FileStorageServiceImp(s3Client, s3Presigner, properties, new MediaProperties(),
+                new StoredFileRegistry(storedFileRepository));
+        fileStorageService.createBucketIfMissing();
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3Client.close();
+        s3Presigner.close();
+        server.close();
+    }
+
+    @Test
+    void testCreateBucketIfMissing_CreatesBucket() {
+        assertTrue(server.buckets().contains(BUCKET));
+    }
+
+    @Test
+    void testStoreBytes_UploadsUnderShardedKey() {
+        byte[] content = "test image content".getBytes(StandardCharsets.UTF_8);
+        String name = "9".repeat(64) + ".jpg";
+
+        String path = fileStorageService.storeBytes(content, "avatars", name);
+
+        assertEquals("avatars/" + name, path);
+        S3StubServer.StoredObject object = server.object(BUCKET, "avatars/99/99/" + name);
+        assertNotNull(object);
+        assertArrayEquals(content, object.content());
+        assertEquals("image/jpeg", object.contentType());
+        assertEquals("max-age=31536000, public, immutable", object.cacheControl());
+        verify(storedFileRepository).save(argThat(file -> file.getPath().equals(path)
+                && file.getRefCount() == 0 && file.getSizeBytes() == content.length));
+    }
+
+    @Test
+    void testStoreBytesAndExists() {
+        String name = "b".repeat(64) + "-64.jpg";
+
+        assertFalse(fileStorageService.exists(name, "avatars"));
+        fileStorageService.storeBytes(new byte[]{1, 2, 3}, "avatars", name);
+
+        assertTrue(fileStorageService.exists(name, "avatars"));
+        assertTrue(server.keys(BUCKET).contains("avatars/bb/bb/" + name));
+        // Plik pochodny nie ma własnego licznika referencji
+        verifyNoInteractions(storedFileRepository);
+    }
+
+    @Test
+    void testStoreBytes_RejectsPath() {
+        assertThrows(IllegalArgumentException.class,
+                () -> fileStorageService.storeBytes(new byte[]{1}, "avatars", "../other.jpg"));
+    }
+
+    @Test
+    void testDeleteFile_RemovesDerivedFiles() {
+        String hash = "c".repeat(64);
+        fileStorageService.storeBytes(new byte[]{1}, "avatars", hash + "-64.jpg");
+        fileStorageService.storeBytes(new byte[]{2}, "avatars", hash + "-256.jpg");
+        fileStorageService.storeBytes(new byte[]{3}, "avatars", hash + ".jpg");
+        fileStorageService.storeBytes(new byte[]{4}, "avatars", "d".repeat(64) + ".jpg");
+
+        fileStorageService.deleteFile(hash + ".jpg", "avatars");
+
+        assertEquals(1, server.keys(BUCKET).size());
+        assertTrue(fileStorageService.exists("d".repeat(64) + ".jpg", "avatars"));
+    }
+
+    @Test
+    void testLoadFileAsResource() throws IOException {
+        String path = fileStorageService.storeBytes("resource".getBytes(StandardCharsets.UTF_8), "avatars", "e".repeat(64) + ".png");
+
+        try (InputStream in = fileStorageService.loadFileAsResource(path, "avatars").getInputStream()) {
+            assertEquals("resource", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertThrows(RuntimeException.class, () -> fileStorageService.loadFileAsResource("f".repeat(64) + ".png", "avatars"));
+    }
+
+    @Test
+    void testGetDownloadUrl_PresignedUrlServesObject() throws Exception {
+        String name = "a".repeat(64) + ".png";
+        fileStorageService.storeBytes("presigned".getBytes(StandardCharsets.UTF_8), "avatars", name);
+
+        URI url = fileStorageService.getDownloadUrl(name, "avatars").orElseThrow();
+
+        assertTrue(url.getPath().endsWith("/" + BUCKET + "/avatars/aa/aa/" + name));
+        assertTrue(url.getQuery().contains("X-Amz-Signature="));
+        assertTrue(url.getQuery().contains("X-Amz-Expires=3600"));
+        HttpResponse<String> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("presigned", response.body());
+        assertEquals("max-age=31536000, public, immutable", response.headers().firstValue("Cache-Control").orElseThrow());
+    }
+
+    @Test
+    void testGetFileLocation_EmptyForObjectStore() {
+        assertTrue(fileStorageService.getFileLocation("a.jpg", "avatars").isEmpty());
+    }
+}
@@ -0,0 +1,198 @@
+package com.booklovers.service.file;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Minimalny serwer zgodny z S3 (adresy path-style) w miejsce MinIO w testach: buckety, obiekty i listowanie.
+ * Podpisy i sumy kontrolne nie są sprawdzane.
+ */
+class S3StubServer implements AutoCloseable {
+
+    record StoredObject(byte[] content, String contentType, String cacheControl) {
+    }
+
+    private final HttpServer server;
+    private final Set<String> buckets = ConcurrentHashMap.newKeySet();
+    private final Map<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+
+    S3StubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    Set<String> buckets() {
+        return buckets;
+    }
+
+    StoredObject object(String bucket, String key) {
+        return objects.get(bucket + "/" + key);
+    }
+
+    Set<String> keys(String bucket) {
+        return objects.keySet().stream()
+                .filter(key -> key.startsWith(bucket + "/"))
+                .map(key -> key.substring(bucket.length() + 1))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String path = URLDecoder.decode(exchange.getRequestURI().getRawPath(), StandardCharsets.UTF_8).substring(1);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+
+            int slash = path.indexOf('/');
+            String bucket = slash < 0 ? path : path.substring(0, slash);
+            String key = slash < 0 ? "" : path.substring(slash + 1);
+            byte[] body = body(exchange);
+
+            if (key.isEmpty()) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key, body);
+            }
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket, Map<String, String> query) throws IOException {
+        switch (method) {
+            case "HEAD" -> exchange.sendResponseHeaders(buckets.contains(bucket) ? 200 : 404, -1);
+            case "PUT" -> {
+                buckets.add(bucket);
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "GET" -> {
+                String prefix = bucket + "/" + query.getOrDefault("prefix", "");
+                StringBuilder xml = new StringBuilder("<ListBucketResult><Name>").append(bucket)
+                        .append("</Name><IsTruncated>false</IsTruncated>");
+                objects.forEach((name, object) -> {
+                    if (name.startsWith(prefix)) {
+                        xml.append("<Contents><Key>").append(name.substring(bucket.length() + 1))
+                                .append("</Key><Size>").append(object.content().length).append("</Size></Contents>");
+                    }
+                });
+                respond(exchange, 200, xml.append("</ListBucketResult>").toString());
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key, byte[] body) throws IOException {
+        StoredObject object = objects.get(bucket + "/" + key);
+        switch (method) {
+            case "PUT" -> {
+                objects.put(bucket + "/" + key, new StoredObject(body,
+                        exchange.getRequestHeaders().getFirst("Content-Type"),
+                        exchange.getRequestHeaders().getFirst("Cache-Control")));
+                exchange.getResponseHeaders().add("ETag", "\"object\"");
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "HEAD" -> {
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", "\"object\"");
+                exchange.sendResponseHeaders(200, -1);
+            }
+            case "GET" -> {
+                if (object == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchKey</Code><Key>" + key + "</Key></Error>");
+                    return;
+                }
+                if (object.contentType() != null) {
+                    exchange.getResponseHeaders().add("Content-Type", object.contentType());
+                }
+                if (object.cacheControl() != null) {
+                    exchange.getResponseHeaders().add("Cache-Control", object.cacheControl());
+                }
+                exchange.sendResponseHeaders(200, object.content().length);
+                exchange.getResponseBody().write(object.content());
+            }
+            case "DELETE" -> {
+                objects.remove(bucket + "/" + key);
+                exchange.sendResponseHeaders(204, -1);
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+    }
+
+    // Treść wysłana jako aws-chunked (podpisywane fragmenty) jest składana z powrotem w całość
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String contentSha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha == null || !contentSha.startsWith("STREAMING-")) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length - 1; i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? parameter : parameter.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String xml) throws IOException {
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.booklovers.service.file;
+
+import com.booklovers.api.config.FileGcProperties;
+import com.booklovers.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoredFileGarbageCollectorTest {
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StoredFileGarbageCollector garbageCollector;
+
+    @BeforeEach
+    void setUp() {
+        FileGcProperties properties = new FileGcProperties();
+        properties.setEnabled(false);
+        garbageCollector = new StoredFileGarbageCollector(storedFileRepository, fileStorageService, properties, transactionManager);
+    }
+
+    @Test
+    void testCollectDeletesClaimedFiles() {
+        when(storedFileRepository.findUnreferenced(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of("avatars/orphan.jpg", "avatars/retained-meanwhile.jpg"));
+        when(storedFileRepository.deleteIfUnreferenced(eq("avatars/orphan.jpg"), any())).thenReturn(1);
+        when(storedFileRepository.deleteIfUnreferenced(eq("avatars/retained-meanwhile.jpg"), any())).thenReturn(0);
+
+        int deleted = garbageCollector.collect();
+
+        assertEquals(1, deleted);
+        verify(fileStorageService).deleteFile("orphan.jpg", "avatars");
+        verify(fileStorageService, never()).deleteFile(eq("retained-meanwhile.jpg"), anyString());
+    }
+
+    @Test
+    void testCollectUsesGracePeriodCutoff() {
+        when(storedFileRepository.findUnreferenced(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now().minusHours(1);
+
+        garbageCollector.collect();
+
+        verify(storedFileRepository).findUnreferenced(argThat(cutoff ->
+                !cutoff.isBefore(before) && cutoff.isBefore(LocalDateTime.now().minusMinutes(59))), any(Pageable.class));
+        verifyNoInteractions(fileStorageService);
+    }
+
+    @Test
+    void testCollectKeepsRowWhenFileDeletionFails() {
+        when(storedFileRepository.findUnreferenced(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of("avatars/locked.jpg"));
+        when(storedFileRepository.deleteIfUnreferenced(eq("avatars/locked.jpg"), any())).thenReturn(1);
+        doThrow(new RuntimeException("Nie można usunąć pliku: locked.jpg"))
+                .when(fileStorageService).deleteFile("locked.jpg", "avatars");
+
+        assertThrows(RuntimeException.class, () -> garbageCollector.collect());
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+}
@@ -0,0 +1,215 @@
+package com.booklovers.service.image;
+
+import com.booklovers.api.config.ImageProcessingProperties;
+import com.booklovers.exception.BadRequestException;
+import com.booklovers.repository.StoredFileRepository;
+import com.booklovers.service.file.FileStorageServiceImp;
+import com.booklovers.service.file.StoredFileRegistry;
+import org.mockito.Mockito;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageProcessingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageServiceImp fileStorageService;
+    private ImageProcessingServiceImp imageProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new FileStorageServiceImp(tempDir.toString(), new StoredFileRegistry(Mockito.mock(StoredFileRepository.class)));
+        ImageProcessingProperties properties = new ImageProcessingProperties();
+        properties.setMaxDimension(512);
+        imageProcessingService = new ImageProcessingServiceImp(fileStorageService, properties);
+        imageProcessingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageProcessingService.stop();
+    }
+
+    @Test
+    void testStoreImage_CreatesMainImageAndVariants() throws IOException {
+        String path = imageProcessingService.storeImage(upload("photo.jpg", "image/jpeg", jpeg(2000, 1000)), "avatars");
+
+        assertTrue(path.matches("avatars/[0-9a-f]{64}\\.jpg"));
+        assertEquals(512, read(path).getWidth());
+        assertEquals(256, read(path).getHeight());
+
+        String stem = path.substring(0, path.length() - 4);
+        BufferedImage small = read(stem + "-64.jpg");
+        BufferedImage medium = read(stem + "-256.jpg");
+        assertEquals(64, small.getWidth());
+        assertEquals(32, small.getHeight());
+        assertEquals(256, medium.getWidth());
+        assertEquals(128, medium.getHeight());
+    }
+
+    @Test
+    void testStoreImage_FromLocalFileMatchesUpload() throws IOException {
+        byte[] source = jpeg(600, 300);
+        Path file = Files.write(Files.createTempFile(tempDir, "cover-", ".download"), source);
+
+        String fromFile = imageProcessingService.storeLocalImage(file, "covers");
+        String fromUpload = imageProcessingService.storeImage(upload("cover.jpg", "image/jpeg", source), "covers");
+
+        assertEquals(fromUpload, fromFile);
+        assertTrue(Files.exists(file));
+        assertEquals(256, read(fromFile.substring(0, fromFile.length() - 4) + "-256.jpg").getWidth());
+    }
+
+    @Test
+    void testStoreImage_DoesNotUpscaleSmallImages() throws IOException {
+        String path = imageProcessingService.storeImage(upload("small.jpg", "image/jpeg", jpeg(40, 30)), "avatars");
+
+        String stem = path.substring(0, path.length() - 4);
+        assertEquals(40, read(path).getWidth());
+        assertEquals(40, read(stem + "-256.jpg").getWidth());
+    }
+
+    @Test
+    void testStoreImage_StripsMetadata() throws IOException {
+        byte[] source = jpegWithComment(800, 600, "GPS 52.2297 21.0122");
+        assertTrue(new String(source, StandardCharsets.ISO_8859_1).contains("GPS 52.2297"));
+
+        String path = imageProcessingService.storeImage(upload("photo.jpg", "image/jpeg", source), "avatars");
+
+        String stored = new String(Files.readAllBytes(location(path)), StandardCharsets.ISO_8859_1);
+        assertFalse(stored.contains("GPS 52.2297"));
+    }
+
+    @Test
+    void testStoreImage_TransparentImageStoredAsPng() throws IOException {
+        BufferedImage image = new BufferedImage(300, 300, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+
+        String path = imageProcessingService.storeImage(upload("logo.png", "image/png", output.toByteArray()), "avatars");
+
+        assertTrue(path.endsWith(".png"));
+        assertTrue(read(path).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void testStoreImage_RejectsFakeImageWithImageContentType() throws IOException {
+        MockMultipartFile file = upload("photo.jpg", "image/jpeg", "<script>alert(1)</script>".getBytes());
+
+        assertThrows(BadRequestException.class, () -> imageProcessingService.storeImage(file, "avatars"));
+        assertFalse(Files.exists(tempDir.resolve("avatars")) && hasImages(tempDir.resolve("avatars")));
+    }
+
+    @Test
+    void testStoreImage_RejectsTooManyPixels() throws IOException {
+        ImageProcessingProperties properties = new ImageProcessingProperties();
+        properties.setMaxSourcePixels(100 * 100);
+        ImageProcessingServiceImp limited = new ImageProcessingServiceImp(fileStorageService, properties);
+        limited.start();
+        try {
+            MockMultipartFile file = upload("big.jpg", "image/jpeg", jpeg(200, 200));
+            assertThrows(BadRequestException.class, () -> limited.storeImage(file, "avatars"));
+        } finally {
+            limited.stop();
+        }
+    }
+
+    @Test
+    void testStoreImage_SameUploadReusesStoredFiles() throws IOException {
+        byte[] source = jpeg(600, 600);
+        String first = imageProcessingService.storeImage(upload("a.jpg", "image/jpeg", source), "avatars");
+        long modified = Files.getLastModifiedTime(location(first)).toMillis();
+
+        String second = imageProcessingService.storeImage(upload("b.jpg", "image/jpeg", source), "avatars");
+
+        assertEquals(first, second);
+        assertEquals(modified, Files.getLastModifiedTime(location(second)).toMillis());
+    }
+
+    @Test
+    void testResolveVariant() {
+        assertEquals("abc.jpg", imageProcessingService.resolveVariant("abc.jpg", null));
+        assertEquals("abc-64.jpg", imageProcessingService.resolveVariant("abc.jpg", 40));
+        assertEquals("abc-256.jpg", imageProcessingService.resolveVariant("abc.jpg", 150));
+        assertEquals("abc.jpg", imageProcessingService.resolveVariant("abc.jpg", 800));
+    }
+
+    private BufferedImage read(String path) throws IOException {
+        return ImageIO.read(location(path).toFile());
+    }
+
+    private Path location(String path) {
+        return fileStorageService.getFileLocation(path, "avatars").orElseThrow();
+    }
+
+    private static boolean hasImages(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.anyMatch(file -> Files.isRegularFile(file) && !file.getFileName().toString().endsWith(".tmp"));
+        }
+    }
+
+    private static MockMultipartFile upload(String name, String contentType, byte[] content) {
+        return new MockMultipartFile("avatarFile", name, contentType, content);
+    }
+
+    private static BufferedImage picture(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(picture(width, height), "jpeg", output);
+        return output.toByteArray();
+    }
+
+    // Komentarz COM w nagłówku JPEG - odpowiednik metadanych EXIF z telefonu
+    private static byte[] jpegWithComment(int width, int height, String comment) throws IOException {
+        BufferedImage image = picture(width, height);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(
+                javax.imageio.ImageTypeSpecifier.createFromRenderedImage(image), null);
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+        IIOMetadataNode com = new IIOMetadataNode("com");
+        com.setAttribute("comment", comment);
+        ((IIOMetadataNode) root.getElementsByTagName("markerSequence").item(0)).appendChild(com);
+        metadata.setFromTree("javax_imageio_jpeg_image_1.0", root);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            writer.write(new IIOImage(image, null, metadata));
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -14,11 +14,14 @@ import com.booklovers.service.review.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
@@ -57,6 +60,9 @@ class ImportServiceTest {
     @Mock
     private PlatformTransactionManager transactionManager;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ImportServiceImp importService;
 
@@ -98,6 +104,8 @@ class ImportServiceTest {
         assertThatThrownBy(() -> importService.importUserDataFromJson(1L, "   "))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("JSON data is empty");
+        assertThat(meterRegistry.get("booklovers.imports").tag("format", "json").tag("outcome", "failure")
+                .counter().count()).isEqualTo(3.0);
     }
 
     @Test
@@ -165,6 +173,9 @@ class ImportServiceTest {
 
         verify(userRepository).findById(1L);
         verify(bookRepository).findById(1L);
+        assertThat(meterRegistry.get("booklovers.imports").tag("outcome", "success").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booklovers.import.items").tag("type", "books").tag("result", "imported")
+                .counter().count()).isEqualTo(1.0);
     }
 
     @Test
@@ -4,19 +4,25 @@ import com.booklovers.dto.RatingDto;
 import com.booklovers.entity.Book;
 import com.booklovers.entity.Rating;
 import com.booklovers.entity.User;
+import com.booklovers.exception.ConflictException;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.RatingRepository;
 import com.booklovers.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +30,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
@@ -40,12 +47,21 @@ class RatingServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RatingWriteBehindQueue writeBehindQueue;
+
     @Mock
     private SecurityContext securityContext;
 
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private RatingServiceImp ratingService;
 
@@ -96,17 +112,17 @@ class RatingServiceTest {
                 .build();
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingRepository.findByUserIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
-        when(ratingRepository.save(any(Rating.class))).thenReturn(rating);
+        when(ratingRepository.upsertRating(1L, 1L, 5)).thenReturn(1);
+        when(ratingRepository.findWithBookByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(rating));
 
         RatingDto result = ratingService.createOrUpdateRating(1L, inputDto);
 
         assertNotNull(result);
         assertEquals(5, result.getValue());
         verify(userRepository, times(1)).findByUsername("testuser");
-        verify(bookRepository, times(1)).findById(1L);
-        verify(ratingRepository, times(1)).save(any(Rating.class));
+        verify(ratingRepository, times(1)).upsertRating(1L, 1L, 5);
+        verify(ratingRepository, never()).save(any(Rating.class));
+        assertEquals(1.0, meterRegistry.get("booklovers.ratings").tag("operation", "saved").counter().count());
     }
 
     @Test
@@ -115,30 +131,93 @@ class RatingServiceTest {
                 .value(4)
                 .build();
 
-        Rating existingRating = Rating.builder()
-                .id(1L)
-                .value(5)
-                .user(user)
-                .book(book)
-                .build();
-
         Rating updatedRating = Rating.builder()
                 .id(1L)
                 .value(4)
+                .version(1L)
                 .user(user)
                 .book(book)
                 .build();
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(ratingRepository.findByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(existingRating));
-        when(ratingRepository.save(any(Rating.class))).thenReturn(updatedRating);
+        when(ratingRepository.upsertRating(1L, 1L, 4)).thenReturn(1);
+        when(ratingRepository.findWithBookByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(updatedRating));
 
         RatingDto result = ratingService.createOrUpdateRating(1L, inputDto);
 
         assertNotNull(result);
         assertEquals(4, result.getValue());
-        verify(ratingRepository, times(1)).save(any(Rating.class));
+        assertEquals(1L, result.getVersion());
+        verify(ratingRepository, times(1)).upsertRating(1L, 1L, 4);
+    }
+
+    @Test
+    void testCreateOrUpdateRating_RetriesAfterConcurrentInsert() {
+        RatingDto inputDto = RatingDto.builder()
+                .value(5)
+                .build();
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(ratingRepository.upsertRating(1L, 1L, 5))
+                .thenThrow(new DataIntegrityViolationException("unique constraint"))
+                .thenReturn(1);
+        when(ratingRepository.findWithBookByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(rating));
+
+        RatingDto result = ratingService.createOrUpdateRating(1L, inputDto);
+
+        assertEquals(5, result.getValue());
+        verify(ratingRepository, times(2)).upsertRating(1L, 1L, 5);
+    }
+
+    @Test
+    void testCreateOrUpdateRating_ConflictAfterMaxAttempts() {
+        RatingDto inputDto = RatingDto.builder()
+                .value(3)
+                .build();
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(ratingRepository.upsertRating(1L, 1L, 3))
+                .thenThrow(new DataIntegrityViolationException("unique constraint"));
+
+        assertThrows(ConflictException.class, () -> ratingService.createOrUpdateRating(1L, inputDto));
+        verify(ratingRepository, times(3)).upsertRating(1L, 1L, 3);
+    }
+
+    @Test
+    void testCreateOrUpdateRating_WriteBehindAcknowledgesWithoutWrite() {
+        RatingDto inputDto = RatingDto.builder()
+                .value(4)
+                .build();
+
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(writeBehindQueue.offer(1L, 1L, 4)).thenReturn(true);
+
+        RatingDto result = ratingService.createOrUpdateRating(1L, inputDto);
+
+        assertEquals(4, result.getValue());
+        assertEquals(1L, result.getBookId());
+        verify(ratingRepository, never()).upsertRating(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testCreateOrUpdateRating_WriteBehindFullFallsBackToSyncWrite() {
+        RatingDto inputDto = RatingDto.builder()
+                .value(5)
+                .build();
+
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(writeBehindQueue.offer(1L, 1L, 5)).thenReturn(false);
+        when(ratingRepository.upsertRating(1L, 1L, 5)).thenReturn(1);
+        when(ratingRepository.findWithBookByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(rating));
+
+        RatingDto result = ratingService.createOrUpdateRating(1L, inputDto);
+
+        assertEquals(5, result.getValue());
+        verify(ratingRepository, times(1)).upsertRating(1L, 1L, 5);
     }
 
     @Test
@@ -153,7 +232,7 @@ class RatingServiceTest {
             ratingService.createOrUpdateRating(1L, inputDto);
         });
 
-        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(ratingRepository, never()).upsertRating(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -163,13 +242,13 @@ class RatingServiceTest {
                 .build();
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(ratingRepository.upsertRating(1L, 1L, 5)).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> {
             ratingService.createOrUpdateRating(1L, inputDto);
         });
 
-        verify(ratingRepository, never()).save(any(Rating.class));
+        verify(ratingRepository, never()).findWithBookByUserIdAndBookId(anyLong(), anyLong());
     }
 
     @Test
@@ -206,6 +285,29 @@ class RatingServiceTest {
         verify(ratingRepository, times(1)).findByUserIdAndBookId(1L, 1L);
     }
 
+    @Test
+    void testGetRatingByBookId_ReturnsPendingWriteBehindValue() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(ratingRepository.findByUserIdAndBookId(1L, 1L)).thenReturn(Optional.of(rating));
+        when(writeBehindQueue.getPendingValue(1L, 1L)).thenReturn(Optional.of(2));
+
+        Optional<RatingDto> result = ratingService.getRatingByBookId(1L);
+
+        assertTrue(result.isPresent());
+        assertEquals(2, result.get().getValue());
+    }
+
+    @Test
+    void testDeleteRating_OnlyPendingInWriteBehind() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(writeBehindQueue.discard(1L, 1L)).thenReturn(true);
+        when(ratingRepository.findByUserIdAndBookId(1L, 1L)).thenReturn(Optional.empty());
+
+        ratingService.deleteRating(1L);
+
+        verify(ratingRepository, never()).delete(any(Rating.class));
+    }
+
     @Test
     void testGetRatingByBookId_NotFound() {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
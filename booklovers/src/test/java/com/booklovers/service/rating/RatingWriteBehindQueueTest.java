@@ -0,0 +1,146 @@
+package com.booklovers.service.rating;
+
+import com.booklovers.api.config.RatingWriteBehindProperties;
+import com.booklovers.repository.RatingRepository;
+import com.booklovers.repository.RatingUpsertRepository.RatingUpsert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RatingWriteBehindQueueTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private RatingWriteBehindProperties properties;
+    private RatingWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RatingWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setBatchSize(2);
+        properties.setCapacity(3);
+        properties.setSpoolFile(tempDir.resolve("ratings.spool"));
+        queue = new RatingWriteBehindQueue(ratingRepository, transactionManager, properties);
+    }
+
+    @Test
+    void testOffer_DeduplicatesPerUserAndBook() {
+        assertTrue(queue.offer(1L, 10L, 3));
+        assertTrue(queue.offer(1L, 10L, 5));
+
+        assertEquals(1, queue.size());
+        assertEquals(5, queue.getPendingValue(1L, 10L).orElseThrow());
+    }
+
+    @Test
+    void testOffer_RejectsNewKeyWhenFull() {
+        queue.offer(1L, 10L, 1);
+        queue.offer(2L, 10L, 2);
+        queue.offer(3L, 10L, 3);
+
+        assertFalse(queue.offer(4L, 10L, 4));
+        // aktualizacja oczekującej oceny nie zwiększa zajętości kolejki
+        assertTrue(queue.offer(1L, 10L, 5));
+        assertEquals(3, queue.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesInBatches() {
+        queue.offer(1L, 10L, 1);
+        queue.offer(2L, 10L, 2);
+        queue.offer(3L, 10L, 3);
+
+        int flushed = queue.flush();
+
+        assertEquals(3, flushed);
+        assertEquals(0, queue.size());
+        ArgumentCaptor<List<RatingUpsert>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ratingRepository, times(2)).upsertRatings(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+    }
+
+    @Test
+    void testFlush_RequeuesBatchOnFailure() {
+        queue.offer(1L, 10L, 1);
+        doThrow(new DataAccessResourceFailureException("db down")).when(ratingRepository).upsertRatings(anyList());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> queue.flush());
+        assertEquals(1, queue.getPendingValue(1L, 10L).orElseThrow());
+    }
+
+    @Test
+    void testFlush_DropsPoisonRatingAndWritesRestOfBatch() {
+        queue.offer(1L, 10L, 1);
+        queue.offer(2L, 10L, 2);
+        doThrow(new DataIntegrityViolationException("batch")).when(ratingRepository)
+                .upsertRatings(argThat(batch -> batch.size() == 2));
+        doThrow(new DataIntegrityViolationException("poison")).when(ratingRepository)
+                .upsertRatings(argThat(batch -> batch.size() == 1 && batch.get(0).userId() == 1L));
+
+        int flushed = queue.flush();
+
+        assertEquals(1, flushed);
+        assertEquals(0, queue.size());
+        verify(ratingRepository).upsertRatings(argThat(batch -> batch.size() == 1 && batch.get(0).userId() == 2L));
+        // kolejny cykl nie próbuje już odrzuconej oceny
+        assertEquals(0, queue.flush());
+    }
+
+    @Test
+    void testDiscard_RemovesPendingRating() {
+        queue.offer(1L, 10L, 4);
+
+        assertTrue(queue.discard(1L, 10L));
+        assertFalse(queue.discard(1L, 10L));
+        assertTrue(queue.getPendingValue(1L, 10L).isEmpty());
+    }
+
+    @Test
+    void testShutdown_SpoolsWhenDatabaseUnavailableAndReplaysOnStartup() throws Exception {
+        doThrow(new DataAccessResourceFailureException("db down")).when(ratingRepository).upsertRatings(anyList());
+        queue.start();
+        queue.offer(1L, 10L, 4);
+        queue.offer(2L, 11L, 5);
+
+        queue.shutdown();
+
+        assertTrue(Files.exists(properties.getSpoolFile()));
+        assertEquals(2, Files.readAllLines(properties.getSpoolFile()).size());
+
+        reset(ratingRepository);
+        RatingWriteBehindQueue restarted = new RatingWriteBehindQueue(ratingRepository, transactionManager, properties);
+        // Odtworzenie przy tworzeniu beana - przed przyjmowaniem żądań
+        restarted.start();
+
+        verify(ratingRepository, times(1)).upsertRatings(anyList());
+        assertFalse(Files.exists(properties.getSpoolFile()));
+        restarted.shutdown();
+    }
+}
@@ -11,11 +11,14 @@ import com.booklovers.repository.BookRepository;
 import com.booklovers.repository.ReviewRepository;
 import com.booklovers.repository.UserRepository;
 import com.booklovers.service.rating.RatingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -56,6 +59,9 @@ class ReviewServiceTest {
     @Mock
     private Authentication authentication;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ReviewServiceImp reviewService;
 
@@ -123,6 +129,7 @@ class ReviewServiceTest {
         verify(bookRepository, times(1)).findById(1L);
         verify(reviewRepository, times(1)).save(any(Review.class));
         verify(reviewRepository, times(1)).flush();
+        assertEquals(1.0, meterRegistry.get("booklovers.reviews").tag("operation", "created").counter().count());
     }
 
     @Test
@@ -204,6 +211,24 @@ class ReviewServiceTest {
         verify(reviewRepository, times(1)).save(any(Review.class));
     }
 
+    @Test
+    void testUpdateReview_StaleVersion() {
+        review.setVersion(3L);
+        ReviewDto updateDto = ReviewDto.builder()
+                .content("Updated review")
+                .version(2L)
+                .build();
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(reviewRepository.findByIdWithUser(1L)).thenReturn(Optional.of(review));
+
+        assertThrows(ConflictException.class, () -> {
+            reviewService.updateReview(1L, updateDto);
+        });
+
+        verify(reviewRepository, never()).save(any(Review.class));
+    }
+
     @Test
     void testUpdateReview_NotOwner() {
         ReviewDto updateDto = ReviewDto.builder()
@@ -0,0 +1,87 @@
+package com.booklovers.service.shelf;
+
+import com.booklovers.repository.ShelfRepository;
+import com.booklovers.repository.UserBookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LibraryIndexServiceTest {
+
+    @Mock
+    private ShelfRepository shelfRepository;
+
+    @Mock
+    private UserBookRepository userBookRepository;
+
+    @InjectMocks
+    private LibraryIndexServiceImp libraryIndexService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void testGetLibrary_LoadsOnceAndCaches() {
+        when(shelfRepository.findNamesByUserId(1L)).thenReturn(List.of("Zimowe"));
+        when(userBookRepository.findShelfEntriesByUserId(1L))
+                .thenReturn(Arrays.<Object[]>asList(new Object[]{"Przeczytane", 1L}));
+
+        UserLibrary first = libraryIndexService.getLibrary(1L);
+        UserLibrary second = libraryIndexService.getLibrary(1L);
+
+        assertSame(first, second);
+        assertEquals(List.of("Przeczytane", "Zimowe"), first.getShelfNames());
+        verify(shelfRepository, times(1)).findNamesByUserId(1L);
+        verify(userBookRepository, times(1)).findShelfEntriesByUserId(1L);
+    }
+
+    @Test
+    void testEvict_OutsideTransaction() {
+        when(shelfRepository.findNamesByUserId(1L)).thenReturn(List.of());
+        when(userBookRepository.findShelfEntriesByUserId(1L)).thenReturn(List.of());
+
+        libraryIndexService.getLibrary(1L);
+        libraryIndexService.evict(1L);
+        libraryIndexService.getLibrary(1L);
+
+        verify(userBookRepository, times(2)).findShelfEntriesByUserId(1L);
+    }
+
+    @Test
+    void testEvict_InTransactionBypassesCacheUntilCompletion() {
+        when(shelfRepository.findNamesByUserId(1L)).thenReturn(List.of());
+        when(userBookRepository.findShelfEntriesByUserId(1L)).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+
+        libraryIndexService.evict(1L);
+        libraryIndexService.getLibrary(1L);
+        libraryIndexService.getLibrary(1L);
+        // niezatwierdzony stan nie trafia do cache
+        verify(userBookRepository, times(2)).findShelfEntriesByUserId(1L);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        libraryIndexService.getLibrary(1L);
+        libraryIndexService.getLibrary(1L);
+        verify(userBookRepository, times(3)).findShelfEntriesByUserId(1L);
+    }
+}
@@ -0,0 +1,196 @@
+package com.booklovers.service.shelf;
+
+import com.booklovers.dto.ShelfBatchItemResultDto;
+import com.booklovers.dto.ShelfBatchItemResultDto.Status;
+import com.booklovers.dto.ShelfBatchOperationDto;
+import com.booklovers.dto.ShelfBatchOperationDto.Action;
+import com.booklovers.dto.ShelfBatchRequest;
+import com.booklovers.dto.ShelfBatchResultDto;
+import com.booklovers.exception.ConflictException;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.repository.UserBookRepository;
+import com.booklovers.service.book.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShelfBatchServiceTest {
+
+    @Mock
+    private UserBookRepository userBookRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private LibraryIndexService libraryIndexService;
+
+    @Mock
+    private BookService bookService;
+
+    @InjectMocks
+    private ShelfBatchServiceImp shelfBatchService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bookService.getDefaultShelves()).thenReturn(List.of("Przeczytane", "Chcę przeczytać", "Teraz czytam"));
+    }
+
+    private static List<Object[]> library(Object[]... entries) {
+        return Arrays.asList(entries);
+    }
+
+    private static ShelfBatchRequest request(ShelfBatchOperationDto... operations) {
+        return ShelfBatchRequest.builder().operations(List.of(operations)).build();
+    }
+
+    private static ShelfBatchOperationDto operation(Action action, String fromShelf, String shelfName, Long... bookIds) {
+        return ShelfBatchOperationDto.builder()
+                .action(action)
+                .fromShelf(fromShelf)
+                .shelfName(shelfName)
+                .bookIds(List.of(bookIds))
+                .build();
+    }
+
+    @Test
+    void testAdd_InsertsNewBooksAndReportsPerItem() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library(new Object[]{"Ulubione", 1L}));
+        when(bookRepository.findExistingIds(List.of(2L, 3L))).thenReturn(List.of(2L));
+        when(userBookRepository.insertBooks(1L, "Ulubione", List.of(2L))).thenReturn(1);
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.ADD, null, "Ulubione", 1L, 2L, 3L)));
+
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(Status.CONFLICT, Status.OK, Status.NOT_FOUND),
+                result.getResults().stream().map(ShelfBatchItemResultDto::getStatus).toList());
+        verify(libraryIndexService).evict(1L);
+    }
+
+    @Test
+    void testAdd_ToDefaultShelfMovesFromOtherDefaultShelf() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library(new Object[]{"Chcę przeczytać", 1L}));
+        when(bookRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(userBookRepository.moveBooks(1L, "Chcę przeczytać", "Przeczytane", List.of(1L))).thenReturn(1);
+        when(userBookRepository.insertBooks(1L, "Przeczytane", List.of(2L))).thenReturn(1);
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.ADD, null, "Przeczytane", 1L, 2L)));
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals("Moved from shelf: Chcę przeczytać", result.getResults().get(0).getMessage());
+    }
+
+    @Test
+    void testAdd_ChunksLargeIdLists() {
+        Long[] bookIds = LongStream.rangeClosed(1, 2500).boxed().toArray(Long[]::new);
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library());
+        when(bookRepository.findExistingIds(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userBookRepository.insertBooks(eq(1L), eq("Ulubione"), anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(2)).size());
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.ADD, null, "Ulubione", bookIds)));
+
+        assertEquals(2500, result.getSucceeded());
+        verify(userBookRepository, times(3)).findShelfEntriesByUserIdAndBookIds(eq(1L), anyList());
+        verify(bookRepository, times(3)).findExistingIds(anyList());
+        verify(userBookRepository, times(3)).insertBooks(eq(1L), eq("Ulubione"), anyList());
+    }
+
+    @Test
+    void testMove_ReportsMissingAndConflicts() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library(
+                new Object[]{"Chcę przeczytać", 1L},
+                new Object[]{"Chcę przeczytać", 2L},
+                new Object[]{"Przeczytane", 2L}));
+        when(userBookRepository.moveBooks(1L, "Chcę przeczytać", "Przeczytane", List.of(1L))).thenReturn(1);
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.MOVE, "Chcę przeczytać", "Przeczytane", 1L, 2L, 3L)));
+
+        assertEquals(List.of(Status.OK, Status.CONFLICT, Status.NOT_FOUND),
+                result.getResults().stream().map(ShelfBatchItemResultDto::getStatus).toList());
+    }
+
+    @Test
+    void testRemove_NothingToRemoveDoesNotTouchDatabase() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library());
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.REMOVE, null, "Przeczytane", 1L)));
+
+        assertEquals(0, result.getSucceeded());
+        assertEquals(Status.NOT_FOUND, result.getResults().get(0).getStatus());
+        verify(userBookRepository, never()).deleteBooksFromShelf(anyLong(), anyString(), anyList());
+        verify(libraryIndexService, never()).evict(anyLong());
+    }
+
+    @Test
+    void testOperationsSeeEarlierChangesAndDuplicatesAreMerged() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList()))
+                .thenReturn(library())
+                .thenReturn(library(new Object[]{"Moja biblioteczka", 5L}));
+        when(bookRepository.findExistingIds(List.of(5L))).thenReturn(List.of(5L));
+        when(userBookRepository.insertBooks(1L, "Moja biblioteczka", List.of(5L))).thenReturn(1);
+        when(userBookRepository.deleteBooksFromShelf(1L, "Moja biblioteczka", List.of(5L))).thenReturn(1);
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L, request(
+                operation(Action.ADD, null, null, 5L, 5L),
+                operation(Action.REMOVE, null, " ", 5L)));
+
+        assertEquals(2, result.getResults().size());
+        assertEquals(2, result.getSucceeded());
+        verify(libraryIndexService, times(2)).evict(1L);
+    }
+
+    @Test
+    void testMembershipReadFromDatabaseNotFromIndex() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(1L, List.of(1L, 2L)))
+                .thenReturn(library(new Object[]{"Ulubione", 1L}));
+        when(userBookRepository.deleteBooksFromShelf(1L, "Ulubione", List.of(1L))).thenReturn(1);
+
+        ShelfBatchResultDto result = shelfBatchService.applyBatch(1L,
+                request(operation(Action.REMOVE, null, "Ulubione", 1L, 2L)));
+
+        assertEquals(List.of(Status.OK, Status.NOT_FOUND),
+                result.getResults().stream().map(ShelfBatchItemResultDto::getStatus).toList());
+        verify(libraryIndexService, never()).getLibrary(anyLong());
+    }
+
+    @Test
+    void testAffectedRowsMismatchFailsBatch() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList()))
+                .thenReturn(library(new Object[]{"Chcę przeczytać", 1L}, new Object[]{"Chcę przeczytać", 2L}));
+        when(userBookRepository.moveBooks(1L, "Chcę przeczytać", "Przeczytane", List.of(1L, 2L))).thenReturn(1);
+
+        assertThrows(ConflictException.class, () -> shelfBatchService.applyBatch(1L,
+                request(operation(Action.MOVE, "Chcę przeczytać", "Przeczytane", 1L, 2L))));
+    }
+
+    @Test
+    void testConcurrentInsertOfSameBookIsConflict() {
+        when(userBookRepository.findShelfEntriesByUserIdAndBookIds(eq(1L), anyList())).thenReturn(library());
+        when(bookRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+        when(userBookRepository.insertBooks(1L, "Ulubione", List.of(1L)))
+                .thenThrow(new DataIntegrityViolationException("uk_user_books_user_book_shelf"));
+
+        assertThrows(ConflictException.class, () -> shelfBatchService.applyBatch(1L,
+                request(operation(Action.ADD, null, "Ulubione", 1L))));
+    }
+}
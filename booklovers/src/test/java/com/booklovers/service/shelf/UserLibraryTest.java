@@ -0,0 +1,69 @@
+package com.booklovers.service.shelf;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserLibraryTest {
+
+    private static UserLibrary library(List<String> shelves, Object[]... entries) {
+        return UserLibrary.of(shelves, Arrays.asList(entries));
+    }
+
+    @Test
+    void testOf_SortsAndDeduplicatesBookIds() {
+        UserLibrary library = library(List.of(),
+                new Object[]{"Przeczytane", 5L},
+                new Object[]{"Przeczytane", 2L},
+                new Object[]{"Przeczytane", 5L},
+                new Object[]{"Chcę przeczytać", 2L});
+
+        assertArrayEquals(new long[]{2L, 5L}, library.getBookIds("Przeczytane"));
+        assertArrayEquals(new long[]{2L, 5L}, library.getAllBookIds());
+        assertEquals(2, library.count("Przeczytane"));
+        assertEquals(2, library.getTotalBooks());
+    }
+
+    @Test
+    void testOf_KeepsEmptyShelves() {
+        UserLibrary library = library(List.of("Zimowe"), new Object[]{"Stara pusta półka", null});
+
+        assertEquals(List.of("Stara pusta półka", "Zimowe"), library.getShelfNames());
+        assertTrue(library.hasShelf("Zimowe"));
+        assertEquals(0, library.count("Stara pusta półka"));
+        assertEquals(0, library.getTotalBooks());
+    }
+
+    @Test
+    void testContains() {
+        UserLibrary library = library(List.of(), new Object[]{"Przeczytane", 3L}, new Object[]{"Przeczytane", 7L});
+
+        assertTrue(library.contains("Przeczytane", 7L));
+        assertFalse(library.contains("Przeczytane", 4L));
+        assertFalse(library.contains("Nieistniejąca", 7L));
+    }
+
+    @Test
+    void testGetShelvesContaining() {
+        UserLibrary library = library(List.of(),
+                new Object[]{"Przeczytane", 1L},
+                new Object[]{"Ulubione", 1L},
+                new Object[]{"Chcę przeczytać", 2L});
+
+        assertEquals(List.of("Przeczytane", "Ulubione"), library.getShelvesContaining(1L));
+        assertTrue(library.getShelvesContaining(3L).isEmpty());
+    }
+
+    @Test
+    void testGetBookIds_ReturnsCopy() {
+        UserLibrary library = library(List.of(), new Object[]{"Przeczytane", 1L});
+
+        library.getBookIds("Przeczytane")[0] = 99L;
+
+        assertTrue(library.contains("Przeczytane", 1L));
+        assertEquals(0, library.getBookIds("Nieistniejąca").length);
+    }
+}
@@ -8,6 +8,8 @@ import com.booklovers.entity.Rating;
 import com.booklovers.entity.User;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.repository.*;
+import com.booklovers.service.shelf.LibraryIndexService;
+import com.booklovers.service.shelf.UserLibrary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -52,6 +54,9 @@ class StatsServiceTest {
     @Mock
     private UserBookRepository userBookRepository;
 
+    @Mock
+    private LibraryIndexService libraryIndexService;
+
     @Mock
     private JdbcTemplate jdbcTemplate;
 
@@ -145,8 +150,12 @@ class StatsServiceTest {
     @Test
     void testGetUserStats_Success() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L)).thenReturn(Arrays.asList("Shelf1", "Shelf2"));
+        when(libraryIndexService.getLibrary(1L)).thenReturn(UserLibrary.of(Arrays.asList("Shelf1", "Shelf2"),
+                List.<Object[]>of(new Object[]{"Shelf1", 10L}, new Object[]{"Shelf2", 10L}, new Object[]{"Shelf2", 11L})));
         when(userBookRepository.countBooksReadInYear(1L, 2026)).thenReturn(5L);
+        when(reviewRepository.countByUserId(1L)).thenReturn(1L);
+        when(ratingRepository.countByUserId(1L)).thenReturn(2L);
+        when(ratingRepository.getAverageRatingByUserId(1L)).thenReturn(3.5);
 
         UserStatsDto result = statsService.getUserStats(1L);
 
@@ -154,8 +163,12 @@ class StatsServiceTest {
         assertThat(result.getUserId()).isEqualTo(1L);
         assertThat(result.getUsername()).isEqualTo("testuser");
         assertThat(result.getShelvesCount()).isEqualTo(2);
+        assertThat(result.getBooksRead()).isEqualTo(2);
+        assertThat(result.getReviewsWritten()).isEqualTo(1);
+        assertThat(result.getRatingsGiven()).isEqualTo(2);
+        assertThat(result.getAverageRatingGiven()).isEqualTo(3.5);
         verify(userRepository).findById(1L);
-        verify(userBookRepository).findDistinctShelfNamesByUserId(1L);
+        verify(libraryIndexService).getLibrary(1L);
     }
 
     @Test
@@ -173,9 +186,8 @@ class StatsServiceTest {
     void testGetBookStats_Success() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(userBookRepository.countReadersByBookId(1L)).thenReturn(10L);
-        when(ratingRepository.countByBookId(1L)).thenReturn(5L);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(4.5);
-        when(ratingRepository.findByBookId(1L)).thenReturn(Arrays.asList(rating));
+        when(ratingRepository.getRatingDistributionByBookId(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{4, 3L}, new Object[]{5, 3L}));
 
         BookStatsDto result = statsService.getBookStats(1L);
 
@@ -183,12 +195,12 @@ class StatsServiceTest {
         assertThat(result.getBookId()).isEqualTo(1L);
         assertThat(result.getBookTitle()).isEqualTo("Test Book");
         assertThat(result.getReadersCount()).isEqualTo(10);
-        assertThat(result.getRatingsCount()).isEqualTo(5);
+        assertThat(result.getRatingsCount()).isEqualTo(6);
         assertThat(result.getAverageRating()).isEqualTo(4.5);
+        assertThat(result.getRatingsDistribution().get(5)).isEqualTo(3L);
         verify(bookRepository).findById(1L);
         verify(userBookRepository).countReadersByBookId(1L);
-        verify(ratingRepository).countByBookId(1L);
-        verify(ratingRepository).getAverageRatingByBookId(1L);
+        verify(ratingRepository).getRatingDistributionByBookId(1L);
     }
 
     @Test
@@ -206,9 +218,7 @@ class StatsServiceTest {
     void testGetBookStats_NoRatings() {
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
         when(userBookRepository.countReadersByBookId(1L)).thenReturn(0L);
-        when(ratingRepository.countByBookId(1L)).thenReturn(0L);
-        when(ratingRepository.getAverageRatingByBookId(1L)).thenReturn(null);
-        when(ratingRepository.findByBookId(1L)).thenReturn(Collections.emptyList());
+        when(ratingRepository.getRatingDistributionByBookId(1L)).thenReturn(Collections.emptyList());
 
         BookStatsDto result = statsService.getBookStats(1L);
 
@@ -230,7 +240,7 @@ class StatsServiceTest {
                 .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(userWithNullUserBooks));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L)).thenReturn(Collections.emptyList());
+        when(libraryIndexService.getLibrary(1L)).thenReturn(UserLibrary.of(List.of(), List.of()));
         when(userBookRepository.countBooksReadInYear(1L, 2026)).thenReturn(0L);
 
         UserStatsDto result = statsService.getUserStats(1L);
@@ -254,7 +264,7 @@ class StatsServiceTest {
                 .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(userWithNullRatings));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L)).thenReturn(Collections.emptyList());
+        when(libraryIndexService.getLibrary(1L)).thenReturn(UserLibrary.of(List.of(), List.of()));
         when(userBookRepository.countBooksReadInYear(1L, 2026)).thenReturn(0L);
 
         UserStatsDto result = statsService.getUserStats(1L);
@@ -275,7 +285,7 @@ class StatsServiceTest {
                 .build();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(userWithEmptyRatings));
-        when(userBookRepository.findDistinctShelfNamesByUserId(1L)).thenReturn(Collections.emptyList());
+        when(libraryIndexService.getLibrary(1L)).thenReturn(UserLibrary.of(List.of(), List.of()));
         when(userBookRepository.countBooksReadInYear(1L, 2026)).thenReturn(0L);
 
         UserStatsDto result = statsService.getUserStats(1L);
@@ -0,0 +1,67 @@
+package com.booklovers.service.token;
+
+import com.booklovers.api.config.AuthTokenProperties;
+import com.booklovers.entity.TokenRevocation;
+import com.booklovers.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00.500Z");
+
+    private final TokenRevocationRepository tokenRevocationRepository = mock(TokenRevocationRepository.class);
+
+    private final TokenRevocationServiceImp service = new TokenRevocationServiceImp(
+            tokenRevocationRepository, new AuthTokenProperties(), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void testTokensIssuedBeforeRevocationAreRevoked() {
+        service.revokeUser(1L);
+
+        assertTrue(service.isRevoked(1L, NOW.minusSeconds(60)));
+        assertTrue(service.isRevoked(1L, Instant.parse("2025-01-01T12:00:00Z")));
+        assertFalse(service.isRevoked(1L, NOW.plusSeconds(1)));
+        verify(tokenRevocationRepository, never()).findById(any());
+    }
+
+    @Test
+    void testOtherUsersAreNotRevoked() {
+        service.revokeUser(1L);
+
+        assertFalse(service.isRevoked(2L, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void testRevocationIsStoredForOtherNodes() {
+        service.revokeUser(1L);
+
+        verify(tokenRevocationRepository).save(argThat((TokenRevocation revocation) -> revocation.getUserId() == 1L
+                && revocation.getRevokedAt().equals(LocalDateTime.parse("2025-01-01T12:00:00"))));
+        verify(tokenRevocationRepository).deleteRevokedBefore(LocalDateTime.parse("2025-01-01T11:45:00"));
+    }
+
+    @Test
+    void testRevocationFromOtherNodeIsReadThroughCache() {
+        when(tokenRevocationRepository.findById(3L)).thenReturn(Optional.of(
+                new TokenRevocation(3L, LocalDateTime.parse("2025-01-01T11:59:00"))));
+
+        assertTrue(service.isRevoked(3L, NOW.minusSeconds(120)));
+        assertFalse(service.isRevoked(3L, NOW.minusSeconds(30)));
+        assertFalse(service.isRevoked(4L, NOW.minusSeconds(120)));
+        assertFalse(service.isRevoked(4L, NOW.minusSeconds(120)));
+
+        verify(tokenRevocationRepository, times(1)).findById(3L);
+        verify(tokenRevocationRepository, times(1)).findById(4L);
+    }
+}
@@ -0,0 +1,188 @@
+package com.booklovers.service.token;
+
+import com.booklovers.api.config.AuthTokenProperties;
+import com.booklovers.dto.TokenResponse;
+import com.booklovers.entity.User;
+import com.booklovers.exception.UnauthorizedException;
+import com.booklovers.repository.UserRepository;
+import com.booklovers.service.user.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private UserRepository userRepository;
+    private TokenRevocationService revocationService;
+    private AuthTokenProperties properties;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        revocationService = mock(TokenRevocationService.class);
+        properties = new AuthTokenProperties();
+        properties.setSecret(SECRET);
+        user = User.builder()
+                .id(7L)
+                .username("reader")
+                .email("reader@example.com")
+                .password("hash")
+                .role(User.Role.ADMIN)
+                .build();
+    }
+
+    @Test
+    void testAccessTokenCarriesUserIdAndRole() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+
+        AccessTokenClaims claims = service(NOW.plusSeconds(60)).verifyAccessToken(tokens.getAccessToken()).orElseThrow();
+
+        assertEquals(7L, claims.userId());
+        assertEquals("reader", claims.username());
+        assertEquals("ADMIN", claims.role());
+        assertEquals(NOW, claims.issuedAt());
+        assertEquals("Bearer", tokens.getTokenType());
+        assertEquals(900, tokens.getExpiresIn());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testExpiredAccessTokenIsRejected() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+
+        assertTrue(service(NOW.plus(Duration.ofMinutes(15))).verifyAccessToken(tokens.getAccessToken()).isEmpty());
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = service(NOW).issueTokens(authentication()).getAccessToken();
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"ADMIN\"", "\"USER\"");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertTrue(service(NOW).verifyAccessToken(tampered).isEmpty());
+        assertTrue(service(NOW).verifyAccessToken("eyJhbGciOiJub25lIn0." + parts[1] + ".").isEmpty());
+        assertTrue(service(NOW).verifyAccessToken("not-a-token").isEmpty());
+    }
+
+    @Test
+    void testTokenSignedWithOtherSecretIsRejected() {
+        String token = service(NOW).issueTokens(authentication()).getAccessToken();
+        properties.setSecret("another-secret-another-secret-xx");
+
+        assertTrue(service(NOW).verifyAccessToken(token).isEmpty());
+    }
+
+    @Test
+    void testRefreshTokenIsNotAcceptedAsAccessToken() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+
+        assertTrue(service(NOW).verifyAccessToken(tokens.getRefreshToken()).isEmpty());
+    }
+
+    @Test
+    void testRevokedUserAccessTokenIsRejected() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+        when(revocationService.isRevoked(7L, NOW)).thenReturn(true);
+
+        assertTrue(service(NOW).verifyAccessToken(tokens.getAccessToken()).isEmpty());
+    }
+
+    @Test
+    void testRefreshIssuesNewPairWithCurrentRole() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+        user.setRole(User.Role.USER);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        TokenResponse refreshed = service(NOW.plus(Duration.ofHours(1))).refresh(tokens.getRefreshToken());
+
+        AccessTokenClaims claims = service(NOW.plus(Duration.ofHours(1)))
+                .verifyAccessToken(refreshed.getAccessToken()).orElseThrow();
+        assertEquals("USER", claims.role());
+    }
+
+    @Test
+    void testRefreshRejectsBlockedUser() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+        user.setIsBlocked(true);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        assertThrows(UnauthorizedException.class, () -> service(NOW).refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void testRefreshRejectsTokenIssuedBeforeRevocation() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(revocationService.isRevoked(7L, NOW)).thenReturn(true);
+
+        assertThrows(UnauthorizedException.class, () -> service(NOW.plusSeconds(60)).refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void testRevokeTokensRevokesAuthenticatedUser() {
+        service(NOW).revokeTokens(authentication());
+
+        verify(revocationService).revokeUser(7L);
+    }
+
+    @Test
+    void testRefreshRejectsAccessTokenAndExpiredRefreshToken() {
+        TokenResponse tokens = service(NOW).issueTokens(authentication());
+
+        assertThrows(UnauthorizedException.class, () -> service(NOW).refresh(tokens.getAccessToken()));
+        assertThrows(UnauthorizedException.class,
+                () -> service(NOW.plus(Duration.ofDays(14))).refresh(tokens.getRefreshToken()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testShortSecretIsRejected() {
+        properties.setSecret("too-short");
+
+        assertThrows(IllegalStateException.class, () -> service(NOW));
+    }
+
+    @Test
+    void testMissingSecretIsRejectedWhenRequired() {
+        properties.setSecret("");
+        properties.setRequireSecret(true);
+
+        assertThrows(IllegalStateException.class, () -> service(NOW));
+    }
+
+    @Test
+    void testMissingSecretFallsBackToRandomKey() {
+        properties.setSecret("");
+
+        TokenServiceImp service = service(NOW);
+
+        assertNotNull(service.issueTokens(authentication()).getAccessToken());
+    }
+
+    private UsernamePasswordAuthenticationToken authentication() {
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    private TokenServiceImp service(Instant now) {
+        return new TokenServiceImp(userRepository, revocationService, properties, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,57 @@
+package com.booklovers.service.user;
+
+import com.booklovers.api.config.LoginThrottleProperties;
+import com.booklovers.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceTest {
+
+    private LoginThrottleProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginThrottleProperties();
+        properties.setPerIp(new LoginThrottleProperties.Limit(5, Duration.ofMinutes(1)));
+        properties.setPerUsername(new LoginThrottleProperties.Limit(2, Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void testUsernameLimitAppliesAcrossAddresses() {
+        LoginThrottleServiceImp service = new LoginThrottleServiceImp(properties);
+
+        service.checkAllowed("10.0.0.1", "reader");
+        service.checkAllowed("10.0.0.2", "Reader ");
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> service.checkAllowed("10.0.0.3", "READER"));
+        assertEquals(30, ex.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> service.checkAllowed("10.0.0.3", "other"));
+    }
+
+    @Test
+    void testAddressLimitAppliesAcrossUsernames() {
+        LoginThrottleServiceImp service = new LoginThrottleServiceImp(properties);
+
+        for (int i = 0; i < 5; i++) {
+            service.checkAllowed("10.0.0.1", "user" + i);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> service.checkAllowed("10.0.0.1", "fresh"));
+        assertDoesNotThrow(() -> service.checkAllowed("10.0.0.2", "fresh"));
+    }
+
+    @Test
+    void testDisabled() {
+        properties.setEnabled(false);
+        LoginThrottleServiceImp service = new LoginThrottleServiceImp(properties);
+
+        for (int i = 0; i < 10; i++) {
+            service.checkAllowed("10.0.0.1", "reader");
+        }
+    }
+}
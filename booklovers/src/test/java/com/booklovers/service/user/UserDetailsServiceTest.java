@@ -0,0 +1,84 @@
+package com.booklovers.service.user;
+
+import com.booklovers.api.config.PasswordHashingProperties;
+import com.booklovers.api.config.SecurityConfig;
+import com.booklovers.entity.User;
+import com.booklovers.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
+    private DaoAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setBcryptStrength(5);
+        passwordEncoder = new SecurityConfig(null, null).passwordEncoder(properties);
+        UserDetailsServiceImp userDetailsService = new UserDetailsServiceImp(userRepository);
+        provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+    }
+
+    @Test
+    void testLegacyHashIsRehashedOnLogin() {
+        User user = user(new BCryptPasswordEncoder(4).encode("password123"));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("reader", "password123"));
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertTrue(saved.getValue().getPassword().startsWith("{bcrypt}$2a$05$"));
+        assertTrue(passwordEncoder.matches("password123", saved.getValue().getPassword()));
+        assertSame(user, saved.getValue());
+    }
+
+    @Test
+    void testCurrentHashIsNotRewritten() {
+        user(passwordEncoder.encode("password123"));
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("reader", "password123"));
+
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testFailedLoginDoesNotRehash() {
+        user(new BCryptPasswordEncoder(4).encode("password123"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> provider.authenticate(new UsernamePasswordAuthenticationToken("reader", "wrong")));
+
+        verify(userRepository, never()).save(any());
+    }
+
+    private User user(String passwordHash) {
+        User user = User.builder()
+                .id(1L)
+                .username("reader")
+                .email("reader@example.com")
+                .password(passwordHash)
+                .role(User.Role.USER)
+                .build();
+        when(userRepository.findByUsername("reader")).thenReturn(Optional.of(user));
+        return user;
+    }
+}
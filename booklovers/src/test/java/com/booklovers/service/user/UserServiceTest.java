@@ -4,6 +4,8 @@ import com.booklovers.dto.RegisterRequest;
 import com.booklovers.dto.UserDto;
 import com.booklovers.entity.User;
 import com.booklovers.repository.UserRepository;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.token.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +23,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +38,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     
+    @Mock
+    private FileStorageService fileStorageService;
+    
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
     @InjectMocks
     private UserServiceImp userService;
     
@@ -295,6 +304,7 @@ class UserServiceTest {
         assertNotNull(result);
         verify(passwordEncoder).encode("newPassword123");
         verify(userRepository).save(any(User.class));
+        verify(tokenRevocationService).revokeUser(1L);
     }
 
     @Test
@@ -398,13 +408,25 @@ class UserServiceTest {
 
     @Test
     void testDeleteUser_Success() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        User user = User.builder().id(1L).username("testuser").avatarUrl("avatars/avatar.jpg").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         
         userService.deleteUser(1L);
         
-        verify(userRepository).existsById(1L);
+        verify(userRepository).findById(1L);
+        verify(fileStorageService).release("avatars/avatar.jpg");
         verify(userRepository).deleteById(1L);
     }
+    
+    @Test
+    void testDeleteUser_NotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        
+        assertThrows(com.booklovers.exception.ResourceNotFoundException.class, () -> userService.deleteUser(1L));
+        
+        verify(userRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(fileStorageService);
+    }
 
     @Test
     void testBlockUser_Success() {
@@ -436,6 +458,7 @@ class UserServiceTest {
         assertTrue(result.getIsBlocked());
         verify(userRepository).findById(1L);
         verify(userRepository).save(any(User.class));
+        verify(tokenRevocationService).revokeUser(1L);
     }
 
     @Test
@@ -448,6 +471,7 @@ class UserServiceTest {
         
         verify(userRepository).findById(1L);
         verify(userRepository, never()).save(any(User.class));
+        verify(tokenRevocationService, never()).revokeUser(anyLong());
     }
 
     @Test
@@ -514,6 +538,79 @@ class UserServiceTest {
         
         verify(userRepository).findByUsername("testuser");
         verify(userRepository).deleteById(1L);
+        verifyNoInteractions(fileStorageService);
+    }
+    
+    @Test
+    void testDeleteCurrentUser_ReleasesAvatar() {
+        User user = User.builder()
+                .id(1L)
+                .username("testuser")
+                .avatarUrl("avatars/avatar.jpg")
+                .build();
+        
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        
+        userService.deleteCurrentUser();
+        
+        verify(fileStorageService).release("avatars/avatar.jpg");
+        verify(userRepository).deleteById(1L);
+    }
+    
+    @Test
+    void testUpdateUser_NewAvatarRetainsNewAndReleasesOld() {
+        User user = User.builder()
+                .id(1L)
+                .username("testuser")
+                .email("test@example.com")
+                .avatarUrl("avatars/old.jpg")
+                .build();
+        
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userMapper.toDto(any(User.class))).thenReturn(UserDto.builder().id(1L).build());
+        
+        userService.updateUser(UserDto.builder().avatarUrl("avatars/new.jpg").build());
+        
+        verify(fileStorageService).retain("avatars/new.jpg");
+        verify(fileStorageService).release("avatars/old.jpg");
+        assertEquals("avatars/new.jpg", user.getAvatarUrl());
+    }
+    
+    @Test
+    void testUpdateUser_SameAvatarDoesNotChangeReferences() {
+        User user = User.builder()
+                .id(1L)
+                .username("testuser")
+                .email("test@example.com")
+                .avatarUrl("avatars/same.jpg")
+                .build();
+        
+        Authentication authentication = mock(Authentication.class);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        SecurityContextHolder.setContext(securityContext);
+        
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userMapper.toDto(any(User.class))).thenReturn(UserDto.builder().id(1L).build());
+        
+        userService.updateUser(UserDto.builder().avatarUrl("avatars/same.jpg").build());
+        
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
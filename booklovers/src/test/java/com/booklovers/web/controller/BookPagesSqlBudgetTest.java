@@ -0,0 +1,154 @@
+package com.booklovers.web.controller;
+
+import com.booklovers.entity.Author;
+import com.booklovers.entity.Book;
+import com.booklovers.entity.Rating;
+import com.booklovers.entity.Review;
+import com.booklovers.entity.User;
+import com.booklovers.repository.AuthorRepository;
+import com.booklovers.repository.BookRepository;
+import com.booklovers.repository.RatingRepository;
+import com.booklovers.repository.ReviewRepository;
+import com.booklovers.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.booklovers.api.config.SqlStatementAssertions.countStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Liczba zapytań SQL stron książek nie może rosnąć z liczbą książek, ocen i recenzji (N+1).
+ * Profil test działa z sql-budget.mode=FAIL, więc przekroczenie budżetu endpointu też kończy test błędem.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookPagesSqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = authorRepository.save(Author.builder().firstName("Test").lastName("Author").build());
+        for (int i = 0; i < 3; i++) {
+            users.add(userRepository.save(User.builder()
+                    .username("budget" + i)
+                    .email("budget" + i + "@example.com")
+                    .password("password")
+                    .role(User.Role.USER)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewRepository.deleteAll();
+        ratingRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void testBooksPageStatementCountDoesNotDependOnBookCount() {
+        addBooks(2);
+        long withTwoBooks = countStatements(() -> perform("/books"));
+
+        addBooks(8);
+        long withTenBooks = countStatements(() -> perform("/books"));
+
+        assertEquals(withTwoBooks, withTenBooks);
+    }
+
+    // Powyżej progu cache katalog jest strumieniowany z kursora - nadal stała liczba zapytań
+    @Test
+    void testStreamedCatalogStatementCountDoesNotDependOnBookCount() throws Exception {
+        addUnratedBooks(120);
+        long withFewerBooks = countStatements(() -> perform("/books"));
+
+        addUnratedBooks(130);
+        long withMoreBooks = countStatements(() -> perform("/books"));
+
+        assertEquals(withFewerBooks, withMoreBooks);
+        String html = mockMvc.perform(get("/books")).andReturn().getResponse().getContentAsString();
+        assertTrue(html.contains("Unrated book 129"));
+    }
+
+    @Test
+    void testBookDetailsStatementCountDoesNotDependOnReviewCount() {
+        Book book = addBooks(1).get(0);
+        long withReviews = countStatements(() -> perform("/books/" + book.getId()));
+
+        Book other = addBooks(1).get(0);
+        reviewRepository.deleteAll(reviewRepository.findByBookId(other.getId()));
+        ratingRepository.deleteAll(ratingRepository.findByBookId(other.getId()));
+        long withoutReviews = countStatements(() -> perform("/books/" + other.getId()));
+
+        assertEquals(withoutReviews, withReviews);
+    }
+
+    // Każda książka dostaje ocenę i recenzję od każdego użytkownika
+    private List<Book> addBooks(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = bookRepository.save(Book.builder()
+                    .title("Budget book " + i)
+                    .author(author.getFullName())
+                    .authorEntity(author)
+                    .build());
+            for (User user : users) {
+                ratingRepository.save(Rating.builder().value(4).user(user).book(book).build());
+                reviewRepository.save(Review.builder().content("Review").user(user).book(book).build());
+            }
+            books.add(book);
+        }
+        return books;
+    }
+
+    private void addUnratedBooks(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            books.add(Book.builder().title("Unrated book " + i).author(author.getFullName()).authorEntity(author).build());
+        }
+        bookRepository.saveAll(books);
+    }
+
+    private void perform(String uri) {
+        try {
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.booklovers.web.controller;
 
+import com.booklovers.api.config.PrimaryReadScope;
 import com.booklovers.dto.*;
 import com.booklovers.entity.User;
 import com.booklovers.service.author.AuthorService;
+import com.booklovers.service.book.BookCursor;
 import com.booklovers.service.book.BookService;
+import com.booklovers.service.cache.CacheValidatorService;
+import com.booklovers.service.cache.FragmentCacheServiceImp;
 import com.booklovers.service.rating.RatingService;
 import com.booklovers.service.review.ReviewService;
 import com.booklovers.service.stats.StatsService;
@@ -14,15 +18,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -31,6 +40,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(BookWebController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(FragmentCacheServiceImp.class)
 class BookWebControllerTest {
 
     @Autowired
@@ -54,6 +64,9 @@ class BookWebControllerTest {
     @MockBean
     private StatsService statsService;
 
+    @MockBean
+    private CacheValidatorService cacheValidatorService;
+
     private BookDto bookDto;
     private UserDto userDto;
     private ReviewDto reviewDto;
@@ -89,18 +102,55 @@ class BookWebControllerTest {
     @Test
     @WithMockUser
     void testBooksPage_WithoutSearch() throws Exception {
-        when(bookService.getAllBooks()).thenReturn(Arrays.asList(bookDto));
+        when(bookService.openCatalog()).thenAnswer(invocation -> cursor(false, bookDto));
 
         mockMvc.perform(get("/books"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("books"))
-                .andExpect(model().attributeExists("books"))
-                .andExpect(model().attribute("search", (Object) null));
+                .andExpect(model().attributeExists("catalogHtml"))
+                .andExpect(model().attribute("search", (Object) null))
+                .andExpect(content().string(containsString("Test Book")));
 
-        verify(bookService).getAllBooks();
+        verify(bookService).openCatalog();
         verify(bookService, never()).searchBooks(anyString());
     }
 
+    @Test
+    @WithMockUser
+    void testBooksPage_CatalogFragmentCachedUntilValidatorChanges() throws Exception {
+        when(bookService.openCatalog()).thenAnswer(invocation -> cursor(false, bookDto));
+        when(cacheValidatorService.getBooksValidator())
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"catalog-v1\"").build());
+
+        mockMvc.perform(get("/books")).andExpect(content().string(containsString("Test Book")));
+        mockMvc.perform(get("/books")).andExpect(content().string(containsString("Test Book")));
+        verify(bookService, times(1)).openCatalog();
+
+        bookDto.setTitle("Changed Title");
+        when(cacheValidatorService.getBooksValidator())
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"catalog-v2\"").build());
+
+        mockMvc.perform(get("/books")).andExpect(content().string(containsString("Changed Title")));
+        verify(bookService, times(2)).openCatalog();
+    }
+
+    // Walidator pochodzi z bazy głównej - model renderowany do cache nie może być czytany z opóźnionej repliki
+    @Test
+    @WithMockUser
+    void testBooksPage_CatalogForCacheReadFromPrimary() throws Exception {
+        when(bookService.openCatalog()).thenAnswer(invocation -> {
+            assertTrue(PrimaryReadScope.isActive());
+            return cursor(false, bookDto);
+        });
+        when(cacheValidatorService.getBooksValidator())
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"catalog-primary\"").build());
+
+        mockMvc.perform(get("/books")).andExpect(content().string(containsString("Test Book")));
+
+        verify(bookService).openCatalog();
+        assertFalse(PrimaryReadScope.isActive());
+    }
+
     @Test
     @WithMockUser
     void testBooksPage_WithSearch() throws Exception {
@@ -113,6 +163,27 @@ class BookWebControllerTest {
                 .andExpect(model().attribute("search", "test"));
 
         verify(bookService).searchBooks("test");
+        verify(bookService, never()).openCatalog();
+    }
+
+    @Test
+    @WithMockUser
+    void testBooksPage_LargeCatalogStreamedFromCursorAndNotCached() throws Exception {
+        BookDto second = BookDto.builder().id(2L).title("Second Book").author("Other Author").build();
+        BookCursor cursor = cursor(true, bookDto, second);
+        when(bookService.openCatalog()).thenReturn(cursor);
+        when(cacheValidatorService.getBooksValidator())
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"large-catalog\"").build());
+
+        mockMvc.perform(get("/books"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("books", cursor))
+                .andExpect(model().attributeDoesNotExist("catalogHtml"))
+                .andExpect(content().string(containsString("Test Book")))
+                .andExpect(content().string(containsString("Second Book")));
+
+        // Kursor zamykany po wyrenderowaniu widoku (callback zakończenia żądania)
+        verify(cursor).close();
         verify(bookService, never()).getAllBooks();
     }
 
@@ -134,12 +205,55 @@ class BookWebControllerTest {
                 .andExpect(model().attributeExists("reviewDto"))
                 .andExpect(model().attributeExists("currentUser"))
                 .andExpect(model().attributeExists("userShelves"))
-                .andExpect(model().attributeExists("bookStats"));
+                .andExpect(model().attributeExists("bookHeaderHtml"))
+                .andExpect(model().attributeExists("bookStatsHtml"))
+                .andExpect(content().string(containsString("Statystyki czytelnictwa")));
 
         verify(bookService).getBookById(1L);
         verify(reviewService).getReviewsByBookId(1L);
     }
 
+    @Test
+    @WithMockUser
+    void testBookDetails_StatsFragmentCached() throws Exception {
+        when(bookService.getBookById(1L)).thenReturn(Optional.of(bookDto));
+        when(reviewService.getReviewsByBookId(1L)).thenReturn(Collections.emptyList());
+        when(ratingService.getRatingsByBookId(1L)).thenReturn(Collections.emptyList());
+        when(userService.getCurrentUser()).thenReturn(userDto);
+        when(statsService.getBookStats(1L)).thenReturn(bookStatsDto);
+        when(cacheValidatorService.getBookStatsValidator(1L))
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"book-stats-v1\"").build());
+
+        mockMvc.perform(get("/books/1")).andExpect(content().string(containsString("Statystyki czytelnictwa")));
+        mockMvc.perform(get("/books/1")).andExpect(content().string(containsString("Statystyki czytelnictwa")));
+
+        verify(statsService, times(1)).getBookStats(1L);
+    }
+
+    @Test
+    @WithMockUser
+    void testBookDetails_PrimaryReadsOnlyWhenFragmentMissing() throws Exception {
+        List<Boolean> primaryReads = new ArrayList<>();
+        when(bookService.getBookById(1L)).thenAnswer(invocation -> {
+            primaryReads.add(PrimaryReadScope.isActive());
+            return Optional.of(bookDto);
+        });
+        when(reviewService.getReviewsByBookId(1L)).thenReturn(Collections.emptyList());
+        when(ratingService.getRatingsByBookId(1L)).thenReturn(Collections.emptyList());
+        when(userService.getCurrentUser()).thenReturn(userDto);
+        when(statsService.getBookStats(1L)).thenReturn(bookStatsDto);
+        when(cacheValidatorService.getBookValidator(1L))
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"book-primary\"").build());
+        when(cacheValidatorService.getBookStatsValidator(1L))
+                .thenReturn(CacheValidatorDto.builder().etag("W/\"book-stats-primary\"").build());
+
+        mockMvc.perform(get("/books/1")).andExpect(content().string(containsString("Test Book")));
+        mockMvc.perform(get("/books/1")).andExpect(content().string(containsString("Test Book")));
+
+        // Pierwsze żądanie renderuje fragmenty do cache (baza główna), drugie korzysta z cache (replika)
+        assertEquals(List.of(true, false), primaryReads);
+    }
+
     @Test
     @WithMockUser
     void testBookDetails_NotFound() throws Exception {
@@ -176,15 +290,17 @@ class BookWebControllerTest {
         when(userService.getCurrentUser()).thenReturn(userDto);
         when(bookService.getUserShelves(1L)).thenReturn(Arrays.asList("Przeczytane"));
         when(bookService.getDefaultShelves()).thenReturn(Arrays.asList("Przeczytane", "Chcę przeczytać"));
-        when(bookService.getUserBooks(1L)).thenReturn(Arrays.asList(bookDto));
+        when(bookService.countUserBooks(1L)).thenReturn(3);
         when(bookService.getUserBooksByShelf(1L, "Przeczytane")).thenReturn(Arrays.asList(bookDto));
 
         mockMvc.perform(get("/my-books").param("shelf", "Przeczytane"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("my-books"))
-                .andExpect(model().attribute("currentShelf", "Przeczytane"));
+                .andExpect(model().attribute("currentShelf", "Przeczytane"))
+                .andExpect(model().attribute("totalBooksCount", 3));
 
         verify(bookService).getUserBooksByShelf(1L, "Przeczytane");
+        verify(bookService, never()).getUserBooks(1L);
     }
 
     @Test
@@ -192,7 +308,7 @@ class BookWebControllerTest {
     void testShelfBooksPage() throws Exception {
         when(userService.getCurrentUser()).thenReturn(userDto);
         when(bookService.getUserBooksByShelf(1L, "Przeczytane")).thenReturn(Arrays.asList(bookDto));
-        when(bookService.getUserBooks(1L)).thenReturn(Arrays.asList(bookDto));
+        when(bookService.countUserBooks(1L)).thenReturn(1);
         when(bookService.getUserShelves(1L)).thenReturn(Arrays.asList("Przeczytane"));
         when(bookService.getDefaultShelves()).thenReturn(Arrays.asList("Przeczytane"));
 
@@ -621,4 +737,13 @@ class BookWebControllerTest {
                 .andExpect(redirectedUrl("/books/1"))
                 .andExpect(flash().attributeExists("error"));
     }
+
+    private static BookCursor cursor(boolean large, BookDto... books) {
+        Iterator<BookDto> iterator = Arrays.asList(books).iterator();
+        BookCursor cursor = mock(BookCursor.class);
+        when(cursor.hasMoreThan(anyInt())).thenReturn(large);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
 }
@@ -0,0 +1,208 @@
+package com.booklovers.web.controller;
+
+import com.booklovers.api.config.MediaFileSender;
+import com.booklovers.api.config.MediaProperties;
+import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MediaController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import({MediaFileSender.class, MediaProperties.class})
+class MediaControllerTest {
+
+    private static final String HASH = "a".repeat(64);
+    private static final String FILENAME = HASH + ".png";
+    private static final String CONTENT = "0123456789";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    @MockBean
+    private ImageProcessingService imageProcessingService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = tempDir.resolve(FILENAME);
+        Files.writeString(file, CONTENT, StandardCharsets.UTF_8);
+        lenient().when(fileStorageService.getFileLocation(FILENAME, "avatars")).thenReturn(Optional.of(file));
+        lenient().when(fileStorageService.getFileLocation("missing.png", "avatars")).thenReturn(Optional.of(tempDir.resolve("missing.png")));
+        lenient().when(imageProcessingService.resolveVariant(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testGetMedia_ReturnsImmutableResponse() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    void testGetMedia_SizeSelectsVariant() throws Exception {
+        Path variant = tempDir.resolve(HASH + "-64.png");
+        Files.writeString(variant, "small", StandardCharsets.UTF_8);
+        when(imageProcessingService.resolveVariant(FILENAME, 48)).thenReturn(HASH + "-64.png");
+        when(fileStorageService.getFileLocation(HASH + "-64.png", "avatars")).thenReturn(Optional.of(variant));
+
+        mockMvc.perform(get("/media/avatars/" + FILENAME).param("size", "48"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("small"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "-64\""));
+    }
+
+    @Test
+    void testGetMedia_MissingVariantFallsBackToOriginal() throws Exception {
+        when(imageProcessingService.resolveVariant(FILENAME, 256)).thenReturn(HASH + "-256.png");
+        when(fileStorageService.getFileLocation(HASH + "-256.png", "avatars")).thenReturn(Optional.of(tempDir.resolve(HASH + "-256.png")));
+
+        mockMvc.perform(get("/media/avatars/" + FILENAME).param("size", "256"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testGetMedia_StorageWithoutLocalPath_NotFound() throws Exception {
+        when(fileStorageService.getFileLocation(FILENAME, "avatars")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/media/avatars/" + FILENAME))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetMedia_ObjectStorageRedirectsToPresignedUrl() throws Exception {
+        URI presigned = URI.create("https://s3.example.com/booklovers/avatars/aa/aa/" + HASH + "-64.png?X-Amz-Signature=abc");
+        when(imageProcessingService.resolveVariant(FILENAME, 48)).thenReturn(HASH + "-64.png");
+        when(fileStorageService.getDownloadUrl(HASH + "-64.png", "avatars")).thenReturn(Optional.of(presigned));
+        when(fileStorageService.exists(HASH + "-64.png", "avatars")).thenReturn(true);
+
+        mockMvc.perform(get("/media/avatars/" + FILENAME).param("size", "48"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, presigned.toString()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=1800, private"))
+                .andExpect(content().string(""));
+
+        verify(fileStorageService, never()).getFileLocation(anyString(), anyString());
+    }
+
+    @Test
+    void testGetMedia_ObjectStorageMissingVariantRedirectsToOriginal() throws Exception {
+        URI original = URI.create("https://s3.example.com/booklovers/avatars/aa/aa/" + FILENAME + "?X-Amz-Signature=def");
+        when(imageProcessingService.resolveVariant(FILENAME, 256)).thenReturn(HASH + "-256.png");
+        when(fileStorageService.getDownloadUrl(HASH + "-256.png", "avatars")).thenReturn(Optional.of(URI.create("https://s3.example.com/x")));
+        when(fileStorageService.exists(HASH + "-256.png", "avatars")).thenReturn(false);
+        when(fileStorageService.getDownloadUrl(FILENAME, "avatars")).thenReturn(Optional.of(original));
+
+        mockMvc.perform(get("/media/avatars/" + FILENAME).param("size", "256"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, original.toString()));
+    }
+
+    @Test
+    void testGetMedia_UsesTomcatSendfileWhenSupported() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME)
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string(""))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 2L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 6L));
+    }
+
+    @Test
+    void testGetMedia_IfNoneMatchReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME).header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetMedia_SingleRangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("2345"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "4"));
+    }
+
+    @Test
+    void testGetMedia_StaleIfRangeReturnsWholeFile() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME)
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testGetMedia_UnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/media/avatars/" + FILENAME).header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void testHeadMedia_NoBody() throws Exception {
+        mockMvc.perform(head("/media/avatars/" + FILENAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetMedia_MissingFile() throws Exception {
+        mockMvc.perform(get("/media/avatars/missing.png"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetMedia_RejectsUnknownSubdirectoryAndTraversal() throws Exception {
+        mockMvc.perform(get("/media/exports/" + FILENAME))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/media/avatars/..%2F..%2Fapplication.yaml"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/media/avatars/..hidden.png"))
+                .andExpect(status().isNotFound());
+
+        verify(fileStorageService, never()).getFileLocation(anyString(), org.mockito.ArgumentMatchers.eq("exports"));
+    }
+}
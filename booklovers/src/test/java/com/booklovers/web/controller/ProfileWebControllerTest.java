@@ -5,6 +5,7 @@ import com.booklovers.dto.UserStatsDto;
 import com.booklovers.exception.ResourceNotFoundException;
 import com.booklovers.service.export.ExportService;
 import com.booklovers.service.file.FileStorageService;
+import com.booklovers.service.image.ImageProcessingService;
 import com.booklovers.service.import_.ImportService;
 import com.booklovers.service.stats.StatsService;
 import com.booklovers.service.user.UserService;
@@ -53,6 +54,9 @@ class ProfileWebControllerTest {
     @MockBean
     private FileStorageService fileStorageService;
 
+    @MockBean
+    private ImageProcessingService imageProcessingService;
+
     private UserDto userDto;
     private UserStatsDto userStatsDto;
 
@@ -129,7 +133,7 @@ class ProfileWebControllerTest {
                 .build();
 
         when(userService.getCurrentUser()).thenReturn(currentUser);
-        when(fileStorageService.storeFile(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
+        when(imageProcessingService.storeImage(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
         when(userService.updateUser(any(UserDto.class))).thenReturn(userDto);
 
         MockMultipartFile avatarFile = new MockMultipartFile(
@@ -143,9 +147,9 @@ class ProfileWebControllerTest {
                 .andExpect(redirectedUrl("/profile"))
                 .andExpect(flash().attributeExists("success"));
 
-        verify(fileStorageService).storeFile(any(), eq("avatars"));
-        verify(fileStorageService).deleteFile(eq("old-avatar.jpg"), eq("avatars"));
-        verify(userService).updateUser(any(UserDto.class));
+        verify(imageProcessingService).storeImage(any(), eq("avatars"));
+        verify(userService).updateUser(argThat(dto -> "avatars/new-avatar.jpg".equals(dto.getAvatarUrl())));
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
@@ -158,7 +162,7 @@ class ProfileWebControllerTest {
                 .build();
 
         when(userService.getCurrentUser()).thenReturn(currentUser);
-        when(fileStorageService.storeFile(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
+        when(imageProcessingService.storeImage(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
         when(userService.updateUser(any(UserDto.class))).thenReturn(userDto);
 
         MockMultipartFile avatarFile = new MockMultipartFile(
@@ -172,14 +176,13 @@ class ProfileWebControllerTest {
                 .andExpect(redirectedUrl("/profile"))
                 .andExpect(flash().attributeExists("success"));
 
-        verify(fileStorageService).storeFile(any(), eq("avatars"));
-        verify(fileStorageService, never()).deleteFile(anyString(), anyString());
+        verify(imageProcessingService).storeImage(any(), eq("avatars"));
         verify(userService).updateUser(any(UserDto.class));
     }
 
     @Test
     @WithMockUser(username = "testuser")
-    void testUpdateProfile_WithNewAvatarFile_DeleteOldFileError() throws Exception {
+    void testUpdateProfile_WithNewAvatarFile_UpdateUserError() throws Exception {
         UserDto currentUser = UserDto.builder()
                 .id(1L)
                 .username("testuser")
@@ -187,9 +190,8 @@ class ProfileWebControllerTest {
                 .build();
 
         when(userService.getCurrentUser()).thenReturn(currentUser);
-        doThrow(new RuntimeException("Delete error")).when(fileStorageService).deleteFile(anyString(), anyString());
-        when(fileStorageService.storeFile(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
-        when(userService.updateUser(any(UserDto.class))).thenReturn(userDto);
+        when(imageProcessingService.storeImage(any(), eq("avatars"))).thenReturn("avatars/new-avatar.jpg");
+        when(userService.updateUser(any(UserDto.class))).thenThrow(new RuntimeException("Update error"));
 
         MockMultipartFile avatarFile = new MockMultipartFile(
                 "avatarFile", "new-avatar.jpg", "image/jpeg", "image content".getBytes());
@@ -200,10 +202,11 @@ class ProfileWebControllerTest {
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile"))
-                .andExpect(flash().attributeExists("success"));
+                .andExpect(flash().attributeExists("error"));
 
-        verify(fileStorageService).storeFile(any(), eq("avatars"));
-        verify(userService).updateUser(any(UserDto.class));
+        // Stare zdjęcie nadal używane; nowe bez referencji zostanie usunięte przez GC
+        verify(imageProcessingService).storeImage(any(), eq("avatars"));
+        verifyNoInteractions(fileStorageService);
     }
 
     @Test
@@ -225,8 +228,7 @@ class ProfileWebControllerTest {
                 .andExpect(redirectedUrl("/profile"))
                 .andExpect(flash().attributeExists("success"));
 
-        verify(fileStorageService, never()).storeFile(any(), anyString());
-        verify(fileStorageService, never()).deleteFile(anyString(), anyString());
+        verify(imageProcessingService, never()).storeImage(any(), anyString());
         verify(userService).updateUser(any(UserDto.class));
     }
 
@@ -708,7 +710,6 @@ class ProfileWebControllerTest {
                 .andExpect(redirectedUrl("/login?accountDeleted=true"))
                 .andExpect(flash().attributeExists("success"));
 
-        verify(userService).getCurrentUser();
         verify(userService).deleteCurrentUser();
     }
 
@@ -722,7 +723,6 @@ class ProfileWebControllerTest {
                 .build();
 
         when(userService.getCurrentUser()).thenReturn(currentUser);
-        doNothing().when(fileStorageService).deleteFile("avatar.jpg", "avatars");
         doNothing().when(userService).deleteCurrentUser();
 
         mockMvc.perform(post("/profile/delete")
@@ -731,8 +731,8 @@ class ProfileWebControllerTest {
                 .andExpect(redirectedUrl("/login?accountDeleted=true"))
                 .andExpect(flash().attributeExists("success"));
 
-        verify(fileStorageService).deleteFile("avatar.jpg", "avatars");
         verify(userService).deleteCurrentUser();
+        verifyNoInteractions(fileStorageService, imageProcessingService);
     }
 
     @Test
@@ -747,29 +747,6 @@ class ProfileWebControllerTest {
         when(userService.getCurrentUser()).thenReturn(currentUser);
         doNothing().when(userService).deleteCurrentUser();
 
-        mockMvc.perform(post("/profile/delete")
-                        .with(csrf()))
-                .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/login?accountDeleted=true"))
-                .andExpect(flash().attributeExists("success"));
-
-        verify(fileStorageService, never()).deleteFile(anyString(), anyString());
-        verify(userService).deleteCurrentUser();
-    }
-
-    @Test
-    @WithMockUser(username = "testuser")
-    void testDeleteAccount_DeleteAvatarError() throws Exception {
-        UserDto currentUser = UserDto.builder()
-                .id(1L)
-                .username("testuser")
-                .avatarUrl("avatars/avatar.jpg")
-                .build();
-
-        when(userService.getCurrentUser()).thenReturn(currentUser);
-        doThrow(new RuntimeException("Delete error")).when(fileStorageService).deleteFile(anyString(), anyString());
-        doNothing().when(userService).deleteCurrentUser();
-
         mockMvc.perform(post("/profile/delete")
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())